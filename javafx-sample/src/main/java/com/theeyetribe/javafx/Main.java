@@ -6,6 +6,7 @@ import com.theeyetribe.clientsdk.data.GazeData;
 import com.theeyetribe.clientsdk.data.Point2D;
 import com.theeyetribe.javafx.scenes.SceneController;
 import com.theeyetribe.javafx.utils.GazeFrameCache;
+import com.theeyetribe.javafx.utils.JavaFxGazePulse;
 import javafx.application.Application;
 import javafx.event.EventHandler;
 import javafx.fxml.FXMLLoader;
@@ -154,5 +155,8 @@ public class Main extends Application implements IGazeListener
     {
         // Update gaze cache as long as program runs
         GazeFrameCache.getInstance().update(gazeData);
+
+        // Hand frame to FX thread once cache reflects it
+        JavaFxGazePulse.getInstance().onGazeUpdate(gazeData);
     }
 }
@@ -88,24 +88,21 @@ public class SceneCalibrationController extends SceneController implements ICali
     }
 
     @Override
-    public void onGazeUpdate(GazeData gazeData)
+    public void onGazePulse(GazeData gazeData)
     {
-        Platform.runLater(() -> {
-
-            if (!mIsRecievingFrames)
+        if (!mIsRecievingFrames)
+        {
+            if(null != progress)
             {
-                if(null != progress)
-                {
-                    progress.setVisible(false);
+                progress.setVisible(false);
 
-                    mCalibPadding = innerRoot.getWidth() * .075f;
+                mCalibPadding = innerRoot.getWidth() * .075f;
 
-                    resetCalibration();
+                resetCalibration();
 
-                    mIsRecievingFrames = true;
-                }
+                mIsRecievingFrames = true;
             }
-        });
+        }
     }
 
     @Override
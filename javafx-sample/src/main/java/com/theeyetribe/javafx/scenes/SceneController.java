@@ -11,11 +11,11 @@ package com.theeyetribe.javafx.scenes;
 import com.theeyetribe.clientsdk.*;
 import com.theeyetribe.clientsdk.data.Point2D;
 import com.theeyetribe.javafx.Main;
+import com.theeyetribe.javafx.utils.IGazePulseListener;
 import com.theeyetribe.javafx.utils.JavaFxGazeUtils;
-import javafx.collections.ListChangeListener;
+import com.theeyetribe.javafx.utils.JavaFxListenerRegistry;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.scene.Node;
 import javafx.scene.control.ProgressIndicator;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
@@ -25,7 +25,7 @@ import java.util.ResourceBundle;
 /**
  * Base class for all scene controllers holding common methods
  */
-public abstract class SceneController implements IGazeListener, ITrackerStateListener, IScreenStateListener, IConnectionStateListener, ICalibrationResultListener
+public abstract class SceneController implements IGazePulseListener, ITrackerStateListener, IScreenStateListener, IConnectionStateListener, ICalibrationResultListener
 {
     @FXML
     protected ProgressIndicator progress;
@@ -44,7 +44,7 @@ public abstract class SceneController implements IGazeListener, ITrackerStateLis
     @FXML
     protected ResourceBundle bundle;
 
-    protected ListChangeListener<Node> childrenChanged;
+    protected JavaFxListenerRegistry listenerRegistry;
 
     protected boolean isInitialized;
 
@@ -56,51 +56,15 @@ public abstract class SceneController implements IGazeListener, ITrackerStateLis
     @FXML
     public void initialize()
     {
-        //We recursively attach listeners to currently attached childen
-        JavaFxGazeUtils.attachTETListenersRecursive(root);
-
-        //We make sure that children added/removed in the future automatically attaches/detaches gaze listeners
-        childrenChanged = (ListChangeListener.Change<? extends Node> change) -> {
-            while (change.next()) {
-                if (change.wasAdded()) {
-                    for (Node n : change.getAddedSubList()) {
-
-                        JavaFxGazeUtils.attachTETListenersRecursive(n);
-
-                        if(n instanceof Pane)
-                            ((Pane) n).getChildren().addListener(childrenChanged);
-                    }
-                } else if (change.wasRemoved()) {
-                    for (Node n : change.getRemoved()) {
-
-                        JavaFxGazeUtils.detachTETListenersRecursive(n);
-
-                        if(n instanceof Pane)
-                            ((Pane) n).getChildren().removeListener(childrenChanged);
-                    }
-                }
-            }
-        };
-        attachChangeListener(root, childrenChanged);
+        //Listeners of current children are attached, and children added/removed in the future attach/detach theirs
+        listenerRegistry = new JavaFxListenerRegistry();
+        listenerRegistry.attach(root);
 
         bundle = ResourceBundle.getBundle("Bundle");
 
         isInitialized = true;
     }
 
-    private void attachChangeListener(Node n, ListChangeListener<Node> changeListener)
-    {
-        if(null != n && n instanceof Pane)
-        {
-            ((Pane)n).getChildren().addListener(changeListener);
-
-            for (Node child : ((Pane)n).getChildren())
-            {
-                attachChangeListener(child, changeListener);
-            }
-        }
-    }
-
     public void onStart()
     {
         JavaFxGazeUtils.attachTETListeners(this);
@@ -109,6 +73,7 @@ public abstract class SceneController implements IGazeListener, ITrackerStateLis
     public void onStop()
     {
         JavaFxGazeUtils.detachTETListeners(this);
+        listenerRegistry.detach(root);
         root.getChildren().clear();
     };
 
@@ -15,7 +15,6 @@ import com.theeyetribe.clientsdk.data.Point2D;
 import com.theeyetribe.javafx.ui.CalibrationButton;
 import com.theeyetribe.javafx.utils.GazeFrameCache;
 import com.theeyetribe.javafx.utils.JavaFxCalibUtils;
-import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.layout.AnchorPane;
@@ -49,33 +48,30 @@ public class SceneEvaluationController extends SceneController
     }
 
     @Override
-    public void onGazeUpdate(GazeData gazeData)
+    public void onGazePulse(GazeData gazeData)
     {
-        Platform.runLater(() -> {
-
-            if (!mIsRecievingFrames)
+        if (!mIsRecievingFrames)
+        {
+            if(null != progress)
             {
-                if(null != progress)
-                {
-                    progress.setVisible(false);
+                progress.setVisible(false);
 
-                    initGazeButtons();
+                initGazeButtons();
 
-                    rating.setRating(JavaFxCalibUtils.getCalibRating(GazeManager.getInstance().getLastCalibrationResult()));
+                rating.setRating(JavaFxCalibUtils.getCalibRating(GazeManager.getInstance().getLastCalibrationResult()));
 
-                    mIsRecievingFrames = true;
-                }
+                mIsRecievingFrames = true;
             }
+        }
 
-            Point2D gaze = GazeFrameCache.getInstance().getLastSmoothedGazeCoordinates();
-            if (null != gaze) {
-                gazeIndicator.setVisible(true);
-                javafx.geometry.Point2D rootAnchor = getGazeIndicatorAnchor(gaze);
-                gazeIndicator.setX(rootAnchor.getX());
-                gazeIndicator.setY(rootAnchor.getY());
-            } else
-                gazeIndicator.setVisible(false);
-        });
+        Point2D gaze = GazeFrameCache.getInstance().getLastSmoothedGazeCoordinates();
+        if (null != gaze) {
+            gazeIndicator.setVisible(true);
+            javafx.geometry.Point2D rootAnchor = getGazeIndicatorAnchor(gaze);
+            gazeIndicator.setX(rootAnchor.getX());
+            gazeIndicator.setY(rootAnchor.getY());
+        } else
+            gazeIndicator.setVisible(false);
     }
 
 
@@ -9,11 +9,12 @@
 package com.theeyetribe.javafx.scenes;
 
 import com.theeyetribe.clientsdk.GazeManager;
+import com.theeyetribe.clientsdk.IGazeListener;
 import com.theeyetribe.clientsdk.data.CalibrationResult;
 import com.theeyetribe.clientsdk.data.GazeData;
 import com.theeyetribe.clientsdk.data.Point2D;
+import com.theeyetribe.clientsdk.utils.FrameRateEstimator;
 import com.theeyetribe.clientsdk.utils.GazeUtils;
-import com.theeyetribe.javafx.utils.FrameRateGazeDataDeque;
 import com.theeyetribe.javafx.utils.GazeFrameCache;
 import com.theeyetribe.javafx.utils.JavaFxCalibUtils;
 import javafx.application.Platform;
@@ -28,7 +29,7 @@ import org.controlsfx.control.Rating;
 /**
  * Scene controller associated to the main scene
  */
-public class SceneMainController extends SceneController
+public class SceneMainController extends SceneController implements IGazeListener
 {
     private final static long FRAME_CACHE_SIZE = 5000; //5 sec
 
@@ -56,7 +57,7 @@ public class SceneMainController extends SceneController
     @FXML
     private Rating rating;
 
-    private FrameRateGazeDataDeque mFpsCache;
+    private FrameRateEstimator mFpsEstimator;
     private int fpsUpdateCycle = 10;
     private int fpsUpdateCount = 0;
 
@@ -72,7 +73,7 @@ public class SceneMainController extends SceneController
     {
         super.initialize();
 
-        mFpsCache = new FrameRateGazeDataDeque(FRAME_CACHE_SIZE);
+        mFpsEstimator = new FrameRateEstimator(FRAME_CACHE_SIZE, FrameRateEstimator.DEFAULT_CAPACITY);
     }
 
     @Override
@@ -86,66 +87,67 @@ public class SceneMainController extends SceneController
     @Override
     public void onGazeUpdate(GazeData gazeData)
     {
-        Platform.runLater(() -> {
+        // estimator needs every frame, not just those reaching a pulse
+        mFpsEstimator.onGazeUpdate(gazeData);
+    }
 
-            if (!mIsRecievingFrames)
-            {
-                progress.setVisible(false);
+    @Override
+    public void onGazePulse(GazeData gazeData)
+    {
+        if (!mIsRecievingFrames)
+        {
+            progress.setVisible(false);
 
-                updateState();
+            updateState();
 
-                mIsRecievingFrames = true;
-            }
+            mIsRecievingFrames = true;
+        }
 
-            double angle = GazeFrameCache.getInstance().getLastEyesAngle();
-            double scale = 1 - GazeFrameCache.getInstance().getLastUserPosition().z;
+        GazeFrameCache.Snapshot cache = GazeFrameCache.getInstance().getSnapshot();
+        double angle = cache.getEyesAngle();
+        double scale = 1 - cache.getUserPositionZ();
 
-            if (null != GazeFrameCache.getInstance().getLastLeftEye())
-            {
-                updateEye(
-                        root,
-                        eyeLeft,
-                        GazeFrameCache.getInstance().getLastLeftEye(),
-                        angle,
-                        scale
-                );
-
-                eyeLeft.setVisible(true);
-            } else
-                eyeLeft.setVisible(false);
-
-            if (null != GazeFrameCache.getInstance().getLastRightEye())
-            {
-                updateEye(
-                        root,
-                        eyeRight,
-                        GazeFrameCache.getInstance().getLastRightEye(),
-                        angle,
-                        scale
-                );
-
-                eyeRight.setVisible(true);
-
-            } else
-                eyeRight.setVisible(false);
-
-            Point2D gaze = GazeFrameCache.getInstance().getLastSmoothedGazeCoordinates();
-            if (null != gaze) {
-                gazeIndicator.setVisible(true);
-                javafx.geometry.Point2D rootAnchor = getGazeIndicatorAnchor(gaze);
-                gazeIndicator.setX(rootAnchor.getX());
-                gazeIndicator.setY(rootAnchor.getY());
-            } else
-                gazeIndicator.setVisible(false);
-
-            //remove deque elements until condition fulfilled
-            while (!mFpsCache.offerFirst(gazeData))
-                mFpsCache.pollLast();
-
-            if ((++fpsUpdateCount % fpsUpdateCycle) == 0) {
-                fpsLabel.setText(bundle.getString("label.fps") + " " + String.format("%.2f", mFpsCache.getAvgFramesPerSecond()));
-            }
-        });
+        if (null != cache.getLeftEye())
+        {
+            updateEye(
+                    root,
+                    eyeLeft,
+                    cache.getLeftEye(),
+                    angle,
+                    scale
+            );
+
+            eyeLeft.setVisible(true);
+        } else
+            eyeLeft.setVisible(false);
+
+        if (null != cache.getRightEye())
+        {
+            updateEye(
+                    root,
+                    eyeRight,
+                    cache.getRightEye(),
+                    angle,
+                    scale
+            );
+
+            eyeRight.setVisible(true);
+
+        } else
+            eyeRight.setVisible(false);
+
+        Point2D gaze = cache.getSmoothedGazeCoordinates();
+        if (null != gaze) {
+            gazeIndicator.setVisible(true);
+            javafx.geometry.Point2D rootAnchor = getGazeIndicatorAnchor(gaze);
+            gazeIndicator.setX(rootAnchor.getX());
+            gazeIndicator.setY(rootAnchor.getY());
+        } else
+            gazeIndicator.setVisible(false);
+
+        if ((++fpsUpdateCount % fpsUpdateCycle) == 0) {
+            fpsLabel.setText(bundle.getString("label.fps") + " " + String.format("%.2f", mFpsEstimator.getFramesPerSecond()));
+        }
     }
 
     private void updateEye(Pane root, ImageView eyeImageView, GazeData.Eye eye, double angle, double scale)
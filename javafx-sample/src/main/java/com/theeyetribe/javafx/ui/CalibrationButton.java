@@ -9,7 +9,6 @@
 package com.theeyetribe.javafx.ui;
 
 import com.theeyetribe.clientsdk.data.GazeData;
-import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.Group;
 import javafx.scene.Node;
@@ -63,12 +62,9 @@ public class CalibrationButton extends GazePane
     }
 
     @Override
-    public void onGazeUpdate(GazeData gazeData) {
-        Platform.runLater(() ->
-        {
-            CalibrationButton.super.onGazeUpdate(gazeData);
+    public void onGazePulse(GazeData gazeData) {
+        super.onGazePulse(gazeData);
 
-            mCircle.setFill(baseColor.interpolate(hitColor, getHeatFactor()));
-        });
+        mCircle.setFill(baseColor.interpolate(hitColor, getHeatFactor()));
     }
 }
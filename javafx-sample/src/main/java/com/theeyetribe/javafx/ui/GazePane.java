@@ -8,12 +8,11 @@
 
 package com.theeyetribe.javafx.ui;
 
-import com.theeyetribe.clientsdk.IGazeListener;
 import com.theeyetribe.clientsdk.data.GazeData;
 import com.theeyetribe.clientsdk.data.Point2D;
 import com.theeyetribe.javafx.utils.GazeFrameCache;
+import com.theeyetribe.javafx.utils.IGazePulseListener;
 import com.theeyetribe.javafx.utils.JavaFxGazeUtils;
-import javafx.application.Platform;
 import javafx.scene.Node;
 import javafx.scene.layout.StackPane;
 
@@ -22,7 +21,7 @@ import javafx.scene.layout.StackPane;
  * can use the heat factor to gradually change color and more based on how long the component has been
  * gazed upon.
  */
-public class GazePane extends StackPane implements IGazeListener
+public class GazePane extends StackPane implements IGazePulseListener
 {
     private static final long DEFAULT_COOLDOWN_PERIOD_MILLIS = 1000;
     private long mCooldownPeriod = DEFAULT_COOLDOWN_PERIOD_MILLIS;
@@ -31,6 +30,8 @@ public class GazePane extends StackPane implements IGazeListener
 
     protected boolean mIsGazeColliding;
 
+    private long mLastTimeStamp = -1;
+
     public GazePane() {
         super();
     }
@@ -41,34 +42,35 @@ public class GazePane extends StackPane implements IGazeListener
     }
 
     @Override
-    public void onGazeUpdate(GazeData gazeData) {
-        Platform.runLater(() -> {
-            Point2D gaze = GazeFrameCache.getInstance().getLastSmoothedGazeCoordinates();
-            final long lastFrameDelta = GazeFrameCache.getInstance().getLastDelta();
+    public void onGazePulse(GazeData gazeData) {
+        Point2D gaze = GazeFrameCache.getInstance().getLastSmoothedGazeCoordinates();
+
+        // frames may be skipped between pulses, hence delta since last pulse
+        final long lastFrameDelta = mLastTimeStamp < 0 ? 0 : Math.max(0, gazeData.timeStamp - mLastTimeStamp);
+        mLastTimeStamp = gazeData.timeStamp;
 
-            mIsGazeColliding = false;
+        mIsGazeColliding = false;
 
-            // check bounds
-            if (null != gaze && checkCollision(gaze))
-            {
+        // check bounds
+        if (null != gaze && checkCollision(gaze))
+        {
 
-                // heating up, capping if too high
-                if (mCooldownValue + lastFrameDelta < mCooldownPeriod)
-                    mCooldownValue += lastFrameDelta;
-                else
-                    mCooldownValue = mCooldownPeriod;
+            // heating up, capping if too high
+            if (mCooldownValue + lastFrameDelta < mCooldownPeriod)
+                mCooldownValue += lastFrameDelta;
+            else
+                mCooldownValue = mCooldownPeriod;
 
-                mIsGazeColliding = true;
-            }
+            mIsGazeColliding = true;
+        }
+        else
+        {
+            // cooling down
+            if (mCooldownValue - lastFrameDelta > 0)
+                mCooldownValue -= lastFrameDelta;
             else
-            {
-                // cooling down
-                if (mCooldownValue - lastFrameDelta > 0)
-                    mCooldownValue -= lastFrameDelta;
-                else
-                    mCooldownValue = 0;
-            }
-        });
+                mCooldownValue = 0;
+        }
     }
 
     protected boolean checkCollision(final Point2D gaze)
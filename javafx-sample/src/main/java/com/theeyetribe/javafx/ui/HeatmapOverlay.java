@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.javafx.ui;
+
+import com.theeyetribe.clientsdk.GazeManager;
+import com.theeyetribe.clientsdk.IGazeListener;
+import com.theeyetribe.clientsdk.data.GazeData;
+import com.theeyetribe.clientsdk.utils.GazeHeatmap;
+import com.theeyetribe.javafx.utils.IGazePulseListener;
+import javafx.geometry.Point2D;
+import javafx.scene.Parent;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Node that shows a live {@link GazeHeatmap} of all gaze on screen.
+ * <p>
+ * Every frame is accumulated into the heatmap, while rendering happens at most once per pulse. The heatmap is drawn
+ * into an image of one pixel per grid cell through a color lookup table, redrawing only the cells touched by gaze
+ * since the previous pulse, and the image is scaled to cover the screen when composited. The node positions itself
+ * over the screen area in its parent, which should span the window, and ignores mouse input.
+ * <pre>
+ * HeatmapOverlay overlay = new HeatmapOverlay();
+ * overlay.getHeatmap().setHalfLifeMillis(5000);
+ * root.getChildren().add(overlay);
+ * </pre>
+ */
+public class HeatmapOverlay extends ImageView implements IGazeListener, IGazePulseListener
+{
+    // density headroom given when rescaling colors, avoids redrawing all cells on every new peak
+    private static final float DENSITY_HEADROOM = 1.5f;
+
+    private final GazeHeatmap mHeatmap;
+    private final int mScreenWidth;
+    private final int mScreenHeight;
+
+    private final WritableImage mImage;
+    private final int[] mArgb;
+    private final int[] mColorMap;
+    private final int[] mRegion = new int[4];
+
+    private float mMaxDensity = Float.MIN_NORMAL;
+    private boolean mIsAutoScaling = true;
+
+    public HeatmapOverlay()
+    {
+        this(GazeManager.getInstance().getScreenResolutionWidth(),
+                GazeManager.getInstance().getScreenResolutionHeight());
+    }
+
+    /**
+     * @param screenWidth width in pixels of screen area covered
+     * @param screenHeight height in pixels of screen area covered
+     */
+    public HeatmapOverlay(int screenWidth, int screenHeight)
+    {
+        this(new GazeHeatmap(screenWidth, screenHeight), screenWidth, screenHeight);
+    }
+
+    /**
+     * @param heatmap heatmap to accumulate gaze into and render
+     * @param screenWidth width in pixels of screen area covered by heatmap
+     * @param screenHeight height in pixels of screen area covered by heatmap
+     */
+    public HeatmapOverlay(GazeHeatmap heatmap, int screenWidth, int screenHeight)
+    {
+        if (null == heatmap)
+            throw new IllegalArgumentException("GazeHeatmap cannot be null!");
+
+        mHeatmap = heatmap;
+        mScreenWidth = screenWidth;
+        mScreenHeight = screenHeight;
+
+        mImage = new WritableImage(heatmap.getWidth(), heatmap.getHeight());
+        mArgb = new int[heatmap.getWidth() * heatmap.getHeight()];
+        mColorMap = GazeHeatmap.createColorMap();
+
+        setImage(mImage);
+        setSmooth(true);
+        setManaged(false);
+        setMouseTransparent(true);
+    }
+
+    public GazeHeatmap getHeatmap()
+    {
+        return mHeatmap;
+    }
+
+    /**
+     * Sets the density shown in the last color of the color map. By default, this scales up with the highest density
+     * seen.
+     *
+     * @param maxDensity density mapped to last color, 0 to scale automatically
+     */
+    public void setMaxDensity(float maxDensity)
+    {
+        mIsAutoScaling = maxDensity <= 0;
+        mMaxDensity = mIsAutoScaling ? Float.MIN_NORMAL : maxDensity;
+        mHeatmap.invalidate();
+    }
+
+    public void clear()
+    {
+        mHeatmap.clear();
+
+        if (mIsAutoScaling)
+            mMaxDensity = Float.MIN_NORMAL;
+    }
+
+    @Override
+    public void onGazeUpdate(GazeData gazeData)
+    {
+        mHeatmap.onGazeUpdate(gazeData);
+    }
+
+    @Override
+    public void onGazePulse(GazeData gazeData)
+    {
+        cover();
+
+        float max = mHeatmap.snapshotChanged(mArgb, mColorMap, mMaxDensity, mRegion);
+        if (max < 0)
+            return;
+
+        if (mIsAutoScaling && max > mMaxDensity)
+        {
+            // colors of unchanged cells depend on scale too
+            mMaxDensity = max * DENSITY_HEADROOM;
+            mHeatmap.invalidate();
+            mHeatmap.snapshotChanged(mArgb, mColorMap, mMaxDensity, mRegion);
+        }
+
+        mImage.getPixelWriter().setPixels(mRegion[0], mRegion[1], mRegion[2], mRegion[3],
+                PixelFormat.getIntArgbInstance(), mArgb, mRegion[1] * mHeatmap.getWidth() + mRegion[0],
+                mHeatmap.getWidth());
+    }
+
+    private void cover()
+    {
+        Parent parent = getParent();
+        if (null == parent)
+            return;
+
+        Point2D topLeft = parent.screenToLocal(0d, 0d);
+        Point2D bottomRight = parent.screenToLocal(mScreenWidth, mScreenHeight);
+        if (null == topLeft || null == bottomRight)
+            return;
+
+        // grid may extend beyond screen by part of a cell
+        double scaleX = (bottomRight.getX() - topLeft.getX()) / mScreenWidth;
+        double scaleY = (bottomRight.getY() - topLeft.getY()) / mScreenHeight;
+        int cellSize = mHeatmap.getCellSize();
+
+        relocate(topLeft.getX(), topLeft.getY());
+        setFitWidth(mHeatmap.getWidth() * cellSize * scaleX);
+        setFitHeight(mHeatmap.getHeight() * cellSize * scaleY);
+    }
+}
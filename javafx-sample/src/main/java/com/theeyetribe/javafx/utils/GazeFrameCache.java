@@ -8,18 +8,15 @@
 
 package com.theeyetribe.javafx.utils;
 
-import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
 import com.theeyetribe.clientsdk.GazeManager;
+import com.theeyetribe.clientsdk.TrackerStatus;
 import com.theeyetribe.clientsdk.data.GazeData;
 import com.theeyetribe.clientsdk.data.GazeData.Eye;
 import com.theeyetribe.clientsdk.data.Point2D;
 import com.theeyetribe.clientsdk.data.Point3D;
-import com.theeyetribe.clientsdk.utils.GazeUtils;
 
 import javax.annotation.Nonnull;
-import java.util.Iterator;
 
 /**
  * Utility class that maintains a run-time cache of GazeData frames.
@@ -28,38 +25,169 @@ import java.util.Iterator;
  * <p/>
  * Use this class to avoid the 'glitch' effect of occasional poor tracking in the
  * data stream.
+ * <p/>
+ * The most recent frame of each kind, e.g. with both eyes or with gaze coordinates, is tracked as frames arrive, so
+ * each update takes constant time. Updates are serialized as gaze listeners may be called from several pool threads,
+ * while results are published as an immutable {@link Snapshot} that readers such as the FX thread access without
+ * locking. Use {@link #getSnapshot()} to read several values consistently from the same frame.
  */
 public class GazeFrameCache
 {
     public final static int DEFAULT_CACHE_TIME_FRAME_MILLIS = 500;
     private final static int NO_TRACKING_MASK = GazeData.STATE_TRACKING_FAIL | GazeData.STATE_TRACKING_LOST;
+    // highest frame rate of the EyeTribe Server, bounding the number of frames within the time limit
+    private final static int MAX_FRAMES_PER_SECOND = 60;
+
+    /**
+     * Valid gaze data as of a single frame
+     */
+    public static final class Snapshot
+    {
+        private final long mFrameDelta;
+        private final Point2D mRawGazeCoords;
+        private final Point2D mSmoothedGazeCoords;
+        private final Eye mLeftEye;
+        private final Eye mRightEye;
+        private final float mUserPosX;
+        private final float mUserPosY;
+        private final float mUserPosZ;
+        private final double mEyeAngle;
+        private final long mUserPosTimeStamp;
+
+        private Snapshot(long frameDelta, Point2D rawGazeCoords, Point2D smoothedGazeCoords, Eye leftEye,
+                         Eye rightEye, float userPosX, float userPosY, float userPosZ, double eyeAngle,
+                         long userPosTimeStamp)
+        {
+            mFrameDelta = frameDelta;
+            mRawGazeCoords = rawGazeCoords;
+            mSmoothedGazeCoords = smoothedGazeCoords;
+            mLeftEye = leftEye;
+            mRightEye = rightEye;
+            mUserPosX = userPosX;
+            mUserPosY = userPosY;
+            mUserPosZ = userPosZ;
+            mEyeAngle = eyeAngle;
+            mUserPosTimeStamp = userPosTimeStamp;
+        }
+
+        /**
+         * Position of user in normalized right-handed 3D space with respect to device. Approximated from position of eyes.
+         * Allocates a new point on every call, use the per axis getters when reading once per frame.
+         *
+         * @return Normalized 3d position
+         */
+        public Point3D getUserPosition()
+        {
+            return new Point3D(mUserPosX, mUserPosY, mUserPosZ);
+        }
+
+        public float getUserPositionX()
+        {
+            return mUserPosX;
+        }
+
+        public float getUserPositionY()
+        {
+            return mUserPosY;
+        }
+
+        public float getUserPositionZ()
+        {
+            return mUserPosZ;
+        }
+
+        public Eye getLeftEye()
+        {
+            return mLeftEye;
+        }
+
+        public Eye getRightEye()
+        {
+            return mRightEye;
+        }
+
+        public double getEyesAngle()
+        {
+            return mEyeAngle;
+        }
+
+        public Point2D getRawGazeCoordinates()
+        {
+            return mRawGazeCoords;
+        }
+
+        public Point2D getSmoothedGazeCoordinates()
+        {
+            return mSmoothedGazeCoords;
+        }
+
+        public long getDelta()
+        {
+            return mFrameDelta;
+        }
+
+        public long getUserPosTimeStamp()
+        {
+            return mUserPosTimeStamp;
+        }
+    }
 
     private float mMinEyesDistance = 0.1f;
     private float mMaxEyesDistance = 0.4f;
 
-    protected GazeDataDeque mFrames;
+    /**
+     * Ring buffer of recent frames, primitive time stamps kept alongside for windowing. Replaced as a whole when the
+     * time limit changes, so readers always see a position matching the arrays.
+     */
+    private static final class Ring
+    {
+        private final GazeData[] mFrames;
+        private final long[] mTimeStamps;
+        private volatile int mHead;
+        private volatile int mCount;
 
-    protected Eye mLastLeftEye;
-    protected Eye mLastRightEye;
+        private Ring(int capacity)
+        {
+            mFrames = new GazeData[capacity];
+            mTimeStamps = new long[capacity];
+        }
 
-    protected Point2D mLastRawGazeCoords = new Point2D();
-    protected Point2D mLastSmoothedGazeCoords = new Point2D();
+        private void add(GazeData frame)
+        {
+            mFrames[mHead] = frame;
+            mTimeStamps[mHead] = frame.timeStamp;
+            mHead = (mHead + 1) % mFrames.length;
+            mCount = Math.min(mCount + 1, mFrames.length);
+        }
 
-    protected Point3D mLastUserPosition = new Point3D();
+        private long getLatestTimeStamp()
+        {
+            return mTimeStamps[(mHead + mFrames.length - 1) % mFrames.length];
+        }
+    }
+
+    protected volatile Snapshot mSnapshot;
+    protected volatile long mTimeLimit;
 
-    protected double mLastEyeAngle;
+    private volatile Ring mRing;
 
-    protected long mUserPosTimeStamp = -1;
+    // most recent valid frame of each kind
+    private GazeData mBothEyesFrame;
+    private GazeData mLeftEyeFrame;
+    private GazeData mRightEyeFrame;
+    private GazeData mGazeFrame;
 
-    protected long mFrameTimeStamp = System.currentTimeMillis();
-    protected long mFrameDelta = 50; //default value, 30 fps
+    private long mFrameTimeStamp = System.currentTimeMillis();
 
-    protected Predicate<GazeData> mValidFramePredicate;
-    protected boolean mShouldUpdate;
+    // screen resolution as of tracker status revision
+    private long mStatusRevision = -1;
+    private int mScreenWidth;
+    private int mScreenHeight;
 
     //internals
-    private Point2D mLastEyesVecHalf = new Point2D(.2f,0f);
-    private float mLastEyeDistance = (mMaxEyesDistance - mMinEyesDistance) / mMaxEyesDistance;
+    private float mLastEyesVecHalfX = .2f;
+    private float mLastEyesVecHalfY = 0f;
+    private float mLastEyeDistance;
 
     public static GazeFrameCache getInstance()
     {
@@ -73,148 +201,165 @@ public class GazeFrameCache
 
     private GazeFrameCache(int timeLimit)
     {
-        mFrames = new GazeDataDeque(timeLimit);
-        mValidFramePredicate = new ValidFrame();
+        mTimeLimit = timeLimit;
+        mRing = new Ring(getCapacity(timeLimit));
 
         //init user distance values
-        mLastEyesVecHalf = new Point2D(.2f, 0f);
         mLastEyeDistance = 1f - ((mMinEyesDistance + ((mMaxEyesDistance - mMinEyesDistance) * .5f)) / mMaxEyesDistance);
-        mLastUserPosition = new Point3D(GazeManager.getInstance().getScreenResolutionWidth() >> 1, GazeManager.getInstance().getScreenResolutionHeight() >> 1, mLastEyeDistance);
+
+        updateScreen();
+
+        mSnapshot = new Snapshot(50, null, null, null, null,
+                mScreenWidth >> 1, mScreenHeight >> 1, mLastEyeDistance, 0d, -1);
     }
 
-    public void setTimeLimit(int timeLimit)
+    /**
+     * Sets the time frames are cached for. The cache is resized to hold all frames within the limit at the highest
+     * frame rate, keeping the most recent frames.
+     *
+     * @param timeLimit time in milliseconds
+     */
+    public synchronized void setTimeLimit(int timeLimit)
+    {
+        if (timeLimit < 0)
+            throw new IllegalArgumentException("Time limit cannot be negative!");
+
+        Ring ring = mRing;
+        Ring resized = new Ring(getCapacity(timeLimit));
+
+        int count = Math.min(ring.mCount, resized.mFrames.length);
+        for (int i = count; i > 0; --i)
+            resized.add(ring.mFrames[(ring.mHead - i + ring.mFrames.length) % ring.mFrames.length]);
+
+        mRing = resized;
+        mTimeLimit = timeLimit;
+    }
+
+    private static int getCapacity(int timeLimit)
+    {
+        // frames at both ends of the limit are included
+        return (int) ((long) timeLimit * MAX_FRAMES_PER_SECOND / 1000) + 2;
+    }
+
+    private void updateScreen()
     {
-        mFrames.setTimeLimit(timeLimit);
+        TrackerStatus status = GazeManager.getInstance().getTrackerStatus();
+
+        if (status.getRevision() != mStatusRevision)
+        {
+            mStatusRevision = status.getRevision();
+            mScreenWidth = status.getScreenResolutionWidth();
+            mScreenHeight = status.getScreenResolutionHeight();
+        }
     }
 
     public synchronized void update(@Nonnull GazeData frame)
     {
-        //only update if not contained already
-        if(mFrames.contains(frame))
+        //only update if not contained already or older than latest frame
+        Ring ring = mRing;
+        if (ring.mCount > 0 && frame.timeStamp <= ring.getLatestTimeStamp())
             return;
 
         //set delta based on continuous stream and not valid frames only
         long now = System.currentTimeMillis();
-        mFrameDelta = now - mFrameTimeStamp;
+        long frameDelta = now - mFrameTimeStamp;
         mFrameTimeStamp = now;
 
-        //remove deque elements until condition fulfilled
-        while(!mFrames.offerFirst(frame))
-            mFrames.pollLast();
-
-        // update valid gazedata based on store
-        Eye right = null, left = null;
-        Point2D gazeCoords = null;
-        Point2D gazeCoordsSmooth = null;
-        Point2D userPos = null;
-        double userDist = 0f;
-        Point2D eyeDistVecHalf = null;
-        GazeData gd;
-        Iterable<GazeData> valid = Iterables.filter(mFrames, mValidFramePredicate);
-        Iterator<GazeData> iter = valid.iterator();
-
-        while(iter.hasNext())
+        ring.add(frame);
+
+        // track most recent valid frames, expiring those outside time limit
+        if ((frame.state & NO_TRACKING_MASK) == 0)
         {
-            gd = iter.next();
-
-            if (null == userPos &&
-                    !gd.leftEye.pupilCenterCoordinates.equals(Point2D.ZERO) &&
-                    !gd.rightEye.pupilCenterCoordinates.equals(Point2D.ZERO))
-            {
-                userPos = gd.leftEye.pupilCenterCoordinates.add(gd.rightEye.pupilCenterCoordinates).divide(2);
-                eyeDistVecHalf = gd.rightEye.pupilCenterCoordinates.subtract(gd.leftEye.pupilCenterCoordinates).divide(2);
-                userDist = GazeUtils.getDistancePoint2D(gd.leftEye.pupilCenterCoordinates, gd.rightEye.pupilCenterCoordinates);
-
-                left = gd.leftEye;
-                right = gd.rightEye;
-            }
-            else if (null == userPos && left == null && !gd.leftEye.pupilCenterCoordinates.equals(Point2D.ZERO))
-            {
-                left = gd.leftEye;
-            }
-            else if (null == userPos && right == null && !gd.rightEye.pupilCenterCoordinates.equals(Point2D.ZERO))
-            {
-                right = gd.rightEye;
-            }
-
-            // if gaze coordinates available, cache both raw and smoothed
-            if (null == gazeCoords && !gd.rawCoordinates.equals(Point2D.ZERO))
-            {
-                gazeCoords = gd.rawCoordinates;
-                gazeCoordsSmooth = gd.smoothedCoordinates;
-            }
-
-            // break loop if valid values found
-            if (null != userPos && null != gazeCoords)
-                break;
+            boolean hasLeft = hasPupil(frame.leftEye);
+            boolean hasRight = hasPupil(frame.rightEye);
+
+            if (hasLeft && hasRight)
+                mBothEyesFrame = frame;
+            if (hasLeft)
+                mLeftEyeFrame = frame;
+            if (hasRight)
+                mRightEyeFrame = frame;
+            if (!isZero(frame.rawCoordinates))
+                mGazeFrame = frame;
         }
 
-        mLastRawGazeCoords = gazeCoords;
-        mLastSmoothedGazeCoords = gazeCoordsSmooth;
+        long oldest = frame.timeStamp - mTimeLimit;
+        mBothEyesFrame = expire(mBothEyesFrame, oldest);
+        mLeftEyeFrame = expire(mLeftEyeFrame, oldest);
+        mRightEyeFrame = expire(mRightEyeFrame, oldest);
+        mGazeFrame = expire(mGazeFrame, oldest);
 
-        if(null != eyeDistVecHalf && !mLastEyesVecHalf.equals(eyeDistVecHalf))
-            mLastEyesVecHalf = eyeDistVecHalf;
+        Snapshot last = mSnapshot;
+        Eye left = null, right = null;
+        float userPosX = last.mUserPosX;
+        float userPosY = last.mUserPosY;
+        double eyeAngle = last.mEyeAngle;
+        long userPosTimeStamp = last.mUserPosTimeStamp;
 
         //Update user position values if needed data is valid
-        if (null != userPos)
+        if (null != mBothEyesFrame)
         {
-            mLastLeftEye = left;
-            mLastRightEye = right;
+            left = mBothEyesFrame.leftEye;
+            right = mBothEyesFrame.rightEye;
+
+            float dx = right.pupilCenterCoordinates.x - left.pupilCenterCoordinates.x;
+            float dy = right.pupilCenterCoordinates.y - left.pupilCenterCoordinates.y;
+            float userDist = (float) Math.sqrt(dx * dx + dy * dy);
+
+            mLastEyesVecHalfX = dx * .5f;
+            mLastEyesVecHalfY = dy * .5f;
 
             //update 'depth' measure
             if (userDist < mMinEyesDistance)
-                mMinEyesDistance = (float)userDist;
+                mMinEyesDistance = userDist;
 
             if (userDist > mMaxEyesDistance)
-                mMaxEyesDistance = (float)userDist;
+                mMaxEyesDistance = userDist;
 
-            mLastEyeDistance = 1f - ((float)userDist / mMaxEyesDistance);
+            mLastEyeDistance = 1f - (userDist / mMaxEyesDistance);
 
-            //update user position
-            mLastUserPosition = new Point3D(userPos.x, userPos.y, mLastEyeDistance);
-
-            //map to normalized 3D space
-            mLastUserPosition.x = (mLastUserPosition.x * 2) - 1;
-            mLastUserPosition.y = (mLastUserPosition.y * 2) - 1;
-
-            mUserPosTimeStamp = now;
+            userPosX = toUserPosition(left.pupilCenterCoordinates.x + mLastEyesVecHalfX);
+            userPosY = toUserPosition(left.pupilCenterCoordinates.y + mLastEyesVecHalfY);
+            userPosTimeStamp = now;
 
             //update angle
-            double dy = mLastRightEye.pupilCenterCoordinates.y - mLastLeftEye.pupilCenterCoordinates.y;
-            double dx = mLastRightEye.pupilCenterCoordinates.x - mLastLeftEye.pupilCenterCoordinates.x;
-            mLastEyeAngle = ((180 / Math.PI * Math.atan2(GazeManager.getInstance().getScreenResolutionHeight() * dy, GazeManager.getInstance().getScreenResolutionWidth() * dx)));
+            updateScreen();
+            eyeAngle = 180 / Math.PI * Math.atan2(mScreenHeight * (double) dy, mScreenWidth * (double) dx);
         }
-        else if (null != left && null != left.pupilCenterCoordinates)
+        else if (null != mLeftEyeFrame)
         {
-            mLastLeftEye = left;
-            mLastRightEye = null;
-            Point2D newPos = mLastLeftEye.pupilCenterCoordinates.add(mLastEyesVecHalf);
-            mLastUserPosition = new Point3D(newPos.x, newPos.y, mLastEyeDistance);
-
-            //map to normalized 3D space
-            mLastUserPosition.x = (mLastUserPosition.x * 2) - 1;
-            mLastUserPosition.y = (mLastUserPosition.y * 2) - 1;
-
-            mUserPosTimeStamp = now;
+            left = mLeftEyeFrame.leftEye;
+            userPosX = toUserPosition(left.pupilCenterCoordinates.x + mLastEyesVecHalfX);
+            userPosY = toUserPosition(left.pupilCenterCoordinates.y + mLastEyesVecHalfY);
+            userPosTimeStamp = now;
         }
-        else if (null != right && null != right.pupilCenterCoordinates)
+        else if (null != mRightEyeFrame)
         {
-            mLastRightEye = right;
-            mLastLeftEye = null;
-            Point2D newPos = mLastRightEye.pupilCenterCoordinates.subtract(mLastEyesVecHalf);
-            mLastUserPosition = new Point3D(newPos.x, newPos.y, mLastEyeDistance);
+            right = mRightEyeFrame.rightEye;
+            userPosX = toUserPosition(right.pupilCenterCoordinates.x - mLastEyesVecHalfX);
+            userPosY = toUserPosition(right.pupilCenterCoordinates.y - mLastEyesVecHalfY);
+            userPosTimeStamp = now;
+        }
 
-            //map to normalized 3D space
-            mLastUserPosition.x = (mLastUserPosition.x * 2) - 1;
-            mLastUserPosition.y = (mLastUserPosition.y * 2) - 1;
+        mSnapshot = new Snapshot(
+                frameDelta,
+                null != mGazeFrame ? mGazeFrame.rawCoordinates : null,
+                null != mGazeFrame ? mGazeFrame.smoothedCoordinates : null,
+                left,
+                right,
+                userPosX,
+                userPosY,
+                null != left || null != right ? mLastEyeDistance : last.mUserPosZ,
+                eyeAngle,
+                userPosTimeStamp);
+    }
 
-            mUserPosTimeStamp = now;
-        }
-        else
-        {
-            mLastRightEye = null;
-            mLastLeftEye = null;
-        }
+    /**
+     * @return valid gaze data as of the latest frame
+     */
+    public Snapshot getSnapshot()
+    {
+        return mSnapshot;
     }
 
     /**
@@ -224,65 +369,110 @@ public class GazeFrameCache
      */
     public Point3D getLastUserPosition()
     {
-        return mLastUserPosition;
+        return mSnapshot.getUserPosition();
     }
 
     public Eye getLastLeftEye()
     {
-        return mLastLeftEye;
+        return mSnapshot.getLeftEye();
     }
 
     public Eye getLastRightEye()
     {
-        return mLastRightEye;
+        return mSnapshot.getRightEye();
     }
 
     public double getLastEyesAngle()
     {
-        return mLastEyeAngle;
+        return mSnapshot.getEyesAngle();
     }
 
     public Point2D getLastRawGazeCoordinates()
     {
-        return mLastRawGazeCoords;
+        return mSnapshot.getRawGazeCoordinates();
     }
 
     public Point2D getLastSmoothedGazeCoordinates()
     {
-        return mLastSmoothedGazeCoords;
+        return mSnapshot.getSmoothedGazeCoordinates();
     }
 
     public long getLastDelta()
     {
-        return mFrameDelta;
+        return mSnapshot.getDelta();
     }
 
     public long getLastUserPosTimeStamp()
     {
-        return mUserPosTimeStamp;
+        return mSnapshot.getUserPosTimeStamp();
     }
 
     public long getLastUserPosDelta()
     {
-        return System.currentTimeMillis() - mUserPosTimeStamp;
+        return System.currentTimeMillis() - mSnapshot.getUserPosTimeStamp();
     }
 
+    /**
+     * Copies the frames within the time limit, latest first. Frames added while copying are left out.
+     *
+     * @return cached frames
+     */
     public ImmutableList<GazeData> getFrameCache()
     {
-        return ImmutableList.copyOf(mFrames);
+        ImmutableList.Builder<GazeData> builder = ImmutableList.builder();
+
+        Ring ring = mRing;
+        int head = ring.mHead;
+        int count = ring.mCount;
+        int capacity = ring.mFrames.length;
+        long newest = Long.MAX_VALUE;
+        long oldest = Long.MIN_VALUE;
+
+        for (int i = 1; i <= count; ++i)
+        {
+            int index = (head - i + capacity) % capacity;
+            GazeData frame = ring.mFrames[index];
+
+            // stop at frames overwritten since copy started
+            if (null == frame || frame.timeStamp != ring.mTimeStamps[index] || frame.timeStamp >= newest)
+                break;
+
+            if (i == 1)
+                oldest = frame.timeStamp - mTimeLimit;
+            else if (frame.timeStamp < oldest)
+                break;
+
+            builder.add(frame);
+            newest = frame.timeStamp;
+        }
+
+        return builder.build();
     }
 
-    public void clear()
+    public synchronized void clear()
     {
-        mFrames.clear();
+        mRing.mCount = 0;
+        mBothEyesFrame = mLeftEyeFrame = mRightEyeFrame = mGazeFrame = null;
     }
 
-    private class ValidFrame implements Predicate<GazeData>
+    private static float toUserPosition(float coordinate)
     {
-        @Override
-        public boolean apply(GazeData gd)
-        {
-            return ((gd.state & NO_TRACKING_MASK) == 0);
-        }
+        //map to normalized 3D space
+        return (coordinate * 2) - 1;
+    }
+
+    private static GazeData expire(GazeData frame, long oldest)
+    {
+        return null != frame && frame.timeStamp >= oldest ? frame : null;
+    }
+
+    private static boolean hasPupil(Eye eye)
+    {
+        return !isZero(eye.pupilCenterCoordinates);
+    }
+
+    private static boolean isZero(Point2D point)
+    {
+        return point.x == 0 && point.y == 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.javafx.utils;
+
+import com.theeyetribe.clientsdk.data.GazeData;
+
+/**
+ * Callback interface for JavaFX nodes and controllers that update with gaze.
+ * <p>
+ * Unlike {@link com.theeyetribe.clientsdk.IGazeListener}, callbacks are made on the JavaFX application thread, at most
+ * once per pulse and only with the latest frame. Implementing classes are registered through
+ * {@link JavaFxGazeUtils#attachTETListeners(Object)}.
+ */
+public interface IGazePulseListener
+{
+    /**
+     * Called on the JavaFX application thread when a new gaze frame arrived since the last pulse. Frames arriving in
+     * between pulses are skipped.
+     *
+     * @param gazeData latest gaze data frame
+     */
+    void onGazePulse(GazeData gazeData);
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.javafx.utils;
+
+import com.theeyetribe.clientsdk.IGazeListener;
+import com.theeyetribe.clientsdk.data.GazeData;
+import com.theeyetribe.clientsdk.data.Point2D;
+import com.theeyetribe.clientsdk.utils.AoiIndex;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Node;
+import javafx.stage.Screen;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps an {@link AoiIndex} in sync with the screen bounds of JavaFX nodes.
+ * <p>
+ * Rather than walking the scene graph and computing screen bounds on every gaze frame, the screen bounds of each added
+ * node are recomputed only when the node, one of its ancestors, its scene or its window moves or resizes. Hit tests
+ * and dwell times are then served by the index.
+ * <p>
+ * Nodes must be added and removed on the JavaFX Application Thread. Hit tests may be run from any thread, e.g.
+ * <pre>
+ * JavaFxAoiIndex aois = new JavaFxAoiIndex();
+ * aois.add(button);
+ * GazeManager.getInstance().addGazeListener(aois);
+ *
+ * //later
+ * long dwell = aois.getDwellMillis(button);
+ * </pre>
+ */
+public class JavaFxAoiIndex implements IGazeListener
+{
+    private final AoiIndex<Node> mIndex;
+    private final Map<Node, ScreenBoundsTracker> mTrackedNodes = new HashMap<>();
+
+    /**
+     * Creates an index covering all screens
+     */
+    public JavaFxAoiIndex()
+    {
+        this(getScreensBounds());
+    }
+
+    /**
+     * @param bounds screen area covered by index grid
+     */
+    public JavaFxAoiIndex(Rectangle2D bounds)
+    {
+        mIndex = new AoiIndex<>((float) bounds.getMinX(), (float) bounds.getMinY(),
+                (int) Math.ceil(bounds.getWidth()), (int) Math.ceil(bounds.getHeight()), AoiIndex.DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Starts tracking the screen bounds of a node. Must be called on the JavaFX Application Thread.
+     *
+     * @param node node to track
+     */
+    public void add(Node node)
+    {
+        if (null == node)
+            throw new IllegalArgumentException("Node cannot be null!");
+
+        if (mTrackedNodes.containsKey(node))
+            return;
+
+        ScreenBoundsTracker tracker = new ScreenBoundsTracker(node, () -> update(node));
+        mTrackedNodes.put(node, tracker);
+        tracker.attach();
+    }
+
+    /**
+     * Stops tracking the screen bounds of a node. Must be called on the JavaFX Application Thread.
+     *
+     * @param node node to stop tracking
+     */
+    public void remove(Node node)
+    {
+        ScreenBoundsTracker tracker = mTrackedNodes.remove(node);
+
+        if (null != tracker)
+        {
+            tracker.detach();
+            mIndex.remove(node);
+        }
+    }
+
+    public boolean contains(Node node)
+    {
+        return mTrackedNodes.containsKey(node);
+    }
+
+    /**
+     * Finds the tracked nodes that are visible at a gaze point
+     *
+     * @param gaze gaze point in screen pixels
+     * @param result list nodes are added to
+     */
+    public void hitTest(Point2D gaze, List<Node> result)
+    {
+        if (null == gaze || null == result)
+            return;
+
+        mIndex.hitTest(gaze.x, gaze.y, result);
+    }
+
+    /**
+     * @param node tracked node
+     * @return time in milliseconds gaze has continuously been on node
+     */
+    public long getDwellMillis(Node node)
+    {
+        return mIndex.getDwellMillis(node);
+    }
+
+    /**
+     * @param node tracked node
+     * @return accumulated time in milliseconds gaze has been on node
+     */
+    public long getTotalDwellMillis(Node node)
+    {
+        return mIndex.getTotalDwellMillis(node);
+    }
+
+    /**
+     * @return underlying index
+     */
+    public AoiIndex<Node> getIndex()
+    {
+        return mIndex;
+    }
+
+    @Override
+    public void onGazeUpdate(GazeData gazeData)
+    {
+        mIndex.onGazeUpdate(gazeData);
+    }
+
+    private void update(Node node)
+    {
+        ScreenBoundsTracker tracker = mTrackedNodes.get(node);
+
+        if (null == tracker || !tracker.hasBounds() || !node.isVisible())
+            mIndex.remove(node);
+        else
+            mIndex.put(node, (float) tracker.getMinX(), (float) tracker.getMinY(), (float) tracker.getWidth(),
+                    (float) tracker.getHeight());
+    }
+
+    private static Rectangle2D getScreensBounds()
+    {
+        double minX = 0, minY = 0, maxX = 0, maxY = 0;
+
+        for (Screen screen : Screen.getScreens())
+        {
+            Rectangle2D b = screen.getBounds();
+            minX = Math.min(minX, b.getMinX());
+            minY = Math.min(minY, b.getMinY());
+            maxX = Math.max(maxX, b.getMaxX());
+            maxY = Math.max(maxY, b.getMaxY());
+        }
+
+        return new Rectangle2D(minX, minY, Math.max(1, maxX - minX), Math.max(1, maxY - minY));
+    }
+}
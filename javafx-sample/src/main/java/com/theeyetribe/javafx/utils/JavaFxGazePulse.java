@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.javafx.utils;
+
+import com.theeyetribe.clientsdk.IGazeListener;
+import com.theeyetribe.clientsdk.data.GazeData;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bridges gaze frames onto the JavaFX application thread.
+ * <p>
+ * Posting a runnable per frame per node floods the FX event queue and delays input handling. Instead, each frame is
+ * stored in a single atomic slot, replacing any frame not yet handled, and an {@link AnimationTimer} hands the latest
+ * frame to all {@link IGazePulseListener} instances once per pulse.
+ * <p>
+ * The timer only runs while listeners are registered.
+ */
+public class JavaFxGazePulse implements IGazeListener
+{
+    private final AtomicReference<GazeData> mLatest = new AtomicReference<>();
+    private final List<IGazePulseListener> mListeners = new CopyOnWriteArrayList<>();
+
+    private long mLastTimeStamp = Long.MIN_VALUE;
+
+    private final AnimationTimer mTimer = new AnimationTimer()
+    {
+        @Override
+        public void handle(long now)
+        {
+            GazeData gazeData = mLatest.getAndSet(null);
+
+            // frames may arrive out of order from listener pool threads
+            if (null == gazeData || gazeData.timeStamp <= mLastTimeStamp)
+                return;
+
+            mLastTimeStamp = gazeData.timeStamp;
+
+            for (IGazePulseListener listener : mListeners)
+            {
+                try
+                {
+                    listener.onGazePulse(gazeData);
+                }
+                catch (Exception e)
+                {
+                    System.out.println("Exception while calling IGazePulseListener.onGazePulse() on listener "
+                            + listener.getClass().getSimpleName() + ": " + e.getLocalizedMessage());
+                }
+            }
+        }
+    };
+
+    public static JavaFxGazePulse getInstance()
+    {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        //thread-safe initialization on demand
+        static final JavaFxGazePulse INSTANCE = new JavaFxGazePulse();
+    }
+
+    private JavaFxGazePulse()
+    {
+    }
+
+    @Override
+    public void onGazeUpdate(GazeData gazeData)
+    {
+        GazeData current;
+        do
+        {
+            current = mLatest.get();
+
+            if (null != current && current.timeStamp >= gazeData.timeStamp)
+                return;
+        }
+        while (!mLatest.compareAndSet(current, gazeData));
+    }
+
+    public void addListener(IGazePulseListener listener)
+    {
+        if (null != listener && !mListeners.contains(listener))
+        {
+            mListeners.add(listener);
+
+            if (mListeners.size() == 1)
+                runOnFxThread(mTimer::start);
+        }
+    }
+
+    public boolean removeListener(IGazePulseListener listener)
+    {
+        boolean isRemoved = mListeners.remove(listener);
+
+        if (isRemoved && mListeners.isEmpty())
+            runOnFxThread(() -> {
+                if (mListeners.isEmpty())
+                    mTimer.stop();
+            });
+
+        return isRemoved;
+    }
+
+    public boolean hasListener(IGazePulseListener listener)
+    {
+        return mListeners.contains(listener);
+    }
+
+    private static void runOnFxThread(Runnable runnable)
+    {
+        if (Platform.isFxApplicationThread())
+            runnable.run();
+        else
+            Platform.runLater(runnable);
+    }
+}
@@ -9,7 +9,6 @@
 package com.theeyetribe.javafx.utils;
 
 import com.theeyetribe.clientsdk.*;
-import com.theeyetribe.clientsdk.data.GazeData;
 import com.theeyetribe.clientsdk.data.Point2D;
 import com.theeyetribe.clientsdk.utils.GazeUtils;
 import javafx.collections.ObservableList;
@@ -17,13 +16,18 @@ import javafx.scene.Node;
 import javafx.scene.layout.Pane;
 import javafx.scene.shape.Rectangle;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Extending {@link com.theeyetribe.clientsdk.utils.GazeUtils GazeUtils} with methods specific to JavaFX
  */
 public class JavaFxGazeUtils extends GazeUtils
 {
+    // screen bounds of attached gaze aware nodes, accessed on the JavaFX Application Thread only
+    private static final Map<Node, ScreenBoundsTracker> sScreenBounds = new HashMap<>();
+
     private JavaFxGazeUtils()
     {
         //ensure non-instantiability
@@ -38,7 +42,15 @@ public class JavaFxGazeUtils extends GazeUtils
 
         return checkViewCollision(n, gaze, roi);
     }
-    
+
+    /**
+     * Finds the nodes in a scene graph that collide with a gaze point. This traverses the entire scene graph, use
+     * {@link JavaFxAoiIndex} for hit testing on every frame.
+     *
+     * @param n root node
+     * @param gaze gaze point in screen pixels
+     * @param result list colliding nodes are added to
+     */
     public static void checkGazeCollisionRecursive(Node n, Point2D gaze, List<Node> result)
     {
         if(null == n || null == gaze || null == result)
@@ -73,6 +85,11 @@ public class JavaFxGazeUtils extends GazeUtils
 
     private static boolean checkViewCollision(Node n, Point2D gaze, Rectangle roi)
     {
+        // nodes attached as listeners have their screen bounds cached
+        ScreenBoundsTracker tracker = sScreenBounds.get(n);
+        if (null != tracker)
+            return tracker.contains(Math.round(gaze.x), Math.round(gaze.y));
+
         javafx.geometry.Point2D screenCoord = n.localToScreen(0d, 0d);
 
         roi.setX(Math.round(screenCoord.getX()));
@@ -81,8 +98,8 @@ public class JavaFxGazeUtils extends GazeUtils
         roi.setHeight(n.getBoundsInParent().getHeight());
 
         return roi.contains(
-                (int)Math.round(gaze.x),
-                (int)Math.round(gaze.y)
+                Math.round(gaze.x),
+                Math.round(gaze.y)
         );
     }
 
@@ -92,7 +109,8 @@ public class JavaFxGazeUtils extends GazeUtils
     }
 
     /**
-     * Utility method that registers all types of TETListeners for parameter View and its children
+     * Utility method that registers all types of TETListeners for parameter View and its children. This traverses the
+     * entire subtree, use {@link JavaFxListenerRegistry} to follow changes to a scene graph.
      *
      * @param n
      * @param checkVisibility
@@ -141,6 +159,12 @@ public class JavaFxGazeUtils extends GazeUtils
 
         if (o instanceof ICalibrationResultListener)
             GazeManager.getInstance().addCalibrationResultListener((ICalibrationResultListener) o);
+
+        if (o instanceof IGazePulseListener)
+            JavaFxGazePulse.getInstance().addListener((IGazePulseListener) o);
+
+        if (o instanceof Node && (o instanceof IGazeListener || o instanceof IGazePulseListener))
+            trackScreenBounds((Node) o);
     }
 
     /**
@@ -186,29 +210,42 @@ public class JavaFxGazeUtils extends GazeUtils
 
         if(o instanceof ICalibrationResultListener)
             GazeManager.getInstance().removeCalibrationResultListener((ICalibrationResultListener) o);
+
+        if(o instanceof IGazePulseListener)
+            JavaFxGazePulse.getInstance().removeListener((IGazePulseListener) o);
+
+        if(o instanceof Node)
+            untrackScreenBounds((Node) o);
     }
 
-    public static float getAvgFramesPerSecond(GazeDataDeque frames)
+    /**
+     * Caches the screen bounds of a node for collision checks, updated as the node or its window moves. Nodes
+     * attached through {@link #attachTETListeners(Object)} are tracked automatically. Must be called on the JavaFX
+     * Application Thread.
+     *
+     * @param n node to track
+     */
+    public static void trackScreenBounds(Node n)
     {
-        float avgMillis;
-        if((avgMillis = getAvgMillisFrame(frames)) > 0 )
-            return (float)1000/avgMillis;
+        if (null == n || sScreenBounds.containsKey(n))
+            return;
 
-        return -1;
+        ScreenBoundsTracker tracker = new ScreenBoundsTracker(n, null);
+        sScreenBounds.put(n, tracker);
+        tracker.attach();
     }
 
-    public static float getAvgMillisFrame(GazeDataDeque frames)
+    /**
+     * Stops caching the screen bounds of a node. Must be called on the JavaFX Application Thread.
+     *
+     * @param n tracked node
+     */
+    public static void untrackScreenBounds(Node n)
     {
-        GazeData first = frames.peekFirst();
-        GazeData last = frames.peekLast();
-
-        if(null != first && null != last)
-        {
-            float delta = first.timeStamp - last.timeStamp;
-            return delta / frames.size();
-        }
+        ScreenBoundsTracker tracker = sScreenBounds.remove(n);
 
-        return -1;
+        if (null != tracker)
+            tracker.detach();
     }
 
     /**
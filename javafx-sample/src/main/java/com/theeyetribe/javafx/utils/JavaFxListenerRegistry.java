@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.javafx.utils;
+
+import javafx.collections.ListChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keeps the TETListeners of a scene graph registered as nodes enter and leave it.
+ * <p>
+ * Every node below an attached root is registered once through
+ * {@link JavaFxGazeUtils#attachTETListeners(Object)}, and the children of every parent are observed, so that only the
+ * subtrees added or removed later on are visited. Must be used on the JavaFX Application Thread.
+ * <pre>
+ * JavaFxListenerRegistry registry = new JavaFxListenerRegistry();
+ * registry.attach(root);
+ *
+ * //later
+ * registry.detach(root);
+ * </pre>
+ */
+public class JavaFxListenerRegistry implements ListChangeListener<Node>
+{
+    private final Set<Node> mNodes = new HashSet<>();
+
+    /**
+     * Registers the listeners of a node and all its descendants, now and as they change
+     *
+     * @param root root of subtree
+     */
+    public void attach(Node root)
+    {
+        if (null == root)
+            throw new IllegalArgumentException("Node cannot be null!");
+
+        add(root);
+    }
+
+    /**
+     * Deregisters the listeners of a node and all its descendants, and stops observing them
+     *
+     * @param root root of subtree
+     */
+    public void detach(Node root)
+    {
+        if (null == root)
+            throw new IllegalArgumentException("Node cannot be null!");
+
+        remove(root);
+    }
+
+    /**
+     * @param node node to check
+     * @return true if listeners of node are registered
+     */
+    public boolean isAttached(Node node)
+    {
+        return mNodes.contains(node);
+    }
+
+    /**
+     * @return number of nodes observed
+     */
+    public int size()
+    {
+        return mNodes.size();
+    }
+
+    @Override
+    public void onChanged(Change<? extends Node> change)
+    {
+        while (change.next())
+        {
+            // replaced nodes are reported both as removed and added
+            if (change.wasRemoved())
+                for (Node n : change.getRemoved())
+                    remove(n);
+
+            if (change.wasAdded())
+                for (Node n : change.getAddedSubList())
+                    add(n);
+        }
+    }
+
+    private void add(Node n)
+    {
+        if (!mNodes.add(n))
+            return;
+
+        JavaFxGazeUtils.attachTETListeners(n);
+
+        if (n instanceof Parent)
+        {
+            Parent p = (Parent) n;
+            p.getChildrenUnmodifiable().addListener(this);
+
+            for (Node child : p.getChildrenUnmodifiable())
+                add(child);
+        }
+    }
+
+    private void remove(Node n)
+    {
+        if (!mNodes.remove(n))
+            return;
+
+        JavaFxGazeUtils.detachTETListeners(n);
+
+        if (n instanceof Parent)
+        {
+            Parent p = (Parent) n;
+            p.getChildrenUnmodifiable().removeListener(this);
+
+            for (Node child : p.getChildrenUnmodifiable())
+                remove(child);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.javafx.utils;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Window;
+
+/**
+ * Caches the screen bounds of a node, recomputing them only when the node, one of its ancestors, its scene or its
+ * window moves or resizes. Must be used on the JavaFX Application Thread.
+ */
+class ScreenBoundsTracker implements InvalidationListener
+{
+    private final Node mNode;
+    private final Runnable mOnChanged;
+    private Scene mScene;
+    private Window mWindow;
+
+    private boolean mHasBounds;
+    private double mMinX;
+    private double mMinY;
+    private double mMaxX;
+    private double mMaxY;
+
+    /**
+     * @param node node to track
+     * @param onChanged called after bounds or visibility changed, may be null
+     */
+    ScreenBoundsTracker(Node node, Runnable onChanged)
+    {
+        mNode = node;
+        mOnChanged = onChanged;
+    }
+
+    void attach()
+    {
+        mNode.localToSceneTransformProperty().addListener(this);
+        mNode.boundsInLocalProperty().addListener(this);
+        mNode.visibleProperty().addListener(this);
+        mNode.sceneProperty().addListener(this);
+
+        setScene(mNode.getScene());
+        update();
+    }
+
+    void detach()
+    {
+        mNode.localToSceneTransformProperty().removeListener(this);
+        mNode.boundsInLocalProperty().removeListener(this);
+        mNode.visibleProperty().removeListener(this);
+        mNode.sceneProperty().removeListener(this);
+
+        setScene(null);
+        mHasBounds = false;
+    }
+
+    Node getNode()
+    {
+        return mNode;
+    }
+
+    /**
+     * @return true if node is shown in a window
+     */
+    boolean hasBounds()
+    {
+        return mHasBounds;
+    }
+
+    double getMinX()
+    {
+        return mMinX;
+    }
+
+    double getMinY()
+    {
+        return mMinY;
+    }
+
+    double getWidth()
+    {
+        return mMaxX - mMinX;
+    }
+
+    double getHeight()
+    {
+        return mMaxY - mMinY;
+    }
+
+    boolean contains(double x, double y)
+    {
+        return mHasBounds && x >= mMinX && x <= mMaxX && y >= mMinY && y <= mMaxY;
+    }
+
+    @Override
+    public void invalidated(Observable observable)
+    {
+        if (observable == mNode.sceneProperty())
+            setScene(mNode.getScene());
+        else if (null != mScene && observable == mScene.windowProperty())
+            setWindow(mScene.getWindow());
+
+        update();
+    }
+
+    private void setScene(Scene scene)
+    {
+        if (null != mScene)
+        {
+            mScene.xProperty().removeListener(this);
+            mScene.yProperty().removeListener(this);
+            mScene.windowProperty().removeListener(this);
+        }
+
+        mScene = scene;
+
+        if (null != mScene)
+        {
+            mScene.xProperty().addListener(this);
+            mScene.yProperty().addListener(this);
+            mScene.windowProperty().addListener(this);
+        }
+
+        setWindow(null != mScene ? mScene.getWindow() : null);
+    }
+
+    private void setWindow(Window window)
+    {
+        if (null != mWindow)
+        {
+            mWindow.xProperty().removeListener(this);
+            mWindow.yProperty().removeListener(this);
+        }
+
+        mWindow = window;
+
+        if (null != mWindow)
+        {
+            mWindow.xProperty().addListener(this);
+            mWindow.yProperty().addListener(this);
+        }
+    }
+
+    private void update()
+    {
+        // querying the properties also revalidates them, so that further invalidations are reported. localToScreen
+        // computes its own transform and leaves the lazy transform property invalid, hence it is read here as well
+        mNode.isVisible();
+        mNode.getLocalToSceneTransform();
+        Bounds bounds = null != mWindow ? mNode.localToScreen(mNode.getBoundsInLocal()) : null;
+
+        mHasBounds = null != bounds;
+        if (mHasBounds)
+        {
+            mMinX = bounds.getMinX();
+            mMinY = bounds.getMinY();
+            mMaxX = bounds.getMaxX();
+            mMaxY = bounds.getMaxY();
+        }
+
+        if (null != mOnChanged)
+            mOnChanged.run();
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk;
+
+/**
+ * Maps the clock of the EyeTribe Server onto the {@link System#nanoTime()} time base of this host.
+ * <p>
+ * {@link com.theeyetribe.clientsdk.data.GazeData#timeStamp GazeData.timeStamp} is set by the clock of the EyeTribe
+ * Server. The difference between the arrival time of a frame and its time stamp is the clock offset plus the
+ * transport delay. The smallest difference observed within a window is the frame that was delayed the least, the
+ * remaining delay of which is bounded by half the shortest request round trip. Window minima are fitted by least
+ * squares over time to estimate offset as well as drift between the two clocks.
+ * <p>
+ * GazeManager feeds all frames and request round trips to its instance, and stores the corrected host time of each
+ * frame in {@link com.theeyetribe.clientsdk.data.GazeData#hostTimeNanos GazeData.hostTimeNanos}.
+ */
+public class ClockSync
+{
+    /**
+     * Span of tracker time in milliseconds over which the least delayed frame is selected
+     */
+    public static final long WINDOW_MILLIS = 1000;
+
+    /**
+     * Number of windows used to fit offset and drift
+     */
+    public static final int NUM_WINDOWS = 30;
+
+    private static final int NUM_ROUND_TRIPS = 16;
+    private static final double MAX_DRIFT = 1e-3;
+
+    // window minima, in tracker millis and nanos of host minus tracker time
+    private final long[] mWindowTimes = new long[NUM_WINDOWS];
+    private final long[] mWindowOffsets = new long[NUM_WINDOWS];
+    private int mWindowHead;
+    private int mWindowCount;
+
+    private long mCurrentWindowStart;
+    private long mCurrentWindowTime;
+    private long mCurrentWindowOffset = Long.MAX_VALUE;
+
+    private final long[] mRoundTrips = new long[NUM_ROUND_TRIPS];
+    private int mRoundTripHead;
+    private int mRoundTripCount;
+    private long mMinRoundTrip;
+
+    // fitted model, offset(t) = mOffset + mDrift * (t - mReferenceTime)
+    private long mReferenceTime;
+    private long mOffset;
+    private double mDrift;
+    private boolean mIsSynchronized;
+
+    private long mLastTrackerTime = Long.MIN_VALUE;
+    private long mLastHostTime = Long.MIN_VALUE;
+
+    /**
+     * Adds the round trip of a request and its response.
+     *
+     * @param sendNanos host time when request was sent
+     * @param arrivalNanos host time when response arrived
+     */
+    public synchronized void onRoundTrip(long sendNanos, long arrivalNanos)
+    {
+        long roundTrip = arrivalNanos - sendNanos;
+        if (roundTrip <= 0)
+            return;
+
+        mRoundTrips[mRoundTripHead] = roundTrip;
+        mRoundTripHead = (mRoundTripHead + 1) % NUM_ROUND_TRIPS;
+        if (mRoundTripCount < NUM_ROUND_TRIPS)
+            ++mRoundTripCount;
+
+        mMinRoundTrip = Long.MAX_VALUE;
+        for (int i = 0; i < mRoundTripCount; ++i)
+            mMinRoundTrip = Math.min(mMinRoundTrip, mRoundTrips[i]);
+    }
+
+    /**
+     * Adds a frame and returns its corrected host time. Returned times never decrease as long as frames are added in
+     * order.
+     *
+     * @param trackerMillis time stamp of frame
+     * @param arrivalNanos host time when frame arrived
+     * @return time stamp of frame in host time base
+     */
+    public synchronized long onFrame(long trackerMillis, long arrivalNanos)
+    {
+        long offset = arrivalNanos - trackerMillis * 1000000L;
+
+        if (mCurrentWindowOffset == Long.MAX_VALUE)
+            mCurrentWindowStart = trackerMillis;
+
+        if (trackerMillis - mCurrentWindowStart >= WINDOW_MILLIS || trackerMillis < mCurrentWindowStart)
+        {
+            closeWindow();
+            mCurrentWindowStart = trackerMillis;
+        }
+
+        if (offset < mCurrentWindowOffset)
+        {
+            mCurrentWindowOffset = offset;
+            mCurrentWindowTime = trackerMillis;
+        }
+
+        // until the first window closes the running minimum is the best estimate
+        if (mWindowCount == 0)
+        {
+            mReferenceTime = mCurrentWindowTime;
+            mOffset = mCurrentWindowOffset;
+            mDrift = 0d;
+        }
+
+        mIsSynchronized = true;
+
+        long hostTime = toHostNanosInternal(trackerMillis);
+
+        if (trackerMillis >= mLastTrackerTime && hostTime < mLastHostTime)
+            hostTime = mLastHostTime;
+
+        mLastTrackerTime = trackerMillis;
+        mLastHostTime = hostTime;
+
+        return hostTime;
+    }
+
+    /**
+     * @param trackerMillis time stamp in tracker time base
+     * @return time stamp in host time base, as given by {@link System#nanoTime()}
+     */
+    public synchronized long toHostNanos(long trackerMillis)
+    {
+        return toHostNanosInternal(trackerMillis);
+    }
+
+    /**
+     * @param hostNanos time stamp in host time base, as given by {@link System#nanoTime()}
+     * @return time stamp in tracker time base
+     */
+    public synchronized long toTrackerMillis(long hostNanos)
+    {
+        long delay = mRoundTripCount > 0 ? mMinRoundTrip / 2 : 0L;
+        double trackerNanos = (hostNanos + delay - mOffset + mDrift * mReferenceTime * 1000000d) / (1d + mDrift);
+        return Math.round(trackerNanos / 1000000d);
+    }
+
+    /**
+     * @return true once a frame has been received
+     */
+    public synchronized boolean isSynchronized()
+    {
+        return mIsSynchronized;
+    }
+
+    /**
+     * @return offset in nanoseconds of host time base to tracker time base, at the current reference time
+     */
+    public synchronized long getOffsetNanos()
+    {
+        return mOffset;
+    }
+
+    /**
+     * @return drift of host clock relative to tracker clock, in nanoseconds per nanosecond
+     */
+    public synchronized double getDrift()
+    {
+        return mDrift;
+    }
+
+    /**
+     * @return shortest recent request round trip in nanoseconds, 0 if unknown
+     */
+    public synchronized long getMinRoundTripNanos()
+    {
+        return mRoundTripCount > 0 ? mMinRoundTrip : 0L;
+    }
+
+    public synchronized void reset()
+    {
+        mWindowHead = 0;
+        mWindowCount = 0;
+        mCurrentWindowOffset = Long.MAX_VALUE;
+        mRoundTripHead = 0;
+        mRoundTripCount = 0;
+        mMinRoundTrip = 0L;
+        mOffset = 0L;
+        mDrift = 0d;
+        mIsSynchronized = false;
+        mLastTrackerTime = Long.MIN_VALUE;
+        mLastHostTime = Long.MIN_VALUE;
+    }
+
+    private long toHostNanosInternal(long trackerMillis)
+    {
+        long delay = mRoundTripCount > 0 ? mMinRoundTrip / 2 : 0L;
+        long offset = mOffset + Math.round(mDrift * (trackerMillis - mReferenceTime) * 1000000d);
+
+        return trackerMillis * 1000000L + offset - delay;
+    }
+
+    private void closeWindow()
+    {
+        if (mCurrentWindowOffset == Long.MAX_VALUE)
+            return;
+
+        // clock jumped backwards, e.g. server restart, previous windows no longer apply
+        if (mWindowCount > 0
+                && mCurrentWindowTime <= mWindowTimes[(mWindowHead + NUM_WINDOWS - 1) % NUM_WINDOWS])
+            mWindowCount = 0;
+
+        mWindowTimes[mWindowHead] = mCurrentWindowTime;
+        mWindowOffsets[mWindowHead] = mCurrentWindowOffset;
+        mWindowHead = (mWindowHead + 1) % NUM_WINDOWS;
+        if (mWindowCount < NUM_WINDOWS)
+            ++mWindowCount;
+
+        mCurrentWindowOffset = Long.MAX_VALUE;
+
+        fit();
+    }
+
+    private void fit()
+    {
+        // least squares line through window minima, relative to newest window to keep precision
+        int newest = (mWindowHead + NUM_WINDOWS - 1) % NUM_WINDOWS;
+        long t0 = mWindowTimes[newest];
+        long o0 = mWindowOffsets[newest];
+
+        double st = 0d, so = 0d, stt = 0d, sto = 0d;
+        for (int i = 0; i < mWindowCount; ++i)
+        {
+            int idx = (newest + NUM_WINDOWS - i) % NUM_WINDOWS;
+            double t = (mWindowTimes[idx] - t0) * 1000000d;
+            double o = mWindowOffsets[idx] - o0;
+
+            st += t;
+            so += o;
+            stt += t * t;
+            sto += t * o;
+        }
+
+        double drift = 0d;
+        double denom = mWindowCount * stt - st * st;
+        if (mWindowCount > 2 && denom > 0d)
+            drift = (mWindowCount * sto - st * so) / denom;
+
+        if (Math.abs(drift) > MAX_DRIFT)
+            drift = 0d;
+
+        // line passes through the mean of the minima, expressed at the newest window
+        double meanT = st / mWindowCount;
+        double meanO = so / mWindowCount;
+
+        mReferenceTime = t0;
+        mOffset = o0 + Math.round(meanO - drift * meanT);
+        mDrift = drift;
+    }
+}
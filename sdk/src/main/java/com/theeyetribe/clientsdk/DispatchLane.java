@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks one at a time in order of submission on a dedicated thread, measuring how long tasks wait in queue.
+ * <p>
+ * GazeManager dispatches responses of the EyeTribe Server on two lanes: control responses and state changes on a
+ * high priority lane, gaze frames on a data lane. A listener stalling the data lane thus delays neither calibration
+ * nor state updates. Listeners of a lane are called on its worker thread one after the other, so a single stalled
+ * listener stalls all consumers of that lane: a slow {@link IGazeListener} delays every other gaze listener, batch
+ * listener, sample listener and gaze stage. The worker thread is started on first task and stopped on
+ * {@link #shutdown()}.
+ */
+public class DispatchLane
+{
+    private final String mName;
+    private final int mPriority;
+
+    private final LinkedBlockingQueue<Task> mQueue = new LinkedBlockingQueue<>();
+    private Thread mWorker;
+
+    private Runnable mIdleTask;
+    private long mIdleMillis;
+
+    private long mTaskCount;
+    private long mDelaySumNanos;
+    private long mMaxDelayNanos;
+    private long mLastDelayNanos;
+
+    /**
+     * @param name name of worker thread
+     * @param priority priority of worker thread
+     */
+    public DispatchLane(String name, int priority)
+    {
+        if (null == name)
+            throw new IllegalArgumentException("Name cannot be null!");
+
+        if (priority < Thread.MIN_PRIORITY || priority > Thread.MAX_PRIORITY)
+            throw new IllegalArgumentException("Priority out of range!");
+
+        mName = name;
+        mPriority = priority;
+    }
+
+    /**
+     * Queues a task to run after all tasks queued before it
+     *
+     * @param task task to run
+     */
+    public void execute(Runnable task)
+    {
+        if (null == task)
+            throw new IllegalArgumentException("Task cannot be null!");
+
+        synchronized (this)
+        {
+            if (null == mWorker)
+            {
+                mWorker = new Thread(this::run, mName);
+                mWorker.setPriority(mPriority);
+                mWorker.setDaemon(true);
+                mWorker.start();
+            }
+
+            mQueue.add(new Task(task, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Sets a task run on the worker thread whenever no task was queued for an interval, e.g. to flush buffered work
+     * once traffic stalls
+     *
+     * @param task task to run, null to run none
+     * @param intervalMillis idle time in milliseconds after which task is run
+     */
+    public synchronized void setIdleTask(Runnable task, long intervalMillis)
+    {
+        if (null != task && intervalMillis <= 0)
+            throw new IllegalArgumentException("Interval must be positive!");
+
+        mIdleTask = task;
+        mIdleMillis = intervalMillis;
+    }
+
+    /**
+     * Stops the worker thread and discards queued tasks. A later task starts a new worker thread.
+     */
+    public synchronized void shutdown()
+    {
+        if (null != mWorker)
+        {
+            mWorker.interrupt();
+            mWorker = null;
+        }
+
+        mQueue.clear();
+    }
+
+    /**
+     * @return true if called from the worker thread of this lane
+     */
+    public boolean isCurrentThread()
+    {
+        return isWorker(Thread.currentThread());
+    }
+
+    public String getName()
+    {
+        return mName;
+    }
+
+    /**
+     * @return number of tasks waiting to run
+     */
+    public int getQueueLength()
+    {
+        return mQueue.size();
+    }
+
+    /**
+     * @return number of tasks run since construction or last reset
+     */
+    public synchronized long getTaskCount()
+    {
+        return mTaskCount;
+    }
+
+    /**
+     * @return average time in milliseconds tasks waited in queue, 0 if no tasks run
+     */
+    public synchronized float getMeanDelayMillis()
+    {
+        return mTaskCount > 0 ? mDelaySumNanos / (float) mTaskCount / 1e6f : 0f;
+    }
+
+    /**
+     * @return longest time in milliseconds a task waited in queue
+     */
+    public synchronized float getMaxDelayMillis()
+    {
+        return mMaxDelayNanos / 1e6f;
+    }
+
+    /**
+     * @return time in milliseconds the latest task waited in queue
+     */
+    public synchronized float getLastDelayMillis()
+    {
+        return mLastDelayNanos / 1e6f;
+    }
+
+    public synchronized void resetMetrics()
+    {
+        mTaskCount = 0;
+        mDelaySumNanos = 0;
+        mMaxDelayNanos = 0;
+        mLastDelayNanos = 0;
+    }
+
+    private synchronized boolean isWorker(Thread thread)
+    {
+        return mWorker == thread;
+    }
+
+    private synchronized void onTaskStart(long delayNanos)
+    {
+        ++mTaskCount;
+        mDelaySumNanos += delayNanos;
+        mLastDelayNanos = delayNanos;
+
+        if (delayNanos > mMaxDelayNanos)
+            mMaxDelayNanos = delayNanos;
+    }
+
+    private void run()
+    {
+        // a task may swallow the interrupt of shutdown, so worker also checks it is still current
+        Thread thread = Thread.currentThread();
+
+        try
+        {
+            while (!thread.isInterrupted() && isWorker(thread))
+            {
+                Runnable idleTask;
+                long idleMillis;
+                synchronized (this)
+                {
+                    idleTask = mIdleTask;
+                    idleMillis = mIdleMillis;
+                }
+
+                Task task = null == idleTask ? mQueue.take() : mQueue.poll(idleMillis, TimeUnit.MILLISECONDS);
+
+                // idle runs are not counted as tasks
+                Runnable runnable = idleTask;
+                if (null != task)
+                {
+                    onTaskStart(System.nanoTime() - task.queuedNanos);
+                    runnable = task.runnable;
+                }
+
+                try
+                {
+                    runnable.run();
+                }
+                catch (Exception e)
+                {
+                    System.out.println("Exception while running task on " + mName + ": " + e.getLocalizedMessage());
+
+                    if (GazeManager.IS_DEBUG_MODE)
+                        e.printStackTrace();
+                }
+            }
+        }
+        catch (InterruptedException ie)
+        {
+            // shut down
+        }
+    }
+
+    private static class Task
+    {
+        private final Runnable runnable;
+        private final long queuedNanos;
+
+        private Task(Runnable runnable, long queuedNanos)
+        {
+            this.runnable = runnable;
+            this.queuedNanos = queuedNanos;
+        }
+    }
+}
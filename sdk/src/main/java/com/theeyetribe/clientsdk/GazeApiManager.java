@@ -11,6 +11,7 @@ package com.theeyetribe.clientsdk;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.theeyetribe.clientsdk.data.GazeData;
 import com.theeyetribe.clientsdk.request.*;
 import com.theeyetribe.clientsdk.response.CalibrationPointEndResponse;
 import com.theeyetribe.clientsdk.response.Response;
@@ -22,9 +23,10 @@ import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
-import java.util.Enumeration;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -38,6 +40,55 @@ class GazeApiManager
     static String DEFAULT_SERVER_HOST = "127.0.0.1";
     static int DEFAULT_SERVER_PORT = 6555;
 
+    // time after which requests left unanswered are cancelled, matching the wait of synchronous calls
+    static final long REQUEST_TIMEOUT_MILLIS = GazeManagerCore.DEFAULT_TIMEOUT_MILLIS;
+
+    // values of state requests, sent from pre-rendered templates as they follow every update notification
+    private static final String[] ALL_STATES = new String[]
+    {
+        Protocol.TRACKER_ISCALIBRATED,
+        Protocol.TRACKER_ISCALIBRATING,
+        Protocol.TRACKER_TRACKERSTATE,
+        Protocol.TRACKER_SCREEN_INDEX,
+        Protocol.TRACKER_SCREEN_RESOLUTION_WIDTH,
+        Protocol.TRACKER_SCREEN_RESOLUTION_HEIGHT,
+        Protocol.TRACKER_SCREEN_PHYSICAL_WIDTH,
+        Protocol.TRACKER_SCREEN_PHYSICAL_HEIGHT,
+        Protocol.TRACKER_CALIBRATIONRESULT,
+        Protocol.TRACKER_FRAMERATE,
+        Protocol.TRACKER_VERSION,
+    };
+
+    private static final String[] CALIBRATION_STATES = new String[]
+    {
+        Protocol.TRACKER_ISCALIBRATED,
+        Protocol.TRACKER_ISCALIBRATING,
+        Protocol.TRACKER_CALIBRATIONRESULT
+    };
+
+    private static final String[] SCREEN_STATES = new String[]
+    {
+        Protocol.TRACKER_SCREEN_INDEX,
+        Protocol.TRACKER_SCREEN_RESOLUTION_WIDTH,
+        Protocol.TRACKER_SCREEN_RESOLUTION_HEIGHT,
+        Protocol.TRACKER_SCREEN_PHYSICAL_WIDTH,
+        Protocol.TRACKER_SCREEN_PHYSICAL_HEIGHT
+    };
+
+    private static final String[] TRACKER_STATES = new String[]
+    {
+        Protocol.TRACKER_TRACKERSTATE,
+        Protocol.TRACKER_FRAMERATE
+    };
+
+    // indexed by StateUpdateCoalescer category
+    private static final String[][] STATES = new String[][]
+    {
+        CALIBRATION_STATES,
+        SCREEN_STATES,
+        TRACKER_STATES
+    };
+
     private Socket mSocket;
 
     private IncomingStreamHandler mIncomingStreamHandler;
@@ -45,16 +96,25 @@ class GazeApiManager
 
     private IGazeApiResponseListener mResponseListener;
 
+    private IGazeApiFrameListener mFrameListener;
+
     private IGazeApiConnectionListener mConnectionListener;
 
     protected PriorityBlockingQueue<Request<?>> mRequestQueue;
 
-    protected ConcurrentHashMap<Integer, Request<?>> mOngoingRequests;
+    protected InFlightRequestTable mOngoingRequests;
 
     protected AtomicInteger mIdGenerator = new AtomicInteger();
 
     protected Gson mGson;
 
+    private final RequestTemplate mAllStatesTemplate;
+
+    // state refreshes by StateUpdateCoalescer category
+    private final RequestTemplate[] mStatesTemplates = new RequestTemplate[StateUpdateCoalescer.NUM_CATEGORIES];
+    private final Request<?>[] mRefreshRequests = new Request<?>[StateUpdateCoalescer.NUM_CATEGORIES];
+    private final StateUpdateCoalescer mStateUpdates = new StateUpdateCoalescer();
+
     public GazeApiManager(IGazeApiResponseListener responseListener)
     {
         this(responseListener, null);
@@ -63,8 +123,14 @@ class GazeApiManager
     public GazeApiManager(IGazeApiResponseListener responseListener, IGazeApiConnectionListener connectionListener)
     {
         this.mResponseListener = responseListener;
+        this.mFrameListener = responseListener instanceof IGazeApiFrameListener ? (IGazeApiFrameListener) responseListener : null;
         this.mConnectionListener = connectionListener;
-        this.mGson = new Gson();
+        this.mGson = ProtocolTypeAdapters.createGson();
+
+        this.mAllStatesTemplate = createStatesTemplate(ALL_STATES);
+
+        for (int category = 0; category < STATES.length; ++category)
+            mStatesTemplates[category] = createStatesTemplate(STATES[category]);
     }
 
     public void requestTracker(GazeManagerCore.ApiVersion version)
@@ -80,75 +146,114 @@ class GazeApiManager
 
     public void requestAllStates()
     {
-        TrackerGetRequest tgr = new TrackerGetRequest();
+        request(createStatesRequest(ALL_STATES, mAllStatesTemplate));
+    }
 
-        tgr.values = new String[]
-        {
-            Protocol.TRACKER_ISCALIBRATED,
-            Protocol.TRACKER_ISCALIBRATING,
-            Protocol.TRACKER_TRACKERSTATE,
-            Protocol.TRACKER_SCREEN_INDEX,
-            Protocol.TRACKER_SCREEN_RESOLUTION_WIDTH,
-            Protocol.TRACKER_SCREEN_RESOLUTION_HEIGHT,
-            Protocol.TRACKER_SCREEN_PHYSICAL_WIDTH,
-            Protocol.TRACKER_SCREEN_PHYSICAL_HEIGHT,
-            Protocol.TRACKER_CALIBRATIONRESULT,
-            Protocol.TRACKER_FRAMERATE,
-            Protocol.TRACKER_VERSION,
-        };
+    public void requestCalibrationStates()
+    {
+        refreshStates(StateUpdateCoalescer.CATEGORY_CALIBRATION);
+    }
 
-        tgr.id = mIdGenerator.incrementAndGet();
+    public void requestScreenStates()
+    {
+        refreshStates(StateUpdateCoalescer.CATEGORY_SCREEN);
+    }
 
-        request(tgr);
+    public void requestTrackerState()
+    {
+        refreshStates(StateUpdateCoalescer.CATEGORY_TRACKER);
     }
 
-    public void requestCalibrationStates()
+    public StateUpdateCoalescer getStateUpdateCoalescer()
     {
-        TrackerGetRequest tgr = new TrackerGetRequest();
+        return mStateUpdates;
+    }
 
-        tgr.values = new String[]
-        {
-            Protocol.TRACKER_ISCALIBRATED,
-            Protocol.TRACKER_ISCALIBRATING,
-            Protocol.TRACKER_CALIBRATIONRESULT
-        };
+    private void refreshStates(int category)
+    {
+        if (mStateUpdates.tryStart(category))
+            sendRefresh(category);
+    }
 
-        tgr.id = mIdGenerator.incrementAndGet();
+    private void sendRefresh(int category)
+    {
+        TrackerGetRequest tgr = createStatesRequest(STATES[category], mStatesTemplates[category]);
+
+        synchronized (mRefreshRequests)
+        {
+            mRefreshRequests[category] = tgr;
+        }
 
         request(tgr);
     }
 
-    public void requestScreenStates()
+    private void onRequestCompleted(Request<?> request)
     {
-        TrackerGetRequest tgr = new TrackerGetRequest();
+        for (int category = 0; category < mRefreshRequests.length; ++category)
+        {
+            synchronized (mRefreshRequests)
+            {
+                if (mRefreshRequests[category] != request)
+                    continue;
+
+                mRefreshRequests[category] = null;
+            }
 
-        tgr.values = new String[]
+            // states changed since request was sent, ask again
+            if (mStateUpdates.complete(category))
+                sendRefresh(category);
+
+            return;
+        }
+    }
+
+    private void resetRefresh(Request<?> request)
+    {
+        for (int category = 0; category < mRefreshRequests.length; ++category)
         {
-            Protocol.TRACKER_SCREEN_INDEX,
-            Protocol.TRACKER_SCREEN_RESOLUTION_WIDTH,
-            Protocol.TRACKER_SCREEN_RESOLUTION_HEIGHT,
-            Protocol.TRACKER_SCREEN_PHYSICAL_WIDTH,
-            Protocol.TRACKER_SCREEN_PHYSICAL_HEIGHT
-        };
+            synchronized (mRefreshRequests)
+            {
+                if (mRefreshRequests[category] != request)
+                    continue;
 
-        tgr.id = mIdGenerator.incrementAndGet();
+                mRefreshRequests[category] = null;
+            }
 
-        request(tgr);
+            mStateUpdates.reset(category);
+            return;
+        }
     }
 
-    public void requestTrackerState()
+    private void resetRefreshes()
+    {
+        synchronized (mRefreshRequests)
+        {
+            for (int category = 0; category < mRefreshRequests.length; ++category)
+                mRefreshRequests[category] = null;
+        }
+
+        mStateUpdates.reset();
+    }
+
+    private TrackerGetRequest createStatesRequest(String[] states, RequestTemplate template)
     {
         TrackerGetRequest tgr = new TrackerGetRequest();
 
-        tgr.values = new String[]
-        {
-            Protocol.TRACKER_TRACKERSTATE,
-            Protocol.TRACKER_FRAMERATE
-        };
+        tgr.values = states;
+        tgr.setTemplate(template);
 
         tgr.id = mIdGenerator.incrementAndGet();
 
-        request(tgr);
+        return tgr;
+    }
+
+    private RequestTemplate createStatesTemplate(String[] states)
+    {
+        TrackerGetRequest tgr = new TrackerGetRequest();
+
+        tgr.values = states;
+
+        return new RequestTemplate(tgr, mGson);
     }
 
     public Object requestCalibrationStart(int pointcount)
@@ -245,7 +350,8 @@ class GazeApiManager
         {
             //init containers
             this.mRequestQueue = new PriorityBlockingQueue<>();
-            this.mOngoingRequests = new ConcurrentHashMap<>();
+            this.mOngoingRequests = new InFlightRequestTable(REQUEST_TIMEOUT_MILLIS);
+            resetRefreshes();
 
             // connect to socket, with timeout
             mSocket = new Socket();
@@ -257,10 +363,10 @@ class GazeApiManager
             if (null != mConnectionListener)
                 mConnectionListener.onGazeApiConnectionStateChanged(mSocket.isConnected());
 
-            mIncomingStreamHandler = new IncomingStreamHandler();
+            mIncomingStreamHandler = new IncomingStreamHandler(mOngoingRequests);
             mIncomingStreamHandler.start();
 
-            mOutgoingStreamHandler = new OutgoingStreamHandler();
+            mOutgoingStreamHandler = new OutgoingStreamHandler(mRequestQueue, mOngoingRequests);
             mOutgoingStreamHandler.start();
 
             return true;
@@ -319,15 +425,14 @@ class GazeApiManager
 
             if (null != mOngoingRequests)
             {
-                Enumeration<Request<?>> reqs = mOngoingRequests.elements();
-
-                while(reqs.hasMoreElements())
+                for (Request<?> r : mOngoingRequests.removeAll())
                 {
-                    reqs.nextElement().cancel();
+                    r.cancel();
                 }
-                mOngoingRequests.clear();
             }
             mOngoingRequests = null;
+
+            resetRefreshes();
         }
         catch (Exception e)
         {
@@ -341,23 +446,47 @@ class GazeApiManager
 
     protected void request(Request request)
     {
-        mRequestQueue.add(request);
+        // read once, as close() clears the queue while stream handlers may still complete requests and send refreshes
+        PriorityBlockingQueue<Request<?>> queue = mRequestQueue;
+
+        if (null != queue)
+            queue.add(request);
+        else
+            request.cancel();
     }
 
     public void cancelAllRequests()
     {
-        for(Request r : mRequestQueue)
+        PriorityBlockingQueue<Request<?>> queue = mRequestQueue;
+        if (null == queue)
+            return;
+
+        for(Request<?> r : queue)
         {
             r.cancel();
+
+            // cancelled refreshes never complete, those already sent are still awaited
+            resetRefresh(r);
         }
     }
 
     private class IncomingStreamHandler implements Runnable
     {
+        // captured as close() clears the fields of the manager while this handler may still run
+        private final InFlightRequestTable mInFlight;
+
+        // reused for every pushed frame read as primitive values
+        private final GazeSampleQueue.Sample mSample = new GazeSampleQueue.Sample();
+
         private BufferedReader reader;
 
         private Thread runner;
 
+        private IncomingStreamHandler(InFlightRequestTable inFlight)
+        {
+            mInFlight = inFlight;
+        }
+
         private synchronized void start()
         {
             stop();;
@@ -383,6 +512,7 @@ class GazeApiManager
                 Request request;
                 Response response;
                 String responseJson;
+                long arrivalNanos;
 
                 JsonParser jsonParser = new JsonParser();
                 JsonObject jo;
@@ -395,14 +525,36 @@ class GazeApiManager
                 {
                     while ((responseJson = reader.readLine()) != null)
                     {
+                        arrivalNanos = System.nanoTime();
+
                         if (!responseJson.isEmpty() && null != mResponseListener)
                         {
                             if(GazeManager.IS_DEBUG_MODE)
                                 System.out.println("IN: " + responseJson);
 
+                            // pushed frames are read without building a JSON tree, and not offered to
+                            // parseIncomingProcessResponse
+                            if (null != mFrameListener && !mFrameListener.isGazeDataNeeded())
+                            {
+                                if (ProtocolTypeAdapters.readPushedFrame(responseJson, mSample))
+                                {
+                                    mFrameListener.onGazeApiFrame(mSample, arrivalNanos);
+                                    continue;
+                                }
+                            }
+                            else if (null != (response = readFrameResponse(responseJson)))
+                            {
+                                response.arrivalNanos = arrivalNanos;
+                                mResponseListener.onGazeApiResponse(response, null);
+                                continue;
+                            }
+
                             jo = (JsonObject) jsonParser.parse(responseJson);
                             int id = null != jo.get(Protocol.KEY_ID) ? jo.get(Protocol.KEY_ID).getAsInt() : 0;
-                            request = mOngoingRequests.containsKey(id) ? mOngoingRequests.remove(id) : null;
+                            request = mInFlight.remove(id);
+
+                            if (null != request)
+                                onRequestCompleted(request);
 
                             if (jo.get(Protocol.KEY_STATUSCODE).getAsInt() == HttpURLConnection.HTTP_OK)
                             {
@@ -426,7 +578,7 @@ class GazeApiManager
                                     }
                                     else
                                     {
-                                        // response is gaze data frame
+                                        // response is tracker state, possibly along with a frame
                                         response = mGson.fromJson(jo, TrackerGetResponse.class);
                                     }
                                 }
@@ -444,6 +596,7 @@ class GazeApiManager
                             if(GazeManager.IS_DEBUG_MODE && response.transitTime != 0 )
                                 System.out.println("IN: transitTime " + response.transitTime);
 
+                            response.arrivalNanos = arrivalNanos;
                             mResponseListener.onGazeApiResponse(response, request);
                         }
                     }
@@ -490,8 +643,18 @@ class GazeApiManager
     {
         private static final int NUM_WRITE_ATTEMPTS_BEFORE_FAIL = 3;
 
+        // captured as close() clears the fields of the manager while this handler may still run
+        private final PriorityBlockingQueue<Request<?>> mQueue;
+        private final InFlightRequestTable mInFlight;
+
         private Thread runner;
 
+        private OutgoingStreamHandler(PriorityBlockingQueue<Request<?>> queue, InFlightRequestTable inFlight)
+        {
+            mQueue = queue;
+            mInFlight = inFlight;
+        }
+
         private synchronized void start()
         {
             stop();
@@ -517,7 +680,7 @@ class GazeApiManager
             try
             {
                 Request request;
-                String requestJson;
+                List<Request<?>> expired = new ArrayList<>();
 
                 OutputStream os = mSocket.getOutputStream();
                 OutputStreamWriter osw = new OutputStreamWriter(os, "UTF-8");
@@ -525,26 +688,30 @@ class GazeApiManager
 
                 while (!Thread.interrupted())
                 {
-                	request = mRequestQueue.take();
+                    // wake up regularly to expire requests left unanswered
+                    request = mQueue.poll(mInFlight.getTickMillis(), TimeUnit.MILLISECONDS);
+
+                    expireRequests(expired);
 
-                    if(request.isCancelled())
+                    if(null == request || request.isCancelled())
                         continue;
 
                     request.timeStamp = System.currentTimeMillis();
-                    requestJson = request.toJsonString(mGson);
+                    request.timeStampNanos = System.nanoTime();
 
                 	while(true)
                 	{
                         try
                         {
-                            writer.write(requestJson);
+                            // tracked before writing, as response may arrive before write returns
+                            mInFlight.put(request, request.timeStamp);
+
+                            request.writeJson(writer, mGson);
                             writer.newLine();
                             writer.flush();
 
-                            mOngoingRequests.put((Integer) request.id, request);
-
                             if(GazeManager.IS_DEBUG_MODE)
-                                System.out.println("OUT: " + requestJson);
+                                System.out.println("OUT: " + request.toJsonString(mGson));
 
                             break;
                         }
@@ -554,7 +721,7 @@ class GazeApiManager
                             if (++request.retryAttempts >= NUM_WRITE_ATTEMPTS_BEFORE_FAIL)
                             {
                                 request.finish();
-                                mOngoingRequests.remove(request.id);
+                                mInFlight.remove(request.id);
                                 throw new Exception("OutgoingStreamHandler failed writing to stream despite several retires");
                             }
                                
@@ -603,6 +770,24 @@ class GazeApiManager
             if(GazeManager.IS_DEBUG_MODE)
                 System.out.println("OutgoingStreamHandler closing down");
         }
+
+        private void expireRequests(List<Request<?>> expired)
+        {
+            if (mInFlight.expire(System.currentTimeMillis(), expired) == 0)
+                return;
+
+            for (Request<?> r : expired)
+            {
+                if (GazeManager.IS_DEBUG_MODE)
+                    System.out.println("Request expired without response: " + r.category + " " + r.request + " " + r.id);
+
+                // expired refreshes must not block later ones, waiting callers are released
+                onRequestCompleted(r);
+                r.cancel();
+            }
+
+            expired.clear();
+        }
     }
 
     /**
@@ -613,6 +798,55 @@ class GazeApiManager
         void onGazeApiResponse(Response response, Request request);
     }
 
+    /**
+     * Reads the response of a pushed gaze data frame, decoding only the frame fields needed by the frame listener in
+     * the same pass that recognizes the message
+     *
+     * @return response, null if message is not a pushed frame
+     */
+    private TrackerGetResponse readFrameResponse(String message)
+    {
+        int fields = null != mFrameListener ? mFrameListener.getGazeFields() : GazeData.FIELDS_ALL;
+
+        GazeData frame = GazeData.fromPushedFrame(message, fields);
+        if (null == frame)
+            return null;
+
+        TrackerGetResponse response = new TrackerGetResponse();
+        response.category = Protocol.CATEGORY_TRACKER;
+        response.request = Protocol.TRACKER_REQUEST_GET;
+        response.statuscode = HttpURLConnection.HTTP_OK;
+        response.values.frame = frame;
+
+        return response;
+    }
+
+    /**
+     * Callback interface receiving pushed gaze data frames as primitive values, in place of a
+     * {@link TrackerGetResponse} holding a {@link com.theeyetribe.clientsdk.data.GazeData}
+     */
+    protected interface IGazeApiFrameListener
+    {
+        /**
+         * @return true if frames must be delivered as responses, false if primitive values suffice
+         */
+        boolean isGazeDataNeeded();
+
+        /**
+         * @return bitmask of {@link GazeData} FIELD_ constants to decode on the socket thread of frames delivered as
+         *         responses, fields of consumers added before the frame is dispatched are to be decoded then
+         */
+        int getGazeFields();
+
+        /**
+         * Called on the socket thread for every pushed frame while {@link #isGazeDataNeeded()} is false
+         *
+         * @param sample values of frame, reused for the next frame hence to be copied before returning
+         * @param arrivalNanos time of arrival, as of {@link System#nanoTime()}
+         */
+        void onGazeApiFrame(GazeSampleQueue.Sample sample, long arrivalNanos);
+    }
+
     /**
      * Callback interface responsible for handling connection state notifications from the GazeApiManager
      */
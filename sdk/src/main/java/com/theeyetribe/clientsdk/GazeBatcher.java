@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk;
+
+import com.theeyetribe.clientsdk.data.GazeData;
+
+/**
+ * Collects GazeData frames for an {@link IGazeBatchListener}, delivering them once a batch is full or its first frame
+ * has waited the maximum delay.
+ * <p>
+ * Frames are added on arrival, and due batches are flushed by {@link #flushIfDue(long)} while the stream is idle.
+ */
+public class GazeBatcher
+{
+    private final IGazeBatchListener mListener;
+    private final GazeData[] mFrames;
+    private final long mMaxDelayNanos;
+
+    private int mCount;
+    private long mFirstNanos;
+
+    /**
+     * @param listener listener to deliver batches to
+     * @param batchSize maximum number of frames in a batch
+     * @param maxDelayMillis maximum time in milliseconds a frame waits for its batch to be delivered
+     */
+    public GazeBatcher(IGazeBatchListener listener, int batchSize, long maxDelayMillis)
+    {
+        if (null == listener)
+            throw new IllegalArgumentException("Listener cannot be null!");
+
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be positive!");
+
+        if (maxDelayMillis <= 0)
+            throw new IllegalArgumentException("Max delay must be positive!");
+
+        mListener = listener;
+        mFrames = new GazeData[batchSize];
+        mMaxDelayNanos = maxDelayMillis * 1000000L;
+    }
+
+    public IGazeBatchListener getListener()
+    {
+        return mListener;
+    }
+
+    public int getBatchSize()
+    {
+        return mFrames.length;
+    }
+
+    public long getMaxDelayMillis()
+    {
+        return mMaxDelayNanos / 1000000L;
+    }
+
+    /**
+     * @return number of frames waiting to be delivered
+     */
+    public synchronized int getPendingCount()
+    {
+        return mCount;
+    }
+
+    /**
+     * Adds a frame, delivering the batch if full or due
+     *
+     * @param gazeData gaze data frame
+     * @param nowNanos current time in nanoseconds, as of {@link System#nanoTime()}
+     */
+    public synchronized void add(GazeData gazeData, long nowNanos)
+    {
+        if (mCount == 0)
+            mFirstNanos = nowNanos;
+
+        mFrames[mCount++] = gazeData;
+
+        if (mCount == mFrames.length || nowNanos - mFirstNanos >= mMaxDelayNanos)
+            flush();
+    }
+
+    /**
+     * Delivers the batch if its first frame has waited the maximum delay
+     *
+     * @param nowNanos current time in nanoseconds, as of {@link System#nanoTime()}
+     */
+    public synchronized void flushIfDue(long nowNanos)
+    {
+        if (mCount > 0 && nowNanos - mFirstNanos >= mMaxDelayNanos)
+            flush();
+    }
+
+    /**
+     * Delivers the frames waiting, if any
+     */
+    public synchronized void flush()
+    {
+        if (mCount == 0)
+            return;
+
+        int count = mCount;
+        mCount = 0;
+
+        try
+        {
+            mListener.onGazeBatch(mFrames, count);
+        }
+        catch (Exception e)
+        {
+            System.out.println("Exception while calling IGazeBatchListener.onGazeBatch() on listener "
+                    + mListener.getClass().getSimpleName() + ": " + e.getLocalizedMessage());
+
+            if (GazeManager.IS_DEBUG_MODE)
+                e.printStackTrace();
+        }
+        finally
+        {
+            // release frames for collection
+            for (int i = 0; i < count; ++i)
+                mFrames[i] = null;
+        }
+    }
+}
@@ -11,6 +11,7 @@ package com.theeyetribe.clientsdk;
 import com.theeyetribe.clientsdk.data.CalibrationResult;
 import com.theeyetribe.clientsdk.data.CalibrationResult.CalibrationPoint;
 import com.theeyetribe.clientsdk.data.GazeData;
+import com.theeyetribe.clientsdk.data.Point2D;
 import com.theeyetribe.clientsdk.request.Request;
 import com.theeyetribe.clientsdk.response.CalibrationPointEndResponse;
 import com.theeyetribe.clientsdk.response.Response;
@@ -18,6 +19,9 @@ import com.theeyetribe.clientsdk.response.ResponseFailed;
 import com.theeyetribe.clientsdk.response.TrackerGetResponse;
 import com.theeyetribe.clientsdk.GazeApiManager.IGazeApiResponseListener;
 import com.theeyetribe.clientsdk.GazeApiManager.IGazeApiConnectionListener;
+import com.theeyetribe.clientsdk.GazeApiManager.IGazeApiFrameListener;
+import com.theeyetribe.clientsdk.reactive.BufferedPublisher;
+import com.theeyetribe.clientsdk.reactive.OverflowStrategy;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -28,17 +32,25 @@ import java.util.concurrent.*;
  * GazeManagerCore is the core implementation of EyeTribe Java SDK. This class manages all underlying routines
  * associated with communicating with a running EyeTribe Server.
  */
-abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConnectionListener
+abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConnectionListener, IGazeApiFrameListener
 {
     public final static boolean IS_DEBUG_MODE = false;
     
     protected final static long DEFAULT_TIMEOUT_MILLIS = 10 * 1000;
 
+    // GazeData fields read by IGazeSampleListener instances
+    private final static int SAMPLE_FIELDS = GazeData.FIELD_TIME | GazeData.FIELD_STATE
+            | GazeData.FIELD_SMOOTHED_COORDINATES | GazeData.FIELD_FIXATION | GazeData.FIELD_LEFT_EYE
+            | GazeData.FIELD_RIGHT_EYE;
+
     protected List<IGazeListener> mGazeListeners;
+    protected List<GazeBatcher> mGazeBatchers;
+    protected List<IGazeSampleListener> mGazeSampleListeners;
     protected List<ICalibrationResultListener> mCalibrationResultListeners;
     protected List<ITrackerStateListener> mTrackerStateListeners;
     protected List<IScreenStateListener> mScreenStateListeners;
     protected List<IConnectionStateListener> mConnectionStateListeners;
+    protected List<IGazeStage> mGazeStages;
 
     protected ICalibrationProcessHandler mCalibrationListener;
 
@@ -49,34 +61,48 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
 
     private ThreadPoolExecutor threadPool;
 
+    // responses are dispatched in order of arrival, control traffic on its own lane ahead of gaze frames
+    private final DispatchLane controlLane = new DispatchLane("TET control lane", Thread.MAX_PRIORITY);
+    private final DispatchLane dataLane = new DispatchLane("TET data lane", Thread.NORM_PRIORITY);
+
     protected boolean isActive;
 
     private final Object initializationLock = new Object();
     private boolean isInitializing;
     private boolean isInitialized;
 
-    protected TrackerState trackerState;
     protected CalibrationResult lastCalibrationResult;
-    protected FrameRate frameRate;
-    protected ApiVersion version;
     protected ClientMode clientMode;
-    protected Boolean isCalibrated = false;
-    protected Boolean isCalibrating = false;
-    protected Integer screenIndex = 0;
-    protected Integer screenResolutionWidth = 0;
-    protected Integer screenResolutionHeight = 0;
-    protected Float screenPhysicalWidth = 0f;
-    protected Float screenPhysicalHeight = 0f;
 
+    // states are replaced as a whole under lock, and read from any thread without
+    private final Object trackerStatusLock = new Object();
+    protected volatile TrackerStatus trackerStatus = TrackerStatus.UNDEFINED;
+    private final List<BufferedPublisher<TrackerStatus>> mTrackerStatusPublishers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Latest frame dispatched as GazeData. Not updated while frames are delivered as primitive values only, i.e. while
+     * only {@link IGazeSampleListener} instances are registered, as no GazeData is constructed then. Fields not read by
+     * any consumer may be left undecoded, see {@link GazeData#decodeFields(int)}.
+     */
     protected GazeData latestGazeData;
 
+    // pushed frames delivered as primitive values, passed to data lane without allocating per frame
+    private final GazeSampleQueue gazeSamples = new GazeSampleQueue();
+    private final GazeSampleQueue.Sample drainedGazeSample = new GazeSampleQueue.Sample();
+    private final Runnable drainGazeSamplesTask = this::drainGazeSamples;
+
+    protected final ClockSync clockSync = new ClockSync();
+
     GazeManagerCore()
     {
         mGazeListeners = Collections.synchronizedList(new ArrayList<>());
+        mGazeBatchers = Collections.synchronizedList(new ArrayList<>());
+        mGazeSampleListeners = Collections.synchronizedList(new ArrayList<>());
         mCalibrationResultListeners = Collections.synchronizedList(new ArrayList<>());
         mTrackerStateListeners = Collections.synchronizedList(new ArrayList<>());
         mScreenStateListeners = Collections.synchronizedList(new ArrayList<>());
         mConnectionStateListeners = Collections.synchronizedList(new ArrayList<>());
+        mGazeStages = Collections.synchronizedList(new ArrayList<>());
         resetEnums();
     }
 
@@ -576,6 +602,8 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
 
         try
         {
+            clockSync.reset();
+
             // initialize networking
             if (null == apiManager)
                 apiManager = createApiManager(GazeManagerCore.this, GazeManagerCore.this);
@@ -685,7 +713,7 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
      */
     public boolean isCalibrating()
     {
-        return null != isCalibrating ? isCalibrating : false;
+        return trackerStatus.isCalibrating();
     }
 
     /**
@@ -695,7 +723,7 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
      */
     public boolean isCalibrated()
     {
-        return null != isCalibrated ? isCalibrated : false;
+        return trackerStatus.isCalibrated();
     }
 
     /**
@@ -705,7 +733,7 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
      */
     public int getScreenIndex()
     {
-        return screenIndex;
+        return trackerStatus.getScreenIndex();
     }
 
     /**
@@ -715,7 +743,7 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
      */
     public float getScreenPhysicalWidth()
     {
-        return screenPhysicalWidth;
+        return trackerStatus.getScreenPhysicalWidth();
     }
 
     /**
@@ -725,7 +753,7 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
      */
     public float getScreenPhysicalHeight()
     {
-        return screenPhysicalHeight;
+        return trackerStatus.getScreenPhysicalHeight();
     }
 
     /**
@@ -735,7 +763,7 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
      */
     public int getScreenResolutionWidth()
     {
-        return screenResolutionWidth;
+        return trackerStatus.getScreenResolutionWidth();
     }
 
     /**
@@ -745,7 +773,7 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
      */
     public int getScreenResolutionHeight()
     {
-        return screenResolutionHeight;
+        return trackerStatus.getScreenResolutionHeight();
     }
 
     /**
@@ -757,7 +785,74 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
      */
     public TrackerState getTrackerState()
     {
-        return trackerState;
+        return trackerStatus.getTrackerState();
+    }
+
+    /**
+     * Consistent snapshot of the states of EyeTribe Server and tracker device, replaced as a whole on every change.
+     * Callers may cache values derived from it until its {@link TrackerStatus#getRevision() revision} changes.
+     *
+     * @return current tracker status
+     */
+    public TrackerStatus getTrackerStatus()
+    {
+        return trackerStatus;
+    }
+
+    /**
+     * Creates a Reactive Streams publisher of the gaze data stream, delivering frames as requested by each subscriber.
+     * Frames are delivered in order on the data lane, or on the thread of a subscriber requesting frames buffered. The
+     * publisher receives frames while it has subscribers.
+     *
+     * @param bufferSize maximum number of frames buffered per subscriber
+     * @param strategy handling of frames arriving at a full buffer
+     * @return publisher of gaze data frames
+     */
+    public BufferedPublisher<GazeData> createGazePublisher(int bufferSize, OverflowStrategy strategy)
+    {
+        return new BufferedPublisher<GazeData>(bufferSize, strategy)
+        {
+            private final IGazeListener mListener = this::publish;
+
+            @Override
+            protected void onActive()
+            {
+                addGazeListener(mListener);
+            }
+
+            @Override
+            protected void onInactive()
+            {
+                removeGazeListener(mListener);
+            }
+        };
+    }
+
+    /**
+     * Creates a Reactive Streams publisher of tracker status changes, delivering each {@link TrackerStatus} snapshot
+     * published as requested by each subscriber. Snapshots are delivered from the thread pool, so subscribers may call
+     * back into GazeManager.
+     *
+     * @param bufferSize maximum number of snapshots buffered per subscriber
+     * @param strategy handling of snapshots published to a full buffer
+     * @return publisher of tracker status changes
+     */
+    public BufferedPublisher<TrackerStatus> createTrackerStatusPublisher(int bufferSize, OverflowStrategy strategy)
+    {
+        return new BufferedPublisher<TrackerStatus>(bufferSize, strategy, this::submitToThreadpool)
+        {
+            @Override
+            protected void onActive()
+            {
+                mTrackerStatusPublishers.add(this);
+            }
+
+            @Override
+            protected void onInactive()
+            {
+                mTrackerStatusPublishers.remove(this);
+            }
+        };
     }
 
     /**
@@ -795,7 +890,52 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
      */
     public FrameRate getFrameRate()
     {
-        return frameRate;
+        return trackerStatus.getFrameRate();
+    }
+
+    /**
+     * Synchronization of the EyeTribe Server clock with the {@link System#nanoTime()} time base of this host. The
+     * corrected host time of every frame is available in {@link GazeData#hostTimeNanos}.
+     *
+     * @return clock synchronization of current connection
+     */
+    public ClockSync getClockSync()
+    {
+        return clockSync;
+    }
+
+    /**
+     * Lane on which calibration, tracker, screen and connection responses are processed in order of arrival, ahead of
+     * gaze frames. State listeners and {@link ICalibrationProcessHandler} callbacks are called in order on this lane,
+     * so they must not wait on synchronous GazeManager calls, which are completed on the same lane.
+     *
+     * @return control dispatch lane, holding its queueing delay
+     */
+    public DispatchLane getControlLane()
+    {
+        return controlLane;
+    }
+
+    /**
+     * Lane on which gaze frames are processed and delivered to {@link IGazeListener}s in order of arrival. A listener
+     * blocking delays later frames, but no control traffic.
+     *
+     * @return data dispatch lane, holding its queueing delay
+     */
+    public DispatchLane getDataLane()
+    {
+        return dataLane;
+    }
+
+    /**
+     * Coalescing of the state requests sent on update notifications of the EyeTribe Server, holding counts of the
+     * requests suppressed.
+     *
+     * @return state update coalescing of current connection, null if never activated
+     */
+    public StateUpdateCoalescer getStateUpdateCoalescer()
+    {
+        return null != apiManager ? apiManager.getStateUpdateCoalescer() : null;
     }
 
     /**
@@ -807,7 +947,7 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
      */
     public ApiVersion getVersion()
     {
-        return version;
+        return trackerStatus.getApiVersion();
     }
 
     /**
@@ -928,7 +1068,7 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
     {
         if (isActivated())
         {
-            if (isCalibrating)
+            if (isCalibrating())
             {
                 apiManager.requestCalibrationPointStart(x, y);
             }
@@ -950,7 +1090,7 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
     {
         if (isActivated())
         {
-            if (isCalibrating)
+            if (isCalibrating())
             {
                 apiManager.requestCalibrationPointEnd();
             }
@@ -1103,9 +1243,10 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
                     }
                 }
 
-                return GazeManagerCore.this.screenIndex == screenIndex && GazeManagerCore.this.screenResolutionWidth == screenResW
-                        && GazeManagerCore.this.screenResolutionHeight == screenResH && GazeManagerCore.this.screenPhysicalWidth == screenPsyW
-                        && GazeManagerCore.this.screenPhysicalHeight == screenPsyH;
+                TrackerStatus status = trackerStatus;
+                return status.getScreenIndex() == screenIndex && status.getScreenResolutionWidth() == screenResW
+                        && status.getScreenResolutionHeight() == screenResH && status.getScreenPhysicalWidth() == screenPsyW
+                        && status.getScreenPhysicalHeight() == screenPsyH;
             }
 
             System.out.println("EyeTribe Java SDK not activated!");
@@ -1164,6 +1305,161 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
         return result;
     }
 
+    /**
+     * Adds a {@link IGazeSampleListener} to the EyeTribe Java SDK. This listener will receive the values of each
+     * gaze frame when available
+     *
+     * @param listener The {@link IGazeSampleListener} instance to add
+     */
+    public void addGazeSampleListener(IGazeSampleListener listener)
+    {
+        if (null != listener)
+            if (!mGazeSampleListeners.contains(listener))
+                mGazeSampleListeners.add(listener);
+    }
+
+    /**
+     * Remove a {@link IGazeSampleListener} from the EyeTribe Java SDK.
+     *
+     * @param listener The {@link IGazeSampleListener} instance to remove
+     * @return True if successfully removed, false otherwise
+     */
+    public boolean removeGazeSampleListener(IGazeSampleListener listener)
+    {
+        return null != listener && mGazeSampleListeners.remove(listener);
+    }
+
+    /**
+     * Gets current number of attached {@link IGazeSampleListener} instances.
+     *
+     * @return Current number of sample listeners
+     */
+    public int getNumGazeSampleListeners()
+    {
+        return mGazeSampleListeners.size();
+    }
+
+    /**
+     * Checks if a given instance of {@link IGazeSampleListener} is currently attached.
+     *
+     * @param listener The {@link IGazeSampleListener} instance check for
+     * @return True if already attached, false otherwise
+     */
+    public boolean hasGazeSampleListener(IGazeSampleListener listener)
+    {
+        return null != listener && mGazeSampleListeners.contains(listener);
+    }
+
+    /**
+     * Adds a {@link IGazeBatchListener} to the EyeTribe Java SDK. This listener will receive batches of consecutive
+     * {@link GazeData} frames, delivered once a batch holds batchSize frames or its first frame has waited
+     * maxDelayMillis.
+     *
+     * @param listener The {@link IGazeBatchListener} instance to add
+     * @param batchSize maximum number of frames in a batch
+     * @param maxDelayMillis maximum time in milliseconds a frame waits for its batch to be delivered
+     */
+    public void addGazeBatchListener(IGazeBatchListener listener, int batchSize, long maxDelayMillis)
+    {
+        if (null != listener)
+        {
+            synchronized (mGazeBatchers)
+            {
+                if (null == findGazeBatcher(listener))
+                    mGazeBatchers.add(new GazeBatcher(listener, batchSize, maxDelayMillis));
+
+                updateGazeBatchFlushing();
+            }
+        }
+    }
+
+    /**
+     * Remove a {@link IGazeBatchListener} from the EyeTribe Java SDK. Frames waiting in the current batch are
+     * delivered before returning.
+     *
+     * @param listener The {@link IGazeBatchListener} instance to remove
+     * @return True if successfully removed, false otherwise
+     */
+    public boolean removeGazeBatchListener(IGazeBatchListener listener)
+    {
+        GazeBatcher batcher;
+        synchronized (mGazeBatchers)
+        {
+            batcher = findGazeBatcher(listener);
+            if (null == batcher)
+                return false;
+
+            mGazeBatchers.remove(batcher);
+            updateGazeBatchFlushing();
+        }
+
+        batcher.flush();
+
+        return true;
+    }
+
+    /**
+     * Gets current number of attached {@link IGazeBatchListener} instances.
+     *
+     * @return Current number of batch listeners
+     */
+    public int getNumGazeBatchListeners()
+    {
+        return mGazeBatchers.size();
+    }
+
+    /**
+     * Checks if a given instance of {@link IGazeBatchListener} is currently attached.
+     *
+     * @param listener The {@link IGazeBatchListener} instance check for
+     * @return True if already attached, false otherwise
+     */
+    public boolean hasGazeBatchListener(IGazeBatchListener listener)
+    {
+        synchronized (mGazeBatchers)
+        {
+            return null != findGazeBatcher(listener);
+        }
+    }
+
+    private GazeBatcher findGazeBatcher(IGazeBatchListener listener)
+    {
+        for (GazeBatcher batcher : mGazeBatchers)
+            if (batcher.getListener() == listener)
+                return batcher;
+
+        return null;
+    }
+
+    private void updateGazeBatchFlushing()
+    {
+        // data lane flushes due batches while gaze stream is idle, at half the shortest max delay
+        long minDelayMillis = Long.MAX_VALUE;
+        for (GazeBatcher batcher : mGazeBatchers)
+            minDelayMillis = Math.min(minDelayMillis, batcher.getMaxDelayMillis());
+
+        if (mGazeBatchers.isEmpty())
+            dataLane.setIdleTask(null, 0);
+        else
+            dataLane.setIdleTask(this::flushDueGazeBatches, Math.max(1, minDelayMillis / 2));
+    }
+
+    private void flushDueGazeBatches()
+    {
+        long now = System.nanoTime();
+
+        for (GazeBatcher batcher : snapshotGazeBatchers())
+            batcher.flushIfDue(now);
+    }
+
+    private GazeBatcher[] snapshotGazeBatchers()
+    {
+        synchronized (mGazeBatchers)
+        {
+            return mGazeBatchers.toArray(new GazeBatcher[mGazeBatchers.size()]);
+        }
+    }
+
     /**
      * Adds a {@link ICalibrationResultListener} to the EyeTribe Java SDK. This listener will
      * receive {@link CalibrationResult} updates when available
@@ -1357,13 +1653,83 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
     }
 
     /**
-     * Clear all attached listeners, clears GazeData queue and stop broadcasting
+     * Adds a {@link IGazeStage} to the EyeTribe Java SDK. The stage will process every {@link GazeData} frame before
+     * it is broadcast to {@link IGazeListener} instances. Stages are run in the order they were added.
+     *
+     * @param stage The {@link IGazeStage} instance to add
+     */
+    public void addGazeStage(IGazeStage stage)
+    {
+        if (null != stage)
+            synchronized (mGazeStages)
+            {
+                if (!mGazeStages.contains(stage))
+                    mGazeStages.add(stage);
+            }
+    }
+
+    /**
+     * Remove a {@link IGazeStage} from the EyeTribe Java SDK.
+     *
+     * @param stage The {@link IGazeStage} instance to remove
+     * @return True if successfully removed, false otherwise
+     */
+    public boolean removeGazeStage(IGazeStage stage)
+    {
+        if (null != stage)
+            synchronized (mGazeStages)
+            {
+                return mGazeStages.remove(stage);
+            }
+
+        return false;
+    }
+
+    /**
+     * Gets current number of attached {@link IGazeStage} instances.
+     *
+     * @return Current number of stages
+     */
+    public int getNumGazeStages()
+    {
+        return mGazeStages.size();
+    }
+
+    /**
+     * Checks if a given instance of {@link IGazeStage} is currently attached.
+     *
+     * @param stage The {@link IGazeStage} instance check for
+     * @return True if already attached, false otherwise
+     */
+    public boolean hasGazeStage(IGazeStage stage)
+    {
+        return null != stage && mGazeStages.contains(stage);
+    }
+
+    /**
+     * Clear all attached listeners and gaze stages, clears GazeData queue and stop broadcasting
      */
     public void clearListeners()
     {
         if (null != mGazeListeners)
             mGazeListeners.clear();
 
+        if (null != mGazeSampleListeners)
+            mGazeSampleListeners.clear();
+
+        if (null != mGazeBatchers)
+        {
+            // deliver frames waiting before listeners are dropped
+            for (GazeBatcher batcher : snapshotGazeBatchers())
+                batcher.flush();
+
+            synchronized (mGazeBatchers)
+            {
+                mGazeBatchers.clear();
+                updateGazeBatchFlushing();
+            }
+        }
+
         if (null != mCalibrationResultListeners)
             mCalibrationResultListeners.clear();
 
@@ -1375,6 +1741,9 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
 
         if (null != mConnectionStateListeners)
             mConnectionStateListeners.clear();
+
+        if (null != mGazeStages)
+            mGazeStages.clear();
     }
 
     protected <T> Future<T> submitToThreadpool(Callable<T> callable)
@@ -1423,6 +1792,12 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
 
     private void shutDownThreadpool()
     {
+        controlLane.shutdown();
+        dataLane.shutdown();
+
+        // drain task may have been discarded with the lane
+        gazeSamples.clear();
+
         if (null != threadPool && !threadPool.isShutdown())
         {
             try
@@ -1440,34 +1815,43 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
     @Override
     public void onGazeApiResponse(final Response response, final Request request)
     {
-        submitToThreadpool(() ->
+        // clock sync relies on order of arrival, hence handled before responses are dispatched to lanes
+        boolean isFrame = response instanceof TrackerGetResponse && null != ((TrackerGetResponse) response).values.frame;
+
+        if (response.arrivalNanos != 0)
+        {
+            if (null != request && request.timeStampNanos != 0)
+                clockSync.onRoundTrip(request.timeStampNanos, response.arrivalNanos);
+
+            if (isFrame)
+            {
+                GazeData frame = ((TrackerGetResponse) response).values.frame;
+                frame.hostTimeNanos = clockSync.onFrame(frame.timeStamp, response.arrivalNanos);
+            }
+        }
+
+        (isFrame ? dataLane : controlLane).execute(() ->
         {
             try {
                 if (response.category.compareTo(Protocol.CATEGORY_TRACKER) == 0) {
                     if (response.request.compareTo(Protocol.TRACKER_REQUEST_GET) == 0) {
                         TrackerGetResponse tgr = (TrackerGetResponse) response;
 
-                        if (null != tgr.values.version)
-                            version = ApiVersion.fromInt(tgr.values.version);
-
-                        if (null != tgr.values.frameRate)
-                            frameRate = FrameRate.fromInt(tgr.values.frameRate);
+                        TrackerStatus previous;
+                        TrackerStatus status;
+                        synchronized (trackerStatusLock) {
+                            previous = trackerStatus;
+                            status = setTrackerStatus(previous.withValues(tgr.values));
+                        }
 
                         if (null != tgr.values.trackerState) {
                             // if tracker state changed, notify listeners
-                            if (null == trackerState
-                                    || tgr.values.trackerState != TrackerState.toInt(trackerState)) {
-                                trackerState = TrackerState.fromInt(tgr.values.trackerState);
-
+                            if (null == previous.getTrackerState()
+                                    || tgr.values.trackerState != TrackerState.toInt(previous.getTrackerState())) {
                                 broadcastToListeners(mTrackerStateListeners, tgr.values.trackerState);
                             }
                         }
 
-                        if (null != tgr.values.isCalibrating)
-                            isCalibrating = tgr.values.isCalibrating;
-                        if (null != tgr.values.isCalibrated)
-                            isCalibrated = tgr.values.isCalibrated;
-
                         // if defined in json response, then set
                         if (null != tgr.values.calibrationResult) {
                             // is calibration result different from current?
@@ -1475,32 +1859,31 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
                                     || !lastCalibrationResult.equals(tgr.values.calibrationResult)) {
                                 lastCalibrationResult = tgr.values.calibrationResult;
 
-                                broadcastToListeners(mCalibrationResultListeners, isCalibrated, lastCalibrationResult);
+                                broadcastToListeners(mCalibrationResultListeners, status.isCalibrated(), lastCalibrationResult);
                             }
                         }
 
-                        if (null != tgr.values.screenResolutionWidth)
-                            screenResolutionWidth = tgr.values.screenResolutionWidth;
-                        if (null != tgr.values.screenResolutionHeight)
-                            screenResolutionHeight = tgr.values.screenResolutionHeight;
-                        if (null != tgr.values.screenPhysicalWidth)
-                            screenPhysicalWidth = tgr.values.screenPhysicalWidth;
-                        if (null != tgr.values.screenPhysicalHeight)
-                            screenPhysicalHeight = tgr.values.screenPhysicalHeight;
                         if (null != tgr.values.screenIndex) {
                             // if screen index changed, broadcast to all listeners
-                            if (tgr.values.screenIndex.equals(screenIndex)) {
-                                screenIndex = tgr.values.screenIndex;
-
-                                broadcastToListeners(mScreenStateListeners, screenIndex, screenResolutionWidth, screenResolutionHeight,
-                                        screenPhysicalWidth, screenPhysicalHeight);
+                            if (tgr.values.screenIndex.equals(previous.getScreenIndex())) {
+                                broadcastToListeners(mScreenStateListeners, status.getScreenIndex(),
+                                        status.getScreenResolutionWidth(), status.getScreenResolutionHeight(),
+                                        status.getScreenPhysicalWidth(), status.getScreenPhysicalHeight());
                             }
                         }
 
                         if (null != tgr.values.frame) {
+                            // frame was decoded on arrival for the consumers registered then, fields of consumers
+                            // added since are decoded before each consumer is called
+
+                            // run frame through processing stages before broadcasting
+                            processGazeStages(tgr.values.frame);
+
                             // broadcast frame to all listeners
                             latestGazeData = tgr.values.frame;
                             broadcastToListeners(mGazeListeners, tgr.values.frame);
+                            broadcastToBatchers(tgr.values.frame);
+                            broadcastToSampleListeners(tgr.values.frame);
                         }
 
                         // Special routine used for initialization
@@ -1519,7 +1902,7 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
                     }
                 } else if (response.category.compareTo(Protocol.CATEGORY_CALIBRATION) == 0) {
                     if (response.request.compareTo(Protocol.CALIBRATION_REQUEST_START) == 0) {
-                        isCalibrating = true;
+                        updateCalibrationStatus(null, true);
 
                         if (null != mCalibrationListener)
                             try {
@@ -1573,8 +1956,8 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
                         }
                         else
                         {
-                            isCalibrated = cper.values.calibrationResult.result;
-                            isCalibrating = !cper.values.calibrationResult.result;
+                            updateCalibrationStatus(cper.values.calibrationResult.result,
+                                    !cper.values.calibrationResult.result);
 
                             // Evaluate resample points, we decrement according to number of points needing resampling
                             for (CalibrationPoint calibPoint : cper.values.calibrationResult.calibpoints) {
@@ -1589,7 +1972,7 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
                                     || !lastCalibrationResult.equals(cper.values.calibrationResult)) {
                                 lastCalibrationResult = cper.values.calibrationResult;
 
-                                broadcastToListeners(mCalibrationResultListeners, isCalibrated, cper.values.calibrationResult);
+                                broadcastToListeners(mCalibrationResultListeners, isCalibrated(), cper.values.calibrationResult);
                             }
 
                             if (null != mCalibrationListener) {
@@ -1607,14 +1990,13 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
                         }
 
                     } else if (response.request.compareTo(Protocol.CALIBRATION_REQUEST_ABORT) == 0) {
-                        isCalibrating = false;
+                        updateCalibrationStatus(null, false);
 
                         // restore states of last calibration if any
                         if (isActivated())
                             apiManager.requestCalibrationStates();
                     } else if (response.request.compareTo(Protocol.CALIBRATION_REQUEST_CLEAR) == 0) {
-                        isCalibrated = false;
-                        isCalibrating = false;
+                        updateCalibrationStatus(false, false);
                         lastCalibrationResult = null;
                     }
                 }
@@ -1677,9 +2059,191 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
         });
     }
 
+    private void processGazeStages(GazeData gazeData)
+    {
+        // stages are stateful, frames are processed one at a time
+        synchronized (mGazeStages)
+        {
+            for (int i = 0; i < mGazeStages.size(); ++i)
+            {
+                try
+                {
+                    gazeData.decodeFields(getGazeFields(mGazeStages.get(i)));
+                    mGazeStages.get(i).onGazeFrame(gazeData);
+                }
+                catch (Exception e)
+                {
+                    System.out.println("Exception while calling IGazeStage.onGazeFrame() on stage "
+                            + mGazeStages.get(i).getClass().getSimpleName() + ": " + e.getLocalizedMessage());
+
+                    if (IS_DEBUG_MODE)
+                        e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isGazeDataNeeded()
+    {
+        // frames are decoded to primitive values only while no listener or stage takes GazeData
+        return mGazeSampleListeners.isEmpty() || !mGazeListeners.isEmpty() || !mGazeBatchers.isEmpty()
+                || !mGazeStages.isEmpty();
+    }
+
+    @Override
+    public int getGazeFields()
+    {
+        // clock sync reads time of every frame
+        int fields = GazeData.FIELD_TIME;
+
+        if (!mGazeSampleListeners.isEmpty())
+            fields |= SAMPLE_FIELDS;
+
+        fields |= getGazeFields(mGazeStages);
+        fields |= getGazeFields(mGazeListeners);
+
+        synchronized (mGazeBatchers)
+        {
+            for (GazeBatcher batcher : mGazeBatchers)
+                fields |= getGazeFields(batcher.getListener());
+        }
+
+        return fields;
+    }
+
+    private static int getGazeFields(List<?> consumers)
+    {
+        int fields = 0;
+
+        synchronized (consumers)
+        {
+            for (Object consumer : consumers)
+                fields |= getGazeFields(consumer);
+        }
+
+        return fields;
+    }
+
+    private static int getGazeFields(Object consumer)
+    {
+        return consumer instanceof IGazeFieldFilter ? ((IGazeFieldFilter) consumer).getGazeFields() : GazeData.FIELDS_ALL;
+    }
+
+    @Override
+    public void onGazeApiFrame(GazeSampleQueue.Sample sample, long arrivalNanos)
+    {
+        // clock sync relies on order of arrival, hence handled before frame is dispatched to lane
+        if (arrivalNanos != 0)
+            clockSync.onFrame(sample.timeStamp, arrivalNanos);
+
+        // samples are copied into preallocated slots, one drain task serves a burst of frames
+        if (gazeSamples.offer(sample))
+            dataLane.execute(drainGazeSamplesTask);
+    }
+
+    private void drainGazeSamples()
+    {
+        // runs on data lane only, hence a single sample is reused
+        GazeSampleQueue.Sample sample = drainedGazeSample;
+        IGazeSampleListener[] snapshot = null;
+
+        while (gazeSamples.poll(sample))
+        {
+            if (null == snapshot)
+                snapshot = snapshotGazeSampleListeners();
+
+            broadcastToSampleListeners(snapshot, sample.timeStamp, sample.x, sample.y, sample.state,
+                    sample.isFixated, sample.leftPupilSize, sample.rightPupilSize);
+        }
+    }
+
+    private IGazeSampleListener[] snapshotGazeSampleListeners()
+    {
+        synchronized (mGazeSampleListeners)
+        {
+            return mGazeSampleListeners.toArray(new IGazeSampleListener[mGazeSampleListeners.size()]);
+        }
+    }
+
+    private void broadcastToSampleListeners(GazeData gazeData)
+    {
+        if (mGazeSampleListeners.isEmpty())
+            return;
+
+        // listeners may have been added after frame was decoded, and objects may be null in JSON
+        gazeData.decodeFields(SAMPLE_FIELDS);
+        Point2D smoothed = gazeData.smoothedCoordinates;
+
+        broadcastToSampleListeners(snapshotGazeSampleListeners(), gazeData.timeStamp,
+                null != smoothed ? smoothed.x : 0f, null != smoothed ? smoothed.y : 0f, gazeData.state,
+                gazeData.isFixated, getPupilSize(gazeData.leftEye), getPupilSize(gazeData.rightEye));
+    }
+
+    private static float getPupilSize(GazeData.Eye eye)
+    {
+        return null != eye ? eye.pupilSize : 0f;
+    }
+
+    private void broadcastToSampleListeners(IGazeSampleListener[] snapshot, long timeStamp, float x, float y,
+            int state, boolean isFixated, float leftPupilSize, float rightPupilSize)
+    {
+        for (IGazeSampleListener listener : snapshot)
+        {
+            try
+            {
+                listener.onGazeSample(timeStamp, x, y, state, isFixated, leftPupilSize, rightPupilSize);
+            }
+            catch (Exception e)
+            {
+                System.out.println("Exception while calling IGazeSampleListener.onGazeSample() on listener "
+                        + listener.getClass().getSimpleName() + ": " + e.getLocalizedMessage());
+
+                if (IS_DEBUG_MODE)
+                    e.printStackTrace();
+            }
+        }
+    }
+
+    private void broadcastToBatchers(GazeData gazeData)
+    {
+        if (mGazeBatchers.isEmpty())
+            return;
+
+        long now = System.nanoTime();
+
+        for (GazeBatcher batcher : snapshotGazeBatchers())
+        {
+            gazeData.decodeFields(getGazeFields(batcher.getListener()));
+            batcher.add(gazeData, now);
+        }
+    }
+
     private void broadcastToListeners(final List<IGazeListener> listeners, GazeData gazeData)
     {
-        broadcastToListeners(IGazeListener.class, listeners, gazeData);
+        // called on data lane, frames reach each listener in order
+        IGazeListener[] snapshot;
+        synchronized (listeners)
+        {
+            snapshot = listeners.toArray(new IGazeListener[listeners.size()]);
+        }
+
+        for (IGazeListener listener : snapshot)
+        {
+            try
+            {
+                gazeData.decodeFields(getGazeFields(listener));
+                listener.onGazeUpdate(gazeData);
+            }
+            catch (Exception e)
+            {
+                System.out.println("Exception while calling IGazeListener.onGazeUpdate() on listener "
+                        + listener.getClass().getSimpleName() + ": " + e.getLocalizedMessage());
+
+                if (IS_DEBUG_MODE)
+                    e.printStackTrace();
+            }
+        }
     }
 
     private void broadcastToListeners(final List<IConnectionStateListener> listeners, boolean isConnected)
@@ -1706,42 +2270,46 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
 
     private void broadcastToListeners(final Class<?> listType, final List<?> listeners, final Object... objs)
     {
-        try
+        final Object[] snapshot;
+        synchronized (listeners)
+        {
+            if (listeners.isEmpty())
+                return;
+
+            snapshot = listeners.toArray();
+        }
+
+        // control listeners are called one after the other on control lane, in order of state changes
+        if (controlLane.isCurrentThread())
+            notifyListeners(listType, snapshot, objs);
+        else
+            controlLane.execute(() -> notifyListeners(listType, snapshot, objs));
+    }
+
+    private void notifyListeners(Class<?> listType, Object[] listeners, Object[] objs)
+    {
+        for (Object l : listeners)
         {
-            for (Object l : listeners)
+            try
             {
-                try
-                {
-                    submitToThreadpool(() ->
-                    {
-                        if (listType.isAssignableFrom(IGazeListener.class))
-                            ((IGazeListener) l).onGazeUpdate((GazeData) objs[0]);
-                        else if (listType.isAssignableFrom(IConnectionStateListener.class))
-                            ((IConnectionStateListener) l).onConnectionStateChanged((boolean) objs[0]);
-                        else if (listType.isAssignableFrom(ICalibrationResultListener.class))
-                            ((ICalibrationResultListener) l).onCalibrationChanged((boolean) objs[0], (CalibrationResult) objs[1]);
-                        else if (listType.isAssignableFrom(ITrackerStateListener.class))
-                            ((ITrackerStateListener) l).onTrackerStateChanged((int) objs[0]);
-                        else if (listType.isAssignableFrom(IScreenStateListener.class))
-                            ((IScreenStateListener) l).onScreenStatesChanged((int) objs[0], (int) objs[1], (int) objs[2], (float) objs[3], (float) objs[4]);
-                    });
-                }
-                catch (Exception e)
-                {
-                    System.out
-                            .println("Exception while calling listener "
-                                    + l.getClass().getSimpleName()
-                                    + " on Thread "
-                                    + Thread.currentThread()
-                                    + ": " + e.getLocalizedMessage());
+                if (listType.isAssignableFrom(IConnectionStateListener.class))
+                    ((IConnectionStateListener) l).onConnectionStateChanged((boolean) objs[0]);
+                else if (listType.isAssignableFrom(ICalibrationResultListener.class))
+                    ((ICalibrationResultListener) l).onCalibrationChanged((boolean) objs[0], (CalibrationResult) objs[1]);
+                else if (listType.isAssignableFrom(ITrackerStateListener.class))
+                    ((ITrackerStateListener) l).onTrackerStateChanged((int) objs[0]);
+                else if (listType.isAssignableFrom(IScreenStateListener.class))
+                    ((IScreenStateListener) l).onScreenStatesChanged((int) objs[0], (int) objs[1], (int) objs[2], (float) objs[3], (float) objs[4]);
+            }
+            catch (Exception e)
+            {
+                System.out.println("Exception while calling " + listType.getSimpleName() + " on listener "
+                        + l.getClass().getSimpleName() + ": " + e.getLocalizedMessage());
+
+                if (IS_DEBUG_MODE)
                     e.printStackTrace();
-                }
             }
         }
-        catch (Exception e)
-        {
-            System.out.println("Exception while broadcasting to listeners: " + e.getLocalizedMessage());
-        }
     }
 
     @Override
@@ -1910,9 +2478,34 @@ abstract class GazeManagerCore implements IGazeApiResponseListener, IGazeApiConn
 
     private void resetEnums()
     {
-        trackerState = TrackerState.TRACKER_UNDEFINED;
-        frameRate = FrameRate.FPS_UNDEFINED;
-        version = ApiVersion.VERSION_UNDEFINED;
+        synchronized (trackerStatusLock)
+        {
+            setTrackerStatus(trackerStatus.withTrackerUndefined());
+        }
+    }
+
+    private void updateCalibrationStatus(Boolean isCalibrated, Boolean isCalibrating)
+    {
+        synchronized (trackerStatusLock)
+        {
+            setTrackerStatus(trackerStatus.withCalibration(isCalibrated, isCalibrating));
+        }
+    }
+
+    /**
+     * Publishes a tracker status if changed, called holding status lock so that snapshots are published in order
+     */
+    private TrackerStatus setTrackerStatus(TrackerStatus status)
+    {
+        if (status != trackerStatus)
+        {
+            trackerStatus = status;
+
+            for (BufferedPublisher<TrackerStatus> publisher : mTrackerStatusPublishers)
+                publisher.publish(status);
+        }
+
+        return status;
     }
 
     abstract protected GazeApiManager createApiManager(IGazeApiResponseListener responseListener, IGazeApiConnectionListener connectionListener);
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk;
+
+/**
+ * Fixed size queue of gaze samples, passing the primitive values of pushed frames from the socket thread to the data
+ * lane without allocating per frame.
+ * <p>
+ * Samples are copied into preallocated slots on {@link #offer} and copied out on {@link #poll(Sample)}. The producer
+ * only needs to schedule a drain when {@link #offer} reports the queue was empty, so a single drain task serves a
+ * burst of frames. If the consumer falls behind by more than the capacity, the oldest samples are dropped.
+ */
+public class GazeSampleQueue
+{
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Values of a single gaze sample, as delivered to {@link IGazeSampleListener}
+     */
+    public static class Sample
+    {
+        public long timeStamp;
+        public float x;
+        public float y;
+        public int state;
+        public boolean isFixated;
+        public float leftPupilSize;
+        public float rightPupilSize;
+
+        public void clear()
+        {
+            timeStamp = 0;
+            x = y = 0f;
+            state = 0;
+            isFixated = false;
+            leftPupilSize = rightPupilSize = 0f;
+        }
+
+        void set(Sample other)
+        {
+            timeStamp = other.timeStamp;
+            x = other.x;
+            y = other.y;
+            state = other.state;
+            isFixated = other.isFixated;
+            leftPupilSize = other.leftPupilSize;
+            rightPupilSize = other.rightPupilSize;
+        }
+    }
+
+    private final Sample[] mSlots;
+    private int mHead;
+    private int mCount;
+    private long mDroppedCount;
+
+    public GazeSampleQueue()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of samples held before the oldest are dropped
+     */
+    public GazeSampleQueue(int capacity)
+    {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive!");
+
+        mSlots = new Sample[capacity];
+        for (int i = 0; i < capacity; ++i)
+            mSlots[i] = new Sample();
+    }
+
+    /**
+     * Copies a sample into the queue
+     *
+     * @param sample sample to add
+     * @return true if queue was empty and a drain must be scheduled
+     */
+    public synchronized boolean offer(Sample sample)
+    {
+        if (mCount == mSlots.length)
+        {
+            // consumer fell behind, latest samples matter most
+            mHead = (mHead + 1) % mSlots.length;
+            --mCount;
+            ++mDroppedCount;
+        }
+
+        mSlots[(mHead + mCount) % mSlots.length].set(sample);
+
+        return ++mCount == 1;
+    }
+
+    /**
+     * Copies the oldest sample out of the queue
+     *
+     * @param sample sample to copy into
+     * @return false if queue was empty
+     */
+    public synchronized boolean poll(Sample sample)
+    {
+        if (mCount == 0)
+            return false;
+
+        sample.set(mSlots[mHead]);
+        mHead = (mHead + 1) % mSlots.length;
+        --mCount;
+
+        return true;
+    }
+
+    public synchronized int size()
+    {
+        return mCount;
+    }
+
+    /**
+     * @return number of samples dropped since construction as the queue was full
+     */
+    public synchronized long getDroppedCount()
+    {
+        return mDroppedCount;
+    }
+
+    public synchronized void clear()
+    {
+        mHead = 0;
+        mCount = 0;
+    }
+}
@@ -18,6 +18,11 @@ import com.theeyetribe.clientsdk.data.CalibrationResult;
  * <p>
  * Implementing classes should initiate a calibration process through
  * {@link GazeManager#calibrationStart(int, ICalibrationProcessHandler)}.
+ * <p>
+ * Callbacks are called in order on the control lane of GazeManager. They should return quickly and must not wait on
+ * synchronous GazeManager calls, e.g. {@link GazeManager#calibrationStart(int, ICalibrationProcessHandler)} to restart
+ * calibration, which are completed on the same lane; use the asynchronous variants or hand such work to another
+ * thread, like the UI thread below.
  *
  * <p>
  * A standard pattern for using ICalibrationProcessHandler in a Java FX Application can be seen below:
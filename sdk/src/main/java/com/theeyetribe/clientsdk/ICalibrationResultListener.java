@@ -16,6 +16,10 @@ import com.theeyetribe.clientsdk.data.CalibrationResult;
  * This interface should be implemented by classes that are to receive only changes to calibration state and who are
  * _not_ to perform the calibration process itself.
  * <p>
+ * Listeners are called in order of the state changes on the control lane of GazeManager. They should return quickly
+ * and must not wait on synchronous GazeManager calls, which are completed on the same lane; use the asynchronous
+ * variants instead.
+ * <p>
  * Implementing classes should register for updates through
  * {@link GazeManager#addCalibrationResultListener(ICalibrationResultListener)}.
  */
@@ -15,6 +15,10 @@ package com.theeyetribe.clientsdk;
  * state and handle these accordingly. This could be a class in the 'View' layer telling the user that the connection
  * to the EyeTribe Server has been lost.
  * <p>
+ * Listeners are called in order of the state changes on the control lane of GazeManager. They should return quickly
+ * and must not wait on synchronous GazeManager calls, which are completed on the same lane; use the asynchronous
+ * variants instead.
+ * <p>
  * Implementing classes should register for updates through
  * {@link GazeManager#addConnectionStateListener(IConnectionStateListener)}.
  */
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk;
+
+import com.theeyetribe.clientsdk.data.GazeData;
+
+/**
+ * Callback interface receiving the live GazeData stream in batches of consecutive frames.
+ * <p>
+ * This interface suits classes whose cost is per call rather than per frame, e.g. recorders writing to file or
+ * forwarders sending over network. A batch is delivered once it holds a given number of frames, or once its first
+ * frame has waited a given delay, whichever comes first.
+ * <p>
+ * Implementing classes should register for updates through
+ * {@link GazeManager#addGazeBatchListener(IGazeBatchListener, int, long)}.
+ */
+public interface IGazeBatchListener
+{
+    /**
+     * A notification call back indicating that a batch of GazeData frames is available. Frames are in order of
+     * arrival and were processed by all gaze stages. The array is reused for later batches and only valid during this
+     * call, frames held on to must be copied out.
+     *
+     * @param frames array holding the frames of the batch from index 0
+     * @param count number of frames in batch
+     */
+    void onGazeBatch(GazeData[] frames, int count);
+}
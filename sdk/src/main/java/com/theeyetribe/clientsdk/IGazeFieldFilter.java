@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk;
+
+import com.theeyetribe.clientsdk.data.GazeData;
+
+/**
+ * Optional interface of {@link IGazeListener}, {@link IGazeBatchListener} and {@link IGazeStage} instances declaring
+ * which fields of {@link GazeData} they read.
+ * <p>
+ * Pushed frames are decoded only in the fields declared by any registered listener or stage. Consumers not implementing
+ * this interface are taken to read all fields. Fields not declared are null or zero until decoded on demand through
+ * {@link GazeData#decodeFields(int)}.
+ */
+public interface IGazeFieldFilter
+{
+    /**
+     * @return bitmask of {@link GazeData} FIELD_ constants read by this consumer
+     */
+    int getGazeFields();
+}
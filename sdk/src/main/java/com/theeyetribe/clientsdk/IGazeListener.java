@@ -16,6 +16,10 @@ import com.theeyetribe.clientsdk.data.GazeData;
  * This interface should be implemented by classes that are to receive live GazeData stream. This could be a class
  * in the 'View' layer that wish to implement interaction using the gaze coordinates of the user.
  * <p>
+ * All gaze listeners are called one after the other on the data lane of GazeManager. A listener that blocks or does
+ * heavy work stalls every other gaze listener and gaze stage until it returns, hence such work should be handed off
+ * to a thread of the implementing class.
+ * <p>
  * Implementing classes should register for updates through
  * {@link GazeManager#addGazeListener(IGazeListener)}.
  */
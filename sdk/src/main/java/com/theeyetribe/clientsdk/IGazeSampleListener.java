@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk;
+
+import com.theeyetribe.clientsdk.data.GazeData;
+
+/**
+ * Callback interface receiving the live gaze stream as primitive values.
+ * <p>
+ * This interface suits classes needing only time, gaze coordinates and state of each frame. While no
+ * {@link IGazeListener}, {@link IGazeBatchListener} or {@link IGazeStage} is registered, pushed frames are decoded
+ * straight into these values and no {@link GazeData} is constructed.
+ * <p>
+ * Implementing classes should register for updates through
+ * {@link GazeManager#addGazeSampleListener(IGazeSampleListener)}.
+ */
+public interface IGazeSampleListener
+{
+    /**
+     * A notification call back indicating that a new gaze frame is available.
+     *
+     * @param timeStamp frame time in milliseconds, as of {@link GazeData#timeStamp}
+     * @param x smoothed gaze x coordinate in pixels, as of {@link GazeData#smoothedCoordinates}
+     * @param y smoothed gaze y coordinate in pixels, as of {@link GazeData#smoothedCoordinates}
+     * @param state tracking state, as of {@link GazeData#state}
+     * @param isFixated whether user is fixating
+     * @param leftPupilSize pupil size of left eye
+     * @param rightPupilSize pupil size of right eye
+     */
+    void onGazeSample(long timeStamp, float x, float y, int state, boolean isFixated, float leftPupilSize,
+            float rightPupilSize);
+}
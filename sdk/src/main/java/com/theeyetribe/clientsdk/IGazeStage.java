@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk;
+
+import com.theeyetribe.clientsdk.data.GazeData;
+
+/**
+ * Interface for processing stages placed between the decoding of a {@link GazeData} frame and the dispatch of the
+ * frame to {@link IGazeListener} instances.
+ * <p>
+ * Stages are run one frame at a time in the order they were added and in the order frames arrive from the EyeTribe
+ * Server, which is not guaranteed to be increasing frame time. A stage may annotate the frame, e.g. by setting
+ * {@link GazeData#filteredCoordinates}, and every {@link IGazeListener} will receive the frame as left by the last
+ * stage. Stages of which several may be added should also keep their output per frame themselves, as
+ * {@link com.theeyetribe.clientsdk.filter.GazeFilterStage} does, so it is not overwritten by the next stage.
+ * <p>
+ * Implementing classes should register through {@link GazeManager#addGazeStage(IGazeStage)}.
+ */
+public interface IGazeStage
+{
+    /**
+     * Called for every new GazeData frame before it is broadcast to listeners. Implementations must return quickly
+     * and should write their output into objects allocated up front, as the call is made once per frame.
+     *
+     * @param gazeData gaze data frame
+     */
+    void onGazeFrame(GazeData gazeData);
+}
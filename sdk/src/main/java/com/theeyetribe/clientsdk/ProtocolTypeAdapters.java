@@ -0,0 +1,1474 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.theeyetribe.clientsdk.data.CalibrationResult;
+import com.theeyetribe.clientsdk.data.GazeData;
+import com.theeyetribe.clientsdk.data.Point2D;
+import com.theeyetribe.clientsdk.data.Point3D;
+import com.theeyetribe.clientsdk.request.*;
+import com.theeyetribe.clientsdk.response.CalibrationPointEndResponse;
+import com.theeyetribe.clientsdk.response.Response;
+import com.theeyetribe.clientsdk.response.ResponseFailed;
+import com.theeyetribe.clientsdk.response.TrackerGetResponse;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming Gson TypeAdapters for all EyeTribe API request, response and data classes.
+ * <p>
+ * The adapters read and write fields directly through JsonReader and JsonWriter, avoiding the reflection and boxing of
+ * Gson's default adapters. Output and parsing match those of a default {@link Gson} instance: fields are named as
+ * given by their SerializedName annotations and written in the same order, null values are omitted, fields missing or
+ * null in input keep their defaults and unknown fields are skipped.
+ */
+public class ProtocolTypeAdapters
+{
+    private ProtocolTypeAdapters()
+    {
+        //ensure non-instantiability
+    }
+
+    /**
+     * @return Gson instance with all protocol TypeAdapters registered
+     */
+    public static Gson createGson()
+    {
+        return registerTypeAdapters(new GsonBuilder()).create();
+    }
+
+    /**
+     * Registers the TypeAdapters of all protocol classes
+     *
+     * @param builder builder to register adapters with
+     * @return the builder
+     */
+    public static GsonBuilder registerTypeAdapters(GsonBuilder builder)
+    {
+        return builder
+                .registerTypeAdapter(Point2D.class, POINT_2D)
+                .registerTypeAdapter(Point3D.class, POINT_3D)
+                .registerTypeAdapter(GazeData.class, GAZE_DATA)
+                .registerTypeAdapter(GazeData.Eye.class, EYE)
+                .registerTypeAdapter(CalibrationResult.class, CALIBRATION_RESULT)
+                .registerTypeAdapter(CalibrationResult.CalibrationPoint.class, CALIBRATION_POINT)
+                .registerTypeAdapter(CalibrationResult.Accuracy.class, ACCURACY)
+                .registerTypeAdapter(CalibrationResult.MeanError.class, MEAN_ERROR)
+                .registerTypeAdapter(CalibrationResult.StandardDeviation.class, STANDARD_DEVIATION)
+                .registerTypeAdapter(Request.class, REQUEST)
+                .registerTypeAdapter(TrackerGetRequest.class, TRACKER_GET_REQUEST)
+                .registerTypeAdapter(TrackerSetRequest.class, TRACKER_SET_REQUEST)
+                .registerTypeAdapter(TrackerSetRequest.Values.class, TRACKER_SET_VALUES)
+                .registerTypeAdapter(CalibrationStartRequest.class, CALIBRATION_START_REQUEST)
+                .registerTypeAdapter(CalibrationStartRequest.Values.class, CALIBRATION_START_VALUES)
+                .registerTypeAdapter(CalibrationPointStartRequest.class, CALIBRATION_POINT_START_REQUEST)
+                .registerTypeAdapter(CalibrationPointStartRequest.Values.class, CALIBRATION_POINT_START_VALUES)
+                .registerTypeAdapter(CalibrationPointEndRequest.class, CALIBRATION_POINT_END_REQUEST)
+                .registerTypeAdapter(Response.class, RESPONSE)
+                .registerTypeAdapter(ResponseFailed.class, RESPONSE_FAILED)
+                .registerTypeAdapter(ResponseFailed.Values.class, RESPONSE_FAILED_VALUES)
+                .registerTypeAdapter(TrackerGetResponse.class, TRACKER_GET_RESPONSE)
+                .registerTypeAdapter(TrackerGetResponse.Values.class, TRACKER_GET_VALUES)
+                .registerTypeAdapter(CalibrationPointEndResponse.class, CALIBRATION_POINT_END_RESPONSE)
+                .registerTypeAdapter(CalibrationPointEndResponse.Values.class, CALIBRATION_POINT_END_VALUES);
+    }
+
+    /**
+     * Returned by {@link #readPushedFrame(String, GazeData, int)} for messages other than pushed frames
+     */
+    public static final int NOT_PUSHED_FRAME = -1;
+
+    /**
+     * Reads a gaze data frame pushed by the EyeTribe Server straight from the message JSON into the values of a gaze
+     * sample. Members of the frame not part of a sample are skipped without being converted.
+     * <p>
+     * A pushed frame is a successful tracker get message without id whose values hold only a frame. Other messages are
+     * rejected, possibly after reading part of their frame into the sample, and must be parsed as usual.
+     *
+     * @param message JSON message as received
+     * @param sample sample to read into
+     * @return true if message is a pushed frame and was read, false otherwise
+     */
+    public static boolean readPushedFrame(String message, GazeSampleQueue.Sample sample)
+    {
+        sample.clear();
+
+        return readPushedFrameMessage(message, sample, null, 0) != NOT_PUSHED_FRAME;
+    }
+
+    /**
+     * Reads selected fields of a gaze data frame pushed by the EyeTribe Server into a GazeData, in the same pass that
+     * checks the message is a pushed frame. Members of fields not selected are skipped without being converted.
+     * <p>
+     * Other messages are rejected, mostly at their first members and possibly after reading part of their frame into
+     * the GazeData, and must be parsed as usual.
+     *
+     * @param message JSON message as received
+     * @param value GazeData to read into
+     * @param fields bitmask of {@link GazeData} FIELD_ constants to read
+     * @return bitmask of FIELD_ constants of fields read, or NOT_PUSHED_FRAME if message is not a pushed frame
+     */
+    public static int readPushedFrame(String message, GazeData value, int fields)
+    {
+        return readPushedFrameMessage(message, null, value, fields);
+    }
+
+    private static int readPushedFrameMessage(String message, GazeSampleQueue.Sample sample, GazeData value,
+            int fields)
+    {
+        JsonReader in = new JsonReader(new StringReader(message));
+        in.setLenient(true);
+
+        boolean hasFrame = false;
+        int read = 0;
+        boolean isGet = false;
+        boolean isTracker = false;
+        boolean isOk = false;
+
+        try
+        {
+            in.beginObject();
+            while (in.hasNext())
+            {
+                String name = in.nextName();
+
+                // members are checked as they come, so that other messages are rejected early
+                if (Protocol.KEY_ID.equals(name))
+                {
+                    if (readInt(in, 0) != 0)
+                        return NOT_PUSHED_FRAME;
+                }
+                else if (Protocol.KEY_STATUSCODE.equals(name))
+                {
+                    if (!(isOk = readInt(in, 0) == HttpURLConnection.HTTP_OK))
+                        return NOT_PUSHED_FRAME;
+                }
+                else if (Protocol.KEY_CATEGORY.equals(name))
+                {
+                    if (!(isTracker = Protocol.CATEGORY_TRACKER.equals(readString(in))))
+                        return NOT_PUSHED_FRAME;
+                }
+                else if (Protocol.KEY_REQUEST.equals(name))
+                {
+                    if (!(isGet = Protocol.TRACKER_REQUEST_GET.equals(readString(in))))
+                        return NOT_PUSHED_FRAME;
+                }
+                else if (Protocol.KEY_VALUES.equals(name))
+                {
+                    if (in.peek() != JsonToken.BEGIN_OBJECT)
+                        return NOT_PUSHED_FRAME;
+
+                    in.beginObject();
+                    while (in.hasNext())
+                    {
+                        // state values are dispatched as a response
+                        if (!Protocol.TRACKER_FRAME.equals(in.nextName()) || in.peek() != JsonToken.BEGIN_OBJECT)
+                            return NOT_PUSHED_FRAME;
+
+                        if (null != sample)
+                            readGazeSample(in, sample);
+                        else if (null != value)
+                            read = readGazeDataMembers(in, value, fields);
+                        else
+                            in.skipValue();
+
+                        hasFrame = true;
+                    }
+                    in.endObject();
+                }
+                else
+                {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+        }
+        catch (IOException ioe)
+        {
+            // malformed, left to the parser to report
+            return NOT_PUSHED_FRAME;
+        }
+        catch (IllegalStateException ise)
+        {
+            return NOT_PUSHED_FRAME;
+        }
+        catch (NumberFormatException nfe)
+        {
+            return NOT_PUSHED_FRAME;
+        }
+        catch (JsonParseException jpe)
+        {
+            // numbers are rethrown as syntax errors by readInt and readLong
+            return NOT_PUSHED_FRAME;
+        }
+
+        return hasFrame && isGet && isTracker && isOk ? read : NOT_PUSHED_FRAME;
+    }
+
+    private static void readGazeSample(JsonReader in, GazeSampleQueue.Sample sample) throws IOException
+    {
+        in.beginObject();
+        while (in.hasNext())
+        {
+            String name = in.nextName();
+
+            if (Protocol.FRAME_TIME.equals(name))
+                sample.timeStamp = readLong(in, sample.timeStamp);
+            else if (Protocol.FRAME_STATE.equals(name))
+                sample.state = readInt(in, sample.state);
+            else if (Protocol.FRAME_FIXATION.equals(name))
+                sample.isFixated = readBoolean(in, sample.isFixated);
+            else if (Protocol.FRAME_AVERAGE_COORDINATES.equals(name) && in.peek() == JsonToken.BEGIN_OBJECT)
+                readGazeSampleCoordinates(in, sample);
+            else if (Protocol.FRAME_LEFT_EYE.equals(name) && in.peek() == JsonToken.BEGIN_OBJECT)
+                sample.leftPupilSize = readPupilSize(in);
+            else if (Protocol.FRAME_RIGHT_EYE.equals(name) && in.peek() == JsonToken.BEGIN_OBJECT)
+                sample.rightPupilSize = readPupilSize(in);
+            else
+                in.skipValue();
+        }
+        in.endObject();
+    }
+
+    private static void readGazeSampleCoordinates(JsonReader in, GazeSampleQueue.Sample sample) throws IOException
+    {
+        in.beginObject();
+        while (in.hasNext())
+        {
+            String name = in.nextName();
+
+            if (Protocol.FRAME_X.equals(name))
+                sample.x = readFloat(in, sample.x);
+            else if (Protocol.FRAME_Y.equals(name))
+                sample.y = readFloat(in, sample.y);
+            else
+                in.skipValue();
+        }
+        in.endObject();
+    }
+
+    private static float readPupilSize(JsonReader in) throws IOException
+    {
+        float pupilSize = 0f;
+
+        in.beginObject();
+        while (in.hasNext())
+        {
+            if (Protocol.FRAME_EYE_PUPIL_SIZE.equals(in.nextName()))
+                pupilSize = readFloat(in, pupilSize);
+            else
+                in.skipValue();
+        }
+        in.endObject();
+
+        return pupilSize;
+    }
+
+    /**
+     * Reads selected fields of a frame into a GazeData straight from its JSON, skipping members of other fields
+     * without converting them
+     *
+     * @param json JSON frame object, or JSON message holding the frame in its values
+     * @param value GazeData to read into
+     * @param fields bitmask of {@link GazeData} FIELD_ constants to read
+     * @return bitmask of FIELD_ constants of fields read, fields missing in JSON are not set
+     */
+    public static int readGazeData(String json, GazeData value, int fields)
+    {
+        JsonReader in = new JsonReader(new StringReader(json));
+        in.setLenient(true);
+
+        try
+        {
+            return readGazeDataMembers(in, value, fields);
+        }
+        catch (IOException ioe)
+        {
+            throw new JsonSyntaxException(ioe);
+        }
+    }
+
+    private static int readGazeDataMembers(JsonReader in, GazeData value, int fields) throws IOException
+    {
+        int read = 0;
+
+        in.beginObject();
+        while (in.hasNext())
+        {
+            String name = in.nextName();
+            int field = getGazeField(name);
+
+            if (field == 0)
+            {
+                // members of messages and frames are disjoint, so a message is read by descending to its frame
+                if ((Protocol.KEY_VALUES.equals(name) || Protocol.TRACKER_FRAME.equals(name))
+                        && in.peek() == JsonToken.BEGIN_OBJECT)
+                    read |= readGazeDataMembers(in, value, fields);
+                else
+                    in.skipValue();
+
+                continue;
+            }
+
+            if ((fields & field) == 0)
+            {
+                in.skipValue();
+                continue;
+            }
+
+            // as with GAZE_DATA, null objects are read as null and null primitives keep their defaults
+            switch (field)
+            {
+                case GazeData.FIELD_STATE:
+                    value.state = readInt(in, value.state);
+                    break;
+                case GazeData.FIELD_TIME:
+                    value.timeStamp = readLong(in, value.timeStamp);
+                    break;
+                case GazeData.FIELD_TIMESTAMP:
+                    value.timeStampString = readString(in);
+                    break;
+                case GazeData.FIELD_RAW_COORDINATES:
+                    value.rawCoordinates = POINT_2D.read(in);
+                    break;
+                case GazeData.FIELD_SMOOTHED_COORDINATES:
+                    value.smoothedCoordinates = POINT_2D.read(in);
+                    break;
+                case GazeData.FIELD_LEFT_EYE:
+                    value.leftEye = EYE.read(in);
+                    break;
+                case GazeData.FIELD_RIGHT_EYE:
+                    value.rightEye = EYE.read(in);
+                    break;
+                case GazeData.FIELD_FIXATION:
+                    value.isFixated = readBoolean(in, value.isFixated);
+                    break;
+            }
+
+            read |= field;
+        }
+        in.endObject();
+
+        return read;
+    }
+
+    private static int getGazeField(String name)
+    {
+        if (Protocol.FRAME_STATE.equals(name))
+            return GazeData.FIELD_STATE;
+        if (Protocol.FRAME_TIME.equals(name))
+            return GazeData.FIELD_TIME;
+        if (Protocol.FRAME_TIMESTAMP.equals(name))
+            return GazeData.FIELD_TIMESTAMP;
+        if (Protocol.FRAME_RAW_COORDINATES.equals(name))
+            return GazeData.FIELD_RAW_COORDINATES;
+        if (Protocol.FRAME_AVERAGE_COORDINATES.equals(name))
+            return GazeData.FIELD_SMOOTHED_COORDINATES;
+        if (Protocol.FRAME_LEFT_EYE.equals(name))
+            return GazeData.FIELD_LEFT_EYE;
+        if (Protocol.FRAME_RIGHT_EYE.equals(name))
+            return GazeData.FIELD_RIGHT_EYE;
+        if (Protocol.FRAME_FIXATION.equals(name))
+            return GazeData.FIELD_FIXATION;
+
+        // unknown members are skipped
+        return 0;
+    }
+
+    /**
+     * Base of adapters for JSON objects, handling null values and skipping unknown fields
+     */
+    private static abstract class ObjectAdapter<T> extends TypeAdapter<T>
+    {
+        abstract T create();
+
+        /**
+         * @return false if field is unknown and its value was not consumed
+         */
+        abstract boolean readField(JsonReader in, String name, T value) throws IOException;
+
+        abstract void writeFields(JsonWriter out, T value) throws IOException;
+
+        @Override
+        public T read(JsonReader in) throws IOException
+        {
+            if (in.peek() == JsonToken.NULL)
+            {
+                in.nextNull();
+                return null;
+            }
+
+            T value = create();
+
+            in.beginObject();
+            while (in.hasNext())
+            {
+                if (!readField(in, in.nextName(), value))
+                    in.skipValue();
+            }
+            in.endObject();
+
+            return value;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException
+        {
+            if (null == value)
+            {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            writeFields(out, value);
+            out.endObject();
+        }
+    }
+
+    static final TypeAdapter<Point2D> POINT_2D = new ObjectAdapter<Point2D>()
+    {
+        @Override
+        Point2D create()
+        {
+            return new Point2D();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Point2D value) throws IOException
+        {
+            if (Protocol.FRAME_X.equals(name))
+                value.x = readFloat(in, value.x);
+            else if (Protocol.FRAME_Y.equals(name))
+                value.y = readFloat(in, value.y);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Point2D value) throws IOException
+        {
+            writeFloat(out.name(Protocol.FRAME_X), value.x);
+            writeFloat(out.name(Protocol.FRAME_Y), value.y);
+        }
+    };
+
+    static final TypeAdapter<Point3D> POINT_3D = new ObjectAdapter<Point3D>()
+    {
+        @Override
+        Point3D create()
+        {
+            return new Point3D();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Point3D value) throws IOException
+        {
+            if ("x".equals(name))
+                value.x = readFloat(in, value.x);
+            else if ("y".equals(name))
+                value.y = readFloat(in, value.y);
+            else if ("z".equals(name))
+                value.z = readFloat(in, value.z);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Point3D value) throws IOException
+        {
+            writeFloat(out.name("x"), value.x);
+            writeFloat(out.name("y"), value.y);
+            writeFloat(out.name("z"), value.z);
+        }
+    };
+
+    static final TypeAdapter<GazeData.Eye> EYE = new ObjectAdapter<GazeData.Eye>()
+    {
+        @Override
+        GazeData.Eye create()
+        {
+            return new GazeData.Eye();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, GazeData.Eye value) throws IOException
+        {
+            if (Protocol.FRAME_RAW_COORDINATES.equals(name))
+                value.rawCoordinates = POINT_2D.read(in);
+            else if (Protocol.FRAME_AVERAGE_COORDINATES.equals(name))
+                value.smoothedCoordinates = POINT_2D.read(in);
+            else if (Protocol.FRAME_EYE_PUPIL_CENTER.equals(name))
+                value.pupilCenterCoordinates = POINT_2D.read(in);
+            else if (Protocol.FRAME_EYE_PUPIL_SIZE.equals(name))
+                value.pupilSize = readFloat(in, value.pupilSize);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, GazeData.Eye value) throws IOException
+        {
+            POINT_2D.write(out.name(Protocol.FRAME_RAW_COORDINATES), value.rawCoordinates);
+            POINT_2D.write(out.name(Protocol.FRAME_AVERAGE_COORDINATES), value.smoothedCoordinates);
+            POINT_2D.write(out.name(Protocol.FRAME_EYE_PUPIL_CENTER), value.pupilCenterCoordinates);
+            writeFloat(out.name(Protocol.FRAME_EYE_PUPIL_SIZE), value.pupilSize);
+        }
+    };
+
+    static final TypeAdapter<GazeData> GAZE_DATA = new ObjectAdapter<GazeData>()
+    {
+        @Override
+        GazeData create()
+        {
+            return new GazeData();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, GazeData value) throws IOException
+        {
+            if (Protocol.FRAME_STATE.equals(name))
+                value.state = readInt(in, value.state);
+            else if (Protocol.FRAME_TIME.equals(name))
+                value.timeStamp = readLong(in, value.timeStamp);
+            else if (Protocol.FRAME_TIMESTAMP.equals(name))
+                value.timeStampString = readString(in);
+            else if (Protocol.FRAME_RAW_COORDINATES.equals(name))
+                value.rawCoordinates = POINT_2D.read(in);
+            else if (Protocol.FRAME_AVERAGE_COORDINATES.equals(name))
+                value.smoothedCoordinates = POINT_2D.read(in);
+            else if (Protocol.FRAME_LEFT_EYE.equals(name))
+                value.leftEye = EYE.read(in);
+            else if (Protocol.FRAME_RIGHT_EYE.equals(name))
+                value.rightEye = EYE.read(in);
+            else if (Protocol.FRAME_FIXATION.equals(name))
+                value.isFixated = readBoolean(in, value.isFixated);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, GazeData value) throws IOException
+        {
+            value.decodeFields(GazeData.FIELDS_ALL);
+
+            out.name(Protocol.FRAME_STATE).value(value.state);
+            out.name(Protocol.FRAME_TIME).value(value.timeStamp);
+            out.name(Protocol.FRAME_TIMESTAMP).value(value.timeStampString);
+            POINT_2D.write(out.name(Protocol.FRAME_RAW_COORDINATES), value.rawCoordinates);
+            POINT_2D.write(out.name(Protocol.FRAME_AVERAGE_COORDINATES), value.smoothedCoordinates);
+            EYE.write(out.name(Protocol.FRAME_LEFT_EYE), value.leftEye);
+            EYE.write(out.name(Protocol.FRAME_RIGHT_EYE), value.rightEye);
+            out.name(Protocol.FRAME_FIXATION).value(value.isFixated);
+        }
+    };
+
+    static final TypeAdapter<CalibrationResult.Accuracy> ACCURACY = new ObjectAdapter<CalibrationResult.Accuracy>()
+    {
+        @Override
+        CalibrationResult.Accuracy create()
+        {
+            return new CalibrationResult.Accuracy();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, CalibrationResult.Accuracy value) throws IOException
+        {
+            if (Protocol.CALIBRESULT_ACCURACY_AVERAGE_DEGREES.equals(name))
+                value.accuracyDegrees = readFloat(in, value.accuracyDegrees);
+            else if (Protocol.CALIBRESULT_ACCURACY_LEFT_DEGREES.equals(name))
+                value.accuracyDegreesLeft = readFloat(in, value.accuracyDegreesLeft);
+            else if (Protocol.CALIBRESULT_ACCURACY_RIGHT_DEGREES.equals(name))
+                value.accuracyDegreesRight = readFloat(in, value.accuracyDegreesRight);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, CalibrationResult.Accuracy value) throws IOException
+        {
+            writeFloat(out.name(Protocol.CALIBRESULT_ACCURACY_AVERAGE_DEGREES), value.accuracyDegrees);
+            writeFloat(out.name(Protocol.CALIBRESULT_ACCURACY_LEFT_DEGREES), value.accuracyDegreesLeft);
+            writeFloat(out.name(Protocol.CALIBRESULT_ACCURACY_RIGHT_DEGREES), value.accuracyDegreesRight);
+        }
+    };
+
+    static final TypeAdapter<CalibrationResult.MeanError> MEAN_ERROR = new ObjectAdapter<CalibrationResult.MeanError>()
+    {
+        @Override
+        CalibrationResult.MeanError create()
+        {
+            return new CalibrationResult.MeanError();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, CalibrationResult.MeanError value) throws IOException
+        {
+            if (Protocol.CALIBRESULT_MEAN_ERROR_AVERAGE_PIXELS.equals(name))
+                value.meanErrorPixels = readFloat(in, value.meanErrorPixels);
+            else if (Protocol.CALIBRESULT_MEAN_ERROR_LEFT_PIXELS.equals(name))
+                value.meanErrorPixelsLeft = readFloat(in, value.meanErrorPixelsLeft);
+            else if (Protocol.CALIBRESULT_MEAN_ERROR_RIGHT_PIXELS.equals(name))
+                value.meanErrorPixelsRight = readFloat(in, value.meanErrorPixelsRight);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, CalibrationResult.MeanError value) throws IOException
+        {
+            writeFloat(out.name(Protocol.CALIBRESULT_MEAN_ERROR_AVERAGE_PIXELS), value.meanErrorPixels);
+            writeFloat(out.name(Protocol.CALIBRESULT_MEAN_ERROR_LEFT_PIXELS), value.meanErrorPixelsLeft);
+            writeFloat(out.name(Protocol.CALIBRESULT_MEAN_ERROR_RIGHT_PIXELS), value.meanErrorPixelsRight);
+        }
+    };
+
+    static final TypeAdapter<CalibrationResult.StandardDeviation> STANDARD_DEVIATION =
+            new ObjectAdapter<CalibrationResult.StandardDeviation>()
+    {
+        @Override
+        CalibrationResult.StandardDeviation create()
+        {
+            return new CalibrationResult.StandardDeviation();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, CalibrationResult.StandardDeviation value) throws IOException
+        {
+            if (Protocol.CALIBRESULT_STANDARD_DEVIATION_AVERAGE_PIXELS.equals(name))
+                value.averageStandardDeviationPixels = readFloat(in, value.averageStandardDeviationPixels);
+            else if (Protocol.CALIBRESULT_STANDARD_DEVIATION_LEFT_PIXELS.equals(name))
+                value.averageStandardDeviationPixelsLeft = readFloat(in, value.averageStandardDeviationPixelsLeft);
+            else if (Protocol.CALIBRESULT_STANDARD_DEVIATION_RIGHT_PIXELS.equals(name))
+                value.averageStandardDeviationPixelsRight = readFloat(in, value.averageStandardDeviationPixelsRight);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, CalibrationResult.StandardDeviation value) throws IOException
+        {
+            writeFloat(out.name(Protocol.CALIBRESULT_STANDARD_DEVIATION_AVERAGE_PIXELS),
+                    value.averageStandardDeviationPixels);
+            writeFloat(out.name(Protocol.CALIBRESULT_STANDARD_DEVIATION_LEFT_PIXELS),
+                    value.averageStandardDeviationPixelsLeft);
+            writeFloat(out.name(Protocol.CALIBRESULT_STANDARD_DEVIATION_RIGHT_PIXELS),
+                    value.averageStandardDeviationPixelsRight);
+        }
+    };
+
+    static final TypeAdapter<CalibrationResult.CalibrationPoint> CALIBRATION_POINT =
+            new ObjectAdapter<CalibrationResult.CalibrationPoint>()
+    {
+        @Override
+        CalibrationResult.CalibrationPoint create()
+        {
+            return new CalibrationResult.CalibrationPoint();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, CalibrationResult.CalibrationPoint value) throws IOException
+        {
+            if (Protocol.CALIBRESULT_STATE.equals(name))
+                value.state = readInt(in, value.state);
+            else if (Protocol.CALIBRESULT_COORDINATES.equals(name))
+                value.coordinates = POINT_2D.read(in);
+            else if (Protocol.CALIBRESULT_MEAN_ESTIMATED_COORDINATES.equals(name))
+                value.meanEstimatedCoords = POINT_2D.read(in);
+            else if (Protocol.CALIBRESULT_ACCURACIES_DEGREES.equals(name))
+                value.accuracy = ACCURACY.read(in);
+            else if (Protocol.CALIBRESULT_MEAN_ERRORS_PIXELS.equals(name))
+                value.meanError = MEAN_ERROR.read(in);
+            else if (Protocol.CALIBRESULT_STANDARD_DEVIATION_PIXELS.equals(name))
+                value.standardDeviation = STANDARD_DEVIATION.read(in);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, CalibrationResult.CalibrationPoint value) throws IOException
+        {
+            out.name(Protocol.CALIBRESULT_STATE).value(value.state);
+            POINT_2D.write(out.name(Protocol.CALIBRESULT_COORDINATES), value.coordinates);
+            POINT_2D.write(out.name(Protocol.CALIBRESULT_MEAN_ESTIMATED_COORDINATES), value.meanEstimatedCoords);
+            ACCURACY.write(out.name(Protocol.CALIBRESULT_ACCURACIES_DEGREES), value.accuracy);
+            MEAN_ERROR.write(out.name(Protocol.CALIBRESULT_MEAN_ERRORS_PIXELS), value.meanError);
+            STANDARD_DEVIATION.write(out.name(Protocol.CALIBRESULT_STANDARD_DEVIATION_PIXELS), value.standardDeviation);
+        }
+    };
+
+    static final TypeAdapter<CalibrationResult> CALIBRATION_RESULT = new ObjectAdapter<CalibrationResult>()
+    {
+        @Override
+        CalibrationResult create()
+        {
+            return new CalibrationResult();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, CalibrationResult value) throws IOException
+        {
+            if (Protocol.CALIBRESULT_RESULT.equals(name))
+                value.result = readBoolean(in, value.result);
+            else if (Protocol.CALIBRESULT_AVERAGE_ERROR_DEGREES.equals(name))
+                value.averageErrorDegree = readFloat(in, value.averageErrorDegree);
+            else if (Protocol.CALIBRESULT_AVERAGE_ERROR_LEFT_DEGREES.equals(name))
+                value.averageErrorDegreeLeft = readFloat(in, value.averageErrorDegreeLeft);
+            else if (Protocol.CALIBRESULT_AVERAGE_ERROR_RIGHT_DEGREES.equals(name))
+                value.averageErrorDegreeRight = readFloat(in, value.averageErrorDegreeRight);
+            else if (Protocol.CALIBRESULT_CALIBRATION_POINTS.equals(name))
+                value.calibpoints = readCalibrationPoints(in);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, CalibrationResult value) throws IOException
+        {
+            out.name(Protocol.CALIBRESULT_RESULT).value(value.result);
+            writeFloat(out.name(Protocol.CALIBRESULT_AVERAGE_ERROR_DEGREES), value.averageErrorDegree);
+            writeFloat(out.name(Protocol.CALIBRESULT_AVERAGE_ERROR_LEFT_DEGREES), value.averageErrorDegreeLeft);
+            writeFloat(out.name(Protocol.CALIBRESULT_AVERAGE_ERROR_RIGHT_DEGREES), value.averageErrorDegreeRight);
+
+            out.name(Protocol.CALIBRESULT_CALIBRATION_POINTS);
+            if (null == value.calibpoints)
+            {
+                out.nullValue();
+            }
+            else
+            {
+                out.beginArray();
+                for (CalibrationResult.CalibrationPoint cp : value.calibpoints)
+                    CALIBRATION_POINT.write(out, cp);
+                out.endArray();
+            }
+        }
+    };
+
+    static final TypeAdapter<Request<?>> REQUEST = new ObjectAdapter<Request<?>>()
+    {
+        @Override
+        Request<?> create()
+        {
+            return new Request<>(Response.class);
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Request<?> value) throws IOException
+        {
+            return readRequestField(in, name, value);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Request<?> value) throws IOException
+        {
+            writeRequestFields(out, value);
+        }
+    };
+
+    static final TypeAdapter<TrackerGetRequest> TRACKER_GET_REQUEST = new ObjectAdapter<TrackerGetRequest>()
+    {
+        @Override
+        TrackerGetRequest create()
+        {
+            return new TrackerGetRequest();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, TrackerGetRequest value) throws IOException
+        {
+            if (Protocol.KEY_VALUES.equals(name))
+                value.values = readStringArray(in);
+            else
+                return readRequestField(in, name, value);
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, TrackerGetRequest value) throws IOException
+        {
+            writeStringArray(out.name(Protocol.KEY_VALUES), value.values);
+            writeRequestFields(out, value);
+        }
+    };
+
+    static final TypeAdapter<TrackerSetRequest.Values> TRACKER_SET_VALUES =
+            new ObjectAdapter<TrackerSetRequest.Values>()
+    {
+        @Override
+        TrackerSetRequest.Values create()
+        {
+            return new TrackerSetRequest.Values();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, TrackerSetRequest.Values value) throws IOException
+        {
+            if (Protocol.TRACKER_VERSION.equals(name))
+                value.version = readInteger(in);
+            else if (Protocol.TRACKER_SCREEN_INDEX.equals(name))
+                value.screenIndex = readInteger(in);
+            else if (Protocol.TRACKER_SCREEN_RESOLUTION_WIDTH.equals(name))
+                value.screenResolutionWidth = readInteger(in);
+            else if (Protocol.TRACKER_SCREEN_RESOLUTION_HEIGHT.equals(name))
+                value.screenResolutionHeight = readInteger(in);
+            else if (Protocol.TRACKER_SCREEN_PHYSICAL_WIDTH.equals(name))
+                value.screenPhysicalWidth = readFloatObject(in);
+            else if (Protocol.TRACKER_SCREEN_PHYSICAL_HEIGHT.equals(name))
+                value.screenPhysicalHeight = readFloatObject(in);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, TrackerSetRequest.Values value) throws IOException
+        {
+            out.name(Protocol.TRACKER_VERSION).value(value.version);
+            out.name(Protocol.TRACKER_SCREEN_INDEX).value(value.screenIndex);
+            out.name(Protocol.TRACKER_SCREEN_RESOLUTION_WIDTH).value(value.screenResolutionWidth);
+            out.name(Protocol.TRACKER_SCREEN_RESOLUTION_HEIGHT).value(value.screenResolutionHeight);
+            out.name(Protocol.TRACKER_SCREEN_PHYSICAL_WIDTH).value(value.screenPhysicalWidth);
+            out.name(Protocol.TRACKER_SCREEN_PHYSICAL_HEIGHT).value(value.screenPhysicalHeight);
+        }
+    };
+
+    static final TypeAdapter<TrackerSetRequest> TRACKER_SET_REQUEST = new ObjectAdapter<TrackerSetRequest>()
+    {
+        @Override
+        TrackerSetRequest create()
+        {
+            return new TrackerSetRequest();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, TrackerSetRequest value) throws IOException
+        {
+            if (Protocol.KEY_VALUES.equals(name))
+                value.values = TRACKER_SET_VALUES.read(in);
+            else
+                return readRequestField(in, name, value);
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, TrackerSetRequest value) throws IOException
+        {
+            TRACKER_SET_VALUES.write(out.name(Protocol.KEY_VALUES), value.values);
+            writeRequestFields(out, value);
+        }
+    };
+
+    static final TypeAdapter<CalibrationStartRequest.Values> CALIBRATION_START_VALUES =
+            new ObjectAdapter<CalibrationStartRequest.Values>()
+    {
+        @Override
+        CalibrationStartRequest.Values create()
+        {
+            return new CalibrationStartRequest.Values();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, CalibrationStartRequest.Values value) throws IOException
+        {
+            if (Protocol.CALIBRATION_POINT_COUNT.equals(name))
+                value.pointcount = readInteger(in);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, CalibrationStartRequest.Values value) throws IOException
+        {
+            out.name(Protocol.CALIBRATION_POINT_COUNT).value(value.pointcount);
+        }
+    };
+
+    static final TypeAdapter<CalibrationStartRequest> CALIBRATION_START_REQUEST =
+            new ObjectAdapter<CalibrationStartRequest>()
+    {
+        @Override
+        CalibrationStartRequest create()
+        {
+            return new CalibrationStartRequest();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, CalibrationStartRequest value) throws IOException
+        {
+            if (Protocol.KEY_VALUES.equals(name))
+                value.values = CALIBRATION_START_VALUES.read(in);
+            else
+                return readRequestField(in, name, value);
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, CalibrationStartRequest value) throws IOException
+        {
+            CALIBRATION_START_VALUES.write(out.name(Protocol.KEY_VALUES), value.values);
+            writeRequestFields(out, value);
+        }
+    };
+
+    static final TypeAdapter<CalibrationPointStartRequest.Values> CALIBRATION_POINT_START_VALUES =
+            new ObjectAdapter<CalibrationPointStartRequest.Values>()
+    {
+        @Override
+        CalibrationPointStartRequest.Values create()
+        {
+            return new CalibrationPointStartRequest.Values();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, CalibrationPointStartRequest.Values value) throws IOException
+        {
+            if (Protocol.CALIBRATION_X.equals(name))
+                value.x = readInteger(in);
+            else if (Protocol.CALIBRATION_Y.equals(name))
+                value.y = readInteger(in);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, CalibrationPointStartRequest.Values value) throws IOException
+        {
+            out.name(Protocol.CALIBRATION_X).value(value.x);
+            out.name(Protocol.CALIBRATION_Y).value(value.y);
+        }
+    };
+
+    static final TypeAdapter<CalibrationPointStartRequest> CALIBRATION_POINT_START_REQUEST =
+            new ObjectAdapter<CalibrationPointStartRequest>()
+    {
+        @Override
+        CalibrationPointStartRequest create()
+        {
+            return new CalibrationPointStartRequest();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, CalibrationPointStartRequest value) throws IOException
+        {
+            if (Protocol.KEY_VALUES.equals(name))
+                value.values = CALIBRATION_POINT_START_VALUES.read(in);
+            else
+                return readRequestField(in, name, value);
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, CalibrationPointStartRequest value) throws IOException
+        {
+            CALIBRATION_POINT_START_VALUES.write(out.name(Protocol.KEY_VALUES), value.values);
+            writeRequestFields(out, value);
+        }
+    };
+
+    static final TypeAdapter<CalibrationPointEndRequest> CALIBRATION_POINT_END_REQUEST =
+            new ObjectAdapter<CalibrationPointEndRequest>()
+    {
+        @Override
+        CalibrationPointEndRequest create()
+        {
+            return new CalibrationPointEndRequest();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, CalibrationPointEndRequest value) throws IOException
+        {
+            if (Protocol.KEY_VALUES.equals(name))
+                value.values = readStringArray(in);
+            else
+                return readRequestField(in, name, value);
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, CalibrationPointEndRequest value) throws IOException
+        {
+            writeStringArray(out.name(Protocol.KEY_VALUES), value.values);
+            writeRequestFields(out, value);
+        }
+    };
+
+    static final TypeAdapter<Response> RESPONSE = new ObjectAdapter<Response>()
+    {
+        @Override
+        Response create()
+        {
+            return new Response();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Response value) throws IOException
+        {
+            return readResponseField(in, name, value);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Response value) throws IOException
+        {
+            writeResponseFields(out, value);
+        }
+    };
+
+    static final TypeAdapter<ResponseFailed.Values> RESPONSE_FAILED_VALUES = new ObjectAdapter<ResponseFailed.Values>()
+    {
+        @Override
+        ResponseFailed.Values create()
+        {
+            return new ResponseFailed.Values();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, ResponseFailed.Values value) throws IOException
+        {
+            if (Protocol.KEY_STATUSMESSAGE.equals(name))
+                value.statusMessage = readString(in);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, ResponseFailed.Values value) throws IOException
+        {
+            out.name(Protocol.KEY_STATUSMESSAGE).value(value.statusMessage);
+        }
+    };
+
+    static final TypeAdapter<ResponseFailed> RESPONSE_FAILED = new ObjectAdapter<ResponseFailed>()
+    {
+        @Override
+        ResponseFailed create()
+        {
+            return new ResponseFailed();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, ResponseFailed value) throws IOException
+        {
+            if (Protocol.KEY_VALUES.equals(name))
+                value.values = RESPONSE_FAILED_VALUES.read(in);
+            else
+                return readResponseField(in, name, value);
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, ResponseFailed value) throws IOException
+        {
+            RESPONSE_FAILED_VALUES.write(out.name(Protocol.KEY_VALUES), value.values);
+            writeResponseFields(out, value);
+        }
+    };
+
+    static final TypeAdapter<TrackerGetResponse.Values> TRACKER_GET_VALUES =
+            new ObjectAdapter<TrackerGetResponse.Values>()
+    {
+        @Override
+        TrackerGetResponse.Values create()
+        {
+            return new TrackerGetResponse.Values();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, TrackerGetResponse.Values value) throws IOException
+        {
+            if (Protocol.TRACKER_VERSION.equals(name))
+                value.version = readInteger(in);
+            else if (Protocol.TRACKER_ISCALIBRATING.equals(name))
+                value.isCalibrating = readBooleanObject(in);
+            else if (Protocol.TRACKER_ISCALIBRATED.equals(name))
+                value.isCalibrated = readBooleanObject(in);
+            else if (Protocol.CALIBRATION_CALIBRESULT.equals(name))
+                value.calibrationResult = CALIBRATION_RESULT.read(in);
+            else if (Protocol.TRACKER_SCREEN_INDEX.equals(name))
+                value.screenIndex = readInteger(in);
+            else if (Protocol.TRACKER_SCREEN_RESOLUTION_WIDTH.equals(name))
+                value.screenResolutionWidth = readInteger(in);
+            else if (Protocol.TRACKER_SCREEN_RESOLUTION_HEIGHT.equals(name))
+                value.screenResolutionHeight = readInteger(in);
+            else if (Protocol.TRACKER_SCREEN_PHYSICAL_WIDTH.equals(name))
+                value.screenPhysicalWidth = readFloatObject(in);
+            else if (Protocol.TRACKER_SCREEN_PHYSICAL_HEIGHT.equals(name))
+                value.screenPhysicalHeight = readFloatObject(in);
+            else if (Protocol.TRACKER_TRACKERSTATE.equals(name))
+                value.trackerState = readInteger(in);
+            else if (Protocol.TRACKER_FRAMERATE.equals(name))
+                value.frameRate = readInteger(in);
+            else if (Protocol.TRACKER_FRAME.equals(name))
+                value.frame = GAZE_DATA.read(in);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, TrackerGetResponse.Values value) throws IOException
+        {
+            out.name(Protocol.TRACKER_VERSION).value(value.version);
+            writeBooleanObject(out.name(Protocol.TRACKER_ISCALIBRATING), value.isCalibrating);
+            writeBooleanObject(out.name(Protocol.TRACKER_ISCALIBRATED), value.isCalibrated);
+            CALIBRATION_RESULT.write(out.name(Protocol.CALIBRATION_CALIBRESULT), value.calibrationResult);
+            out.name(Protocol.TRACKER_SCREEN_INDEX).value(value.screenIndex);
+            out.name(Protocol.TRACKER_SCREEN_RESOLUTION_WIDTH).value(value.screenResolutionWidth);
+            out.name(Protocol.TRACKER_SCREEN_RESOLUTION_HEIGHT).value(value.screenResolutionHeight);
+            out.name(Protocol.TRACKER_SCREEN_PHYSICAL_WIDTH).value(value.screenPhysicalWidth);
+            out.name(Protocol.TRACKER_SCREEN_PHYSICAL_HEIGHT).value(value.screenPhysicalHeight);
+            out.name(Protocol.TRACKER_TRACKERSTATE).value(value.trackerState);
+            out.name(Protocol.TRACKER_FRAMERATE).value(value.frameRate);
+            GAZE_DATA.write(out.name(Protocol.TRACKER_FRAME), value.frame);
+        }
+    };
+
+    static final TypeAdapter<TrackerGetResponse> TRACKER_GET_RESPONSE = new ObjectAdapter<TrackerGetResponse>()
+    {
+        @Override
+        TrackerGetResponse create()
+        {
+            return new TrackerGetResponse();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, TrackerGetResponse value) throws IOException
+        {
+            if (Protocol.KEY_VALUES.equals(name))
+                value.values = TRACKER_GET_VALUES.read(in);
+            else
+                return readResponseField(in, name, value);
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, TrackerGetResponse value) throws IOException
+        {
+            TRACKER_GET_VALUES.write(out.name(Protocol.KEY_VALUES), value.values);
+            writeResponseFields(out, value);
+        }
+    };
+
+    static final TypeAdapter<CalibrationPointEndResponse.Values> CALIBRATION_POINT_END_VALUES =
+            new ObjectAdapter<CalibrationPointEndResponse.Values>()
+    {
+        @Override
+        CalibrationPointEndResponse.Values create()
+        {
+            return new CalibrationPointEndResponse.Values();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, CalibrationPointEndResponse.Values value) throws IOException
+        {
+            if (Protocol.CALIBRATION_CALIBRESULT.equals(name))
+                value.calibrationResult = CALIBRATION_RESULT.read(in);
+            else
+                return false;
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, CalibrationPointEndResponse.Values value) throws IOException
+        {
+            CALIBRATION_RESULT.write(out.name(Protocol.CALIBRATION_CALIBRESULT), value.calibrationResult);
+        }
+    };
+
+    static final TypeAdapter<CalibrationPointEndResponse> CALIBRATION_POINT_END_RESPONSE =
+            new ObjectAdapter<CalibrationPointEndResponse>()
+    {
+        @Override
+        CalibrationPointEndResponse create()
+        {
+            return new CalibrationPointEndResponse();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, CalibrationPointEndResponse value) throws IOException
+        {
+            if (Protocol.KEY_VALUES.equals(name))
+                value.values = CALIBRATION_POINT_END_VALUES.read(in);
+            else
+                return readResponseField(in, name, value);
+
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, CalibrationPointEndResponse value) throws IOException
+        {
+            CALIBRATION_POINT_END_VALUES.write(out.name(Protocol.KEY_VALUES), value.values);
+            writeResponseFields(out, value);
+        }
+    };
+
+    private static boolean readRequestField(JsonReader in, String name, Request<?> value) throws IOException
+    {
+        if (Protocol.KEY_CATEGORY.equals(name))
+            value.category = readString(in);
+        else if (Protocol.KEY_REQUEST.equals(name))
+            value.request = readString(in);
+        else if (Protocol.KEY_ID.equals(name))
+            value.id = readInt(in, value.id);
+        else
+            return false;
+
+        return true;
+    }
+
+    private static void writeRequestFields(JsonWriter out, Request<?> value) throws IOException
+    {
+        out.name(Protocol.KEY_CATEGORY).value(value.category);
+        out.name(Protocol.KEY_REQUEST).value(value.request);
+        out.name(Protocol.KEY_ID).value(value.id);
+    }
+
+    private static boolean readResponseField(JsonReader in, String name, Response value) throws IOException
+    {
+        if (Protocol.KEY_CATEGORY.equals(name))
+            value.category = readString(in);
+        else if (Protocol.KEY_REQUEST.equals(name))
+            value.request = readString(in);
+        else if (Protocol.KEY_ID.equals(name))
+            value.id = readInt(in, value.id);
+        else if (Protocol.KEY_STATUSCODE.equals(name))
+            value.statuscode = readInt(in, value.statuscode);
+        else
+            return false;
+
+        return true;
+    }
+
+    private static void writeResponseFields(JsonWriter out, Response value) throws IOException
+    {
+        out.name(Protocol.KEY_CATEGORY).value(value.category);
+        out.name(Protocol.KEY_REQUEST).value(value.request);
+        out.name(Protocol.KEY_ID).value(value.id);
+        out.name(Protocol.KEY_STATUSCODE).value(value.statuscode);
+    }
+
+    private static CalibrationResult.CalibrationPoint[] readCalibrationPoints(JsonReader in) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return null;
+        }
+
+        List<CalibrationResult.CalibrationPoint> points = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext())
+            points.add(CALIBRATION_POINT.read(in));
+        in.endArray();
+
+        return points.toArray(new CalibrationResult.CalibrationPoint[points.size()]);
+    }
+
+    private static String[] readStringArray(JsonReader in) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return null;
+        }
+
+        List<String> strings = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext())
+            strings.add(readString(in));
+        in.endArray();
+
+        return strings.toArray(new String[strings.size()]);
+    }
+
+    private static void writeStringArray(JsonWriter out, String[] value) throws IOException
+    {
+        if (null == value)
+        {
+            out.nullValue();
+            return;
+        }
+
+        out.beginArray();
+        for (String s : value)
+            out.value(s);
+        out.endArray();
+    }
+
+    // primitive fields keep their value on null, as with Gson's reflective adapter
+
+    private static int readInt(JsonReader in, int fallback) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return fallback;
+        }
+
+        try
+        {
+            return in.nextInt();
+        }
+        catch (NumberFormatException nfe)
+        {
+            throw new JsonSyntaxException(nfe);
+        }
+    }
+
+    private static long readLong(JsonReader in, long fallback) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return fallback;
+        }
+
+        try
+        {
+            return in.nextLong();
+        }
+        catch (NumberFormatException nfe)
+        {
+            throw new JsonSyntaxException(nfe);
+        }
+    }
+
+    private static float readFloat(JsonReader in, float fallback) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return fallback;
+        }
+
+        return (float) in.nextDouble();
+    }
+
+    private static boolean readBoolean(JsonReader in, boolean fallback) throws IOException
+    {
+        switch (in.peek())
+        {
+            case NULL:
+                in.nextNull();
+                return fallback;
+            case STRING:
+                return Boolean.parseBoolean(in.nextString());
+            default:
+                return in.nextBoolean();
+        }
+    }
+
+    private static String readString(JsonReader in) throws IOException
+    {
+        switch (in.peek())
+        {
+            case NULL:
+                in.nextNull();
+                return null;
+            case BOOLEAN:
+                return Boolean.toString(in.nextBoolean());
+            default:
+                return in.nextString();
+        }
+    }
+
+    private static Integer readInteger(JsonReader in) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return null;
+        }
+
+        return readInt(in, 0);
+    }
+
+    private static Float readFloatObject(JsonReader in) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return null;
+        }
+
+        return readFloat(in, 0f);
+    }
+
+    private static Boolean readBooleanObject(JsonReader in) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return null;
+        }
+
+        return readBoolean(in, false);
+    }
+
+    private static void writeFloat(JsonWriter out, float value) throws IOException
+    {
+        // written as Float to match the shortest representation of Gson's float adapter
+        out.value(Float.valueOf(value));
+    }
+
+    private static void writeBooleanObject(JsonWriter out, Boolean value) throws IOException
+    {
+        if (null == value)
+            out.nullValue();
+        else
+            out.value(value.booleanValue());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk;
+
+/**
+ * Coalesces the state refreshes requested on EyeTribe Server update notifications.
+ * <p>
+ * Every {@link Protocol#STATUSCODE_CALIBRATION_UPDATE}, {@link Protocol#STATUSCODE_SCREEN_UPDATE} and
+ * {@link Protocol#STATUSCODE_TRACKER_UPDATE} asks for the states of its category to be requested. At most one such
+ * request per category is in flight. Refreshes asked for meanwhile are suppressed, and a single new request is sent
+ * once the one in flight has completed, as the states it returned may predate the latest update.
+ */
+public class StateUpdateCoalescer
+{
+    public static final int CATEGORY_CALIBRATION = 0;
+    public static final int CATEGORY_SCREEN = 1;
+    public static final int CATEGORY_TRACKER = 2;
+
+    static final int NUM_CATEGORIES = 3;
+
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_IN_FLIGHT = 1;
+    private static final int STATE_PENDING = 2;
+
+    private final int[] mStates = new int[NUM_CATEGORIES];
+    private final long[] mIssued = new long[NUM_CATEGORIES];
+    private final long[] mSuppressed = new long[NUM_CATEGORIES];
+
+    /**
+     * Asks for the states of a category to be refreshed
+     *
+     * @param category state category
+     * @return true if a request should be sent now, false if suppressed
+     */
+    public synchronized boolean tryStart(int category)
+    {
+        if (mStates[category] == STATE_IDLE)
+        {
+            mStates[category] = STATE_IN_FLIGHT;
+            ++mIssued[category];
+            return true;
+        }
+
+        mStates[category] = STATE_PENDING;
+        ++mSuppressed[category];
+        return false;
+    }
+
+    /**
+     * Marks the request in flight of a category as completed
+     *
+     * @param category state category
+     * @return true if refreshes were asked for while in flight and a new request should be sent now
+     */
+    public synchronized boolean complete(int category)
+    {
+        if (mStates[category] == STATE_PENDING)
+        {
+            mStates[category] = STATE_IN_FLIGHT;
+            ++mIssued[category];
+            return true;
+        }
+
+        mStates[category] = STATE_IDLE;
+        return false;
+    }
+
+    /**
+     * Forgets all requests in flight, e.g. as the connection closed. Counters are kept.
+     */
+    public synchronized void reset()
+    {
+        for (int i = 0; i < NUM_CATEGORIES; ++i)
+            mStates[i] = STATE_IDLE;
+    }
+
+    /**
+     * Forgets the request in flight of a category, e.g. as it was cancelled before being sent. Counters are kept.
+     *
+     * @param category state category
+     */
+    public synchronized void reset(int category)
+    {
+        mStates[category] = STATE_IDLE;
+    }
+
+    /**
+     * @param category state category
+     * @return true if a request of category is in flight
+     */
+    public synchronized boolean isInFlight(int category)
+    {
+        return mStates[category] != STATE_IDLE;
+    }
+
+    /**
+     * @param category state category
+     * @return number of requests sent for category
+     */
+    public synchronized long getIssuedCount(int category)
+    {
+        return mIssued[category];
+    }
+
+    /**
+     * @param category state category
+     * @return number of refreshes of category suppressed
+     */
+    public synchronized long getSuppressedCount(int category)
+    {
+        return mSuppressed[category];
+    }
+
+    /**
+     * @return number of refreshes suppressed in all categories
+     */
+    public synchronized long getSuppressedCount()
+    {
+        long suppressed = 0;
+        for (long s : mSuppressed)
+            suppressed += s;
+
+        return suppressed;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk;
+
+import com.theeyetribe.clientsdk.GazeManagerCore.ApiVersion;
+import com.theeyetribe.clientsdk.GazeManagerCore.FrameRate;
+import com.theeyetribe.clientsdk.GazeManagerCore.TrackerState;
+import com.theeyetribe.clientsdk.response.TrackerGetResponse;
+
+/**
+ * Immutable snapshot of the states of the EyeTribe Server and its tracker device.
+ * <p>
+ * GazeManager publishes a new snapshot on every change, so that all states read from one snapshot are consistent.
+ * Each snapshot has a revision one higher than the one it replaced, allowing callers to cache values derived from the
+ * states until the revision changes.
+ *
+ * @see GazeManager#getTrackerStatus()
+ */
+public final class TrackerStatus
+{
+    static final TrackerStatus UNDEFINED = new TrackerStatus(0, ApiVersion.VERSION_UNDEFINED,
+            TrackerState.TRACKER_UNDEFINED, FrameRate.FPS_UNDEFINED, false, false, 0, 0, 0, 0f, 0f);
+
+    private final long mRevision;
+    private final ApiVersion mApiVersion;
+    private final TrackerState mTrackerState;
+    private final FrameRate mFrameRate;
+    private final boolean mIsCalibrated;
+    private final boolean mIsCalibrating;
+    private final int mScreenIndex;
+    private final int mScreenResolutionWidth;
+    private final int mScreenResolutionHeight;
+    private final float mScreenPhysicalWidth;
+    private final float mScreenPhysicalHeight;
+
+    private TrackerStatus(long revision, ApiVersion apiVersion, TrackerState trackerState, FrameRate frameRate,
+            boolean isCalibrated, boolean isCalibrating, int screenIndex, int screenResolutionWidth,
+            int screenResolutionHeight, float screenPhysicalWidth, float screenPhysicalHeight)
+    {
+        mRevision = revision;
+        mApiVersion = apiVersion;
+        mTrackerState = trackerState;
+        mFrameRate = frameRate;
+        mIsCalibrated = isCalibrated;
+        mIsCalibrating = isCalibrating;
+        mScreenIndex = screenIndex;
+        mScreenResolutionWidth = screenResolutionWidth;
+        mScreenResolutionHeight = screenResolutionHeight;
+        mScreenPhysicalWidth = screenPhysicalWidth;
+        mScreenPhysicalHeight = screenPhysicalHeight;
+    }
+
+    /**
+     * @param values states returned by EyeTribe Server
+     * @return snapshot with states returned applied, this if none changed
+     */
+    TrackerStatus withValues(TrackerGetResponse.Values values)
+    {
+        ApiVersion apiVersion = null != values.version ? ApiVersion.fromInt(values.version) : mApiVersion;
+        TrackerState trackerState = null != values.trackerState ? TrackerState.fromInt(values.trackerState) : mTrackerState;
+        FrameRate frameRate = null != values.frameRate ? FrameRate.fromInt(values.frameRate) : mFrameRate;
+        boolean isCalibrated = null != values.isCalibrated ? values.isCalibrated : mIsCalibrated;
+        boolean isCalibrating = null != values.isCalibrating ? values.isCalibrating : mIsCalibrating;
+        int screenIndex = null != values.screenIndex ? values.screenIndex : mScreenIndex;
+        int screenResW = null != values.screenResolutionWidth ? values.screenResolutionWidth : mScreenResolutionWidth;
+        int screenResH = null != values.screenResolutionHeight ? values.screenResolutionHeight : mScreenResolutionHeight;
+        float screenPsyW = null != values.screenPhysicalWidth ? values.screenPhysicalWidth : mScreenPhysicalWidth;
+        float screenPsyH = null != values.screenPhysicalHeight ? values.screenPhysicalHeight : mScreenPhysicalHeight;
+
+        if (apiVersion == mApiVersion && trackerState == mTrackerState && frameRate == mFrameRate
+                && isCalibrated == mIsCalibrated && isCalibrating == mIsCalibrating && screenIndex == mScreenIndex
+                && screenResW == mScreenResolutionWidth && screenResH == mScreenResolutionHeight
+                && Float.compare(screenPsyW, mScreenPhysicalWidth) == 0
+                && Float.compare(screenPsyH, mScreenPhysicalHeight) == 0)
+            return this;
+
+        return new TrackerStatus(mRevision + 1, apiVersion, trackerState, frameRate, isCalibrated, isCalibrating,
+                screenIndex, screenResW, screenResH, screenPsyW, screenPsyH);
+    }
+
+    /**
+     * @param isCalibrated calibrated state, null to keep current
+     * @param isCalibrating calibrating state, null to keep current
+     * @return snapshot with calibration states applied, this if none changed
+     */
+    TrackerStatus withCalibration(Boolean isCalibrated, Boolean isCalibrating)
+    {
+        boolean calibrated = null != isCalibrated ? isCalibrated : mIsCalibrated;
+        boolean calibrating = null != isCalibrating ? isCalibrating : mIsCalibrating;
+
+        if (calibrated == mIsCalibrated && calibrating == mIsCalibrating)
+            return this;
+
+        return new TrackerStatus(mRevision + 1, mApiVersion, mTrackerState, mFrameRate, calibrated, calibrating,
+                mScreenIndex, mScreenResolutionWidth, mScreenResolutionHeight, mScreenPhysicalWidth,
+                mScreenPhysicalHeight);
+    }
+
+    /**
+     * @return snapshot with API version, tracker state and frame rate undefined, as when not activated
+     */
+    TrackerStatus withTrackerUndefined()
+    {
+        if (mApiVersion == ApiVersion.VERSION_UNDEFINED && mTrackerState == TrackerState.TRACKER_UNDEFINED
+                && mFrameRate == FrameRate.FPS_UNDEFINED)
+            return this;
+
+        return new TrackerStatus(mRevision + 1, ApiVersion.VERSION_UNDEFINED, TrackerState.TRACKER_UNDEFINED,
+                FrameRate.FPS_UNDEFINED, mIsCalibrated, mIsCalibrating, mScreenIndex, mScreenResolutionWidth,
+                mScreenResolutionHeight, mScreenPhysicalWidth, mScreenPhysicalHeight);
+    }
+
+    /**
+     * @return number of changes published before this snapshot
+     */
+    public long getRevision()
+    {
+        return mRevision;
+    }
+
+    public ApiVersion getApiVersion()
+    {
+        return mApiVersion;
+    }
+
+    public TrackerState getTrackerState()
+    {
+        return mTrackerState;
+    }
+
+    public FrameRate getFrameRate()
+    {
+        return mFrameRate;
+    }
+
+    public boolean isCalibrated()
+    {
+        return mIsCalibrated;
+    }
+
+    public boolean isCalibrating()
+    {
+        return mIsCalibrating;
+    }
+
+    public int getScreenIndex()
+    {
+        return mScreenIndex;
+    }
+
+    public int getScreenResolutionWidth()
+    {
+        return mScreenResolutionWidth;
+    }
+
+    public int getScreenResolutionHeight()
+    {
+        return mScreenResolutionHeight;
+    }
+
+    public float getScreenPhysicalWidth()
+    {
+        return mScreenPhysicalWidth;
+    }
+
+    public float getScreenPhysicalHeight()
+    {
+        return mScreenPhysicalHeight;
+    }
+}
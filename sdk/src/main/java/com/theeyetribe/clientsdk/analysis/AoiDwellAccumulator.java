@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.analysis;
+
+import com.theeyetribe.clientsdk.data.GazeData;
+import com.theeyetribe.clientsdk.data.Point2D;
+import com.theeyetribe.clientsdk.utils.AoiIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sums the time gaze dwelled on each area of interest (AOI). The time between two consecutive frames is added to
+ * every AOI hit by both, unless the frames are further apart than the max frame gap.
+ * <p>
+ * AOIs are looked up in an {@link AoiIndex} shared by all chunks. The index is treated as immutable during analysis and
+ * hit tested without locking, so that chunks are processed in parallel, hence it must not be modified until the
+ * analysis has completed. The AOIs hit by the first and last frame of a chunk are kept to account for the time between
+ * chunks when merging.
+ *
+ * @param <T> type of AOI keys
+ */
+public class AoiDwellAccumulator<T> implements IGazeAccumulator<AoiDwellAccumulator<T>>
+{
+    private static final int NO_TRACKING_MASK = GazeData.STATE_TRACKING_LOST | GazeData.STATE_TRACKING_FAIL
+            | GazeData.STATE_GAP;
+
+    private final AoiIndex<T> mIndex;
+    private final long mMaxFrameGapMillis;
+
+    private final Map<T, Long> mDwellMillis = new HashMap<>();
+
+    private boolean mIsEmpty = true;
+    private long mFirstTimeStamp;
+    private List<T> mFirstHits = new ArrayList<>();
+    private long mLastTimeStamp;
+    private List<T> mLastHits = new ArrayList<>();
+    private List<T> mHits = new ArrayList<>();
+
+    /**
+     * @param index AOIs to hit test against, not to be modified during analysis
+     */
+    public AoiDwellAccumulator(AoiIndex<T> index)
+    {
+        this(index, AoiIndex.DEFAULT_MAX_FRAME_GAP_MILLIS);
+    }
+
+    /**
+     * @param index AOIs to hit test against, not to be modified during analysis
+     * @param maxFrameGapMillis longest interval in milliseconds between frames that adds to dwell time
+     */
+    public AoiDwellAccumulator(AoiIndex<T> index, long maxFrameGapMillis)
+    {
+        if (null == index)
+            throw new IllegalArgumentException("AoiIndex cannot be null!");
+
+        mIndex = index;
+        mMaxFrameGapMillis = maxFrameGapMillis;
+    }
+
+    @Override
+    public void add(GazeData gazeData)
+    {
+        mHits.clear();
+
+        Point2D gaze = gazeData.smoothedCoordinates;
+        if ((gazeData.state & NO_TRACKING_MASK) == 0 && (gaze.x != 0 || gaze.y != 0))
+            mIndex.hitTestUnsynchronized(gaze.x, gaze.y, mHits);
+
+        if (mIsEmpty)
+        {
+            mIsEmpty = false;
+            mFirstTimeStamp = gazeData.timeStamp;
+            mFirstHits.addAll(mHits);
+        }
+        else
+        {
+            addDwell(mLastHits, mHits, gazeData.timeStamp - mLastTimeStamp);
+        }
+
+        List<T> swap = mLastHits;
+        mLastHits = mHits;
+        mHits = swap;
+        mLastTimeStamp = gazeData.timeStamp;
+    }
+
+    @Override
+    public AoiDwellAccumulator<T> copyEmpty()
+    {
+        return new AoiDwellAccumulator<>(mIndex, mMaxFrameGapMillis);
+    }
+
+    @Override
+    public void merge(AoiDwellAccumulator<T> next)
+    {
+        if (next.mIsEmpty)
+            return;
+
+        if (mIsEmpty)
+        {
+            mIsEmpty = false;
+            mFirstTimeStamp = next.mFirstTimeStamp;
+            mFirstHits.addAll(next.mFirstHits);
+        }
+        else
+        {
+            // time between last frame of this chunk and first frame of next
+            addDwell(mLastHits, next.mFirstHits, next.mFirstTimeStamp - mLastTimeStamp);
+        }
+
+        for (Map.Entry<T, Long> entry : next.mDwellMillis.entrySet())
+            addDwell(entry.getKey(), entry.getValue());
+
+        mLastHits.clear();
+        mLastHits.addAll(next.mLastHits);
+        mLastTimeStamp = next.mLastTimeStamp;
+    }
+
+    /**
+     * @param key key of AOI
+     * @return accumulated dwell time in milliseconds
+     */
+    public long getDwellMillis(T key)
+    {
+        Long dwell = mDwellMillis.get(key);
+        return null != dwell ? dwell : 0L;
+    }
+
+    /**
+     * @return accumulated dwell time in milliseconds of every AOI hit
+     */
+    public Map<T, Long> getDwellMillis()
+    {
+        return new HashMap<>(mDwellMillis);
+    }
+
+    private void addDwell(List<T> previous, List<T> current, long delta)
+    {
+        if (delta <= 0 || delta > mMaxFrameGapMillis)
+            return;
+
+        for (int i = 0; i < current.size(); ++i)
+            if (previous.contains(current.get(i)))
+                addDwell(current.get(i), delta);
+    }
+
+    private void addDwell(T key, long millis)
+    {
+        Long dwell = mDwellMillis.get(key);
+        mDwellMillis.put(key, null != dwell ? dwell + millis : millis);
+    }
+}
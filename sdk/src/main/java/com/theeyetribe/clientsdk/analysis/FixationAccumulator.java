@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.analysis;
+
+import com.theeyetribe.clientsdk.data.GazeData;
+
+/**
+ * Counts fixations and their durations, as reported through {@link GazeData#isFixated}.
+ * <p>
+ * A fixation is a run of consecutive tracked frames flagged as fixated. Its duration spans the time stamps of the
+ * first and last frame of the run. Fixations open at the start or end of a chunk are kept aside until merging tells
+ * whether they continue in the neighbouring chunk.
+ */
+public class FixationAccumulator implements IGazeAccumulator<FixationAccumulator>
+{
+    private static final int NO_TRACKING_MASK = GazeData.STATE_TRACKING_LOST | GazeData.STATE_TRACKING_FAIL
+            | GazeData.STATE_GAP | GazeData.STATE_BLINK;
+
+    private boolean mIsEmpty = true;
+    private boolean mStartsFixated;
+
+    // fixations entirely within chunk
+    private int mCount;
+    private long mTotalMillis;
+    private long mMinMillis = Long.MAX_VALUE;
+    private long mMaxMillis;
+
+    // fixation open at start of chunk that ended within it
+    private boolean mHasLeading;
+    private long mLeadingStart;
+    private long mLeadingEnd;
+
+    // fixation open at end of chunk, leading as well if spanning entire chunk
+    private boolean mInFixation;
+    private boolean mIsRunLeading;
+    private long mRunStart;
+    private long mRunEnd;
+
+    @Override
+    public void add(GazeData gazeData)
+    {
+        boolean isFixated = gazeData.isFixated && (gazeData.state & NO_TRACKING_MASK) == 0;
+
+        if (mIsEmpty)
+        {
+            mIsEmpty = false;
+            mStartsFixated = isFixated;
+        }
+
+        if (isFixated)
+        {
+            if (!mInFixation)
+            {
+                mInFixation = true;
+                mIsRunLeading = mStartsFixated && mCount == 0 && !mHasLeading;
+                mRunStart = gazeData.timeStamp;
+            }
+
+            mRunEnd = gazeData.timeStamp;
+        }
+        else if (mInFixation)
+        {
+            closeRun();
+        }
+    }
+
+    @Override
+    public FixationAccumulator copyEmpty()
+    {
+        return new FixationAccumulator();
+    }
+
+    @Override
+    public void merge(FixationAccumulator next)
+    {
+        if (next.mIsEmpty)
+            return;
+
+        if (mIsEmpty)
+        {
+            copy(next);
+            return;
+        }
+
+        boolean nextIsOneRun = next.mInFixation && next.mIsRunLeading;
+
+        if (mInFixation && next.mStartsFixated)
+        {
+            // fixation continues across boundary
+            if (nextIsOneRun)
+            {
+                mRunEnd = next.mRunEnd;
+            }
+            else
+            {
+                mRunEnd = next.mLeadingEnd;
+                closeRun();
+            }
+        }
+        else
+        {
+            if (mInFixation)
+                closeRun();
+
+            if (next.mHasLeading)
+                addFixation(next.mLeadingEnd - next.mLeadingStart);
+
+            if (nextIsOneRun)
+            {
+                mInFixation = true;
+                mIsRunLeading = false;
+                mRunStart = next.mRunStart;
+                mRunEnd = next.mRunEnd;
+            }
+        }
+
+        mCount += next.mCount;
+        mTotalMillis += next.mTotalMillis;
+        mMinMillis = Math.min(mMinMillis, next.mMinMillis);
+        mMaxMillis = Math.max(mMaxMillis, next.mMaxMillis);
+
+        if (!nextIsOneRun)
+        {
+            mInFixation = next.mInFixation;
+            mIsRunLeading = false;
+            mRunStart = next.mRunStart;
+            mRunEnd = next.mRunEnd;
+        }
+    }
+
+    /**
+     * @return number of fixations, including those open at the start and end of the data
+     */
+    public int getCount()
+    {
+        return mCount + (mHasLeading ? 1 : 0) + (mInFixation ? 1 : 0);
+    }
+
+    /**
+     * @return total fixation time in milliseconds
+     */
+    public long getTotalMillis()
+    {
+        return mTotalMillis + (mHasLeading ? mLeadingEnd - mLeadingStart : 0) + (mInFixation ? mRunEnd - mRunStart : 0);
+    }
+
+    /**
+     * @return mean fixation duration in milliseconds, 0 if no fixations
+     */
+    public float getMeanMillis()
+    {
+        int count = getCount();
+        return count > 0 ? (float) getTotalMillis() / count : 0f;
+    }
+
+    /**
+     * @return shortest fixation in milliseconds, 0 if no fixations
+     */
+    public long getMinMillis()
+    {
+        long min = mMinMillis;
+
+        if (mHasLeading)
+            min = Math.min(min, mLeadingEnd - mLeadingStart);
+        if (mInFixation)
+            min = Math.min(min, mRunEnd - mRunStart);
+
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    /**
+     * @return longest fixation in milliseconds
+     */
+    public long getMaxMillis()
+    {
+        long max = mMaxMillis;
+
+        if (mHasLeading)
+            max = Math.max(max, mLeadingEnd - mLeadingStart);
+        if (mInFixation)
+            max = Math.max(max, mRunEnd - mRunStart);
+
+        return max;
+    }
+
+    private void closeRun()
+    {
+        mInFixation = false;
+
+        if (mIsRunLeading)
+        {
+            // may continue in previous chunk, counted when merged
+            mHasLeading = true;
+            mLeadingStart = mRunStart;
+            mLeadingEnd = mRunEnd;
+            mIsRunLeading = false;
+        }
+        else
+        {
+            addFixation(mRunEnd - mRunStart);
+        }
+    }
+
+    private void addFixation(long millis)
+    {
+        ++mCount;
+        mTotalMillis += millis;
+        mMinMillis = Math.min(mMinMillis, millis);
+        mMaxMillis = Math.max(mMaxMillis, millis);
+    }
+
+    private void copy(FixationAccumulator other)
+    {
+        mIsEmpty = other.mIsEmpty;
+        mStartsFixated = other.mStartsFixated;
+        mCount = other.mCount;
+        mTotalMillis = other.mTotalMillis;
+        mMinMillis = other.mMinMillis;
+        mMaxMillis = other.mMaxMillis;
+        mHasLeading = other.mHasLeading;
+        mLeadingStart = other.mLeadingStart;
+        mLeadingEnd = other.mLeadingEnd;
+        mInFixation = other.mInFixation;
+        mIsRunLeading = other.mIsRunLeading;
+        mRunStart = other.mRunStart;
+        mRunEnd = other.mRunEnd;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.analysis;
+
+import com.theeyetribe.clientsdk.data.GazeData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs {@link IGazeAccumulator accumulators} over recorded sessions in parallel.
+ * <p>
+ * Every recording is split into chunks spanning a fixed amount of time. All chunks of all recordings are processed
+ * concurrently on an executor, each by an empty copy of the prototype accumulator. The chunk results of each recording
+ * are then merged in time order, which lets accumulators stitch state crossing chunk boundaries. Recordings are never
+ * merged with each other.
+ * <pre>
+ * GazeBatchAnalyzer analyzer = new GazeBatchAnalyzer();
+ * List&lt;FixationAccumulator&gt; results = analyzer.analyzeAll(recordings, new FixationAccumulator());
+ * analyzer.shutdown();
+ * </pre>
+ */
+public class GazeBatchAnalyzer
+{
+    public static final long DEFAULT_CHUNK_MILLIS = 60 * 1000;
+
+    private final ExecutorService mExecutor;
+    private final boolean mOwnsExecutor;
+    private final long mChunkMillis;
+
+    /**
+     * Creates an analyzer using one thread per available processor
+     */
+    public GazeBatchAnalyzer()
+    {
+        this(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()), DEFAULT_CHUNK_MILLIS, true);
+    }
+
+    /**
+     * @param executor executor chunks are processed on, not shut down by this analyzer
+     * @param chunkMillis span of recording time in milliseconds processed per task
+     */
+    public GazeBatchAnalyzer(ExecutorService executor, long chunkMillis)
+    {
+        this(executor, chunkMillis, false);
+    }
+
+    private GazeBatchAnalyzer(ExecutorService executor, long chunkMillis, boolean ownsExecutor)
+    {
+        if (null == executor)
+            throw new IllegalArgumentException("ExecutorService cannot be null!");
+
+        if (chunkMillis <= 0)
+            throw new IllegalArgumentException("Chunk span must be positive!");
+
+        mExecutor = executor;
+        mChunkMillis = chunkMillis;
+        mOwnsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Analyzes a single recording.
+     *
+     * @param recording frames ordered by time stamp
+     * @param prototype accumulator to copy for each chunk, not modified
+     * @return merged accumulator of entire recording
+     * @throws InterruptedException if interrupted while waiting for chunks
+     * @throws ExecutionException if an accumulator failed
+     */
+    public <A extends IGazeAccumulator<A>> A analyze(List<GazeData> recording, A prototype)
+            throws InterruptedException, ExecutionException
+    {
+        return analyzeAll(Collections.singletonList(recording), prototype).get(0);
+    }
+
+    /**
+     * Analyzes several recordings.
+     *
+     * @param recordings recordings, each with frames ordered by time stamp
+     * @param prototype accumulator to copy for each chunk, not modified
+     * @return merged accumulator per recording, in order of recordings
+     * @throws InterruptedException if interrupted while waiting for chunks
+     * @throws ExecutionException if an accumulator failed
+     */
+    public <A extends IGazeAccumulator<A>> List<A> analyzeAll(List<List<GazeData>> recordings, final A prototype)
+            throws InterruptedException, ExecutionException
+    {
+        if (null == recordings || null == prototype)
+            throw new IllegalArgumentException("Recordings and prototype cannot be null!");
+
+        List<List<Future<A>>> futures = new ArrayList<>(recordings.size());
+
+        try
+        {
+            for (List<GazeData> recording : recordings)
+            {
+                List<Future<A>> chunks = new ArrayList<>();
+                futures.add(chunks);
+
+                int from = 0;
+                int i = 0;
+                long chunkStart = 0;
+
+                for (GazeData gazeData : recording)
+                {
+                    if (i == 0)
+                    {
+                        chunkStart = gazeData.timeStamp;
+                    }
+                    else if (gazeData.timeStamp - chunkStart >= mChunkMillis)
+                    {
+                        chunks.add(submit(recording.subList(from, i), prototype));
+                        from = i;
+                        chunkStart = gazeData.timeStamp;
+                    }
+
+                    ++i;
+                }
+
+                if (from < recording.size())
+                    chunks.add(submit(recording.subList(from, recording.size()), prototype));
+            }
+
+            List<A> results = new ArrayList<>(recordings.size());
+            for (List<Future<A>> chunks : futures)
+            {
+                A result = prototype.copyEmpty();
+
+                for (Future<A> chunk : chunks)
+                    result.merge(chunk.get());
+
+                results.add(result);
+            }
+
+            return results;
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            for (List<Future<A>> chunks : futures)
+                for (Future<A> chunk : chunks)
+                    chunk.cancel(true);
+
+            throw e;
+        }
+    }
+
+    /**
+     * Shuts down the executor if created by this analyzer
+     */
+    public void shutdown()
+    {
+        if (mOwnsExecutor)
+            mExecutor.shutdown();
+    }
+
+    private <A extends IGazeAccumulator<A>> Future<A> submit(final List<GazeData> chunk, final A prototype)
+    {
+        final A accumulator = prototype.copyEmpty();
+
+        return mExecutor.submit(() ->
+        {
+            for (GazeData gazeData : chunk)
+                accumulator.add(gazeData);
+
+            return accumulator;
+        });
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.analysis;
+
+import com.theeyetribe.clientsdk.data.GazeData;
+import com.theeyetribe.clientsdk.utils.GazeHeatmap;
+
+/**
+ * Accumulates a {@link GazeHeatmap} without decay.
+ */
+public class HeatmapAccumulator implements IGazeAccumulator<HeatmapAccumulator>
+{
+    private final int mScreenWidth;
+    private final int mScreenHeight;
+    private final int mCellSize;
+    private final float mSigma;
+
+    private final GazeHeatmap mHeatmap;
+
+    /**
+     * @param screenWidth width in pixels of screen area covered
+     * @param screenHeight height in pixels of screen area covered
+     * @param cellSize width and height in pixels of each grid cell
+     * @param sigma standard deviation in pixels of the Gaussian spread of each gaze point
+     */
+    public HeatmapAccumulator(int screenWidth, int screenHeight, int cellSize, float sigma)
+    {
+        mScreenWidth = screenWidth;
+        mScreenHeight = screenHeight;
+        mCellSize = cellSize;
+        mSigma = sigma;
+
+        mHeatmap = new GazeHeatmap(screenWidth, screenHeight, cellSize, sigma);
+    }
+
+    @Override
+    public void add(GazeData gazeData)
+    {
+        mHeatmap.onGazeUpdate(gazeData);
+    }
+
+    @Override
+    public HeatmapAccumulator copyEmpty()
+    {
+        return new HeatmapAccumulator(mScreenWidth, mScreenHeight, mCellSize, mSigma);
+    }
+
+    @Override
+    public void merge(HeatmapAccumulator next)
+    {
+        mHeatmap.merge(next.mHeatmap);
+    }
+
+    public GazeHeatmap getHeatmap()
+    {
+        return mHeatmap;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.analysis;
+
+import com.theeyetribe.clientsdk.data.GazeData;
+
+/**
+ * Accumulates statistics over a consecutive chunk of recorded {@link GazeData} frames.
+ * <p>
+ * Implementing classes are used by {@link GazeBatchAnalyzer} to process chunks of a recording in parallel. Each chunk
+ * is fed to its own accumulator, after which the accumulators are merged in time order. Accumulators must keep enough
+ * state at the start and end of their chunk, e.g. an unfinished fixation, to merge correctly with the chunks before
+ * and after.
+ *
+ * @param <A> implementing type
+ */
+public interface IGazeAccumulator<A extends IGazeAccumulator<A>>
+{
+    /**
+     * Adds the next frame of the chunk
+     *
+     * @param gazeData gaze data frame
+     */
+    void add(GazeData gazeData);
+
+    /**
+     * @return new empty accumulator with same configuration as this
+     */
+    A copyEmpty();
+
+    /**
+     * Merges the accumulator of the chunk immediately following the chunk of this accumulator into this.
+     *
+     * @param next accumulator of following chunk
+     */
+    void merge(A next);
+}
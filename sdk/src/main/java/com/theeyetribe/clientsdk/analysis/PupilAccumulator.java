@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.analysis;
+
+import com.theeyetribe.clientsdk.data.GazeData;
+
+/**
+ * Computes count, mean, variance and range of pupil size per eye. Frames that failed tracking and eyes with a pupil
+ * size of 0 are skipped.
+ * <p>
+ * Mean and variance are accumulated with Welford's method and merged with the pairwise formula of Chan et al., both
+ * of which are numerically stable over long recordings.
+ */
+public class PupilAccumulator implements IGazeAccumulator<PupilAccumulator>
+{
+    private static final int NO_TRACKING_MASK = GazeData.STATE_TRACKING_LOST | GazeData.STATE_TRACKING_FAIL
+            | GazeData.STATE_GAP;
+
+    /**
+     * Statistics of a single eye
+     */
+    public static class Stats
+    {
+        private long mCount;
+        private double mMean;
+        private double mM2;
+        private float mMin = Float.MAX_VALUE;
+        private float mMax = -Float.MAX_VALUE;
+
+        void add(float value)
+        {
+            ++mCount;
+            double delta = value - mMean;
+            mMean += delta / mCount;
+            mM2 += delta * (value - mMean);
+
+            mMin = Math.min(mMin, value);
+            mMax = Math.max(mMax, value);
+        }
+
+        void merge(Stats other)
+        {
+            if (other.mCount == 0)
+                return;
+
+            long count = mCount + other.mCount;
+            double delta = other.mMean - mMean;
+
+            mMean += delta * other.mCount / count;
+            mM2 += other.mM2 + delta * delta * mCount * other.mCount / count;
+            mCount = count;
+
+            mMin = Math.min(mMin, other.mMin);
+            mMax = Math.max(mMax, other.mMax);
+        }
+
+        public long getCount()
+        {
+            return mCount;
+        }
+
+        public double getMean()
+        {
+            return mMean;
+        }
+
+        /**
+         * @return sample variance, 0 if less than two samples
+         */
+        public double getVariance()
+        {
+            return mCount > 1 ? mM2 / (mCount - 1) : 0d;
+        }
+
+        public double getStandardDeviation()
+        {
+            return Math.sqrt(getVariance());
+        }
+
+        public float getMin()
+        {
+            return mCount > 0 ? mMin : 0f;
+        }
+
+        public float getMax()
+        {
+            return mCount > 0 ? mMax : 0f;
+        }
+    }
+
+    private final Stats mLeft = new Stats();
+    private final Stats mRight = new Stats();
+
+    @Override
+    public void add(GazeData gazeData)
+    {
+        if ((gazeData.state & NO_TRACKING_MASK) != 0)
+            return;
+
+        if (gazeData.leftEye.pupilSize > 0)
+            mLeft.add(gazeData.leftEye.pupilSize);
+
+        if (gazeData.rightEye.pupilSize > 0)
+            mRight.add(gazeData.rightEye.pupilSize);
+    }
+
+    @Override
+    public PupilAccumulator copyEmpty()
+    {
+        return new PupilAccumulator();
+    }
+
+    @Override
+    public void merge(PupilAccumulator next)
+    {
+        mLeft.merge(next.mLeft);
+        mRight.merge(next.mRight);
+    }
+
+    public Stats getLeft()
+    {
+        return mLeft;
+    }
+
+    public Stats getRight()
+    {
+        return mRight;
+    }
+}
@@ -10,6 +10,7 @@ package com.theeyetribe.clientsdk.data;
 
 import com.google.gson.annotations.SerializedName;
 import com.theeyetribe.clientsdk.Protocol;
+import com.theeyetribe.clientsdk.ProtocolTypeAdapters;
 import com.theeyetribe.clientsdk.utils.HashUtils;
 
 import java.text.SimpleDateFormat;
@@ -48,6 +49,37 @@ public class GazeData
      */
     public static final int STATE_TRACKING_LOST = 1 << 4;
 
+    /**
+     * Set by client side processing when the frame has been synthesized by interpolating between tracked frames. Not
+     * part of the EyeTribe API.
+     */
+    public static final int STATE_INTERPOLATED = 1 << 16;
+
+    /**
+     * Set by client side processing when the frame has been synthesized to fill a gap in the frame stream. Such
+     * frames carry no tracking results. Not part of the EyeTribe API.
+     */
+    public static final int STATE_GAP = 1 << 17;
+
+    /**
+     * Set by client side processing when the frame falls within a detected blink, or shortly after it while the
+     * eyelids reopen. Gaze coordinates of such frames are unreliable. Not part of the EyeTribe API.
+     */
+    public static final int STATE_BLINK = 1 << 18;
+
+    /**
+     * Fields of a frame, as decoded from the EyeTribe API. See {@link #decodeFields(int)}.
+     */
+    public static final int FIELD_STATE = 1;
+    public static final int FIELD_TIME = 1 << 1;
+    public static final int FIELD_TIMESTAMP = 1 << 2;
+    public static final int FIELD_RAW_COORDINATES = 1 << 3;
+    public static final int FIELD_SMOOTHED_COORDINATES = 1 << 4;
+    public static final int FIELD_LEFT_EYE = 1 << 5;
+    public static final int FIELD_RIGHT_EYE = 1 << 6;
+    public static final int FIELD_FIXATION = 1 << 7;
+    public static final int FIELDS_ALL = (1 << 8) - 1;
+
     public int state = 0;
 
     @SerializedName(Protocol.FRAME_TIME)
@@ -57,24 +89,57 @@ public class GazeData
     public String timeStampString = "";
 
     @SerializedName(Protocol.FRAME_RAW_COORDINATES)
-    public Point2D rawCoordinates = new Point2D();
+    public Point2D rawCoordinates;
 
     @SerializedName(Protocol.FRAME_AVERAGE_COORDINATES)
-    public Point2D smoothedCoordinates = new Point2D();
+    public Point2D smoothedCoordinates;
 
     @SerializedName(Protocol.FRAME_LEFT_EYE)
-    public Eye leftEye = new Eye();
+    public Eye leftEye;
 
     @SerializedName(Protocol.FRAME_RIGHT_EYE)
-    public Eye rightEye = new Eye();
+    public Eye rightEye;
 
     @SerializedName(Protocol.FRAME_FIXATION)
     public boolean isFixated = false;
 
+    /**
+     * Gaze coordinates produced by the last client side filter stage run on this frame, null if none. Not part of the
+     * EyeTribe API. The output of a specific stage is available through
+     * {@link com.theeyetribe.clientsdk.filter.GazeFilterStage#getOutput(GazeData) GazeFilterStage.getOutput}. Owned by
+     * the stage and cleared once the stage reuses it, copies of this frame hold a copy.
+     */
+    public transient Point2D filteredCoordinates;
+
+    /**
+     * Gaze coordinates extrapolated ahead in time by the last prediction stage run on this frame, null if none. Not
+     * part of the EyeTribe API. The output of a specific stage is available through
+     * {@link com.theeyetribe.clientsdk.filter.GazePredictionStage#getOutput(GazeData) GazePredictionStage.getOutput}.
+     * Owned by the stage and cleared once the stage reuses it, copies of this frame hold a copy.
+     */
+    public transient Point2D predictedCoordinates;
+
+    /**
+     * Time stamp of frame mapped to the {@link System#nanoTime()} time base of this host. Not part of the EyeTribe API
+     * and only set for frames received through GazeManager.
+     *
+     * @see com.theeyetribe.clientsdk.ClockSync
+     */
+    public transient long hostTimeNanos;
+
+    // JSON frame or message holding fields not yet decoded, if frame was decoded partially
+    private transient String pendingJson;
+    private transient int decodedFields = FIELDS_ALL;
+
     private static SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
 
     public GazeData()
     {
+        rawCoordinates = new Point2D();
+        smoothedCoordinates = new Point2D();
+        leftEye = new Eye();
+        rightEye = new Eye();
+
         timeStamp = System.currentTimeMillis();
 
         Date date = new Date(timeStamp);
@@ -84,14 +149,107 @@ public class GazeData
         }
     }
 
+    // frame to be decoded from JSON, fields left unset until decoded
+    private GazeData(String pendingJson)
+    {
+        this.pendingJson = pendingJson;
+        this.decodedFields = 0;
+    }
+
+    /**
+     * Decodes a frame of the EyeTribe API partially, straight from its JSON. Members of fields not decoded are skipped
+     * without being converted, and such fields are null or zero until decoded through {@link #decodeFields(int)}.
+     *
+     * @param json JSON frame object, or JSON message holding the frame in its values
+     * @param fields bitmask of FIELD_ constants to decode now
+     * @return frame decoded
+     */
+    public static GazeData fromJson(String json, int fields)
+    {
+        GazeData gazeData = new GazeData(json);
+        gazeData.decodeFields(fields);
+
+        return gazeData;
+    }
+
+    /**
+     * Decodes the frame of a message pushed by the EyeTribe Server partially, in the same pass that checks the message
+     * is a pushed frame. Fields not decoded are as of {@link #fromJson(String, int)}.
+     *
+     * @param message JSON message as received
+     * @param fields bitmask of FIELD_ constants to decode now
+     * @return frame decoded, null if message is not a pushed frame
+     */
+    public static GazeData fromPushedFrame(String message, int fields)
+    {
+        GazeData gazeData = new GazeData(message);
+
+        int read = ProtocolTypeAdapters.readPushedFrame(message, gazeData, fields);
+        if (read == ProtocolTypeAdapters.NOT_PUSHED_FRAME)
+            return null;
+
+        gazeData.onFieldsDecoded(fields, read);
+
+        return gazeData;
+    }
+
+    /**
+     * Decodes fields of a partially decoded frame, if not decoded already. Fields are only valid to read once decoded,
+     * which all fields of a GazeData not created by {@link #fromJson(String, int)} or
+     * {@link #fromPushedFrame(String, int)} are.
+     *
+     * @param fields bitmask of FIELD_ constants to decode
+     */
+    public synchronized void decodeFields(int fields)
+    {
+        int missing = fields & ~decodedFields;
+        if (missing == 0)
+            return;
+
+        onFieldsDecoded(missing, ProtocolTypeAdapters.readGazeData(pendingJson, this, missing));
+    }
+
+    private synchronized void onFieldsDecoded(int fields, int read)
+    {
+        int absent = fields & ~read;
+
+        // as when parsed in full, fields missing in JSON get their defaults
+        if ((absent & FIELD_RAW_COORDINATES) != 0)
+            rawCoordinates = new Point2D();
+        if ((absent & FIELD_SMOOTHED_COORDINATES) != 0)
+            smoothedCoordinates = new Point2D();
+        if ((absent & FIELD_LEFT_EYE) != 0)
+            leftEye = new Eye();
+        if ((absent & FIELD_RIGHT_EYE) != 0)
+            rightEye = new Eye();
+
+        decodedFields |= fields;
+
+        if (decodedFields == FIELDS_ALL)
+            pendingJson = null;
+    }
+
+    /**
+     * @return bitmask of FIELD_ constants of fields decoded
+     */
+    public synchronized int getDecodedFields()
+    {
+        return decodedFields;
+    }
+
     public GazeData(GazeData other)
     {
+        other.decodeFields(FIELDS_ALL);
+
         this.state = other.state;
         this.timeStamp = other.timeStamp;
         this.timeStampString = other.timeStampString;
+        this.hostTimeNanos = other.hostTimeNanos;
 
         this.rawCoordinates = new Point2D(other.rawCoordinates);
         this.smoothedCoordinates = new Point2D(other.smoothedCoordinates);
+        this.filteredCoordinates = copy(other.filteredCoordinates);
+        this.predictedCoordinates = copy(other.predictedCoordinates);
 
         this.leftEye = new Eye(other.leftEye);
         this.rightEye = new Eye(other.rightEye);
@@ -105,6 +263,8 @@ public class GazeData
         if (o instanceof GazeData)
         {
             GazeData other = (GazeData) o;
+            decodeFields(FIELDS_ALL);
+            other.decodeFields(FIELDS_ALL);
 
             return
                 this.rawCoordinates.equals(other.rawCoordinates) &&
@@ -121,6 +281,8 @@ public class GazeData
     @Override
     public int hashCode()
     {
+        decodeFields(FIELDS_ALL);
+
         int hash = 2039;
         hash = hash * 1553 + rawCoordinates.hashCode();
         hash = hash * 1553 + smoothedCoordinates.hashCode();
@@ -133,12 +295,24 @@ public class GazeData
 
     public void set(GazeData other)
     {
+        other.decodeFields(FIELDS_ALL);
+
+        // all fields are replaced, none left to decode
+        synchronized (this)
+        {
+            pendingJson = null;
+            decodedFields = FIELDS_ALL;
+        }
+
         this.state = other.state;
         this.timeStamp = other.timeStamp;
         this.timeStampString = other.timeStampString;
+        this.hostTimeNanos = other.hostTimeNanos;
 
         this.rawCoordinates = new Point2D(other.rawCoordinates);
         this.smoothedCoordinates = new Point2D(other.smoothedCoordinates);
+        this.filteredCoordinates = copy(other.filteredCoordinates);
+        this.predictedCoordinates = copy(other.predictedCoordinates);
 
         this.leftEye = new Eye(other.leftEye);
         this.rightEye = new Eye(other.rightEye);
@@ -146,6 +320,11 @@ public class GazeData
         this.isFixated = Boolean.valueOf(other.isFixated);
     }
 
+    static Point2D copy(Point2D point)
+    {
+        return null != point ? new Point2D(point) : null;
+    }
+
     public String stateToString()
     {
         String stateString = "";
@@ -181,6 +360,24 @@ public class GazeData
             ticker = true;
         }
 
+        if ((STATE_INTERPOLATED & state) != 0)
+        {
+            stateString += (ticker ? " | " : "") + "STATE_INTERPOLATED";
+            ticker = true;
+        }
+
+        if ((STATE_GAP & state) != 0)
+        {
+            stateString += (ticker ? " | " : "") + "STATE_GAP";
+            ticker = true;
+        }
+
+        if ((STATE_BLINK & state) != 0)
+        {
+            stateString += (ticker ? " | " : "") + "STATE_BLINK";
+            ticker = true;
+        }
+
         return stateString;
     }
 
@@ -196,6 +393,16 @@ public class GazeData
         return (state & NO_TRACKING_MASK) == 0 && rawCoordinates.x != 0 && rawCoordinates.y != 0;
     }
 
+    public boolean hasFilteredGazeCoordinates()
+    {
+        return (state & NO_TRACKING_MASK) == 0 && null != filteredCoordinates && filteredCoordinates.x != 0 && filteredCoordinates.y != 0;
+    }
+
+    public boolean hasPredictedGazeCoordinates()
+    {
+        return (state & NO_TRACKING_MASK) == 0 && null != predictedCoordinates && predictedCoordinates.x != 0 && predictedCoordinates.y != 0;
+    }
+
     /**
      * Contains tracking results of a single eye.
      */
@@ -213,6 +420,12 @@ public class GazeData
         @SerializedName(Protocol.FRAME_EYE_PUPIL_SIZE)
         public float pupilSize = 0f;
 
+        /**
+         * Gaze coordinates of this eye produced by the last client side filter stage, null if none. Not part of the
+         * EyeTribe API.
+         */
+        public transient Point2D filteredCoordinates;
+
         public Eye()
         {
         }
@@ -223,6 +436,7 @@ public class GazeData
             this.smoothedCoordinates = new Point2D(other.smoothedCoordinates);
             this.pupilCenterCoordinates = new Point2D(other.pupilCenterCoordinates);
             this.pupilSize = new Float(other.pupilSize);
+            this.filteredCoordinates = copy(other.filteredCoordinates);
         }
 
         @Override
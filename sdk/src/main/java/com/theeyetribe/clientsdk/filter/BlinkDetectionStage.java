@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.filter;
+
+import com.theeyetribe.clientsdk.GazeManager;
+import com.theeyetribe.clientsdk.IGazeStage;
+import com.theeyetribe.clientsdk.data.GazeData;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Gaze stage that detects blinks and per eye dropouts from the tracking state and pupil size of every frame.
+ * <p>
+ * An eye is considered lost in frames that failed tracking or report a pupil size of 0. When both eyes are lost for
+ * between the min and max blink duration, the loss is counted as a blink. Frames within a blink, and frames in the
+ * settle time after it while the eyelids reopen, are marked with {@link GazeData#STATE_BLINK} so that later stages
+ * skip them. Add this stage before any {@link GazeFilterStage} or {@link GazePredictionStage}.
+ * <p>
+ * An eye only becomes unavailable once lost for longer than the max blink duration, so blinks do not cause
+ * availability events. Memory use is fixed by the rate window. Listeners are called after the frame has been processed, without
+ * holding the lock of the stage.
+ */
+public class BlinkDetectionStage implements IGazeStage
+{
+    public static final long DEFAULT_MIN_BLINK_MILLIS = 50;
+    public static final long DEFAULT_MAX_BLINK_MILLIS = 500;
+    public static final long DEFAULT_SETTLE_MILLIS = 50;
+    public static final long DEFAULT_RATE_WINDOW_MILLIS = 60 * 1000;
+    public static final long MAX_RATE_WINDOW_MILLIS = 10 * 60 * 1000;
+
+    private static final int NO_TRACKING_MASK = GazeData.STATE_TRACKING_LOST | GazeData.STATE_TRACKING_FAIL;
+    // blinks are at least a frame apart, at the highest frame rate of the EyeTribe Server
+    private static final long MIN_BLINK_SPACING_MILLIS = 1000 / 60;
+
+    // events of a frame, notified once the lock is released
+    private static final int EVENT_NONE = 0;
+    private static final int EVENT_BLINK_START = 1;
+    private static final int EVENT_BLINK_END = 2;
+    private static final int EVENT_LOSS_END = 3;
+
+    private static class EyeState
+    {
+        boolean isAvailable;
+        boolean isMissing;
+        long missingSince;
+
+        /**
+         * @return true if availability changed
+         */
+        boolean update(long timeStamp, boolean isPresent, long lossMillis)
+        {
+            if (isPresent)
+            {
+                isMissing = false;
+
+                if (!isAvailable)
+                    return isAvailable = true;
+            }
+            else if (!isMissing)
+            {
+                isMissing = true;
+                missingSince = timeStamp;
+            }
+            else if (isAvailable && timeStamp - missingSince > lossMillis)
+            {
+                isAvailable = false;
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    private final List<IBlinkListener> mBlinkListeners = new CopyOnWriteArrayList<>();
+
+    private long mMinBlinkMillis = DEFAULT_MIN_BLINK_MILLIS;
+    private long mMaxBlinkMillis = DEFAULT_MAX_BLINK_MILLIS;
+    private long mSettleMillis = DEFAULT_SETTLE_MILLIS;
+    private long mRateWindowMillis = DEFAULT_RATE_WINDOW_MILLIS;
+
+    private final EyeState mLeft = new EyeState();
+    private final EyeState mRight = new EyeState();
+    private boolean mIsAvailabilityChanged;
+
+    private boolean mIsInitialized;
+    private long mFirstTimeStamp;
+    private long mLastTimeStamp;
+
+    private boolean mIsClosed;
+    private boolean mIsBlinking;
+    private long mClosedSince;
+    private long mSettleUntil;
+
+    // ring buffer of recent blink time stamps, sized to hold all blinks possible within the rate window
+    private long[] mBlinkTimes = new long[getRateCapacity(DEFAULT_RATE_WINDOW_MILLIS, DEFAULT_MIN_BLINK_MILLIS)];
+    private int mBlinkHead;
+    private int mBlinkTimesCount;
+    private long mBlinkCount;
+    private long mLastBlinkMillis;
+
+    public void addBlinkListener(IBlinkListener listener)
+    {
+        if (null != listener && !mBlinkListeners.contains(listener))
+            mBlinkListeners.add(listener);
+    }
+
+    public boolean removeBlinkListener(IBlinkListener listener)
+    {
+        return mBlinkListeners.remove(listener);
+    }
+
+    /**
+     * @param minBlinkMillis shortest loss of both eyes in milliseconds counted as blink
+     * @param maxBlinkMillis longest loss of both eyes in milliseconds counted as blink
+     */
+    public synchronized void setBlinkMillis(long minBlinkMillis, long maxBlinkMillis)
+    {
+        if (minBlinkMillis < 0 || maxBlinkMillis < minBlinkMillis)
+            throw new IllegalArgumentException("Blink durations must be positive and ordered!");
+
+        mMinBlinkMillis = minBlinkMillis;
+        mMaxBlinkMillis = maxBlinkMillis;
+        resizeBlinkTimes();
+    }
+
+    /**
+     * @param settleMillis time in milliseconds after a blink during which frames are still marked as blink
+     */
+    public synchronized void setSettleMillis(long settleMillis)
+    {
+        mSettleMillis = settleMillis;
+    }
+
+    /**
+     * @param rateWindowMillis time in milliseconds over which blink rate is measured, at most
+     *            {@link #MAX_RATE_WINDOW_MILLIS}
+     */
+    public synchronized void setRateWindowMillis(long rateWindowMillis)
+    {
+        if (rateWindowMillis <= 0 || rateWindowMillis > MAX_RATE_WINDOW_MILLIS)
+            throw new IllegalArgumentException("Rate window must be positive and at most " + MAX_RATE_WINDOW_MILLIS
+                    + " milliseconds!");
+
+        mRateWindowMillis = rateWindowMillis;
+        resizeBlinkTimes();
+    }
+
+    private static int getRateCapacity(long rateWindowMillis, long minBlinkMillis)
+    {
+        return (int) (rateWindowMillis / Math.max(minBlinkMillis, MIN_BLINK_SPACING_MILLIS)) + 1;
+    }
+
+    private void resizeBlinkTimes()
+    {
+        int capacity = getRateCapacity(mRateWindowMillis, mMinBlinkMillis);
+        if (capacity == mBlinkTimes.length)
+            return;
+
+        // most recent blinks are carried over, oldest first
+        long[] blinkTimes = new long[capacity];
+        int n = Math.min(mBlinkTimesCount, capacity);
+        for (int i = 0; i < n; ++i)
+            blinkTimes[i] = mBlinkTimes[(mBlinkHead - n + i + mBlinkTimes.length) % mBlinkTimes.length];
+
+        mBlinkTimes = blinkTimes;
+        mBlinkHead = n % capacity;
+        mBlinkTimesCount = n;
+    }
+
+    public synchronized void reset()
+    {
+        mLeft.isAvailable = mLeft.isMissing = false;
+        mRight.isAvailable = mRight.isMissing = false;
+        mIsInitialized = false;
+        mIsClosed = false;
+        mIsBlinking = false;
+        mBlinkHead = 0;
+        mBlinkTimesCount = 0;
+        mBlinkCount = 0;
+        mLastBlinkMillis = 0;
+    }
+
+    @Override
+    public void onGazeFrame(GazeData gazeData)
+    {
+        long timeStamp = gazeData.timeStamp;
+        int event;
+        long closedMillis;
+        boolean isChanged;
+        boolean isLeftAvailable;
+        boolean isRightAvailable;
+
+        synchronized (this)
+        {
+            event = process(gazeData);
+            closedMillis = timeStamp - mClosedSince;
+            isChanged = mIsAvailabilityChanged;
+            isLeftAvailable = mLeft.isAvailable;
+            isRightAvailable = mRight.isAvailable;
+        }
+
+        if (mBlinkListeners.isEmpty())
+            return;
+
+        if (event == EVENT_BLINK_START)
+            notifyBlinkStart(timeStamp);
+        else if (event == EVENT_BLINK_END || event == EVENT_LOSS_END)
+            notifyBlinkEnd(timeStamp, closedMillis, event == EVENT_BLINK_END);
+
+        if (isChanged)
+            notifyEyeAvailabilityChanged(timeStamp, isLeftAvailable, isRightAvailable);
+    }
+
+    /**
+     * Updates blink and eye state with a frame, marking the frame if within a blink.
+     *
+     * @return event to notify listeners of
+     */
+    private int process(GazeData gazeData)
+    {
+        long timeStamp = gazeData.timeStamp;
+        int event = EVENT_NONE;
+        boolean isTracking = (gazeData.state & NO_TRACKING_MASK) == 0;
+        boolean isLeftPresent = isTracking && gazeData.leftEye.pupilSize > 0;
+        boolean isRightPresent = isTracking && gazeData.rightEye.pupilSize > 0;
+        boolean isOpen = isLeftPresent || isRightPresent;
+
+        if (!mIsInitialized)
+        {
+            mIsInitialized = true;
+            mFirstTimeStamp = timeStamp;
+            mSettleUntil = timeStamp;
+
+            // loss at start of stream is not a blink
+            mIsClosed = !isOpen;
+        }
+
+        mLastTimeStamp = timeStamp;
+
+        // reopening frame of a blink is still affected by the eyelids
+        boolean isBlinkFrame = mIsBlinking;
+
+        if (!isOpen)
+        {
+            if (!mIsClosed)
+            {
+                mIsClosed = true;
+                mIsBlinking = true;
+                mClosedSince = timeStamp;
+                event = EVENT_BLINK_START;
+            }
+            else if (mIsBlinking && timeStamp - mClosedSince > mMaxBlinkMillis)
+            {
+                mIsBlinking = false;
+                event = EVENT_LOSS_END;
+            }
+        }
+        else if (mIsClosed)
+        {
+            mIsClosed = false;
+
+            if (mIsBlinking)
+            {
+                boolean isBlink = timeStamp - mClosedSince >= mMinBlinkMillis;
+
+                if (isBlink)
+                {
+                    mBlinkTimes[mBlinkHead] = timeStamp;
+                    mBlinkHead = (mBlinkHead + 1) % mBlinkTimes.length;
+                    mBlinkTimesCount = Math.min(mBlinkTimesCount + 1, mBlinkTimes.length);
+                    ++mBlinkCount;
+                    mLastBlinkMillis = timeStamp - mClosedSince;
+                    mSettleUntil = timeStamp + mSettleMillis;
+                }
+
+                mIsBlinking = false;
+                event = isBlink ? EVENT_BLINK_END : EVENT_LOSS_END;
+            }
+        }
+
+        if (isBlinkFrame || mIsBlinking || timeStamp < mSettleUntil)
+            gazeData.state |= GazeData.STATE_BLINK;
+
+        mIsAvailabilityChanged = mLeft.update(timeStamp, isLeftPresent, mMaxBlinkMillis);
+        mIsAvailabilityChanged |= mRight.update(timeStamp, isRightPresent, mMaxBlinkMillis);
+
+        return event;
+    }
+
+    /**
+     * @return true if both eyes are currently lost for no longer than the max blink duration
+     */
+    public synchronized boolean isBlinking()
+    {
+        return mIsBlinking;
+    }
+
+    public synchronized boolean isLeftEyeAvailable()
+    {
+        return mLeft.isAvailable;
+    }
+
+    public synchronized boolean isRightEyeAvailable()
+    {
+        return mRight.isAvailable;
+    }
+
+    /**
+     * @return number of blinks since start or last reset
+     */
+    public synchronized long getBlinkCount()
+    {
+        return mBlinkCount;
+    }
+
+    /**
+     * @return duration in milliseconds of the most recent blink, 0 if none
+     */
+    public synchronized long getLastBlinkMillis()
+    {
+        return mLastBlinkMillis;
+    }
+
+    /**
+     * Blink rate over the rate window preceding the most recent frame, or over all frames if the stream is shorter.
+     *
+     * @return blinks per minute
+     */
+    public synchronized float getBlinkRate()
+    {
+        long window = Math.min(mRateWindowMillis, mLastTimeStamp - mFirstTimeStamp);
+        if (!mIsInitialized || window <= 0)
+            return 0f;
+
+        int count = 0;
+        int n = mBlinkTimesCount;
+        for (int i = 1; i <= n; ++i)
+        {
+            if (mBlinkTimes[(mBlinkHead - i + mBlinkTimes.length) % mBlinkTimes.length] <= mLastTimeStamp - window)
+                break;
+
+            ++count;
+        }
+
+        return count * 60000f / window;
+    }
+
+    private void notifyBlinkStart(long timeStamp)
+    {
+        for (IBlinkListener listener : mBlinkListeners)
+        {
+            try
+            {
+                listener.onBlinkStart(timeStamp);
+            }
+            catch (Exception e)
+            {
+                System.out.println("Exception while calling IBlinkListener.onBlinkStart() on listener "
+                        + listener.getClass().getSimpleName() + ": " + e.getLocalizedMessage());
+
+                if (GazeManager.IS_DEBUG_MODE)
+                    e.printStackTrace();
+            }
+        }
+    }
+
+    private void notifyBlinkEnd(long timeStamp, long durationMillis, boolean isBlink)
+    {
+        for (IBlinkListener listener : mBlinkListeners)
+        {
+            try
+            {
+                listener.onBlinkEnd(timeStamp, durationMillis, isBlink);
+            }
+            catch (Exception e)
+            {
+                System.out.println("Exception while calling IBlinkListener.onBlinkEnd() on listener "
+                        + listener.getClass().getSimpleName() + ": " + e.getLocalizedMessage());
+
+                if (GazeManager.IS_DEBUG_MODE)
+                    e.printStackTrace();
+            }
+        }
+    }
+
+    private void notifyEyeAvailabilityChanged(long timeStamp, boolean isLeftAvailable, boolean isRightAvailable)
+    {
+        for (IBlinkListener listener : mBlinkListeners)
+        {
+            try
+            {
+                listener.onEyeAvailabilityChanged(timeStamp, isLeftAvailable, isRightAvailable);
+            }
+            catch (Exception e)
+            {
+                System.out.println("Exception while calling IBlinkListener.onEyeAvailabilityChanged() on listener "
+                        + listener.getClass().getSimpleName() + ": " + e.getLocalizedMessage());
+
+                if (GazeManager.IS_DEBUG_MODE)
+                    e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.filter;
+
+/**
+ * Exponential moving average filter. The smoothing factor is expressed as a time constant so the result does not
+ * depend on the frame rate of the EyeTribe Server.
+ */
+public class ExponentialFilter extends GazeFilter
+{
+    public static final float DEFAULT_TIME_CONSTANT_SECONDS = .05f;
+
+    private volatile float mTimeConstant;
+
+    public ExponentialFilter()
+    {
+        this(DEFAULT_TIME_CONSTANT_SECONDS);
+    }
+
+    /**
+     * @param timeConstant time constant in seconds, larger values result in stronger smoothing and more lag
+     */
+    public ExponentialFilter(float timeConstant)
+    {
+        setTimeConstant(timeConstant);
+    }
+
+    public float getTimeConstant()
+    {
+        return mTimeConstant;
+    }
+
+    public void setTimeConstant(float timeConstant)
+    {
+        if (timeConstant < 0)
+            throw new IllegalArgumentException("Time constant cannot be negative!");
+
+        this.mTimeConstant = timeConstant;
+    }
+
+    @Override
+    protected void onInit(float x, float y)
+    {
+    }
+
+    @Override
+    protected void onFilter(float dt, float x, float y)
+    {
+        float alpha = dt / (dt + mTimeConstant);
+
+        mX += alpha * (x - mX);
+        mY += alpha * (y - mY);
+    }
+
+    @Override
+    public GazeFilter copy()
+    {
+        return new ExponentialFilter(mTimeConstant);
+    }
+}
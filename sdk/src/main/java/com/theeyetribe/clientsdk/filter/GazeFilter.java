@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.filter;
+
+/**
+ * Base class for 2D gaze filters operating on a stream of timestamped samples.
+ * <p>
+ * Filters hold their state in primitive fields and do not allocate when filtering. A single instance filters a single
+ * signal, e.g. the combined gaze point or the gaze point of one eye. Instances are not thread-safe; parameters may
+ * however be changed at runtime from any thread.
+ */
+public abstract class GazeFilter
+{
+    protected float mX;
+    protected float mY;
+
+    protected long mLastTimeStamp;
+    protected boolean mIsInitialized;
+
+    /**
+     * Feeds a new sample to the filter. The filtered value is available through {@link #getX()} and {@link #getY()}.
+     * <p>
+     * Samples with a time stamp not later than the previous sample are ignored.
+     *
+     * @param timeStamp time of sample in milliseconds
+     * @param x x coordinate of sample
+     * @param y y coordinate of sample
+     */
+    public void filter(long timeStamp, float x, float y)
+    {
+        if (!mIsInitialized)
+        {
+            mX = x;
+            mY = y;
+            mLastTimeStamp = timeStamp;
+            mIsInitialized = true;
+
+            onInit(x, y);
+        }
+        else if (timeStamp > mLastTimeStamp)
+        {
+            float dt = (timeStamp - mLastTimeStamp) / 1000f;
+            mLastTimeStamp = timeStamp;
+
+            onFilter(dt, x, y);
+        }
+    }
+
+    /**
+     * Called with the first sample after construction or {@link #reset()}.
+     *
+     * @param x x coordinate of sample
+     * @param y y coordinate of sample
+     */
+    protected abstract void onInit(float x, float y);
+
+    /**
+     * Called for every following sample. Implementations must update {@link #mX} and {@link #mY}.
+     *
+     * @param dt time in seconds since previous sample, always positive
+     * @param x x coordinate of sample
+     * @param y y coordinate of sample
+     */
+    protected abstract void onFilter(float dt, float x, float y);
+
+    /**
+     * Creates a new, uninitialized filter with the same parameters as this one.
+     *
+     * @return new filter instance
+     */
+    public abstract GazeFilter copy();
+
+    public float getX()
+    {
+        return mX;
+    }
+
+    public float getY()
+    {
+        return mY;
+    }
+
+    public long getLastTimeStamp()
+    {
+        return mLastTimeStamp;
+    }
+
+    public boolean isInitialized()
+    {
+        return mIsInitialized;
+    }
+
+    /**
+     * Clears filter state. The next sample will initialize the filter.
+     */
+    public void reset()
+    {
+        mIsInitialized = false;
+        mX = 0f;
+        mY = 0f;
+        mLastTimeStamp = 0l;
+    }
+}
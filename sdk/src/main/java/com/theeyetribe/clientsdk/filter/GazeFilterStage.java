@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.filter;
+
+import com.theeyetribe.clientsdk.IGazeStage;
+import com.theeyetribe.clientsdk.data.GazeData;
+import com.theeyetribe.clientsdk.data.Point2D;
+
+/**
+ * Gaze stage that filters the raw gaze coordinates of every frame and stores the result in
+ * {@link GazeData#filteredCoordinates} and, if enabled, in the filteredCoordinates of each {@link GazeData.Eye}.
+ * <p>
+ * If several filter stages are added, the fields of GazeData hold the output of the last one. The output of each
+ * stage is read through {@link #getOutput(GazeData)}.
+ * <p>
+ * Outputs are preallocated by the stage and reused once it has filtered as many further frames as its output history
+ * holds, at which point the fields of the frame they were set on are cleared. Frames retained for longer must be
+ * copied through {@link GazeData#GazeData(GazeData)}.
+ * <p>
+ * Use this in place of {@link GazeData#smoothedCoordinates} when the fixed smoothing of the EyeTribe Server adds too
+ * much lag. The filter can be exchanged at runtime, e.g.
+ * <pre>
+ * GazeFilterStage stage = new GazeFilterStage(new OneEuroFilter());
+ * GazeManager.getInstance().addGazeStage(stage);
+ *
+ * //later
+ * stage.setFilter(new KalmanFilter());
+ * </pre>
+ */
+public class GazeFilterStage implements IGazeStage
+{
+    public static final long DEFAULT_RESET_MILLIS = 500;
+    public static final int DEFAULT_OUTPUT_HISTORY = 64;
+
+    private static final int NO_TRACKING_MASK = GazeData.STATE_TRACKING_LOST | GazeData.STATE_TRACKING_FAIL
+            | GazeData.STATE_BLINK;
+
+    /**
+     * Filtered coordinates produced by a stage for a single frame. Coordinates are 0,0 while not tracking.
+     */
+    public static class Output
+    {
+        public final Point2D gaze = new Point2D();
+
+        /**
+         * Filtered coordinates of left eye, null if eyes are not filtered
+         */
+        public Point2D leftEye;
+
+        /**
+         * Filtered coordinates of right eye, null if eyes are not filtered
+         */
+        public Point2D rightEye;
+
+        private final Point2D mLeftEye = new Point2D();
+        private final Point2D mRightEye = new Point2D();
+
+        Output()
+        {
+        }
+    }
+
+    private GazeFilter mGazeFilter;
+    private GazeFilter mLeftFilter;
+    private GazeFilter mRightFilter;
+
+    private boolean mFilterEyes = true;
+    private long mResetMillis = DEFAULT_RESET_MILLIS;
+
+    // ring of outputs and the frames they were set on, newest at mLastOutput
+    private final Output[] mOutputs;
+    private final GazeData[] mOutputFrames;
+    private int mLastOutput;
+
+    public GazeFilterStage()
+    {
+        this(new OneEuroFilter());
+    }
+
+    /**
+     * @param filter filter to apply to the combined gaze, copies are used for each eye
+     */
+    public GazeFilterStage(GazeFilter filter)
+    {
+        this(filter, DEFAULT_OUTPUT_HISTORY);
+    }
+
+    /**
+     * @param filter filter to apply to the combined gaze, copies are used for each eye
+     * @param outputHistory number of most recent frames whose output is kept before being reused
+     */
+    public GazeFilterStage(GazeFilter filter, int outputHistory)
+    {
+        if (outputHistory <= 0)
+            throw new IllegalArgumentException("Output history must be positive!");
+
+        setFilter(filter);
+
+        mOutputs = new Output[outputHistory];
+        for (int i = 0; i < outputHistory; ++i)
+            mOutputs[i] = new Output();
+        mOutputFrames = new GazeData[outputHistory];
+    }
+
+    /**
+     * Replaces the current filters. Filter state is not carried over.
+     *
+     * @param filter filter to apply to the combined gaze, copies are used for each eye
+     */
+    public synchronized void setFilter(GazeFilter filter)
+    {
+        if (null == filter)
+            throw new IllegalArgumentException("GazeFilter cannot be null!");
+
+        mGazeFilter = filter;
+        mLeftFilter = filter.copy();
+        mRightFilter = filter.copy();
+    }
+
+    /**
+     * @return filter applied to the combined gaze, parameters of which may be changed at runtime
+     */
+    public synchronized GazeFilter getFilter()
+    {
+        return mGazeFilter;
+    }
+
+    /**
+     * @param filterEyes true if each eye should be filtered as well as the combined gaze
+     */
+    public synchronized void setFilterEyes(boolean filterEyes)
+    {
+        mFilterEyes = filterEyes;
+    }
+
+    /**
+     * Sets the amount of time without valid gaze after which filter state is discarded. This keeps the filters from
+     * sweeping from the last position after e.g. a blink or the user looking away.
+     *
+     * @param resetMillis time in milliseconds
+     */
+    public synchronized void setResetMillis(long resetMillis)
+    {
+        mResetMillis = resetMillis;
+    }
+
+    /**
+     * @param gazeData frame this stage has been run on
+     * @return output of this stage for frame, null if stage has not been run on frame or output has been reused
+     */
+    public synchronized Output getOutput(GazeData gazeData)
+    {
+        // most recent frames are looked up most often
+        for (int i = 0; i < mOutputs.length; ++i)
+        {
+            int index = (mLastOutput + mOutputs.length - i) % mOutputs.length;
+            if (mOutputFrames[index] == gazeData)
+                return mOutputs[index];
+        }
+
+        return null;
+    }
+
+    public synchronized void reset()
+    {
+        mGazeFilter.reset();
+        mLeftFilter.reset();
+        mRightFilter.reset();
+    }
+
+    @Override
+    public synchronized void onGazeFrame(GazeData gazeData)
+    {
+        Output output = claimOutput(gazeData);
+        boolean isTracking = (gazeData.state & NO_TRACKING_MASK) == 0;
+
+        apply(mGazeFilter, gazeData.timeStamp, isTracking, gazeData.rawCoordinates, output.gaze);
+        output.leftEye = null;
+        output.rightEye = null;
+
+        if (mFilterEyes)
+        {
+            output.leftEye = apply(mLeftFilter, gazeData.timeStamp, isTracking, gazeData.leftEye.rawCoordinates,
+                    output.mLeftEye);
+            output.rightEye = apply(mRightFilter, gazeData.timeStamp, isTracking, gazeData.rightEye.rawCoordinates,
+                    output.mRightEye);
+
+            gazeData.leftEye.filteredCoordinates = output.leftEye;
+            gazeData.rightEye.filteredCoordinates = output.rightEye;
+        }
+
+        gazeData.filteredCoordinates = output.gaze;
+    }
+
+    private Output claimOutput(GazeData gazeData)
+    {
+        // frame run through stage again keeps its output
+        if (mOutputFrames[mLastOutput] == gazeData)
+            return mOutputs[mLastOutput];
+
+        mLastOutput = (mLastOutput + 1) % mOutputs.length;
+        Output output = mOutputs[mLastOutput];
+
+        // output is reused, frame it was set on must not see the values of another
+        GazeData evicted = mOutputFrames[mLastOutput];
+        if (null != evicted)
+        {
+            if (evicted.filteredCoordinates == output.gaze)
+                evicted.filteredCoordinates = null;
+            if (null != evicted.leftEye && evicted.leftEye.filteredCoordinates == output.mLeftEye)
+                evicted.leftEye.filteredCoordinates = null;
+            if (null != evicted.rightEye && evicted.rightEye.filteredCoordinates == output.mRightEye)
+                evicted.rightEye.filteredCoordinates = null;
+        }
+
+        mOutputFrames[mLastOutput] = gazeData;
+
+        return output;
+    }
+
+    private Point2D apply(GazeFilter filter, long timeStamp, boolean isTracking, Point2D in, Point2D out)
+    {
+        if (filter.isInitialized() && timeStamp - filter.getLastTimeStamp() > mResetMillis)
+            filter.reset();
+
+        if (isTracking && in.x != 0 && in.y != 0)
+        {
+            filter.filter(timeStamp, in.x, in.y);
+
+            out.x = filter.getX();
+            out.y = filter.getY();
+        }
+        else
+        {
+            out.x = 0f;
+            out.y = 0f;
+        }
+
+        return out;
+    }
+}
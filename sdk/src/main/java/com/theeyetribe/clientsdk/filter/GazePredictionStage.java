@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.filter;
+
+import com.theeyetribe.clientsdk.IGazeStage;
+import com.theeyetribe.clientsdk.data.GazeData;
+import com.theeyetribe.clientsdk.data.Point2D;
+
+/**
+ * Gaze stage that compensates for the latency between image capture and listener callback by extrapolating the gaze
+ * point forward in time. The result is stored in {@link GazeData#predictedCoordinates}.
+ * <p>
+ * The velocity of gaze is fitted by least squares over the most recent frames. During saccades the velocity estimate
+ * is unreliable and the overshoot of a wrong prediction is worse than the lag, hence prediction is suppressed while
+ * gaze moves faster than the saccade threshold and the fit restarts once gaze settles.
+ * <p>
+ * The stage extrapolates {@link GazeData#filteredCoordinates} if set by a preceding {@link GazeFilterStage} and
+ * {@link GazeData#smoothedCoordinates} otherwise. If several filter stages are added, the one to extrapolate is
+ * chosen through {@link #setSource(GazeFilterStage)}.
+ * <p>
+ * As with {@link GazeFilterStage}, outputs are preallocated and reused once the stage has processed as many further
+ * frames as its output history holds.
+ */
+public class GazePredictionStage implements IGazeStage
+{
+    public static final long DEFAULT_HORIZON_MILLIS = 30;
+    public static final float DEFAULT_SACCADE_THRESHOLD = 1500f; // pixels per second
+    public static final int DEFAULT_WINDOW_SIZE = 6;
+    public static final int DEFAULT_OUTPUT_HISTORY = GazeFilterStage.DEFAULT_OUTPUT_HISTORY;
+
+    private static final int NO_TRACKING_MASK = GazeData.STATE_TRACKING_LOST | GazeData.STATE_TRACKING_FAIL
+            | GazeData.STATE_BLINK;
+    private static final float LATENCY_SMOOTHING = .05f;
+    private static final long MAX_LATENCY_MILLIS = 1000;
+
+    private volatile long mHorizonMillis = DEFAULT_HORIZON_MILLIS;
+    private volatile float mSaccadeThreshold = DEFAULT_SACCADE_THRESHOLD;
+    private volatile boolean mUseMeasuredLatency;
+    private volatile GazeFilterStage mSource;
+
+    // ring buffer of recent samples
+    private final long[] mTimes;
+    private final float[] mXs;
+    private final float[] mYs;
+    private int mHead;
+    private int mCount;
+
+    private float mVx;
+    private float mVy;
+    private boolean mIsSaccade;
+
+    private float mMeasuredLatency = -1f;
+
+    // ring of outputs and the frames they were set on, newest at mLastOutput
+    private final Point2D[] mOutputs;
+    private final GazeData[] mOutputFrames;
+    private int mLastOutput;
+
+    public GazePredictionStage()
+    {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize number of frames used when fitting gaze velocity
+     */
+    public GazePredictionStage(int windowSize)
+    {
+        this(windowSize, DEFAULT_OUTPUT_HISTORY);
+    }
+
+    /**
+     * @param windowSize number of frames used when fitting gaze velocity
+     * @param outputHistory number of most recent frames whose output is kept before being reused
+     */
+    public GazePredictionStage(int windowSize, int outputHistory)
+    {
+        if (windowSize < 2)
+            throw new IllegalArgumentException("Window size must be at least 2!");
+
+        if (outputHistory <= 0)
+            throw new IllegalArgumentException("Output history must be positive!");
+
+        mTimes = new long[windowSize];
+        mXs = new float[windowSize];
+        mYs = new float[windowSize];
+
+        mOutputs = new Point2D[outputHistory];
+        for (int i = 0; i < outputHistory; ++i)
+            mOutputs[i] = new Point2D();
+        mOutputFrames = new GazeData[outputHistory];
+    }
+
+    /**
+     * @param horizonMillis time in milliseconds to extrapolate gaze forward
+     */
+    public void setHorizonMillis(long horizonMillis)
+    {
+        if (horizonMillis < 0)
+            throw new IllegalArgumentException("Horizon cannot be negative!");
+
+        mHorizonMillis = horizonMillis;
+    }
+
+    public long getHorizonMillis()
+    {
+        return mHorizonMillis;
+    }
+
+    /**
+     * If enabled, the prediction horizon is the measured delay between frame time and arrival of the frame, plus the
+     * horizon set through {@link #setHorizonMillis(long)}. Frames received through GazeManager are measured using
+     * {@link GazeData#hostTimeNanos}, other frames require tracker and host clocks to be in sync.
+     *
+     * @param useMeasuredLatency true to extrapolate by measured latency
+     */
+    public void setUseMeasuredLatency(boolean useMeasuredLatency)
+    {
+        mUseMeasuredLatency = useMeasuredLatency;
+    }
+
+    /**
+     * @param saccadeThreshold gaze speed in pixels per second above which prediction is suppressed
+     */
+    public void setSaccadeThreshold(float saccadeThreshold)
+    {
+        if (saccadeThreshold <= 0)
+            throw new IllegalArgumentException("Saccade threshold must be positive!");
+
+        mSaccadeThreshold = saccadeThreshold;
+    }
+
+    public float getSaccadeThreshold()
+    {
+        return mSaccadeThreshold;
+    }
+
+    /**
+     * Sets the filter stage whose output is extrapolated. The source must be added before this stage.
+     *
+     * @param source filter stage to extrapolate, null to extrapolate the output of the last filter stage
+     */
+    public void setSource(GazeFilterStage source)
+    {
+        mSource = source;
+    }
+
+    /**
+     * @param gazeData frame this stage has been run on
+     * @return coordinates predicted by this stage for frame, null if stage has not been run on frame or output has
+     *         been reused
+     */
+    public synchronized Point2D getOutput(GazeData gazeData)
+    {
+        // most recent frames are looked up most often
+        for (int i = 0; i < mOutputs.length; ++i)
+        {
+            int index = (mLastOutput + mOutputs.length - i) % mOutputs.length;
+            if (mOutputFrames[index] == gazeData)
+                return mOutputs[index];
+        }
+
+        return null;
+    }
+
+    /**
+     * @return smoothed delay in milliseconds between frame time and frame arrival, -1 if unknown
+     */
+    public synchronized float getMeasuredLatency()
+    {
+        return mMeasuredLatency;
+    }
+
+    /**
+     * @return true if gaze velocity exceeded the saccade threshold in the last frame
+     */
+    public synchronized boolean isSaccade()
+    {
+        return mIsSaccade;
+    }
+
+    public synchronized void reset()
+    {
+        mHead = 0;
+        mCount = 0;
+        mVx = 0f;
+        mVy = 0f;
+        mIsSaccade = false;
+    }
+
+    @Override
+    public synchronized void onGazeFrame(GazeData gazeData)
+    {
+        // prefer clock synchronized host time if frame was received through GazeManager
+        long latency = gazeData.hostTimeNanos != 0
+                ? (System.nanoTime() - gazeData.hostTimeNanos) / 1000000L
+                : System.currentTimeMillis() - gazeData.timeStamp;
+        if (latency >= 0 && latency < MAX_LATENCY_MILLIS)
+        {
+            if (mMeasuredLatency < 0)
+                mMeasuredLatency = latency;
+            else
+                mMeasuredLatency += LATENCY_SMOOTHING * (latency - mMeasuredLatency);
+        }
+
+        GazeFilterStage source = mSource;
+        Point2D in;
+        if (null != source)
+        {
+            GazeFilterStage.Output filtered = source.getOutput(gazeData);
+            in = null != filtered ? filtered.gaze : null;
+        }
+        else
+        {
+            in = gazeData.filteredCoordinates;
+        }
+
+        if (null == in || (in.x == 0 && in.y == 0))
+            in = gazeData.smoothedCoordinates;
+
+        Point2D out = claimOutput(gazeData);
+        gazeData.predictedCoordinates = out;
+
+        if ((gazeData.state & NO_TRACKING_MASK) != 0 || (in.x == 0 && in.y == 0))
+        {
+            reset();
+            out.x = 0f;
+            out.y = 0f;
+            return;
+        }
+
+        // skip frames arriving out of order
+        if (mCount > 0 && gazeData.timeStamp <= mTimes[(mHead + mTimes.length - 1) % mTimes.length])
+        {
+            out.x = in.x;
+            out.y = in.y;
+            return;
+        }
+
+        // instantaneous speed against previous sample decides whether we are in a saccade
+        if (mCount > 0)
+        {
+            int prev = (mHead + mTimes.length - 1) % mTimes.length;
+            float dt = (gazeData.timeStamp - mTimes[prev]) / 1000f;
+            float dx = in.x - mXs[prev];
+            float dy = in.y - mYs[prev];
+            float threshold = mSaccadeThreshold;
+
+            mIsSaccade = dx * dx + dy * dy > threshold * threshold * dt * dt;
+
+            if (mIsSaccade)
+                mCount = 0; // fit restarts at landing point
+        }
+
+        mTimes[mHead] = gazeData.timeStamp;
+        mXs[mHead] = in.x;
+        mYs[mHead] = in.y;
+        mHead = (mHead + 1) % mTimes.length;
+        if (mCount < mTimes.length)
+            ++mCount;
+
+        fitVelocity();
+
+        long horizon = mHorizonMillis;
+        if (mUseMeasuredLatency && mMeasuredLatency > 0)
+            horizon += Math.round(mMeasuredLatency);
+
+        if (mIsSaccade || mCount < 2)
+        {
+            out.x = in.x;
+            out.y = in.y;
+        }
+        else
+        {
+            float h = horizon / 1000f;
+            out.x = in.x + mVx * h;
+            out.y = in.y + mVy * h;
+        }
+    }
+
+    private Point2D claimOutput(GazeData gazeData)
+    {
+        // frame run through stage again keeps its output
+        if (mOutputFrames[mLastOutput] == gazeData)
+            return mOutputs[mLastOutput];
+
+        mLastOutput = (mLastOutput + 1) % mOutputs.length;
+        Point2D output = mOutputs[mLastOutput];
+
+        // output is reused, frame it was set on must not see the values of another
+        GazeData evicted = mOutputFrames[mLastOutput];
+        if (null != evicted && evicted.predictedCoordinates == output)
+            evicted.predictedCoordinates = null;
+
+        mOutputFrames[mLastOutput] = gazeData;
+
+        return output;
+    }
+
+    private void fitVelocity()
+    {
+        if (mCount < 2)
+        {
+            mVx = 0f;
+            mVy = 0f;
+            return;
+        }
+
+        // least squares slope over the window, time relative to oldest sample to keep precision
+        int start = (mHead + mTimes.length - mCount) % mTimes.length;
+        long t0 = mTimes[start];
+
+        float st = 0f, sx = 0f, sy = 0f, stt = 0f, stx = 0f, sty = 0f;
+        for (int i = 0; i < mCount; ++i)
+        {
+            int idx = (start + i) % mTimes.length;
+            float t = (mTimes[idx] - t0) / 1000f;
+
+            st += t;
+            sx += mXs[idx];
+            sy += mYs[idx];
+            stt += t * t;
+            stx += t * mXs[idx];
+            sty += t * mYs[idx];
+        }
+
+        float denom = mCount * stt - st * st;
+        if (denom <= 0f)
+        {
+            mVx = 0f;
+            mVy = 0f;
+            return;
+        }
+
+        mVx = (mCount * stx - st * sx) / denom;
+        mVy = (mCount * sty - st * sy) / denom;
+    }
+}
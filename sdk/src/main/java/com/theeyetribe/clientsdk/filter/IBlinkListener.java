@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.filter;
+
+/**
+ * Callback interface for blink and eye availability events detected by a {@link BlinkDetectionStage}.
+ * <p>
+ * Callbacks are made on the thread processing gaze frames and implementations must return quickly.
+ * <p>
+ * Implementing classes should register through {@link BlinkDetectionStage#addBlinkListener(IBlinkListener)}.
+ */
+public interface IBlinkListener
+{
+    /**
+     * Called when both eyes are lost after at least one was tracked. Whether this was a blink is decided in
+     * {@link #onBlinkEnd(long, long, boolean)}.
+     *
+     * @param timeStamp time stamp of first frame without eyes
+     */
+    void onBlinkStart(long timeStamp);
+
+    /**
+     * Called when eyes reappear after {@link #onBlinkStart(long)}, or when they stay lost for longer than the max
+     * blink duration.
+     *
+     * @param timeStamp time stamp of frame ending the blink
+     * @param durationMillis time in milliseconds both eyes were lost
+     * @param isBlink true if duration was within the blink duration limits, false if the loss was a dropout or the
+     *                user closed their eyes or looked away
+     */
+    void onBlinkEnd(long timeStamp, long durationMillis, boolean isBlink);
+
+    /**
+     * Called when an eye is found, or has been lost for longer than the max blink duration.
+     *
+     * @param timeStamp time stamp of frame causing the change
+     * @param isLeftEyeAvailable true if left eye is tracked
+     * @param isRightEyeAvailable true if right eye is tracked
+     */
+    void onEyeAvailabilityChanged(long timeStamp, boolean isLeftEyeAvailable, boolean isRightEyeAvailable);
+}
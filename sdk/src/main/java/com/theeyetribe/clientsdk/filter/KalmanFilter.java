@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.filter;
+
+/**
+ * Kalman filter using a constant velocity motion model, run independently for each axis.
+ * <p>
+ * The process noise models random acceleration of gaze, the measurement noise models the jitter of the gaze
+ * estimates. A higher ratio of process noise to measurement noise results in less smoothing and less lag.
+ */
+public class KalmanFilter extends GazeFilter
+{
+    public static final float DEFAULT_PROCESS_NOISE = 10000000f;
+    public static final float DEFAULT_MEASUREMENT_NOISE = 300f;
+
+    private volatile float mProcessNoise;
+    private volatile float mMeasurementNoise;
+
+    // velocity state
+    private float mVx;
+    private float mVy;
+
+    // covariance, symmetric 2x2 per axis
+    private float mPx00, mPx01, mPx11;
+    private float mPy00, mPy01, mPy11;
+
+    public KalmanFilter()
+    {
+        this(DEFAULT_PROCESS_NOISE, DEFAULT_MEASUREMENT_NOISE);
+    }
+
+    /**
+     * @param processNoise variance of gaze acceleration, in pixels^2/s^4 if filtering pixel coordinates
+     * @param measurementNoise variance of gaze estimates, in pixels^2 if filtering pixel coordinates
+     */
+    public KalmanFilter(float processNoise, float measurementNoise)
+    {
+        setProcessNoise(processNoise);
+        setMeasurementNoise(measurementNoise);
+    }
+
+    public float getProcessNoise()
+    {
+        return mProcessNoise;
+    }
+
+    public void setProcessNoise(float processNoise)
+    {
+        if (processNoise < 0)
+            throw new IllegalArgumentException("Process noise cannot be negative!");
+
+        this.mProcessNoise = processNoise;
+    }
+
+    public float getMeasurementNoise()
+    {
+        return mMeasurementNoise;
+    }
+
+    public void setMeasurementNoise(float measurementNoise)
+    {
+        if (measurementNoise <= 0)
+            throw new IllegalArgumentException("Measurement noise must be positive!");
+
+        this.mMeasurementNoise = measurementNoise;
+    }
+
+    /**
+     * @return estimated velocity along the x axis in units per second
+     */
+    public float getVelocityX()
+    {
+        return mVx;
+    }
+
+    /**
+     * @return estimated velocity along the y axis in units per second
+     */
+    public float getVelocityY()
+    {
+        return mVy;
+    }
+
+    @Override
+    protected void onInit(float x, float y)
+    {
+        float r = mMeasurementNoise;
+
+        mVx = 0f;
+        mVy = 0f;
+        mPx00 = mPy00 = r;
+        mPx01 = mPy01 = 0f;
+        mPx11 = mPy11 = r;
+    }
+
+    @Override
+    protected void onFilter(float dt, float x, float y)
+    {
+        float q = mProcessNoise;
+        float r = mMeasurementNoise;
+
+        float dt2 = dt * dt;
+        float q00 = q * dt2 * dt2 * .25f;
+        float q01 = q * dt2 * dt * .5f;
+        float q11 = q * dt2;
+
+        // x axis, predict
+        mX += mVx * dt;
+        mPx00 += dt * (2f * mPx01 + dt * mPx11) + q00;
+        mPx01 += dt * mPx11 + q01;
+        mPx11 += q11;
+
+        // x axis, correct
+        float s = mPx00 + r;
+        float k0 = mPx00 / s;
+        float k1 = mPx01 / s;
+        float innovation = x - mX;
+        mX += k0 * innovation;
+        mVx += k1 * innovation;
+        mPx11 -= k1 * mPx01;
+        mPx01 -= k0 * mPx01;
+        mPx00 -= k0 * mPx00;
+
+        // y axis, predict
+        mY += mVy * dt;
+        mPy00 += dt * (2f * mPy01 + dt * mPy11) + q00;
+        mPy01 += dt * mPy11 + q01;
+        mPy11 += q11;
+
+        // y axis, correct
+        s = mPy00 + r;
+        k0 = mPy00 / s;
+        k1 = mPy01 / s;
+        innovation = y - mY;
+        mY += k0 * innovation;
+        mVy += k1 * innovation;
+        mPy11 -= k1 * mPy01;
+        mPy01 -= k0 * mPy01;
+        mPy00 -= k0 * mPy00;
+    }
+
+    @Override
+    public GazeFilter copy()
+    {
+        return new KalmanFilter(mProcessNoise, mMeasurementNoise);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.filter;
+
+/**
+ * Adaptive low pass filter that lowers its cutoff frequency when gaze is still and raises it when gaze moves. This
+ * removes jitter during fixations while keeping lag low during saccades.
+ *
+ * @see <a href="http://cristal.univ-lille.fr/~casiez/1euro/">1&euro; Filter</a>
+ */
+public class OneEuroFilter extends GazeFilter
+{
+    public static final float DEFAULT_MIN_CUTOFF = 1f;
+    public static final float DEFAULT_BETA = .007f;
+    public static final float DEFAULT_DERIVATE_CUTOFF = 1f;
+
+    private volatile float mMinCutoff;
+    private volatile float mBeta;
+    private volatile float mDerivateCutoff;
+
+    private float mDx;
+    private float mDy;
+
+    private float mLastRawX;
+    private float mLastRawY;
+
+    public OneEuroFilter()
+    {
+        this(DEFAULT_MIN_CUTOFF, DEFAULT_BETA, DEFAULT_DERIVATE_CUTOFF);
+    }
+
+    /**
+     * @param minCutoff minimum cutoff frequency in Hz, lower values remove more jitter at low speeds
+     * @param beta speed coefficient, higher values reduce lag at high speeds
+     * @param derivateCutoff cutoff frequency in Hz used when estimating speed
+     */
+    public OneEuroFilter(float minCutoff, float beta, float derivateCutoff)
+    {
+        setMinCutoff(minCutoff);
+        setBeta(beta);
+        setDerivateCutoff(derivateCutoff);
+    }
+
+    public float getMinCutoff()
+    {
+        return mMinCutoff;
+    }
+
+    public void setMinCutoff(float minCutoff)
+    {
+        if (minCutoff <= 0)
+            throw new IllegalArgumentException("Cutoff frequency must be positive!");
+
+        this.mMinCutoff = minCutoff;
+    }
+
+    public float getBeta()
+    {
+        return mBeta;
+    }
+
+    public void setBeta(float beta)
+    {
+        if (beta < 0)
+            throw new IllegalArgumentException("Beta cannot be negative!");
+
+        this.mBeta = beta;
+    }
+
+    public float getDerivateCutoff()
+    {
+        return mDerivateCutoff;
+    }
+
+    public void setDerivateCutoff(float derivateCutoff)
+    {
+        if (derivateCutoff <= 0)
+            throw new IllegalArgumentException("Cutoff frequency must be positive!");
+
+        this.mDerivateCutoff = derivateCutoff;
+    }
+
+    @Override
+    protected void onInit(float x, float y)
+    {
+        mDx = 0f;
+        mDy = 0f;
+        mLastRawX = x;
+        mLastRawY = y;
+    }
+
+    @Override
+    protected void onFilter(float dt, float x, float y)
+    {
+        // filtered speed of signal
+        float alphaD = alpha(dt, mDerivateCutoff);
+        mDx += alphaD * ((x - mLastRawX) / dt - mDx);
+        mDy += alphaD * ((y - mLastRawY) / dt - mDy);
+
+        mLastRawX = x;
+        mLastRawY = y;
+
+        // cutoff rises with speed
+        float speed = (float) Math.sqrt(mDx * mDx + mDy * mDy);
+        float alpha = alpha(dt, mMinCutoff + mBeta * speed);
+
+        mX += alpha * (x - mX);
+        mY += alpha * (y - mY);
+    }
+
+    private static float alpha(float dt, float cutoff)
+    {
+        float tau = 1f / (2f * (float) Math.PI * cutoff);
+        return 1f / (1f + tau / dt);
+    }
+
+    @Override
+    public GazeFilter copy()
+    {
+        return new OneEuroFilter(mMinCutoff, mBeta, mDerivateCutoff);
+    }
+}
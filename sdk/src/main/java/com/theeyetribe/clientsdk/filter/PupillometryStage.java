@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.filter;
+
+import com.theeyetribe.clientsdk.IGazeStage;
+import com.theeyetribe.clientsdk.data.GazeData;
+
+/**
+ * Gaze stage that tracks the pupil size of each eye against a rolling baseline, e.g. for measuring cognitive load.
+ * <p>
+ * The baseline is the mean and standard deviation of the pupil size over a window of the most recent samples,
+ * maintained in constant time per frame. Each new sample is compared to the baseline of the samples preceding it. Frames
+ * that failed tracking or are marked {@link GazeData#STATE_BLINK} by a preceding {@link BlinkDetectionStage} carry no
+ * sample. Gaps shorter than the max gap are filled into the window by linear interpolation once the pupil reappears,
+ * so blinks do not bias the baseline.
+ * <p>
+ * The statistics of the latest frame are published as an immutable {@link Snapshot} that can be read from any thread
+ * without locking.
+ */
+public class PupillometryStage implements IGazeStage
+{
+    public static final int DEFAULT_WINDOW_SIZE = 300;
+    public static final long DEFAULT_MAX_GAP_MILLIS = 500;
+
+    private static final int NO_TRACKING_MASK = GazeData.STATE_TRACKING_LOST | GazeData.STATE_TRACKING_FAIL
+            | GazeData.STATE_GAP | GazeData.STATE_BLINK;
+
+    /**
+     * Pupil statistics of a single eye
+     */
+    public static class EyeStats
+    {
+        private final boolean mIsValid;
+        private final float mPupilSize;
+        private final int mCount;
+        private final double mMean;
+        private final double mStandardDeviation;
+
+        private EyeStats(boolean isValid, float pupilSize, int count, double mean, double standardDeviation)
+        {
+            mIsValid = isValid;
+            mPupilSize = pupilSize;
+            mCount = count;
+            mMean = mean;
+            mStandardDeviation = standardDeviation;
+        }
+
+        /**
+         * @return true if the frame carried a pupil sample for this eye
+         */
+        public boolean isValid()
+        {
+            return mIsValid;
+        }
+
+        public float getPupilSize()
+        {
+            return mPupilSize;
+        }
+
+        /**
+         * @return number of samples in baseline
+         */
+        public int getCount()
+        {
+            return mCount;
+        }
+
+        /**
+         * @return mean pupil size of baseline
+         */
+        public double getMean()
+        {
+            return mMean;
+        }
+
+        /**
+         * @return standard deviation of pupil size in baseline
+         */
+        public double getStandardDeviation()
+        {
+            return mStandardDeviation;
+        }
+
+        /**
+         * @return deviation of sample from baseline mean in standard deviations, 0 if not available
+         */
+        public double getZScore()
+        {
+            return mIsValid && mStandardDeviation > 0 ? (mPupilSize - mMean) / mStandardDeviation : 0d;
+        }
+
+        /**
+         * @return change of sample relative to baseline mean in percent, 0 if not available
+         */
+        public double getPercentChange()
+        {
+            return mIsValid && mMean > 0 ? 100d * (mPupilSize - mMean) / mMean : 0d;
+        }
+    }
+
+    /**
+     * Pupil statistics of both eyes for a single frame
+     */
+    public static class Snapshot
+    {
+        private final long mTimeStamp;
+        private final EyeStats mLeft;
+        private final EyeStats mRight;
+
+        private Snapshot(long timeStamp, EyeStats left, EyeStats right)
+        {
+            mTimeStamp = timeStamp;
+            mLeft = left;
+            mRight = right;
+        }
+
+        public long getTimeStamp()
+        {
+            return mTimeStamp;
+        }
+
+        public EyeStats getLeft()
+        {
+            return mLeft;
+        }
+
+        public EyeStats getRight()
+        {
+            return mRight;
+        }
+    }
+
+    /**
+     * Rolling baseline of one eye
+     */
+    private static class Channel
+    {
+        // ring buffer of baseline samples
+        final double[] values;
+        int head;
+        int count;
+        double mean;
+        double m2;
+
+        // last sample and number of frames missing since
+        boolean hasLast;
+        float last;
+        long lastTimeStamp;
+        int missing;
+
+        Channel(int windowSize)
+        {
+            values = new double[windowSize];
+        }
+
+        void add(double value)
+        {
+            if (count < values.length)
+            {
+                ++count;
+                double delta = value - mean;
+                mean += delta / count;
+                m2 += delta * (value - mean);
+            }
+            else
+            {
+                // replace oldest sample in a single step
+                double oldest = values[head];
+                double oldMean = mean;
+                mean += (value - oldest) / count;
+                m2 = Math.max(0d, m2 + (value - oldest) * (value - mean + oldest - oldMean));
+            }
+
+            values[head] = value;
+            head = (head + 1) % values.length;
+        }
+
+        double getStandardDeviation()
+        {
+            return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0d;
+        }
+
+        EyeStats process(long timeStamp, boolean isValid, float pupilSize, long maxGapMillis)
+        {
+            if (!isValid)
+            {
+                if (hasLast)
+                    ++missing;
+
+                return new EyeStats(false, 0f, count, mean, getStandardDeviation());
+            }
+
+            if (missing > 0 && timeStamp - lastTimeStamp <= maxGapMillis)
+                for (int i = 1; i <= missing; ++i)
+                    add(last + (pupilSize - last) * i / (missing + 1));
+
+            EyeStats stats = new EyeStats(true, pupilSize, count, mean, getStandardDeviation());
+
+            add(pupilSize);
+            hasLast = true;
+            last = pupilSize;
+            lastTimeStamp = timeStamp;
+            missing = 0;
+
+            return stats;
+        }
+
+        void reset()
+        {
+            head = 0;
+            count = 0;
+            mean = 0d;
+            m2 = 0d;
+            hasLast = false;
+            missing = 0;
+        }
+    }
+
+    private final Channel mLeft;
+    private final Channel mRight;
+
+    private volatile long mMaxGapMillis = DEFAULT_MAX_GAP_MILLIS;
+    private volatile Snapshot mSnapshot;
+
+    public PupillometryStage()
+    {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize number of samples per eye in baseline
+     */
+    public PupillometryStage(int windowSize)
+    {
+        if (windowSize < 2)
+            throw new IllegalArgumentException("Window size must be at least 2!");
+
+        mLeft = new Channel(windowSize);
+        mRight = new Channel(windowSize);
+    }
+
+    /**
+     * @param maxGapMillis longest time in milliseconds without samples that is interpolated
+     */
+    public void setMaxGapMillis(long maxGapMillis)
+    {
+        mMaxGapMillis = maxGapMillis;
+    }
+
+    /**
+     * @return statistics of latest frame, null if no frames processed
+     */
+    public Snapshot getSnapshot()
+    {
+        return mSnapshot;
+    }
+
+    public synchronized void reset()
+    {
+        mLeft.reset();
+        mRight.reset();
+        mSnapshot = null;
+    }
+
+    @Override
+    public synchronized void onGazeFrame(GazeData gazeData)
+    {
+        boolean isTracking = (gazeData.state & NO_TRACKING_MASK) == 0;
+        long maxGapMillis = mMaxGapMillis;
+
+        EyeStats left = mLeft.process(gazeData.timeStamp, isTracking && gazeData.leftEye.pupilSize > 0,
+                gazeData.leftEye.pupilSize, maxGapMillis);
+        EyeStats right = mRight.process(gazeData.timeStamp, isTracking && gazeData.rightEye.pupilSize > 0,
+                gazeData.rightEye.pupilSize, maxGapMillis);
+
+        mSnapshot = new Snapshot(gazeData.timeStamp, left, right);
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.reactive;
+
+import com.theeyetribe.clientsdk.GazeManager;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reactive Streams publisher of items pushed by the EyeTribe Java SDK, honouring the demand of each subscriber.
+ * <p>
+ * Every subscriber has a buffer of fixed size. Items are delivered while the subscriber has requested more, and
+ * buffered otherwise. Once the buffer is full the {@link OverflowStrategy} applies, so a slow subscriber never causes
+ * unbounded buffering. Items are delivered one at a time per subscriber, either on the thread publishing or requesting
+ * them, or on the executor given.
+ * <p>
+ * {@link #onActive()} and {@link #onInactive()} are called as the first subscriber arrives and the last one leaves,
+ * e.g. to register and unregister with GazeManager.
+ *
+ * @param <T> type of items published
+ */
+public class BufferedPublisher<T> implements Publisher<T>
+{
+    private final int mBufferSize;
+    private final OverflowStrategy mStrategy;
+    private final Executor mExecutor;
+
+    // iterated on every item without locking, changed only on subscribe and cancel
+    private final List<BufferedSubscription> mSubscriptions = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong mDroppedCount = new AtomicLong();
+
+    /**
+     * @param bufferSize maximum number of items buffered per subscriber
+     * @param strategy handling of items published to a full buffer
+     */
+    public BufferedPublisher(int bufferSize, OverflowStrategy strategy)
+    {
+        this(bufferSize, strategy, null);
+    }
+
+    /**
+     * @param bufferSize maximum number of items buffered per subscriber
+     * @param strategy handling of items published to a full buffer
+     * @param executor executor delivering items, null to deliver on thread publishing or requesting items
+     */
+    public BufferedPublisher(int bufferSize, OverflowStrategy strategy, Executor executor)
+    {
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("Buffer size must be positive!");
+
+        if (null == strategy)
+            throw new IllegalArgumentException("Strategy cannot be null!");
+
+        mBufferSize = bufferSize;
+        mStrategy = strategy;
+        mExecutor = executor;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber)
+    {
+        // required by Reactive Streams specification rule 1.9
+        if (null == subscriber)
+            throw new NullPointerException("Subscriber cannot be null!");
+
+        BufferedSubscription subscription = new BufferedSubscription(subscriber);
+
+        // no other signal may precede onSubscribe, so items are offered to subscription only once subscribed
+        subscriber.onSubscribe(subscription);
+
+        // hooks are called under lock, so that they run in the order subscribers arrive and leave
+        synchronized (mSubscriptions)
+        {
+            if (subscription.mCancelled)
+                return;
+
+            mSubscriptions.add(subscription);
+            if (mSubscriptions.size() == 1)
+                onActive();
+        }
+    }
+
+    /**
+     * Publishes an item to all subscribers
+     *
+     * @param item item to publish
+     */
+    public void publish(T item)
+    {
+        if (null == item)
+            throw new IllegalArgumentException("Item cannot be null!");
+
+        for (BufferedSubscription subscription : mSubscriptions)
+            subscription.offer(item);
+    }
+
+    /**
+     * Completes all current subscriptions once their buffered items are delivered
+     */
+    public void complete()
+    {
+        for (BufferedSubscription subscription : mSubscriptions)
+            subscription.complete();
+    }
+
+    /**
+     * @return number of current subscribers
+     */
+    public int getNumSubscribers()
+    {
+        return mSubscriptions.size();
+    }
+
+    /**
+     * @return number of items dropped on full buffers, over all subscribers
+     */
+    public long getDroppedCount()
+    {
+        return mDroppedCount.get();
+    }
+
+    /**
+     * Called as the first subscriber subscribes. Calls to this and {@link #onInactive()} are serialized under the
+     * lock of this publisher, so they must not wait on other threads subscribing or cancelling.
+     */
+    protected void onActive()
+    {
+    }
+
+    /**
+     * Called as the last subscriber cancels or terminates
+     */
+    protected void onInactive()
+    {
+    }
+
+    private void remove(BufferedSubscription subscription)
+    {
+        synchronized (mSubscriptions)
+        {
+            if (mSubscriptions.remove(subscription) && mSubscriptions.isEmpty())
+                onInactive();
+        }
+    }
+
+    private class BufferedSubscription implements Subscription
+    {
+        private final Subscriber<? super T> mSubscriber;
+        private final ArrayDeque<T> mBuffer = new ArrayDeque<>();
+
+        private final AtomicLong mRequested = new AtomicLong();
+        private final AtomicInteger mWip = new AtomicInteger();
+
+        private volatile boolean mCancelled;
+        private volatile boolean mDone;
+        private volatile Throwable mError;
+
+        private BufferedSubscription(Subscriber<? super T> subscriber)
+        {
+            mSubscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n)
+        {
+            if (n <= 0)
+            {
+                // required by Reactive Streams specification rule 3.9
+                mError = new IllegalArgumentException("Request must be positive!");
+            }
+            else
+            {
+                // demand is capped, as of rule 3.17
+                long r;
+                do
+                {
+                    r = mRequested.get();
+                    if (r == Long.MAX_VALUE)
+                        break;
+                }
+                while (!mRequested.compareAndSet(r, r + n < 0 ? Long.MAX_VALUE : r + n));
+            }
+
+            // requests from within onNext are served by drain in progress, as of rule 3.3
+            drain();
+        }
+
+        @Override
+        public void cancel()
+        {
+            if (mCancelled)
+                return;
+
+            mCancelled = true;
+            remove(this);
+
+            synchronized (mBuffer)
+            {
+                mBuffer.clear();
+            }
+        }
+
+        private void offer(T item)
+        {
+            if (mCancelled || mDone)
+                return;
+
+            synchronized (mBuffer)
+            {
+                if (mBuffer.size() == mBufferSize)
+                {
+                    switch (mStrategy)
+                    {
+                        case DROP_OLDEST:
+                            mBuffer.poll();
+                            mDroppedCount.incrementAndGet();
+                            break;
+                        case DROP_NEWEST:
+                            mDroppedCount.incrementAndGet();
+                            return;
+                        case ERROR:
+                            mError = new IllegalStateException("Subscriber buffer of " + mBufferSize + " items overflowed!");
+                            break;
+                    }
+                }
+
+                if (null == mError)
+                    mBuffer.add(item);
+            }
+
+            schedule();
+        }
+
+        private void complete()
+        {
+            mDone = true;
+            schedule();
+        }
+
+        private void schedule()
+        {
+            if (null != mExecutor)
+                mExecutor.execute(this::drain);
+            else
+                drain();
+        }
+
+        private void drain()
+        {
+            // only one thread delivers at a time, others leave their work to it
+            if (mWip.getAndIncrement() != 0)
+                return;
+
+            int missed = 1;
+            while (true)
+            {
+                long requested = mRequested.get();
+                long emitted = 0;
+
+                while (true)
+                {
+                    if (mCancelled || terminateIfDone())
+                        return;
+
+                    if (emitted == requested)
+                        break;
+
+                    T item;
+                    synchronized (mBuffer)
+                    {
+                        item = mBuffer.poll();
+                    }
+
+                    if (null == item)
+                        break;
+
+                    try
+                    {
+                        mSubscriber.onNext(item);
+                    }
+                    catch (Exception e)
+                    {
+                        // subscriber violated rule 2.13, subscription is dropped
+                        System.out.println("Exception while calling Subscriber.onNext() on subscriber "
+                                + mSubscriber.getClass().getSimpleName() + ": " + e.getLocalizedMessage());
+
+                        if (GazeManager.IS_DEBUG_MODE)
+                            e.printStackTrace();
+
+                        cancel();
+                        return;
+                    }
+
+                    ++emitted;
+                }
+
+                if (emitted != 0 && requested != Long.MAX_VALUE)
+                    mRequested.addAndGet(-emitted);
+
+                missed = mWip.addAndGet(-missed);
+                if (missed == 0)
+                    return;
+            }
+        }
+
+        /**
+         * @return true if subscription was terminated by an error, or completed with no items left
+         */
+        private boolean terminateIfDone()
+        {
+            Throwable error = mError;
+            boolean isEmpty;
+            synchronized (mBuffer)
+            {
+                isEmpty = mBuffer.isEmpty();
+            }
+
+            if (null == error && !(mDone && isEmpty))
+                return false;
+
+            mCancelled = true;
+            remove(this);
+
+            synchronized (mBuffer)
+            {
+                mBuffer.clear();
+            }
+
+            try
+            {
+                if (null != error)
+                    mSubscriber.onError(error);
+                else
+                    mSubscriber.onComplete();
+            }
+            catch (Exception e)
+            {
+                // subscriber violated rule 2.13, subscription is terminated already
+                System.out.println("Exception while calling Subscriber." + (null != error ? "onError()" : "onComplete()")
+                        + " on subscriber " + mSubscriber.getClass().getSimpleName() + ": " + e.getLocalizedMessage());
+
+                if (GazeManager.IS_DEBUG_MODE)
+                    e.printStackTrace();
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.reactive;
+
+/**
+ * Handling of items published while the buffer of a subscriber is full, as it requested fewer items than published.
+ */
+public enum OverflowStrategy
+{
+    /**
+     * Oldest item buffered is dropped, so that the subscriber receives the latest items once requesting more.
+     */
+    DROP_OLDEST,
+    /**
+     * Item published is dropped, so that the subscriber receives the items buffered first.
+     */
+    DROP_NEWEST,
+    /**
+     * Subscription is terminated by {@link org.reactivestreams.Subscriber#onError(Throwable) onError} with an
+     * IllegalStateException.
+     */
+    ERROR
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table of requests sent and awaiting a response, keyed by request id.
+ * <p>
+ * Requests are held in an open addressing table probed linearly from their id, which suits the sequential ids of
+ * requests without boxing them. Deadlines are kept in a timer wheel of ids, so that requests left unanswered can be
+ * expired in time proportional to the requests sent, with ids of answered requests dropped as their slot is swept.
+ */
+public class InFlightRequestTable
+{
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INITIAL_SLOT_CAPACITY = 8;
+
+    // timeout spans half the wheel, so deadlines fall within one revolution
+    private static final int NUM_SLOTS = 64;
+    private static final int TIMEOUT_SLOTS = NUM_SLOTS / 2;
+
+    private final long mTimeoutMillis;
+    private final long mTickMillis;
+
+    private int[] mIds;
+    private Request<?>[] mRequests;
+    private long[] mDeadlines;
+    private int mSize;
+
+    private final int[][] mSlots = new int[NUM_SLOTS][];
+    private final int[] mSlotSizes = new int[NUM_SLOTS];
+    private long mSweptTick = Long.MIN_VALUE;
+
+    private long mExpiredCount;
+
+    /**
+     * @param timeoutMillis time in milliseconds after which an unanswered request expires
+     */
+    public InFlightRequestTable(long timeoutMillis)
+    {
+        if (timeoutMillis <= 0)
+            throw new IllegalArgumentException("Timeout must be positive!");
+
+        mTimeoutMillis = timeoutMillis;
+        mTickMillis = Math.max(1, timeoutMillis / TIMEOUT_SLOTS);
+
+        mIds = new int[INITIAL_CAPACITY];
+        mRequests = new Request<?>[INITIAL_CAPACITY];
+        mDeadlines = new long[INITIAL_CAPACITY];
+
+        for (int i = 0; i < NUM_SLOTS; ++i)
+            mSlots[i] = new int[INITIAL_SLOT_CAPACITY];
+    }
+
+    /**
+     * @return time in milliseconds between sweeps needed for timely expiry
+     */
+    public long getTickMillis()
+    {
+        return mTickMillis;
+    }
+
+    /**
+     * Adds a request sent, replacing any request of same id
+     *
+     * @param request request sent
+     * @param nowMillis current time in milliseconds
+     */
+    public synchronized void put(Request<?> request, long nowMillis)
+    {
+        if (null == request)
+            throw new IllegalArgumentException("Request cannot be null!");
+
+        if ((mSize + 1) * 2 > mRequests.length)
+            rehash(mRequests.length * 2);
+
+        int index = find(request.id);
+        if (index < 0)
+        {
+            index = ~index;
+            ++mSize;
+        }
+
+        long deadline = nowMillis + mTimeoutMillis;
+
+        mIds[index] = request.id;
+        mRequests[index] = request;
+        mDeadlines[index] = deadline;
+
+        if (mSweptTick == Long.MIN_VALUE)
+            mSweptTick = nowMillis / mTickMillis - 1;
+
+        schedule(request.id, deadline);
+    }
+
+    /**
+     * Removes a request as its response arrived
+     *
+     * @param id id of request
+     * @return request removed, null if none of id
+     */
+    public synchronized Request<?> remove(int id)
+    {
+        int index = find(id);
+        if (index < 0)
+            return null;
+
+        Request<?> request = mRequests[index];
+        removeAt(index);
+
+        return request;
+    }
+
+    /**
+     * Removes all requests, e.g. as connection closed
+     *
+     * @return requests removed
+     */
+    public synchronized List<Request<?>> removeAll()
+    {
+        List<Request<?>> requests = new ArrayList<>(mSize);
+
+        for (int i = 0; i < mRequests.length; ++i)
+        {
+            if (null != mRequests[i])
+            {
+                requests.add(mRequests[i]);
+                mRequests[i] = null;
+            }
+        }
+
+        for (int i = 0; i < NUM_SLOTS; ++i)
+            mSlotSizes[i] = 0;
+
+        mSize = 0;
+
+        return requests;
+    }
+
+    /**
+     * Removes requests whose deadline has passed
+     *
+     * @param nowMillis current time in milliseconds
+     * @param expired list expired requests are added to
+     * @return number of requests expired
+     */
+    public synchronized int expire(long nowMillis, List<Request<?>> expired)
+    {
+        if (mSweptTick == Long.MIN_VALUE)
+            return 0;
+
+        // only ticks that have fully passed are swept, so all deadlines of a swept slot are due
+        long lastTick = nowMillis / mTickMillis - 1;
+        if (lastTick - mSweptTick > NUM_SLOTS)
+            mSweptTick = lastTick - NUM_SLOTS;
+
+        int count = 0;
+        while (mSweptTick < lastTick)
+        {
+            ++mSweptTick;
+            count += sweep((int) (mSweptTick & (NUM_SLOTS - 1)), nowMillis, expired);
+        }
+
+        mExpiredCount += count;
+
+        return count;
+    }
+
+    /**
+     * @return number of requests awaiting a response
+     */
+    public synchronized int size()
+    {
+        return mSize;
+    }
+
+    /**
+     * @return number of requests expired since construction
+     */
+    public synchronized long getExpiredCount()
+    {
+        return mExpiredCount;
+    }
+
+    private int sweep(int slot, long nowMillis, List<Request<?>> expired)
+    {
+        int[] ids = mSlots[slot];
+        int kept = 0;
+        int count = 0;
+
+        for (int i = 0; i < mSlotSizes[slot]; ++i)
+        {
+            int index = find(ids[i]);
+
+            // ids of answered requests are dropped
+            if (index < 0)
+                continue;
+
+            if (mDeadlines[index] <= nowMillis)
+            {
+                expired.add(mRequests[index]);
+                removeAt(index);
+                ++count;
+            }
+            else
+            {
+                ids[kept++] = ids[i];
+            }
+        }
+
+        mSlotSizes[slot] = kept;
+
+        return count;
+    }
+
+    private void schedule(int id, long deadline)
+    {
+        int slot = (int) ((deadline / mTickMillis) & (NUM_SLOTS - 1));
+
+        if (mSlotSizes[slot] == mSlots[slot].length)
+        {
+            int[] ids = new int[mSlots[slot].length * 2];
+            System.arraycopy(mSlots[slot], 0, ids, 0, mSlotSizes[slot]);
+            mSlots[slot] = ids;
+        }
+
+        mSlots[slot][mSlotSizes[slot]++] = id;
+    }
+
+    /**
+     * @return index of id, or bitwise complement of free index to insert id at
+     */
+    private int find(int id)
+    {
+        int mask = mRequests.length - 1;
+        int index = id & mask;
+
+        while (null != mRequests[index])
+        {
+            if (mIds[index] == id)
+                return index;
+
+            index = (index + 1) & mask;
+        }
+
+        return ~index;
+    }
+
+    private void removeAt(int index)
+    {
+        int mask = mRequests.length - 1;
+        mRequests[index] = null;
+        --mSize;
+
+        // shift following entries of the probe sequence back, so that lookups need no tombstones
+        int free = index;
+        int next = index;
+        while (true)
+        {
+            next = (next + 1) & mask;
+            if (null == mRequests[next])
+                return;
+
+            int home = mIds[next] & mask;
+            boolean reachable = free <= next ? (free < home && home <= next) : (free < home || home <= next);
+            if (!reachable)
+            {
+                mIds[free] = mIds[next];
+                mRequests[free] = mRequests[next];
+                mDeadlines[free] = mDeadlines[next];
+                mRequests[next] = null;
+                free = next;
+            }
+        }
+    }
+
+    private void rehash(int capacity)
+    {
+        int[] ids = mIds;
+        Request<?>[] requests = mRequests;
+        long[] deadlines = mDeadlines;
+
+        mIds = new int[capacity];
+        mRequests = new Request<?>[capacity];
+        mDeadlines = new long[capacity];
+
+        for (int i = 0; i < requests.length; ++i)
+        {
+            if (null != requests[i])
+            {
+                int index = ~find(ids[i]);
+                mIds[index] = ids[i];
+                mRequests[index] = requests[i];
+                mDeadlines[index] = deadlines[i];
+            }
+        }
+    }
+}
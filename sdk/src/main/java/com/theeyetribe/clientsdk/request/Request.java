@@ -13,6 +13,9 @@ import com.google.gson.JsonObject;
 import com.theeyetribe.clientsdk.GazeManager;
 import com.theeyetribe.clientsdk.utils.HashUtils;
 
+import java.io.IOException;
+import java.io.Writer;
+
 /**
  * Request is the generic base class for requests in the EyeTribe API
  *
@@ -28,12 +31,19 @@ public class Request<T> implements Comparable<Request<T>>
 
     public transient long timeStamp;
 
+    /**
+     * Time of sending as given by {@link System#nanoTime()}
+     */
+    public transient long timeStampNanos;
+
     public transient int retryAttempts;
 
     public transient Object asyncLock;
 
     private transient final Class<T> type;
 
+    private transient RequestTemplate mTemplate;
+
     public Request(Class<T> type) {
         this.type = type;
     }
@@ -51,9 +61,38 @@ public class Request<T> implements Comparable<Request<T>>
         if(GazeManager.IS_DEBUG_MODE)
             System.out.println("toJsonString: " + this.getClass().getSimpleName());
 
+        if (null != mTemplate)
+            return mTemplate.toJsonString(id);
+
         return gson.toJson(this, this.getClass());
     }
 
+    /**
+     * Writes the JSON of this request, copied from its template if any
+     *
+     * @param writer writer to write to
+     * @param gson Gson instance used if request has no template
+     * @throws IOException if writing failed
+     */
+    public void writeJson(Writer writer, Gson gson) throws IOException
+    {
+        if (null != mTemplate)
+            mTemplate.write(writer, id);
+        else
+            writer.write(toJsonString(gson));
+    }
+
+    /**
+     * Sets a pre-rendered template to send this request from. The template must be created from a request holding the
+     * same values as this one.
+     *
+     * @param template template of request, or null to serialize request on sending
+     */
+    public void setTemplate(RequestTemplate template)
+    {
+        mTemplate = template;
+    }
+
     public void cancel()
     {
         mCanceled = true;
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.request;
+
+import com.google.gson.Gson;
+import com.theeyetribe.clientsdk.Protocol;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Pre-rendered JSON of a request of fixed content, where only the request id varies.
+ * <p>
+ * The request is serialized once, split around its id, and written by copying the parts around the id of each request
+ * sent. Requests using a template must hold the same values as the request it was created from.
+ *
+ * @see Request#setTemplate(RequestTemplate)
+ */
+public class RequestTemplate
+{
+    private final char[] mHead;
+    private final char[] mTail;
+
+    /**
+     * @param prototype request to render
+     * @param gson Gson instance used to render request
+     */
+    public RequestTemplate(Request<?> prototype, Gson gson)
+    {
+        if (null == prototype)
+            throw new IllegalArgumentException("Request cannot be null!");
+
+        String json = gson.toJson(prototype, prototype.getClass());
+        String id = '"' + Protocol.KEY_ID + "\":";
+
+        // id is a top level field, written after the values of the request
+        int start = json.lastIndexOf(id);
+        if (start < 0)
+            throw new IllegalArgumentException("Request JSON holds no id!");
+
+        start += id.length();
+        int end = start + String.valueOf(prototype.id).length();
+
+        mHead = json.substring(0, start).toCharArray();
+        mTail = json.substring(end).toCharArray();
+    }
+
+    /**
+     * Writes the JSON of a request
+     *
+     * @param writer writer to write to
+     * @param id id of request
+     * @throws IOException if writing failed
+     */
+    public void write(Writer writer, int id) throws IOException
+    {
+        writer.write(mHead);
+        writer.write(Integer.toString(id));
+        writer.write(mTail);
+    }
+
+    /**
+     * @param id id of request
+     * @return JSON of request
+     */
+    public String toJsonString(int id)
+    {
+        return new StringBuilder(mHead.length + 11 + mTail.length).append(mHead).append(id).append(mTail).toString();
+    }
+}
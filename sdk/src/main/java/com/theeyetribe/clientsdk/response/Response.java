@@ -21,4 +21,9 @@ public class Response
     public int statuscode;
 
     public transient long transitTime;
+
+    /**
+     * Time of arrival as given by {@link System#nanoTime()}
+     */
+    public transient long arrivalNanos;
 }
@@ -0,0 +1,478 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.utils;
+
+import com.theeyetribe.clientsdk.IGazeListener;
+import com.theeyetribe.clientsdk.data.GazeData;
+import com.theeyetribe.clientsdk.data.Point2D;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatial index of areas of interest (AOIs) on screen, used to find the AOIs hit by a gaze point without testing
+ * every AOI.
+ * <p>
+ * AOIs are rectangles or polygons in screen pixels, identified by a key of any type, e.g. the UI component they
+ * represent. The index is a uniform grid of cells, each listing the AOIs overlapping it. A hit test only examines the
+ * AOIs of the cell containing the gaze point, independent of the total number of AOIs. AOIs may be moved at any time
+ * by calling {@link #put(Object, float, float, float, float) put} again, which only touches the cells of the old and
+ * new position.
+ * <p>
+ * When registered as {@link IGazeListener}, or fed through {@link #update(long, float, float)}, the index also keeps
+ * track of how long gaze has dwelled on each AOI.
+ *
+ * @param <T> type of AOI keys
+ */
+public class AoiIndex<T> implements IGazeListener
+{
+    public static final int DEFAULT_CELL_SIZE = 64;
+
+    /**
+     * Frames further apart than this do not add to dwell time
+     */
+    public static final long DEFAULT_MAX_FRAME_GAP_MILLIS = 200;
+
+    private static final int NO_TRACKING_MASK = GazeData.STATE_TRACKING_LOST | GazeData.STATE_TRACKING_FAIL;
+
+    private static class Region<T>
+    {
+        final T key;
+
+        float minX, minY, maxX, maxY;
+        float[] polygon;
+
+        int minCellX, minCellY, maxCellX, maxCellY;
+        boolean isPlaced;
+
+        long hitCount;
+        long dwellMillis;
+        long totalDwellMillis;
+
+        Region(T key)
+        {
+            this.key = key;
+        }
+
+        boolean contains(float x, float y)
+        {
+            if (x < minX || x >= maxX || y < minY || y >= maxY)
+                return false;
+
+            if (null == polygon)
+                return true;
+
+            // even-odd rule
+            boolean inside = false;
+            for (int i = 0, j = polygon.length - 2; i < polygon.length; j = i, i += 2)
+            {
+                float xi = polygon[i], yi = polygon[i + 1];
+                float xj = polygon[j], yj = polygon[j + 1];
+
+                if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi)
+                    inside = !inside;
+            }
+            return inside;
+        }
+    }
+
+    private final float mOriginX;
+    private final float mOriginY;
+    private final int mCellSize;
+    private final int mNumCellsX;
+    private final int mNumCellsY;
+    private final ArrayList<Region<T>>[] mCells;
+
+    private final Map<T, Region<T>> mRegions = new HashMap<>();
+
+    private long mMaxFrameGapMillis = DEFAULT_MAX_FRAME_GAP_MILLIS;
+    private long mUpdateCount;
+    private long mLastTimeStamp = Long.MIN_VALUE;
+    private ArrayList<Region<T>> mHits = new ArrayList<>();
+    private ArrayList<Region<T>> mNextHits = new ArrayList<>();
+
+    /**
+     * @param width width in pixels of screen area covered by the grid
+     * @param height height in pixels of screen area covered by the grid
+     */
+    public AoiIndex(int width, int height)
+    {
+        this(0, 0, width, height, DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * AOIs and gaze points outside the area covered by the grid are handled correctly, but share the border cells.
+     *
+     * @param x left edge in pixels of screen area covered by the grid
+     * @param y top edge in pixels of screen area covered by the grid
+     * @param width width in pixels of screen area covered by the grid
+     * @param height height in pixels of screen area covered by the grid
+     * @param cellSize width and height in pixels of grid cells
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AoiIndex(float x, float y, int width, int height, int cellSize)
+    {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("Dimensions must be positive!");
+
+        if (cellSize <= 0)
+            throw new IllegalArgumentException("Cell size must be positive!");
+
+        mOriginX = x;
+        mOriginY = y;
+        mCellSize = cellSize;
+        mNumCellsX = (width + cellSize - 1) / cellSize;
+        mNumCellsY = (height + cellSize - 1) / cellSize;
+        mCells = new ArrayList[mNumCellsX * mNumCellsY];
+    }
+
+    /**
+     * Adds a rectangular AOI, or moves it if the key is already present.
+     *
+     * @param key key of AOI
+     * @param x left edge in pixels
+     * @param y top edge in pixels
+     * @param width width in pixels
+     * @param height height in pixels
+     */
+    public synchronized void put(T key, float x, float y, float width, float height)
+    {
+        Region<T> region = obtain(key);
+        region.polygon = null;
+
+        place(region, x, y, x + width, y + height);
+    }
+
+    /**
+     * Adds a polygonal AOI, or moves it if the key is already present.
+     *
+     * @param key key of AOI
+     * @param points vertices in pixels as x, y pairs
+     */
+    public synchronized void putPolygon(T key, float[] points)
+    {
+        if (null == points || points.length < 6 || points.length % 2 != 0)
+            throw new IllegalArgumentException("Polygon must have at least 3 vertices!");
+
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < points.length; i += 2)
+        {
+            minX = Math.min(minX, points[i]);
+            maxX = Math.max(maxX, points[i]);
+            minY = Math.min(minY, points[i + 1]);
+            maxY = Math.max(maxY, points[i + 1]);
+        }
+
+        Region<T> region = obtain(key);
+        region.polygon = points.clone();
+
+        place(region, minX, minY, maxX, maxY);
+    }
+
+    /**
+     * @param key key of AOI
+     * @return true if AOI was present
+     */
+    public synchronized boolean remove(T key)
+    {
+        Region<T> region = mRegions.remove(key);
+
+        if (null == region)
+            return false;
+
+        unplace(region);
+        mHits.remove(region);
+
+        return true;
+    }
+
+    public synchronized boolean contains(T key)
+    {
+        return mRegions.containsKey(key);
+    }
+
+    public synchronized int size()
+    {
+        return mRegions.size();
+    }
+
+    public synchronized void clear()
+    {
+        for (int i = 0; i < mCells.length; ++i)
+            if (null != mCells[i])
+                mCells[i].clear();
+
+        mRegions.clear();
+        mHits.clear();
+    }
+
+    /**
+     * Finds the AOIs containing a point. Dwell times are not affected.
+     *
+     * @param x horizontal screen coordinate in pixels
+     * @param y vertical screen coordinate in pixels
+     * @param result list AOI keys are added to
+     */
+    public synchronized void hitTest(float x, float y, List<T> result)
+    {
+        hitTestUnsynchronized(x, y, result);
+    }
+
+    /**
+     * Finds the AOIs containing a point without taking the lock of the index, so that many threads may hit test at
+     * once. Only safe while the index is not modified, e.g. during batch analysis of recorded gaze, and only for
+     * threads started or handed work after the last modification.
+     *
+     * @param x horizontal screen coordinate in pixels
+     * @param y vertical screen coordinate in pixels
+     * @param result list AOI keys are added to
+     */
+    public void hitTestUnsynchronized(float x, float y, List<T> result)
+    {
+        ArrayList<Region<T>> cell = mCells[cellIndex(cellX(x), cellY(y))];
+
+        if (null == cell)
+            return;
+
+        for (int i = 0; i < cell.size(); ++i)
+        {
+            Region<T> region = cell.get(i);
+            if (region.contains(x, y))
+                result.add(region.key);
+        }
+    }
+
+    /**
+     * Updates dwell times using the smoothed gaze coordinates of a frame, or the filtered coordinates if set.
+     */
+    @Override
+    public void onGazeUpdate(GazeData gazeData)
+    {
+        Point2D filtered = gazeData.filteredCoordinates;
+        Point2D gaze = null != filtered && (filtered.x != 0 || filtered.y != 0)
+                ? filtered : gazeData.smoothedCoordinates;
+
+        if ((gazeData.state & NO_TRACKING_MASK) != 0 || (gaze.x == 0 && gaze.y == 0))
+            update(gazeData.timeStamp);
+        else
+            update(gazeData.timeStamp, gaze.x, gaze.y);
+    }
+
+    /**
+     * Updates dwell times with a gaze point. Calls with time stamps older than the previous call are ignored.
+     *
+     * @param timeStamp time of gaze point in milliseconds
+     * @param x horizontal screen coordinate in pixels
+     * @param y vertical screen coordinate in pixels
+     */
+    public synchronized void update(long timeStamp, float x, float y)
+    {
+        if (timeStamp < mLastTimeStamp)
+            return;
+
+        ArrayList<Region<T>> cell = mCells[cellIndex(cellX(x), cellY(y))];
+
+        mNextHits.clear();
+        if (null != cell)
+        {
+            for (int i = 0; i < cell.size(); ++i)
+            {
+                Region<T> region = cell.get(i);
+                if (region.contains(x, y))
+                    mNextHits.add(region);
+            }
+        }
+
+        advance(timeStamp);
+    }
+
+    /**
+     * Updates dwell times with a frame without gaze, which ends all current dwells.
+     *
+     * @param timeStamp time of frame in milliseconds
+     */
+    public synchronized void update(long timeStamp)
+    {
+        if (timeStamp < mLastTimeStamp)
+            return;
+
+        mNextHits.clear();
+        advance(timeStamp);
+    }
+
+    /**
+     * @param key key of AOI
+     * @return time in milliseconds gaze has continuously been on AOI, 0 if not currently hit or unknown
+     */
+    public synchronized long getDwellMillis(T key)
+    {
+        Region<T> region = mRegions.get(key);
+        return null != region ? region.dwellMillis : 0L;
+    }
+
+    /**
+     * @param key key of AOI
+     * @return accumulated time in milliseconds gaze has been on AOI since added or last reset
+     */
+    public synchronized long getTotalDwellMillis(T key)
+    {
+        Region<T> region = mRegions.get(key);
+        return null != region ? region.totalDwellMillis : 0L;
+    }
+
+    /**
+     * @return keys of AOIs hit by the last update
+     */
+    public synchronized List<T> getHits()
+    {
+        List<T> hits = new ArrayList<>(mHits.size());
+        for (int i = 0; i < mHits.size(); ++i)
+            hits.add(mHits.get(i).key);
+        return hits;
+    }
+
+    public synchronized void resetDwell()
+    {
+        for (Region<T> region : mRegions.values())
+        {
+            region.dwellMillis = 0L;
+            region.totalDwellMillis = 0L;
+        }
+    }
+
+    /**
+     * @param maxFrameGapMillis longest interval in milliseconds between frames that adds to dwell time
+     */
+    public synchronized void setMaxFrameGapMillis(long maxFrameGapMillis)
+    {
+        mMaxFrameGapMillis = maxFrameGapMillis;
+    }
+
+    private void advance(long timeStamp)
+    {
+        long delta = timeStamp - mLastTimeStamp;
+        boolean isContinuous = mLastTimeStamp != Long.MIN_VALUE && delta <= mMaxFrameGapMillis;
+
+        ++mUpdateCount;
+
+        for (int i = 0; i < mNextHits.size(); ++i)
+        {
+            Region<T> region = mNextHits.get(i);
+
+            if (isContinuous && region.hitCount == mUpdateCount - 1)
+            {
+                region.dwellMillis += delta;
+                region.totalDwellMillis += delta;
+            }
+            else
+            {
+                region.dwellMillis = 0L;
+            }
+
+            region.hitCount = mUpdateCount;
+        }
+
+        for (int i = 0; i < mHits.size(); ++i)
+        {
+            Region<T> region = mHits.get(i);
+            if (region.hitCount != mUpdateCount)
+                region.dwellMillis = 0L;
+        }
+
+        ArrayList<Region<T>> swap = mHits;
+        mHits = mNextHits;
+        mNextHits = swap;
+
+        mLastTimeStamp = timeStamp;
+    }
+
+    private Region<T> obtain(T key)
+    {
+        if (null == key)
+            throw new IllegalArgumentException("Key cannot be null!");
+
+        Region<T> region = mRegions.get(key);
+
+        if (null == region)
+        {
+            region = new Region<>(key);
+            mRegions.put(key, region);
+        }
+
+        return region;
+    }
+
+    private void place(Region<T> region, float minX, float minY, float maxX, float maxY)
+    {
+        int minCellX = cellX(minX);
+        int minCellY = cellY(minY);
+        int maxCellX = cellX(maxX);
+        int maxCellY = cellY(maxY);
+
+        boolean isSameCells = region.isPlaced && minCellX == region.minCellX && minCellY == region.minCellY
+                && maxCellX == region.maxCellX && maxCellY == region.maxCellY;
+
+        region.minX = minX;
+        region.minY = minY;
+        region.maxX = maxX;
+        region.maxY = maxY;
+
+        if (isSameCells)
+            return;
+
+        if (region.isPlaced)
+            unplace(region);
+
+        region.isPlaced = true;
+        region.minCellX = minCellX;
+        region.minCellY = minCellY;
+        region.maxCellX = maxCellX;
+        region.maxCellY = maxCellY;
+
+        for (int cy = minCellY; cy <= maxCellY; ++cy)
+        {
+            for (int cx = minCellX; cx <= maxCellX; ++cx)
+            {
+                int index = cellIndex(cx, cy);
+
+                if (null == mCells[index])
+                    mCells[index] = new ArrayList<>(4);
+
+                mCells[index].add(region);
+            }
+        }
+    }
+
+    private void unplace(Region<T> region)
+    {
+        for (int cy = region.minCellY; cy <= region.maxCellY; ++cy)
+            for (int cx = region.minCellX; cx <= region.maxCellX; ++cx)
+                mCells[cellIndex(cx, cy)].remove(region);
+    }
+
+    private int cellX(float x)
+    {
+        int cx = (int) Math.floor((x - mOriginX) / mCellSize);
+        return Math.max(0, Math.min(mNumCellsX - 1, cx));
+    }
+
+    private int cellY(float y)
+    {
+        int cy = (int) Math.floor((y - mOriginY) / mCellSize);
+        return Math.max(0, Math.min(mNumCellsY - 1, cy));
+    }
+
+    private int cellIndex(int cx, int cy)
+    {
+        return cy * mNumCellsX + cx;
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.utils;
+
+import com.theeyetribe.clientsdk.IGazeListener;
+import com.theeyetribe.clientsdk.data.GazeData;
+
+/**
+ * Measures frame rate, frame interval jitter and dropped frames of a gaze data stream over a sliding time window.
+ * <p>
+ * Frame time stamps are kept in a fixed circular array. Sums of intervals, a histogram of interval lengths and
+ * dropped frame counts are updated as frames enter and leave the window, so each frame takes constant time and no
+ * memory is allocated after construction.
+ * <p>
+ * A frame interval longer than 1.5 times the expected interval counts as dropped frames. The expected interval follows
+ * {@link #setExpectedFrameRate(float)} if set, and is otherwise estimated from the stream, ignoring intervals with
+ * drops.
+ */
+public class FrameRateEstimator implements IGazeListener
+{
+    public static final long DEFAULT_WINDOW_MILLIS = 5000;
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private static final int MAX_HISTOGRAM_MILLIS = 1000;
+    private static final float DROP_FACTOR = 1.5f;
+    private static final float EXPECTED_SMOOTHING = .05f;
+
+    private final long mWindowMillis;
+
+    // ring buffer of frame time stamps and drops counted at each frame
+    private final long[] mTimeStamps;
+    private final int[] mDropped;
+    private int mHead;
+    private int mCount;
+
+    // interval statistics of frames in window
+    private final int[] mHistogram = new int[MAX_HISTOGRAM_MILLIS + 1];
+    private long mIntervalSum;
+    private double mIntervalSquareSum;
+    private int mDroppedInWindow;
+    private long mDroppedTotal;
+
+    private float mExpectedFrameRate;
+    private float mEstimatedInterval;
+
+    public FrameRateEstimator()
+    {
+        this(DEFAULT_WINDOW_MILLIS, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param windowMillis time span in milliseconds of frames measured
+     * @param capacity max number of frames in window
+     */
+    public FrameRateEstimator(long windowMillis, int capacity)
+    {
+        if (windowMillis <= 0)
+            throw new IllegalArgumentException("Window must be positive!");
+
+        if (capacity < 2)
+            throw new IllegalArgumentException("Capacity must be at least 2!");
+
+        mWindowMillis = windowMillis;
+        mTimeStamps = new long[capacity];
+        mDropped = new int[capacity];
+    }
+
+    /**
+     * @param framesPerSecond nominal frame rate of tracker, or 0 to estimate from stream
+     */
+    public synchronized void setExpectedFrameRate(float framesPerSecond)
+    {
+        mExpectedFrameRate = framesPerSecond;
+    }
+
+    @Override
+    public void onGazeUpdate(GazeData gazeData)
+    {
+        add(gazeData.timeStamp);
+    }
+
+    /**
+     * Adds a frame. Frames not newer than the latest frame are ignored.
+     *
+     * @param timeStamp frame time stamp in milliseconds
+     */
+    public synchronized void add(long timeStamp)
+    {
+        int dropped = 0;
+
+        if (mCount > 0)
+        {
+            long newest = mTimeStamps[index(mCount - 1)];
+            if (timeStamp <= newest)
+                return;
+
+            long interval = timeStamp - newest;
+            float expected = mExpectedFrameRate > 0 ? 1000f / mExpectedFrameRate : mEstimatedInterval;
+
+            if (expected > 0 && interval > expected * DROP_FACTOR)
+                dropped = Math.round(interval / expected) - 1;
+            else
+                mEstimatedInterval = mEstimatedInterval > 0
+                        ? mEstimatedInterval + (interval - mEstimatedInterval) * EXPECTED_SMOOTHING
+                        : interval;
+
+            // oldest frame has no interval of its own, so remove interval to second oldest
+            while (mCount > 1 && (mCount == mTimeStamps.length || timeStamp - mTimeStamps[mHead] > mWindowMillis))
+                removeOldest();
+
+            // pause longer than window discards it, frames missed during a pause are not drops
+            if (mCount == 1 && timeStamp - mTimeStamps[mHead] > mWindowMillis)
+            {
+                mCount = 0;
+                dropped = 0;
+            }
+            else
+                addInterval(interval, dropped);
+        }
+
+        mDroppedTotal += dropped;
+        mTimeStamps[index(mCount)] = timeStamp;
+        mDropped[index(mCount)] = mCount > 0 ? dropped : 0;
+        ++mCount;
+    }
+
+    public synchronized void reset()
+    {
+        mHead = 0;
+        mCount = 0;
+        mIntervalSum = 0;
+        mIntervalSquareSum = 0d;
+        mDroppedInWindow = 0;
+        mDroppedTotal = 0;
+        mEstimatedInterval = 0f;
+
+        for (int i = 0; i < mHistogram.length; ++i)
+            mHistogram[i] = 0;
+    }
+
+    /**
+     * @return number of frames in window
+     */
+    public synchronized int getFrameCount()
+    {
+        return mCount;
+    }
+
+    /**
+     * @return average frames per second in window, -1 if less than two frames
+     */
+    public synchronized float getFramesPerSecond()
+    {
+        float mean = getMeanIntervalMillis();
+        return mean > 0 ? 1000f / mean : -1f;
+    }
+
+    /**
+     * @return average interval in milliseconds between frames in window, -1 if less than two frames
+     */
+    public synchronized float getMeanIntervalMillis()
+    {
+        return mCount > 1 ? (float) mIntervalSum / (mCount - 1) : -1f;
+    }
+
+    /**
+     * @return standard deviation in milliseconds of intervals between frames in window
+     */
+    public synchronized float getJitterMillis()
+    {
+        int n = mCount - 1;
+        if (n < 2)
+            return 0f;
+
+        double mean = (double) mIntervalSum / n;
+        return (float) Math.sqrt(Math.max(0d, (mIntervalSquareSum - n * mean * mean) / (n - 1)));
+    }
+
+    /**
+     * Intervals are resolved to whole milliseconds, intervals of a second or more are reported as a second.
+     *
+     * @param percentile percentile between 0 and 100
+     * @return interval in milliseconds below which the given percentage of intervals in window fall, -1 if less than
+     * two frames
+     */
+    public synchronized int getIntervalPercentile(float percentile)
+    {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Percentile must be between 0 and 100!");
+
+        int n = mCount - 1;
+        if (n < 1)
+            return -1;
+
+        int rank = Math.max(1, (int) Math.ceil(percentile / 100f * n));
+        int seen = 0;
+        for (int i = 0; i < mHistogram.length; ++i)
+        {
+            seen += mHistogram[i];
+            if (seen >= rank)
+                return i;
+        }
+
+        return MAX_HISTOGRAM_MILLIS;
+    }
+
+    /**
+     * @return number of frames dropped in window
+     */
+    public synchronized int getDroppedFrames()
+    {
+        return mDroppedInWindow;
+    }
+
+    /**
+     * @return number of frames dropped since construction or last reset
+     */
+    public synchronized long getTotalDroppedFrames()
+    {
+        return mDroppedTotal;
+    }
+
+    private int index(int offset)
+    {
+        return (mHead + offset) % mTimeStamps.length;
+    }
+
+    private void addInterval(long interval, int dropped)
+    {
+        mIntervalSum += interval;
+        mIntervalSquareSum += (double) interval * interval;
+        ++mHistogram[(int) Math.min(interval, MAX_HISTOGRAM_MILLIS)];
+        mDroppedInWindow += dropped;
+    }
+
+    private void removeOldest()
+    {
+        int next = index(1);
+        long interval = mTimeStamps[next] - mTimeStamps[mHead];
+
+        mIntervalSum -= interval;
+        mIntervalSquareSum -= (double) interval * interval;
+        --mHistogram[(int) Math.min(interval, MAX_HISTOGRAM_MILLIS)];
+        mDroppedInWindow -= mDropped[next];
+
+        mHead = next;
+        --mCount;
+    }
+}
@@ -0,0 +1,497 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.utils;
+
+import com.theeyetribe.clientsdk.IGazeListener;
+import com.theeyetribe.clientsdk.data.GazeData;
+import com.theeyetribe.clientsdk.data.Point2D;
+
+/**
+ * Accumulates gaze points into a density grid for rendering attention heatmaps.
+ * <p>
+ * Each gaze point is added to the grid as a bilinear impulse, which is constant work per frame. The Gaussian spread
+ * is applied when taking a snapshot, using a precomputed separable kernel in two one dimensional passes. As blurring
+ * is linear, this gives the same result as splatting a Gaussian for every point.
+ * <p>
+ * For live views, accumulated density can decay over time with a configurable half life. Decay is applied to a common
+ * scale factor rather than to each cell, so it too is constant work per frame. Heatmaps of equal dimensions, e.g. from
+ * workers processing parts of a recording, can be combined through {@link #merge(GazeHeatmap)}.
+ * <p>
+ * Live views can redraw only the cells changed since their last update through
+ * {@link #snapshotChanged(int[], int[], float, int[])}. Decay changes every cell, so with decay enabled the entire grid
+ * is redrawn.
+ * <p>
+ * No memory is allocated after construction.
+ */
+public class GazeHeatmap implements IGazeListener
+{
+    public static final int DEFAULT_CELL_SIZE = 8;
+    public static final float DEFAULT_SIGMA = 40f;
+
+    private static final int NO_TRACKING_MASK = GazeData.STATE_TRACKING_LOST | GazeData.STATE_TRACKING_FAIL
+            | GazeData.STATE_GAP;
+
+    // renormalize accumulated values once decay has shrunk the scale this far
+    private static final float MIN_SCALE = 1e-6f;
+
+    private static final int[] DEFAULT_COLOR_MAP = createColorMap();
+
+    private final int mWidth;
+    private final int mHeight;
+    private final int mCellSize;
+    private final float[] mKernel;
+
+    private final float[] mAccumulated;
+    private final float[] mTemp;
+    private final float[] mDensity;
+
+    private float mScale = 1f;
+    private long mHalfLifeMillis;
+    private long mLastTimeStamp = Long.MIN_VALUE;
+
+    // cells changed since last call to snapshotChanged, inclusive
+    private boolean mIsDirty;
+    private int mDirtyMinX;
+    private int mDirtyMinY;
+    private int mDirtyMaxX;
+    private int mDirtyMaxY;
+
+    /**
+     * @param screenWidth width in pixels of screen area covered
+     * @param screenHeight height in pixels of screen area covered
+     */
+    public GazeHeatmap(int screenWidth, int screenHeight)
+    {
+        this(screenWidth, screenHeight, DEFAULT_CELL_SIZE, DEFAULT_SIGMA);
+    }
+
+    /**
+     * @param screenWidth width in pixels of screen area covered
+     * @param screenHeight height in pixels of screen area covered
+     * @param cellSize width and height in pixels of each grid cell
+     * @param sigma standard deviation in pixels of the Gaussian spread of each gaze point
+     */
+    public GazeHeatmap(int screenWidth, int screenHeight, int cellSize, float sigma)
+    {
+        if (screenWidth <= 0 || screenHeight <= 0)
+            throw new IllegalArgumentException("Dimensions must be positive!");
+
+        if (cellSize <= 0)
+            throw new IllegalArgumentException("Cell size must be positive!");
+
+        if (sigma <= 0)
+            throw new IllegalArgumentException("Sigma must be positive!");
+
+        mCellSize = cellSize;
+        mWidth = (screenWidth + cellSize - 1) / cellSize;
+        mHeight = (screenHeight + cellSize - 1) / cellSize;
+
+        mAccumulated = new float[mWidth * mHeight];
+        mTemp = new float[mWidth * mHeight];
+        mDensity = new float[mWidth * mHeight];
+        invalidate();
+
+        // kernel spans three standard deviations on either side
+        float sigmaCells = sigma / cellSize;
+        int radius = Math.max(1, (int) Math.ceil(3f * sigmaCells));
+        mKernel = new float[2 * radius + 1];
+
+        float sum = 0f;
+        for (int i = -radius; i <= radius; ++i)
+        {
+            mKernel[i + radius] = (float) Math.exp(-(i * i) / (2f * sigmaCells * sigmaCells));
+            sum += mKernel[i + radius];
+        }
+        for (int i = 0; i < mKernel.length; ++i)
+            mKernel[i] /= sum;
+    }
+
+    /**
+     * @return width of grid in cells
+     */
+    public int getWidth()
+    {
+        return mWidth;
+    }
+
+    /**
+     * @return height of grid in cells
+     */
+    public int getHeight()
+    {
+        return mHeight;
+    }
+
+    public int getCellSize()
+    {
+        return mCellSize;
+    }
+
+    /**
+     * Sets the time over which accumulated density halves. Decay is driven by the time stamps of frames passed to
+     * {@link #onGazeUpdate(GazeData)} or {@link #decay(long)}.
+     *
+     * @param halfLifeMillis half life in milliseconds, 0 to disable decay
+     */
+    public synchronized void setHalfLifeMillis(long halfLifeMillis)
+    {
+        if (halfLifeMillis < 0)
+            throw new IllegalArgumentException("Half life cannot be negative!");
+
+        mHalfLifeMillis = halfLifeMillis;
+    }
+
+    @Override
+    public synchronized void onGazeUpdate(GazeData gazeData)
+    {
+        decay(gazeData.timeStamp);
+
+        Point2D filtered = gazeData.filteredCoordinates;
+        Point2D gaze = null != filtered && (filtered.x != 0 || filtered.y != 0)
+                ? filtered : gazeData.smoothedCoordinates;
+
+        if ((gazeData.state & NO_TRACKING_MASK) == 0 && (gaze.x != 0 || gaze.y != 0))
+            add(gaze.x, gaze.y, 1f);
+    }
+
+    /**
+     * @param x horizontal screen coordinate in pixels
+     * @param y vertical screen coordinate in pixels
+     */
+    public void add(float x, float y)
+    {
+        add(x, y, 1f);
+    }
+
+    /**
+     * @param x horizontal screen coordinate in pixels
+     * @param y vertical screen coordinate in pixels
+     * @param weight weight of point, e.g. fixation duration
+     */
+    public synchronized void add(float x, float y, float weight)
+    {
+        // cell centers lie at half cell offsets
+        float gx = x / mCellSize - .5f;
+        float gy = y / mCellSize - .5f;
+
+        int x0 = (int) Math.floor(gx);
+        int y0 = (int) Math.floor(gy);
+
+        if (x0 < -1 || y0 < -1 || x0 >= mWidth || y0 >= mHeight)
+            return;
+
+        float fx = gx - x0;
+        float fy = gy - y0;
+        float w = weight / mScale;
+
+        splat(x0, y0, w * (1f - fx) * (1f - fy));
+        splat(x0 + 1, y0, w * fx * (1f - fy));
+        splat(x0, y0 + 1, w * (1f - fx) * fy);
+        splat(x0 + 1, y0 + 1, w * fx * fy);
+
+        markDirty(x0, y0, x0 + 1, y0 + 1);
+    }
+
+    /**
+     * Applies decay for the time passed since the previous call. Calls with older time stamps are ignored.
+     *
+     * @param timeStamp current time in milliseconds
+     */
+    public synchronized void decay(long timeStamp)
+    {
+        if (mLastTimeStamp != Long.MIN_VALUE && timeStamp > mLastTimeStamp && mHalfLifeMillis > 0)
+        {
+            mScale *= (float) Math.pow(.5d, (double) (timeStamp - mLastTimeStamp) / mHalfLifeMillis);
+
+            if (mScale < MIN_SCALE)
+                renormalize();
+
+            invalidate();
+        }
+
+        if (timeStamp > mLastTimeStamp)
+            mLastTimeStamp = timeStamp;
+    }
+
+    /**
+     * Adds the accumulated density of another heatmap to this one.
+     *
+     * @param other heatmap of equal dimensions
+     */
+    public void merge(GazeHeatmap other)
+    {
+        if (null == other)
+            throw new IllegalArgumentException("GazeHeatmap cannot be null!");
+
+        if (other == this)
+            throw new IllegalArgumentException("Cannot merge GazeHeatmap with itself!");
+
+        if (other.mWidth != mWidth || other.mHeight != mHeight || other.mCellSize != mCellSize)
+            throw new IllegalArgumentException("Dimensions of merged GazeHeatmap must match!");
+
+        // lock in consistent order to avoid deadlock on concurrent merges
+        GazeHeatmap first = System.identityHashCode(this) < System.identityHashCode(other) ? this : other;
+        GazeHeatmap second = first == this ? other : this;
+
+        synchronized (first)
+        {
+            synchronized (second)
+            {
+                float ratio = other.mScale / mScale;
+                for (int i = 0; i < mAccumulated.length; ++i)
+                    mAccumulated[i] += other.mAccumulated[i] * ratio;
+
+                mLastTimeStamp = Math.max(mLastTimeStamp, other.mLastTimeStamp);
+                invalidate();
+            }
+        }
+    }
+
+    public synchronized void clear()
+    {
+        for (int i = 0; i < mAccumulated.length; ++i)
+            mAccumulated[i] = 0f;
+
+        mScale = 1f;
+        mLastTimeStamp = Long.MIN_VALUE;
+        invalidate();
+    }
+
+    /**
+     * Marks every cell as changed, so the next call to {@link #snapshotChanged(int[], int[], float, int[])} redraws
+     * the entire grid, e.g. after changing the density mapped to the last color.
+     */
+    public synchronized void invalidate()
+    {
+        markDirty(0, 0, mWidth - 1, mHeight - 1);
+    }
+
+    /**
+     * Computes the density of every cell, row by row.
+     *
+     * @param density array of at least width * height elements
+     * @return highest density
+     */
+    public synchronized float getDensity(float[] density)
+    {
+        if (null == density || density.length < mDensity.length)
+            throw new IllegalArgumentException("Density array must hold width * height values!");
+
+        float max = blur(0, 0, mWidth - 1, mHeight - 1);
+        System.arraycopy(mDensity, 0, density, 0, mDensity.length);
+
+        return max;
+    }
+
+    /**
+     * Renders the heatmap using the default color map, normalized to the highest density.
+     *
+     * @param argb array of at least width * height elements receiving colors row by row
+     * @return highest density
+     */
+    public float snapshot(int[] argb)
+    {
+        return snapshot(argb, DEFAULT_COLOR_MAP, 0f);
+    }
+
+    /**
+     * Renders the heatmap using a color map.
+     *
+     * @param argb array of at least width * height elements receiving colors row by row
+     * @param colorMap ARGB colors ordered from lowest to highest density
+     * @param maxDensity density mapped to the last color, 0 to use the highest density
+     * @return highest density
+     */
+    public synchronized float snapshot(int[] argb, int[] colorMap, float maxDensity)
+    {
+        if (null == argb || argb.length < mDensity.length)
+            throw new IllegalArgumentException("ARGB array must hold width * height values!");
+
+        if (null == colorMap || colorMap.length == 0)
+            throw new IllegalArgumentException("Color map cannot be empty!");
+
+        float max = blur(0, 0, mWidth - 1, mHeight - 1);
+        float norm = maxDensity > 0 ? maxDensity : max;
+        float factor = norm > 0 ? (colorMap.length - 1) / norm : 0f;
+        int last = colorMap.length - 1;
+
+        for (int i = 0; i < mDensity.length; ++i)
+            argb[i] = colorMap[Math.min(last, (int) (mDensity[i] * factor + .5f))];
+
+        return max;
+    }
+
+    /**
+     * Renders the cells changed since the previous call, leaving the rest of the color array untouched. Changed cells
+     * include the spread of every point added. A fixed max density keeps unchanged cells valid, raise it and call
+     * {@link #invalidate()} when the returned density exceeds it.
+     *
+     * @param argb array of at least width * height elements receiving colors row by row
+     * @param colorMap ARGB colors ordered from lowest to highest density
+     * @param maxDensity density mapped to the last color
+     * @param region array of at least 4 elements receiving x, y, width and height in cells of rendered area
+     * @return highest density in rendered area, -1 if no cells changed
+     */
+    public synchronized float snapshotChanged(int[] argb, int[] colorMap, float maxDensity, int[] region)
+    {
+        if (null == argb || argb.length < mDensity.length)
+            throw new IllegalArgumentException("ARGB array must hold width * height values!");
+
+        if (null == colorMap || colorMap.length == 0)
+            throw new IllegalArgumentException("Color map cannot be empty!");
+
+        if (maxDensity <= 0)
+            throw new IllegalArgumentException("Max density must be positive!");
+
+        if (null == region || region.length < 4)
+            throw new IllegalArgumentException("Region array must hold 4 values!");
+
+        if (!mIsDirty)
+            return -1f;
+
+        // points spread as far as the kernel reaches
+        int radius = mKernel.length / 2;
+        int minX = Math.max(0, mDirtyMinX - radius);
+        int minY = Math.max(0, mDirtyMinY - radius);
+        int maxX = Math.min(mWidth - 1, mDirtyMaxX + radius);
+        int maxY = Math.min(mHeight - 1, mDirtyMaxY + radius);
+        mIsDirty = false;
+
+        float max = blur(minX, minY, maxX, maxY);
+        float factor = (colorMap.length - 1) / maxDensity;
+        int last = colorMap.length - 1;
+
+        for (int y = minY; y <= maxY; ++y)
+        {
+            for (int i = y * mWidth + minX, end = y * mWidth + maxX; i <= end; ++i)
+                argb[i] = colorMap[Math.min(last, (int) (mDensity[i] * factor + .5f))];
+        }
+
+        region[0] = minX;
+        region[1] = minY;
+        region[2] = maxX - minX + 1;
+        region[3] = maxY - minY + 1;
+
+        return max;
+    }
+
+    /**
+     * @return 256 colors ranging from transparent over blue, cyan, green and yellow to opaque red
+     */
+    public static int[] createColorMap()
+    {
+        int[] stops = new int[]{0x000000ff, 0x800000ff, 0xa000ffff, 0xc000ff00, 0xe0ffff00, 0xffff0000};
+        int[] colors = new int[256];
+
+        for (int i = 0; i < colors.length; ++i)
+        {
+            float t = i / 255f * (stops.length - 1);
+            int s = Math.min(stops.length - 2, (int) t);
+            float f = t - s;
+
+            int a = stops[s];
+            int b = stops[s + 1];
+            int color = 0;
+            for (int shift = 0; shift < 32; shift += 8)
+            {
+                int ca = (a >>> shift) & 0xff;
+                int cb = (b >>> shift) & 0xff;
+                color |= Math.round(ca + (cb - ca) * f) << shift;
+            }
+            colors[i] = color;
+        }
+
+        return colors;
+    }
+
+    private void splat(int x, int y, float value)
+    {
+        if (x >= 0 && y >= 0 && x < mWidth && y < mHeight)
+            mAccumulated[y * mWidth + x] += value;
+    }
+
+    private void renormalize()
+    {
+        for (int i = 0; i < mAccumulated.length; ++i)
+            mAccumulated[i] *= mScale;
+
+        mScale = 1f;
+    }
+
+    private void markDirty(int minX, int minY, int maxX, int maxY)
+    {
+        minX = Math.max(0, minX);
+        minY = Math.max(0, minY);
+        maxX = Math.min(mWidth - 1, maxX);
+        maxY = Math.min(mHeight - 1, maxY);
+
+        if (!mIsDirty)
+        {
+            mIsDirty = true;
+            mDirtyMinX = minX;
+            mDirtyMinY = minY;
+            mDirtyMaxX = maxX;
+            mDirtyMaxY = maxY;
+        }
+        else
+        {
+            mDirtyMinX = Math.min(mDirtyMinX, minX);
+            mDirtyMinY = Math.min(mDirtyMinY, minY);
+            mDirtyMaxX = Math.max(mDirtyMaxX, maxX);
+            mDirtyMaxY = Math.max(mDirtyMaxY, maxY);
+        }
+    }
+
+    /**
+     * Blurs the cells within inclusive bounds into the density array.
+     *
+     * @return highest density within bounds
+     */
+    private float blur(int minX, int minY, int maxX, int maxY)
+    {
+        int radius = mKernel.length / 2;
+
+        // horizontal pass, covering rows read by vertical pass
+        for (int y = Math.max(0, minY - radius), rows = Math.min(mHeight - 1, maxY + radius); y <= rows; ++y)
+        {
+            int row = y * mWidth;
+            for (int x = minX; x <= maxX; ++x)
+            {
+                int from = Math.max(0, x - radius);
+                int to = Math.min(mWidth - 1, x + radius);
+
+                float sum = 0f;
+                for (int k = from; k <= to; ++k)
+                    sum += mAccumulated[row + k] * mKernel[k - x + radius];
+                mTemp[row + x] = sum;
+            }
+        }
+
+        // vertical pass, applying decay scale
+        float max = 0f;
+        for (int y = minY; y <= maxY; ++y)
+        {
+            int from = Math.max(0, y - radius);
+            int to = Math.min(mHeight - 1, y + radius);
+
+            for (int x = minX; x <= maxX; ++x)
+            {
+                float sum = 0f;
+                for (int k = from; k <= to; ++k)
+                    sum += mTemp[k * mWidth + x] * mKernel[k - y + radius];
+
+                sum *= mScale;
+                mDensity[y * mWidth + x] = sum;
+                max = Math.max(max, sum);
+            }
+        }
+
+        return max;
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2013-present, The Eye Tribe.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package com.theeyetribe.clientsdk.utils;
+
+import com.theeyetribe.clientsdk.IGazeListener;
+import com.theeyetribe.clientsdk.data.GazeData;
+import com.theeyetribe.clientsdk.data.Point2D;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resamples a stream of {@link GazeData} frames to an exact, uniform frame rate.
+ * <p>
+ * Frames from the EyeTribe Server arrive with jitter and occasional drops. The resampler interpolates all coordinates
+ * and pupil sizes on the {@link GazeData#timeStamp} axis and forwards frames spaced exactly 1/rate apart to its
+ * output listener. Synthesized frames are marked with {@link GazeData#STATE_INTERPOLATED}. Where input frames are
+ * further apart than the max gap, the output is filled with empty frames marked {@link GazeData#STATE_GAP} and
+ * {@link GazeData#STATE_TRACKING_LOST}. Frames that failed tracking are never interpolated, the nearest input frame
+ * is repeated instead.
+ * <p>
+ * The resampler is itself an {@link IGazeListener} and may be registered with the GazeManager directly. Linear
+ * interpolation forwards frames as soon as the next input frame is received, cubic interpolation adds a latency of
+ * one input frame. Use {@link #resample(List, float, Interpolation)} for recorded buffers.
+ */
+public class GazeResampler implements IGazeListener
+{
+    public enum Interpolation
+    {
+        LINEAR,
+        CUBIC
+    }
+
+    public static final long DEFAULT_MAX_GAP_MILLIS = 100;
+
+    /**
+     * Gaps longer than this restart the output time base rather than being filled
+     */
+    public static final long RESTART_MILLIS = 10000;
+
+    private static final int NO_TRACKING_MASK = GazeData.STATE_TRACKING_LOST | GazeData.STATE_TRACKING_FAIL;
+
+    private final IGazeListener mOutput;
+    private final Interpolation mInterpolation;
+    private final double mPeriodMillis;
+    private volatile long mMaxGapMillis = DEFAULT_MAX_GAP_MILLIS;
+
+    // the four most recent input frames, newest last
+    private final GazeData[] mFrames = new GazeData[4];
+
+    private long mOrigin;
+    private long mOutputCount;
+    private long mNextTimeStamp;
+
+    // interpolation weights of current output sample
+    private float mW0, mW1, mW2, mW3;
+
+    /**
+     * @param rate output frame rate in Hz
+     * @param interpolation interpolation method
+     * @param output listener receiving resampled frames
+     */
+    public GazeResampler(float rate, Interpolation interpolation, IGazeListener output)
+    {
+        if (rate <= 0)
+            throw new IllegalArgumentException("Rate must be positive!");
+
+        if (null == interpolation)
+            throw new IllegalArgumentException("Interpolation cannot be null!");
+
+        if (null == output)
+            throw new IllegalArgumentException("Output listener cannot be null!");
+
+        mPeriodMillis = 1000d / rate;
+        mInterpolation = interpolation;
+        mOutput = output;
+    }
+
+    /**
+     * Resamples a recorded sequence of frames.
+     *
+     * @param frames frames ordered by time stamp
+     * @param rate output frame rate in Hz
+     * @param interpolation interpolation method
+     * @return resampled frames
+     */
+    public static List<GazeData> resample(List<GazeData> frames, float rate, Interpolation interpolation)
+    {
+        final ArrayList<GazeData> result = new ArrayList<>();
+
+        if (frames.isEmpty())
+            return result;
+
+        long span = frames.get(frames.size() - 1).timeStamp - frames.get(0).timeStamp;
+        result.ensureCapacity((int) (span * rate / 1000) + 1);
+
+        GazeResampler resampler = new GazeResampler(rate, interpolation, result::add);
+        for (GazeData frame : frames)
+            resampler.onGazeUpdate(frame);
+        resampler.flush();
+
+        return result;
+    }
+
+    /**
+     * Sets the longest interval between input frames that is bridged by interpolation. Longer intervals are filled
+     * with frames marked {@link GazeData#STATE_GAP}.
+     *
+     * @param maxGapMillis time in milliseconds
+     */
+    public void setMaxGapMillis(long maxGapMillis)
+    {
+        if (maxGapMillis <= 0)
+            throw new IllegalArgumentException("Max gap must be positive!");
+
+        mMaxGapMillis = maxGapMillis;
+    }
+
+    public long getMaxGapMillis()
+    {
+        return mMaxGapMillis;
+    }
+
+    @Override
+    public synchronized void onGazeUpdate(GazeData gazeData)
+    {
+        GazeData newest = mFrames[3];
+
+        // frames may be dispatched out of order, late ones are dropped
+        if (null != newest && gazeData.timeStamp <= newest.timeStamp)
+            return;
+
+        if (null != newest && gazeData.timeStamp - newest.timeStamp > RESTART_MILLIS)
+        {
+            flush();
+            newest = null;
+        }
+
+        if (null == newest)
+        {
+            mOrigin = gazeData.timeStamp;
+            mOutputCount = 0;
+            mNextTimeStamp = mOrigin;
+        }
+
+        mFrames[0] = mFrames[1];
+        mFrames[1] = mFrames[2];
+        mFrames[2] = mFrames[3];
+        mFrames[3] = gazeData;
+
+        if (mInterpolation == Interpolation.LINEAR)
+            emit(null, mFrames[2], mFrames[3], null);
+        else
+            emit(mFrames[0], mFrames[1], mFrames[2], mFrames[3]);
+    }
+
+    /**
+     * Forwards output frames pending on future input and starts over. Call at the end of a stream.
+     */
+    public synchronized void flush()
+    {
+        if (mInterpolation == Interpolation.CUBIC)
+            emit(mFrames[1], mFrames[2], mFrames[3], null);
+
+        // a single frame never forms a segment
+        if (null != mFrames[3] && null == mFrames[2] && mNextTimeStamp == mFrames[3].timeStamp)
+            output(new GazeData(mFrames[3]));
+
+        mFrames[0] = mFrames[1] = mFrames[2] = mFrames[3] = null;
+    }
+
+    private void emit(GazeData p0, GazeData p1, GazeData p2, GazeData p3)
+    {
+        if (null == p1 || null == p2)
+            return;
+
+        long t1 = p1.timeStamp;
+        long t2 = p2.timeStamp;
+        long h = t2 - t1;
+
+        boolean isGap = h > mMaxGapMillis;
+        boolean isTracked = isTracked(p1) && isTracked(p2);
+
+        // neighbours only shape the curve if they are part of the same tracked run
+        if (null == p0 || !isTracked(p0) || t1 - p0.timeStamp > mMaxGapMillis)
+            p0 = p1;
+        if (null == p3 || !isTracked(p3) || p3.timeStamp - t2 > mMaxGapMillis)
+            p3 = p2;
+
+        while (mNextTimeStamp <= t2)
+        {
+            long t = mNextTimeStamp;
+
+            if (t == t1 || t == t2)
+            {
+                output(new GazeData(t == t1 ? p1 : p2));
+            }
+            else if (isGap)
+            {
+                GazeData gap = new GazeData();
+                gap.timeStamp = t;
+                gap.timeStampString = p1.timeStampString;
+                gap.state = GazeData.STATE_GAP | GazeData.STATE_TRACKING_LOST;
+                output(gap);
+            }
+            else if (!isTracked)
+            {
+                GazeData nearest = new GazeData(t - t1 < t2 - t ? p1 : p2);
+                nearest.timeStamp = t;
+                nearest.state |= GazeData.STATE_INTERPOLATED;
+                output(nearest);
+            }
+            else
+            {
+                computeWeights(t, p0.timeStamp, t1, t2, p3.timeStamp);
+                output(interpolate(t, p0, p1, p2, p3));
+            }
+        }
+    }
+
+    private void output(GazeData gazeData)
+    {
+        mOutput.onGazeUpdate(gazeData);
+
+        ++mOutputCount;
+        mNextTimeStamp = mOrigin + Math.round(mOutputCount * mPeriodMillis);
+    }
+
+    private void computeWeights(long t, long t0, long t1, long t2, long t3)
+    {
+        float h = t2 - t1;
+        float s = (t - t1) / h;
+
+        if (mInterpolation == Interpolation.LINEAR)
+        {
+            mW0 = 0f;
+            mW1 = 1f - s;
+            mW2 = s;
+            mW3 = 0f;
+            return;
+        }
+
+        // cubic hermite with finite difference tangents over non uniform time steps
+        float s2 = s * s;
+        float s3 = s2 * s;
+        float h00 = 2f * s3 - 3f * s2 + 1f;
+        float h10 = s3 - 2f * s2 + s;
+        float h01 = -2f * s3 + 3f * s2;
+        float h11 = s3 - s2;
+
+        float m1 = h / (t2 - t0);
+        float m2 = h / (t3 - t1);
+
+        mW0 = -h10 * m1;
+        mW1 = h00 - h11 * m2;
+        mW2 = h01 + h10 * m1;
+        mW3 = h11 * m2;
+    }
+
+    private GazeData interpolate(long t, GazeData p0, GazeData p1, GazeData p2, GazeData p3)
+    {
+        GazeData result = new GazeData(t - p1.timeStamp < p2.timeStamp - t ? p1 : p2);
+        result.timeStamp = t;
+        result.state |= GazeData.STATE_INTERPOLATED;
+
+        interpolate(p0.rawCoordinates, p1.rawCoordinates, p2.rawCoordinates, p3.rawCoordinates,
+                result.rawCoordinates);
+        interpolate(p0.smoothedCoordinates, p1.smoothedCoordinates, p2.smoothedCoordinates,
+                p3.smoothedCoordinates, result.smoothedCoordinates);
+        if (null != p0.filteredCoordinates && null != p1.filteredCoordinates && null != p2.filteredCoordinates
+                && null != p3.filteredCoordinates && null != result.filteredCoordinates)
+            interpolate(p0.filteredCoordinates, p1.filteredCoordinates, p2.filteredCoordinates,
+                    p3.filteredCoordinates, result.filteredCoordinates);
+
+        interpolate(p0.leftEye, p1.leftEye, p2.leftEye, p3.leftEye, result.leftEye);
+        interpolate(p0.rightEye, p1.rightEye, p2.rightEye, p3.rightEye, result.rightEye);
+
+        return result;
+    }
+
+    private void interpolate(GazeData.Eye e0, GazeData.Eye e1, GazeData.Eye e2, GazeData.Eye e3, GazeData.Eye out)
+    {
+        interpolate(e0.rawCoordinates, e1.rawCoordinates, e2.rawCoordinates, e3.rawCoordinates,
+                out.rawCoordinates);
+        interpolate(e0.smoothedCoordinates, e1.smoothedCoordinates, e2.smoothedCoordinates,
+                e3.smoothedCoordinates, out.smoothedCoordinates);
+        interpolate(e0.pupilCenterCoordinates, e1.pupilCenterCoordinates, e2.pupilCenterCoordinates,
+                e3.pupilCenterCoordinates, out.pupilCenterCoordinates);
+
+        // pupil size of 0 means the eye was not found, interpolating towards it would be meaningless
+        if (e1.pupilSize != 0 && e2.pupilSize != 0)
+            out.pupilSize = interpolate(e0.pupilSize != 0 ? e0.pupilSize : e1.pupilSize, e1.pupilSize,
+                    e2.pupilSize, e3.pupilSize != 0 ? e3.pupilSize : e2.pupilSize);
+    }
+
+    private void interpolate(Point2D p0, Point2D p1, Point2D p2, Point2D p3, Point2D out)
+    {
+        // zero coordinates mean no estimate, keep those of nearest frame
+        if ((p1.x == 0 && p1.y == 0) || (p2.x == 0 && p2.y == 0))
+            return;
+
+        if (p0.x == 0 && p0.y == 0)
+            p0 = p1;
+        if (p3.x == 0 && p3.y == 0)
+            p3 = p2;
+
+        out.x = interpolate(p0.x, p1.x, p2.x, p3.x);
+        out.y = interpolate(p0.y, p1.y, p2.y, p3.y);
+    }
+
+    private float interpolate(float v0, float v1, float v2, float v3)
+    {
+        return mW0 * v0 + mW1 * v1 + mW2 * v2 + mW3 * v3;
+    }
+
+    private static boolean isTracked(GazeData gazeData)
+    {
+        return (gazeData.state & NO_TRACKING_MASK) == 0;
+    }
+}
@@ -2,20 +2,34 @@ package com.theeyetribe.test;
 
 import com.google.gson.Gson;
 import com.theeyetribe.clientsdk.*;
+import com.theeyetribe.clientsdk.analysis.*;
 import com.theeyetribe.clientsdk.data.CalibrationResult;
 import com.theeyetribe.clientsdk.data.CalibrationResult.CalibrationPoint;
 import com.theeyetribe.clientsdk.data.GazeData;
 import com.theeyetribe.clientsdk.data.Point2D;
-import com.theeyetribe.clientsdk.request.Request;
-import com.theeyetribe.clientsdk.request.TrackerSetRequest;
-import com.theeyetribe.clientsdk.response.Response;
+import com.theeyetribe.clientsdk.data.Point3D;
+import com.theeyetribe.clientsdk.filter.*;
+import com.theeyetribe.clientsdk.reactive.BufferedPublisher;
+import com.theeyetribe.clientsdk.reactive.OverflowStrategy;
+import com.theeyetribe.clientsdk.request.*;
+import com.theeyetribe.clientsdk.response.*;
+import com.theeyetribe.clientsdk.utils.AoiIndex;
 import com.theeyetribe.clientsdk.utils.CalibUtils;
+import com.theeyetribe.clientsdk.utils.FrameRateEstimator;
+import com.theeyetribe.clientsdk.utils.GazeHeatmap;
+import com.theeyetribe.clientsdk.utils.GazeResampler;
 import org.junit.Assert;
 import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
+import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -116,6 +130,1128 @@ public class TestApiClient {
         Assert.assertEquals(json, gson.toJson(request2));
     }
 
+    @Test
+    public void testGazeFilters()
+    {
+        GazeFilter[] filters = new GazeFilter[]{new ExponentialFilter(), new OneEuroFilter(), new KalmanFilter()};
+
+        for (GazeFilter filter : filters)
+        {
+            // step from one fixation to another, filtered output must settle on new position
+            for (int i = 0; i < 60; ++i)
+                filter.filter(i * 33, i < 30 ? 100f : 500f, 200f);
+
+            Assert.assertEquals(filter.getClass().getSimpleName(), 500f, filter.getX(), 5f);
+            Assert.assertEquals(filter.getClass().getSimpleName(), 200f, filter.getY(), 5f);
+
+            GazeFilter copy = filter.copy();
+            Assert.assertFalse(copy.isInitialized());
+        }
+
+        GazeFilterStage stage = new GazeFilterStage(new ExponentialFilter());
+
+        GazeData gd = new GazeData();
+        gd.rawCoordinates = new Point2D(320f, 240f);
+        gd.leftEye.rawCoordinates = new Point2D(310f, 240f);
+        stage.onGazeFrame(gd);
+
+        Assert.assertEquals(gd.rawCoordinates, gd.filteredCoordinates);
+        Assert.assertEquals(gd.leftEye.rawCoordinates, gd.leftEye.filteredCoordinates);
+        Assert.assertFalse(gd.rightEye.filteredCoordinates.x != 0);
+
+        gd.state = GazeData.STATE_TRACKING_FAIL;
+        stage.onGazeFrame(gd);
+        Assert.assertFalse(gd.hasFilteredGazeCoordinates());
+    }
+
+    @Test
+    public void testGazeStageOutputs()
+    {
+        GazeData gd = new GazeData();
+        Assert.assertNull(gd.filteredCoordinates);
+        Assert.assertNull(gd.predictedCoordinates);
+        Assert.assertFalse(gd.hasFilteredGazeCoordinates());
+
+        GazeFilterStage first = new GazeFilterStage(new ExponentialFilter());
+        GazeFilterStage second = new GazeFilterStage(new ExponentialFilter());
+        second.setFilterEyes(false);
+        GazePredictionStage prediction = new GazePredictionStage();
+        prediction.setSource(first);
+
+        gd.rawCoordinates = new Point2D(320f, 240f);
+        first.onGazeFrame(gd);
+        gd.rawCoordinates = new Point2D(640f, 480f);
+        second.onGazeFrame(gd);
+        prediction.onGazeFrame(gd);
+
+        // each stage keeps its own output, fields hold that of the last stage run
+        Assert.assertEquals(new Point2D(320f, 240f), first.getOutput(gd).gaze);
+        Assert.assertEquals(new Point2D(640f, 480f), second.getOutput(gd).gaze);
+        Assert.assertNull(second.getOutput(gd).leftEye);
+        Assert.assertEquals(gd.filteredCoordinates, second.getOutput(gd).gaze);
+        Assert.assertEquals(new Point2D(320f, 240f), prediction.getOutput(gd));
+        Assert.assertSame(gd.predictedCoordinates, prediction.getOutput(gd));
+
+        // copies hold copies of outputs, which stages do not know of
+        GazeData copy = new GazeData(gd);
+        Assert.assertEquals(gd.filteredCoordinates, copy.filteredCoordinates);
+        Assert.assertNotSame(gd.filteredCoordinates, copy.filteredCoordinates);
+        Assert.assertNull(first.getOutput(copy));
+        Assert.assertNull(new GazeFilterStage().getOutput(gd));
+
+        // outputs are preallocated and reused after output history, clearing fields of frame they were set on
+        GazeFilterStage recent = new GazeFilterStage(new ExponentialFilter(), 2);
+        GazeData[] frames = new GazeData[3];
+        for (int i = 0; i < frames.length; ++i)
+        {
+            frames[i] = new GazeData();
+            frames[i].timeStamp = i * 33;
+            frames[i].rawCoordinates = new Point2D(100f, 100f);
+            recent.onGazeFrame(frames[i]);
+        }
+
+        Assert.assertNull(recent.getOutput(frames[0]));
+        Assert.assertNull(frames[0].filteredCoordinates);
+        Assert.assertNull(frames[0].leftEye.filteredCoordinates);
+        Assert.assertSame(frames[2].filteredCoordinates, recent.getOutput(frames[2]).gaze);
+        Assert.assertEquals(new Point2D(100f, 100f), frames[1].filteredCoordinates);
+    }
+
+    @Test
+    public void testGazePrediction()
+    {
+        GazePredictionStage stage = new GazePredictionStage();
+        stage.setHorizonMillis(100);
+
+        GazeData gd = new GazeData();
+
+        // smooth pursuit at 300 px/s, prediction must lead by 30 px
+        for (int i = 0; i < 10; ++i)
+        {
+            gd.timeStamp = i * 33;
+            gd.smoothedCoordinates = new Point2D(100f + i * 9.9f, 200f);
+            stage.onGazeFrame(gd);
+        }
+
+        Assert.assertFalse(stage.isSaccade());
+        Assert.assertEquals(gd.smoothedCoordinates.x + 30f, gd.predictedCoordinates.x, .5f);
+        Assert.assertEquals(200f, gd.predictedCoordinates.y, .5f);
+
+        // saccade, prediction suppressed
+        gd.timeStamp += 33;
+        gd.smoothedCoordinates = new Point2D(800f, 600f);
+        stage.onGazeFrame(gd);
+
+        Assert.assertTrue(stage.isSaccade());
+        Assert.assertEquals(gd.smoothedCoordinates, gd.predictedCoordinates);
+
+        gd.state = GazeData.STATE_TRACKING_LOST;
+        stage.onGazeFrame(gd);
+        Assert.assertFalse(gd.hasPredictedGazeCoordinates());
+    }
+
+    @Test
+    public void testGazeResampler()
+    {
+        // jittered 30 Hz input on a line, followed by a dropout
+        long[] times = new long[]{0, 30, 71, 99, 134, 166, 400, 433};
+        List<GazeData> frames = new ArrayList<>();
+        for (long time : times)
+        {
+            GazeData gd = new GazeData();
+            gd.timeStamp = time;
+            gd.rawCoordinates = new Point2D(100f + time, 200f);
+            gd.smoothedCoordinates = new Point2D(100f + time, 200f);
+            frames.add(gd);
+        }
+
+        for (GazeResampler.Interpolation interpolation : GazeResampler.Interpolation.values())
+        {
+            List<GazeData> resampled = GazeResampler.resample(frames, 50f, interpolation);
+
+            Assert.assertEquals(22, resampled.size());
+
+            for (int i = 0; i < resampled.size(); ++i)
+            {
+                GazeData gd = resampled.get(i);
+                Assert.assertEquals(i * 20, gd.timeStamp);
+
+                if (gd.timeStamp > 166 && gd.timeStamp < 400)
+                {
+                    Assert.assertTrue((gd.state & GazeData.STATE_GAP) != 0);
+                    Assert.assertFalse(gd.hasRawGazeCoordinates());
+                }
+                else
+                {
+                    Assert.assertEquals(100f + gd.timeStamp, gd.rawCoordinates.x, .01f);
+                    Assert.assertEquals(200f, gd.smoothedCoordinates.y, .01f);
+                }
+            }
+
+            Assert.assertTrue((resampled.get(1).state & GazeData.STATE_INTERPOLATED) != 0);
+        }
+    }
+
+    @Test
+    public void testAoiIndex()
+    {
+        AoiIndex<String> index = new AoiIndex<>(1920, 1080);
+        index.put("left", 0, 0, 960, 1080);
+        index.put("button", 100, 100, 200, 50);
+        index.putPolygon("triangle", new float[]{1000, 100, 1200, 100, 1000, 300});
+
+        List<String> hits = new ArrayList<>();
+        index.hitTest(150, 120, hits);
+        Assert.assertEquals(2, hits.size());
+        Assert.assertTrue(hits.contains("button"));
+
+        hits.clear();
+        index.hitTest(1150, 250, hits);
+        Assert.assertTrue(hits.isEmpty());
+        index.hitTest(1050, 150, hits);
+        Assert.assertEquals("triangle", hits.get(0));
+
+        // move button, old position must no longer hit
+        index.put("button", 1500, 800, 200, 50);
+        hits.clear();
+        index.hitTest(150, 120, hits);
+        Assert.assertEquals(1, hits.size());
+
+        // dwell accumulates over consecutive frames and ends when gaze leaves
+        for (int i = 0; i < 10; ++i)
+            index.update(i * 33, 1550, 820);
+        Assert.assertEquals(9 * 33, index.getDwellMillis("button"));
+
+        index.update(10 * 33, 500, 500);
+        Assert.assertEquals(0, index.getDwellMillis("button"));
+        Assert.assertEquals(9 * 33, index.getTotalDwellMillis("button"));
+        Assert.assertEquals("left", index.getHits().get(0));
+
+        Assert.assertTrue(index.remove("left"));
+        Assert.assertTrue(index.getHits().isEmpty());
+    }
+
+    @Test
+    public void testGazeHeatmap()
+    {
+        GazeHeatmap heatmap = new GazeHeatmap(640, 480, 8, 24f);
+        Assert.assertEquals(80, heatmap.getWidth());
+        Assert.assertEquals(60, heatmap.getHeight());
+
+        heatmap.setHalfLifeMillis(1000);
+        heatmap.decay(0);
+        for (int i = 0; i < 100; ++i)
+            heatmap.add(324f, 244f);
+
+        float[] density = new float[80 * 60];
+        float max = heatmap.getDensity(density);
+        Assert.assertEquals(max, density[30 * 80 + 40], 1e-4f);
+        Assert.assertTrue(density[30 * 80 + 40] > density[30 * 80 + 44]);
+        Assert.assertEquals(0f, density[0], 1e-6f);
+
+        // density halves after one half life, doubles when merged with a copy
+        heatmap.decay(1000);
+        Assert.assertEquals(max / 2f, heatmap.getDensity(density), max * 1e-3f);
+
+        GazeHeatmap other = new GazeHeatmap(640, 480, 8, 24f);
+        for (int i = 0; i < 50; ++i)
+            other.add(324f, 244f);
+        heatmap.merge(other);
+        Assert.assertEquals(max, heatmap.getDensity(density), max * 1e-3f);
+
+        int[] argb = new int[80 * 60];
+        heatmap.snapshot(argb);
+        Assert.assertEquals(0xffff0000, argb[30 * 80 + 40]);
+        Assert.assertEquals(0, argb[0] >>> 24);
+
+        // partial updates must match full renders
+        int[] colorMap = GazeHeatmap.createColorMap();
+        int[] region = new int[4];
+        GazeHeatmap live = new GazeHeatmap(640, 480, 8, 24f);
+        int[] partial = new int[80 * 60];
+        Assert.assertEquals(0f, live.snapshotChanged(partial, colorMap, 10f, region), 0f);
+        Assert.assertEquals(80, region[2]);
+        Assert.assertEquals(-1f, live.snapshotChanged(partial, colorMap, 10f, region), 0f);
+
+        Random r = new Random(3);
+        for (int i = 0; i < 20; ++i)
+        {
+            live.add(r.nextFloat() * 640, r.nextFloat() * 480);
+            Assert.assertTrue(live.snapshotChanged(partial, colorMap, 10f, region) > 0f);
+            Assert.assertTrue(region[2] < 80);
+        }
+
+        live.snapshot(argb, colorMap, 10f);
+        Assert.assertArrayEquals(argb, partial);
+    }
+
+    @Test
+    public void testGazeBatchAnalyzer() throws Exception
+    {
+        Random r = new Random(11);
+
+        // ten minutes at 30 Hz with fixations of random length
+        List<GazeData> recording = new ArrayList<>();
+        boolean isFixated = true;
+        for (int i = 0; i < 30 * 600; ++i)
+        {
+            if (r.nextInt(10) == 0)
+                isFixated = !isFixated;
+
+            GazeData gd = new GazeData();
+            gd.timeStamp = i * 33;
+            gd.isFixated = isFixated;
+            gd.smoothedCoordinates = new Point2D(r.nextFloat() * 1920, r.nextFloat() * 1080);
+            gd.leftEye.pupilSize = 15f + r.nextFloat();
+            gd.rightEye.pupilSize = r.nextInt(20) == 0 ? 0f : 16f + r.nextFloat();
+            recording.add(gd);
+        }
+
+        AoiIndex<String> aois = new AoiIndex<>(1920, 1080);
+        aois.put("left", 0, 0, 960, 1080);
+        aois.put("center", 480, 270, 960, 540);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            // chunked results must equal a single pass over the entire recording
+            GazeBatchAnalyzer chunked = new GazeBatchAnalyzer(executor, 1000);
+            GazeBatchAnalyzer single = new GazeBatchAnalyzer(executor, Long.MAX_VALUE);
+
+            FixationAccumulator f1 = chunked.analyze(recording, new FixationAccumulator());
+            FixationAccumulator f2 = single.analyze(recording, new FixationAccumulator());
+            Assert.assertTrue(f2.getCount() > 100);
+            Assert.assertEquals(f2.getCount(), f1.getCount());
+            Assert.assertEquals(f2.getTotalMillis(), f1.getTotalMillis());
+            Assert.assertEquals(f2.getMaxMillis(), f1.getMaxMillis());
+
+            PupilAccumulator p1 = chunked.analyze(recording, new PupilAccumulator());
+            PupilAccumulator p2 = single.analyze(recording, new PupilAccumulator());
+            Assert.assertEquals(p2.getRight().getCount(), p1.getRight().getCount());
+            Assert.assertEquals(p2.getLeft().getMean(), p1.getLeft().getMean(), 1e-9d);
+            Assert.assertEquals(p2.getLeft().getVariance(), p1.getLeft().getVariance(), 1e-9d);
+
+            AoiDwellAccumulator<String> d1 = chunked.analyze(recording, new AoiDwellAccumulator<>(aois));
+            AoiDwellAccumulator<String> d2 = single.analyze(recording, new AoiDwellAccumulator<>(aois));
+            Assert.assertTrue(d2.getDwellMillis("center") > 0);
+            Assert.assertEquals(d2.getDwellMillis(), d1.getDwellMillis());
+
+            // recordings are analyzed independently
+            List<List<GazeData>> recordings = new ArrayList<>();
+            recordings.add(recording.subList(0, 100));
+            recordings.add(recording);
+            List<FixationAccumulator> results = chunked.analyzeAll(recordings, new FixationAccumulator());
+            Assert.assertEquals(2, results.size());
+            Assert.assertEquals(f2.getCount(), results.get(1).getCount());
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBlinkDetection()
+    {
+        BlinkDetectionStage stage = new BlinkDetectionStage();
+
+        // failing listener must not keep others from being notified
+        stage.addBlinkListener(new IBlinkListener()
+        {
+            @Override
+            public void onBlinkStart(long timeStamp)
+            {
+                throw new IllegalStateException("test");
+            }
+
+            @Override
+            public void onBlinkEnd(long timeStamp, long durationMillis, boolean isBlink)
+            {
+                throw new IllegalStateException("test");
+            }
+
+            @Override
+            public void onEyeAvailabilityChanged(long timeStamp, boolean isLeftEyeAvailable, boolean isRightEyeAvailable)
+            {
+                throw new IllegalStateException("test");
+            }
+        });
+
+        final List<Long> blinks = new ArrayList<>();
+        final int[] availabilityChanges = new int[1];
+        stage.addBlinkListener(new IBlinkListener()
+        {
+            @Override
+            public void onBlinkStart(long timeStamp)
+            {
+            }
+
+            @Override
+            public void onBlinkEnd(long timeStamp, long durationMillis, boolean isBlink)
+            {
+                if (isBlink)
+                    blinks.add(durationMillis);
+            }
+
+            @Override
+            public void onEyeAvailabilityChanged(long timeStamp, boolean isLeftEyeAvailable, boolean isRightEyeAvailable)
+            {
+                ++availabilityChanges[0];
+            }
+        });
+
+        GazeData gd = new GazeData();
+        for (int i = 0; i < 300; ++i)
+        {
+            gd.timeStamp = i * 20;
+            gd.state = GazeData.STATE_TRACKING_GAZE;
+
+            // blink of 100 ms every second, single frame dropout and right eye lost for a second
+            boolean isClosed = i % 50 >= 20 && i % 50 < 25;
+            gd.leftEye.pupilSize = isClosed || i == 10 ? 0f : 15f;
+            gd.rightEye.pupilSize = isClosed || i == 10 || (i > 200 && i < 250) ? 0f : 15f;
+
+            stage.onGazeFrame(gd);
+
+            if (i == 22)
+                Assert.assertTrue(stage.isBlinking());
+            if (i == 22 || i == 25 || i == 26)
+                Assert.assertNotEquals(0, gd.state & GazeData.STATE_BLINK);
+            if (i == 12 || i == 30)
+                Assert.assertEquals(0, gd.state & GazeData.STATE_BLINK);
+        }
+
+        Assert.assertEquals(6, blinks.size());
+        Assert.assertEquals(100L, (long) blinks.get(0));
+        Assert.assertEquals(6, stage.getBlinkCount());
+        Assert.assertEquals(60f, stage.getBlinkRate(), 1f);
+
+        // ring of blink times follows rate window, keeping recent blinks
+        stage.setRateWindowMillis(2000);
+        Assert.assertEquals(60f, stage.getBlinkRate(), 1f);
+        stage.setRateWindowMillis(BlinkDetectionStage.MAX_RATE_WINDOW_MILLIS);
+        Assert.assertEquals(60f, stage.getBlinkRate(), 1f);
+
+        try
+        {
+            stage.setRateWindowMillis(BlinkDetectionStage.MAX_RATE_WINDOW_MILLIS + 1);
+            Assert.fail("Rate window beyond maximum must be rejected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        // found both eyes, lost and found right eye
+        Assert.assertEquals(3, availabilityChanges[0]);
+        Assert.assertTrue(stage.isRightEyeAvailable());
+    }
+
+    @Test
+    public void testPupillometry()
+    {
+        PupillometryStage stage = new PupillometryStage(10);
+        Random r = new Random(5);
+
+        // rolling baseline must match direct computation over window
+        float[] sizes = new float[100];
+        GazeData gd = new GazeData();
+        for (int i = 0; i < sizes.length; ++i)
+        {
+            sizes[i] = 15f + r.nextFloat() * 5f;
+            gd.timeStamp = i * 33;
+            gd.leftEye.pupilSize = sizes[i];
+            gd.rightEye.pupilSize = 0f;
+            stage.onGazeFrame(gd);
+        }
+
+        gd.timeStamp += 33;
+        gd.leftEye.pupilSize = 18f;
+        stage.onGazeFrame(gd);
+
+        double mean = 0d;
+        for (int i = sizes.length - 10; i < sizes.length; ++i)
+            mean += sizes[i] / 10d;
+        double variance = 0d;
+        for (int i = sizes.length - 10; i < sizes.length; ++i)
+            variance += (sizes[i] - mean) * (sizes[i] - mean) / 9d;
+
+        PupillometryStage.EyeStats left = stage.getSnapshot().getLeft();
+        Assert.assertEquals(mean, left.getMean(), 1e-4d);
+        Assert.assertEquals(Math.sqrt(variance), left.getStandardDeviation(), 1e-4d);
+        Assert.assertEquals((18d - mean) / Math.sqrt(variance), left.getZScore(), 1e-3d);
+        Assert.assertEquals(100d * (18d - mean) / mean, left.getPercentChange(), 1e-3d);
+        Assert.assertFalse(stage.getSnapshot().getRight().isValid());
+
+        // blink is interpolated into baseline
+        stage = new PupillometryStage(10);
+        float[] blink = new float[]{10f, 0f, 0f, 0f, 14f};
+        for (int i = 0; i < blink.length; ++i)
+        {
+            gd.timeStamp = i * 33;
+            gd.leftEye.pupilSize = blink[i];
+            gd.state = blink[i] > 0 ? 0 : GazeData.STATE_BLINK;
+            stage.onGazeFrame(gd);
+        }
+
+        gd.timeStamp += 33;
+        gd.state = 0;
+        stage.onGazeFrame(gd);
+
+        left = stage.getSnapshot().getLeft();
+        Assert.assertEquals(5, left.getCount());
+        Assert.assertEquals(12d, left.getMean(), 1e-4d);
+    }
+
+    @Test
+    public void testFrameRateEstimator()
+    {
+        FrameRateEstimator estimator = new FrameRateEstimator(1000, 64);
+        Assert.assertEquals(-1f, estimator.getFramesPerSecond(), 0f);
+
+        // 30 Hz with two frames dropped once
+        long timeStamp = 0;
+        for (int i = 0; i < 90; ++i)
+        {
+            timeStamp += i == 80 ? 99 : 33;
+            estimator.add(timeStamp);
+            estimator.add(timeStamp);
+        }
+
+        Assert.assertEquals(29, estimator.getFrameCount());
+        Assert.assertEquals(1000f / (990f / 28f), estimator.getFramesPerSecond(), .01f);
+        Assert.assertEquals(33, estimator.getIntervalPercentile(50f));
+        Assert.assertEquals(99, estimator.getIntervalPercentile(100f));
+        Assert.assertTrue(estimator.getJitterMillis() > 0f);
+        Assert.assertEquals(2, estimator.getDroppedFrames());
+
+        // drop leaves window but stays in total
+        for (int i = 0; i < 30; ++i)
+            estimator.add(timeStamp += 33);
+
+        Assert.assertEquals(0, estimator.getDroppedFrames());
+        Assert.assertEquals(2, estimator.getTotalDroppedFrames());
+        Assert.assertEquals(0f, estimator.getJitterMillis(), 1e-3f);
+
+        // pause longer than window is not counted as drops
+        estimator.add(timeStamp + 5000);
+        Assert.assertEquals(1, estimator.getFrameCount());
+        Assert.assertEquals(-1f, estimator.getMeanIntervalMillis(), 0f);
+        Assert.assertEquals(0, estimator.getDroppedFrames());
+        Assert.assertEquals(2, estimator.getTotalDroppedFrames());
+    }
+
+    @Test
+    public void testProtocolTypeAdapters()
+    {
+        Gson reflective = new Gson();
+        Gson gson = ProtocolTypeAdapters.createGson();
+
+        Random r = new Random(7);
+
+        GazeData gd = new GazeData();
+        gd.state = GazeData.STATE_TRACKING_GAZE | GazeData.STATE_TRACKING_EYES;
+        gd.rawCoordinates = new Point2D(r.nextFloat() * 1000, r.nextFloat() * 1000);
+        gd.smoothedCoordinates = new Point2D(r.nextFloat() * 1000, r.nextFloat() * 1000);
+        gd.leftEye.pupilSize = r.nextFloat() * 20;
+        gd.rightEye.pupilCenterCoordinates = new Point2D(r.nextFloat(), r.nextFloat());
+        gd.isFixated = true;
+
+        CalibrationResult cr = new CalibrationResult();
+        cr.result = true;
+        cr.averageErrorDegree = r.nextFloat();
+        CalibrationPoint cp = new CalibrationPoint();
+        cp.state = CalibrationPoint.STATE_RESAMPLE;
+        cp.coordinates = new Point2D(r.nextFloat() * 1000, r.nextFloat() * 1000);
+        cp.accuracy.accuracyDegreesLeft = r.nextFloat();
+        cp.meanError.meanErrorPixelsRight = r.nextFloat();
+        cp.standardDeviation.averageStandardDeviationPixels = r.nextFloat();
+        cr.calibpoints = new CalibrationPoint[]{cp, new CalibrationPoint()};
+
+        TrackerGetResponse tgr = new TrackerGetResponse();
+        tgr.category = Protocol.CATEGORY_TRACKER;
+        tgr.request = Protocol.TRACKER_REQUEST_GET;
+        tgr.statuscode = 200;
+        tgr.values.isCalibrated = true;
+        tgr.values.screenPhysicalWidth = .52f;
+        tgr.values.frameRate = 60;
+        tgr.values.calibrationResult = cr;
+        tgr.values.frame = gd;
+
+        TrackerSetRequest tsr = new TrackerSetRequest();
+        tsr.id = 12;
+        tsr.values.version = 1;
+        tsr.values.screenResolutionWidth = 1920;
+        tsr.values.screenPhysicalHeight = .29f;
+
+        TrackerGetRequest tgq = new TrackerGetRequest();
+        tgq.values = new String[]{Protocol.TRACKER_FRAME, Protocol.TRACKER_ISCALIBRATED};
+
+        CalibrationPointStartRequest cpsr = new CalibrationPointStartRequest();
+        cpsr.values.x = 100;
+        cpsr.values.y = 200;
+
+        CalibrationStartRequest csr = new CalibrationStartRequest();
+        csr.values.pointcount = 9;
+
+        ResponseFailed rf = new ResponseFailed();
+        rf.statuscode = 403;
+        rf.values.statusMessage = "failed";
+
+        CalibrationPointEndResponse cper = new CalibrationPointEndResponse();
+        cper.values.calibrationResult = cr;
+
+        Object[] objects = new Object[]{gd, cr, tgr, tsr, tgq, cpsr, csr, new CalibrationPointEndRequest(), rf, cper,
+                new Response(), new Point3D(1f, 2f, 3f)};
+
+        // output and parsing must match reflective Gson
+        for (Object o : objects)
+        {
+            String json = reflective.toJson(o);
+            Assert.assertEquals(json, gson.toJson(o));
+            Assert.assertEquals(json, gson.toJson(gson.fromJson(json, o.getClass())));
+            Assert.assertEquals(json, reflective.toJson(gson.fromJson(json, o.getClass())));
+        }
+
+        Assert.assertEquals(gd, gson.fromJson(gson.toJson(gd), GazeData.class));
+        Assert.assertEquals(cr, gson.fromJson(gson.toJson(cr), CalibrationResult.class));
+
+        // unknown fields are skipped, nulls keep defaults, numbers and booleans may be quoted
+        String frame = "{\"category\":\"tracker\",\"request\":\"get\",\"statuscode\":200,\"values\":{\"frame\":" +
+                "{\"time\":\"1234\",\"timestamp\":\"-\",\"fix\":\"true\",\"state\":null,\"unknown\":{\"a\":[1,2]}," +
+                "\"avg\":{\"x\":1.5,\"y\":2.5},\"lefteye\":null},\"iscalibrated\":null,\"screenindex\":\"2\"}}";
+        TrackerGetResponse parsed = gson.fromJson(frame, TrackerGetResponse.class);
+        Assert.assertEquals(reflective.toJson(reflective.fromJson(frame, TrackerGetResponse.class)), gson.toJson(parsed));
+        Assert.assertEquals(1234L, parsed.values.frame.timeStamp);
+        Assert.assertTrue(parsed.values.frame.isFixated);
+        Assert.assertNull(parsed.values.frame.leftEye);
+        Assert.assertNull(parsed.values.isCalibrated);
+        Assert.assertEquals(Integer.valueOf(2), parsed.values.screenIndex);
+        Assert.assertEquals(new Point2D(1.5f, 2.5f), parsed.values.frame.smoothedCoordinates);
+    }
+
+    @Test
+    public void testRequestTemplate() throws Exception
+    {
+        Gson gson = ProtocolTypeAdapters.createGson();
+
+        TrackerGetRequest prototype = new TrackerGetRequest();
+        prototype.values = new String[]{Protocol.TRACKER_TRACKERSTATE, Protocol.TRACKER_FRAMERATE};
+        RequestTemplate template = new RequestTemplate(prototype, gson);
+
+        for (int id : new int[]{0, 7, 12345, Integer.MAX_VALUE, -1})
+        {
+            TrackerGetRequest tgr = new TrackerGetRequest();
+            tgr.values = prototype.values;
+            tgr.id = id;
+
+            String json = tgr.toJsonString(gson);
+            tgr.setTemplate(template);
+
+            StringWriter writer = new StringWriter();
+            tgr.writeJson(writer, gson);
+
+            Assert.assertEquals(json, writer.toString());
+            Assert.assertEquals(json, tgr.toJsonString(gson));
+        }
+    }
+
+    @Test
+    public void testStateUpdateCoalescer()
+    {
+        StateUpdateCoalescer coalescer = new StateUpdateCoalescer();
+        int c = StateUpdateCoalescer.CATEGORY_SCREEN;
+
+        // burst of updates sends one request, one more once it completes
+        Assert.assertTrue(coalescer.tryStart(c));
+        for (int i = 0; i < 5; ++i)
+            Assert.assertFalse(coalescer.tryStart(c));
+
+        Assert.assertTrue(coalescer.tryStart(StateUpdateCoalescer.CATEGORY_TRACKER));
+        Assert.assertTrue(coalescer.complete(c));
+        Assert.assertTrue(coalescer.isInFlight(c));
+        Assert.assertFalse(coalescer.complete(c));
+        Assert.assertFalse(coalescer.isInFlight(c));
+
+        Assert.assertEquals(2, coalescer.getIssuedCount(c));
+        Assert.assertEquals(5, coalescer.getSuppressedCount(c));
+        Assert.assertEquals(5, coalescer.getSuppressedCount());
+
+        // requests lost with connection do not block later updates
+        coalescer.reset();
+        Assert.assertFalse(coalescer.isInFlight(StateUpdateCoalescer.CATEGORY_TRACKER));
+        Assert.assertTrue(coalescer.tryStart(StateUpdateCoalescer.CATEGORY_TRACKER));
+
+        // cancelling one category leaves others in flight
+        Assert.assertTrue(coalescer.tryStart(c));
+        coalescer.reset(StateUpdateCoalescer.CATEGORY_TRACKER);
+        Assert.assertFalse(coalescer.isInFlight(StateUpdateCoalescer.CATEGORY_TRACKER));
+        Assert.assertTrue(coalescer.isInFlight(c));
+    }
+
+    @Test
+    public void testInFlightRequestTable()
+    {
+        InFlightRequestTable table = new InFlightRequestTable(1000);
+        List<Request<?>> expired = new ArrayList<>();
+
+        // grows past initial capacity, answered out of order
+        for (int id = 1; id <= 500; ++id)
+        {
+            Request<Response> r = new Request<>(Response.class);
+            r.id = id;
+            table.put(r, 10000 + id);
+        }
+        Assert.assertEquals(500, table.size());
+
+        for (int id = 2; id <= 500; id += 2)
+            Assert.assertEquals(id, table.remove(id).id);
+
+        Assert.assertNull(table.remove(2));
+        Assert.assertNull(table.remove(501));
+        Assert.assertEquals(250, table.size());
+
+        for (int id = 1; id <= 500; id += 2)
+            Assert.assertNotNull(table.remove(id));
+        Assert.assertEquals(0, table.size());
+
+        // unanswered requests expire after timeout, answered ones never do
+        for (int id = 1000; id < 1100; ++id)
+        {
+            Request<Response> r = new Request<>(Response.class);
+            r.id = id;
+            table.put(r, 20000 + (id - 1000) * 10);
+        }
+        for (int id = 1000; id < 1100; id += 3)
+            table.remove(id);
+
+        Assert.assertEquals(0, table.expire(20500, expired));
+
+        int total = 0;
+        for (long now = 20500; now <= 23000; now += 37)
+        {
+            total += table.expire(now, expired);
+
+            for (Request<?> r : expired)
+                Assert.assertTrue(20000 + (r.id - 1000) * 10 + 1000 <= now);
+            expired.clear();
+        }
+
+        Assert.assertEquals(66, total);
+        Assert.assertEquals(66, table.getExpiredCount());
+        Assert.assertEquals(0, table.size());
+
+        // late sweep expires everything due at once
+        Request<Response> late = new Request<>(Response.class);
+        late.id = 5000;
+        table.put(late, 100000);
+        Assert.assertEquals(1, table.expire(500000, expired));
+        Assert.assertSame(late, expired.get(0));
+        Assert.assertEquals(0, table.removeAll().size());
+    }
+
+    @Test
+    public void testDispatchLane() throws Exception
+    {
+        DispatchLane lane = new DispatchLane("test lane", Thread.MAX_PRIORITY);
+        final List<Integer> order = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        // tasks run in order of submission, a failing task does not stop the lane
+        for (int i = 0; i < 100; ++i)
+        {
+            final int n = i;
+            lane.execute(() -> order.add(n));
+        }
+        lane.execute(() -> { throw new IllegalStateException("test"); });
+        final boolean[] isOnLane = new boolean[1];
+        lane.execute(() -> isOnLane[0] = lane.isCurrentThread());
+        lane.execute(done::countDown);
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(isOnLane[0]);
+        Assert.assertFalse(lane.isCurrentThread());
+        for (int i = 0; i < 100; ++i)
+            Assert.assertEquals(i, (int) order.get(i));
+
+        Assert.assertEquals(103, lane.getTaskCount());
+        Assert.assertTrue(lane.getMaxDelayMillis() >= lane.getMeanDelayMillis());
+
+        lane.resetMetrics();
+        Assert.assertEquals(0, lane.getTaskCount());
+        Assert.assertEquals(0f, lane.getMeanDelayMillis(), 0f);
+
+        // new worker started after shutdown
+        lane.shutdown();
+        final CountDownLatch restarted = new CountDownLatch(1);
+        lane.execute(restarted::countDown);
+        Assert.assertTrue(restarted.await(5, TimeUnit.SECONDS));
+
+        lane.shutdown();
+    }
+
+    @Test
+    public void testGazeBatcher() throws Exception
+    {
+        final List<Integer> sizes = new ArrayList<>();
+        final List<GazeData> frames = new ArrayList<>();
+
+        GazeBatcher batcher = new GazeBatcher((batch, count) -> {
+            sizes.add(count);
+            for (int i = 0; i < count; ++i)
+                frames.add(batch[i]);
+        }, 10, 100);
+
+        // flushed by size
+        long now = 0;
+        for (int i = 0; i < 25; ++i)
+        {
+            GazeData gd = new GazeData();
+            gd.timeStamp = i;
+            batcher.add(gd, now += 1000000L);
+        }
+        Assert.assertEquals(2, sizes.size());
+        Assert.assertEquals(5, batcher.getPendingCount());
+
+        // flushed by delay of first frame
+        batcher.flushIfDue(now + 50 * 1000000L);
+        Assert.assertEquals(2, sizes.size());
+        batcher.flushIfDue(now + 100 * 1000000L);
+        Assert.assertEquals(3, sizes.size());
+        Assert.assertEquals(5, (int) sizes.get(2));
+        Assert.assertEquals(0, batcher.getPendingCount());
+
+        for (int i = 0; i < 25; ++i)
+            Assert.assertEquals(i, frames.get(i).timeStamp);
+
+        batcher.flush();
+        Assert.assertEquals(3, sizes.size());
+
+        // data lane flushes batches of stalled stream
+        final CountDownLatch flushed = new CountDownLatch(1);
+        DispatchLane lane = new DispatchLane("test lane", Thread.NORM_PRIORITY);
+        final GazeBatcher stalled = new GazeBatcher((batch, count) -> flushed.countDown(), 100, 20);
+        lane.setIdleTask(() -> stalled.flushIfDue(System.nanoTime()), 10);
+        lane.execute(() -> stalled.add(new GazeData(), System.nanoTime()));
+
+        Assert.assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, lane.getTaskCount());
+
+        lane.shutdown();
+    }
+
+    @Test
+    public void testGazeDataLazyDecoding() throws Exception
+    {
+        String json = "{\"state\":7,\"time\":123456,\"timestamp\":\"2016-01-01 10:00:00.000\","
+                + "\"raw\":{\"x\":10.5,\"y\":20.5},\"avg\":{\"x\":11.5,\"y\":21.5},"
+                + "\"lefteye\":{\"raw\":{\"x\":1,\"y\":2},\"avg\":{\"x\":3,\"y\":4},\"psize\":17.5,\"pcenter\":{\"x\":.4,\"y\":.5}},"
+                + "\"righteye\":{\"raw\":{\"x\":5,\"y\":6},\"avg\":{\"x\":7,\"y\":8},\"psize\":18.5,\"pcenter\":{\"x\":.6,\"y\":.5}},"
+                + "\"fix\":true,\"unknown\":[1,2]}";
+
+        Gson gson = ProtocolTypeAdapters.createGson();
+        GazeData full = gson.fromJson(json, GazeData.class);
+        Assert.assertEquals(GazeData.FIELDS_ALL, full.getDecodedFields());
+
+        // only fields selected are decoded, others are left unset
+        GazeData lazy = GazeData.fromJson(json, GazeData.FIELD_STATE | GazeData.FIELD_SMOOTHED_COORDINATES);
+
+        Assert.assertEquals(GazeData.FIELD_STATE | GazeData.FIELD_SMOOTHED_COORDINATES, lazy.getDecodedFields());
+        Assert.assertEquals(7, lazy.state);
+        Assert.assertEquals(full.smoothedCoordinates, lazy.smoothedCoordinates);
+        Assert.assertNull(lazy.rawCoordinates);
+        Assert.assertNull(lazy.leftEye);
+        Assert.assertEquals(0l, lazy.timeStamp);
+        Assert.assertFalse(lazy.isFixated);
+
+        // remaining fields are decoded on demand
+        lazy.decodeFields(GazeData.FIELD_LEFT_EYE);
+        Assert.assertEquals(full.leftEye, lazy.leftEye);
+        Assert.assertNull(lazy.rightEye);
+
+        lazy.decodeFields(GazeData.FIELDS_ALL);
+        Assert.assertEquals(GazeData.FIELDS_ALL, lazy.getDecodedFields());
+        Assert.assertEquals(full, lazy);
+        Assert.assertEquals(full.timeStamp, lazy.timeStamp);
+        Assert.assertEquals(full.timeStampString, lazy.timeStampString);
+
+        // copies and serialization decode all fields
+        GazeData partial = GazeData.fromJson(json, GazeData.FIELD_TIME);
+        Assert.assertEquals(full, new GazeData(partial));
+        Assert.assertEquals(gson.toJson(full), gson.toJson(GazeData.fromJson(json, 0)));
+
+        // frames are read from pushed messages as well
+        String message = "{\"category\":\"tracker\",\"request\":\"get\",\"statuscode\":200,\"values\":{\"frame\":"
+                + json + "}}";
+        GazeData pushed = GazeData.fromPushedFrame(message, GazeData.FIELD_RIGHT_EYE);
+        Assert.assertEquals(GazeData.FIELD_RIGHT_EYE, pushed.getDecodedFields());
+        Assert.assertEquals(full.rightEye, pushed.rightEye);
+        Assert.assertEquals(0, pushed.state);
+        Assert.assertNull(pushed.leftEye);
+        Assert.assertEquals(full, GazeData.fromJson(message, GazeData.FIELDS_ALL));
+        Assert.assertNull(GazeData.fromPushedFrame("{\"id\":3,\"category\":\"tracker\",\"values\":{\"frame\":"
+                + json + "}}", GazeData.FIELDS_ALL));
+        Assert.assertNull(GazeData.fromPushedFrame("{\"category\":\"calibration\"}", GazeData.FIELDS_ALL));
+
+        // null values are read as when streamed, missing objects get their defaults
+        GazeData nulls = GazeData.fromJson("{\"state\":null,\"lefteye\":null}", GazeData.FIELDS_ALL);
+        Assert.assertEquals(0, nulls.state);
+        Assert.assertNull(nulls.leftEye);
+        Assert.assertEquals(new GazeData.Eye(), nulls.rightEye);
+        Assert.assertEquals(new Point2D(), nulls.rawCoordinates);
+    }
+
+    @Test
+    public void testTrackerStatus() throws Exception
+    {
+        GazeManager gm = GazeManager.getInstance();
+        TrackerStatus status = gm.getTrackerStatus();
+
+        Assert.assertNotNull(status);
+        Assert.assertSame(status.getTrackerState(), gm.getTrackerState());
+        Assert.assertSame(status.getFrameRate(), gm.getFrameRate());
+        Assert.assertSame(status.getApiVersion(), gm.getVersion());
+        Assert.assertEquals(status.isCalibrated(), gm.isCalibrated());
+        Assert.assertEquals(status.getScreenResolutionWidth(), gm.getScreenResolutionWidth());
+
+        // deactivating publishes no change unless tracker states were defined
+        gm.deactivate();
+        TrackerStatus deactivated = gm.getTrackerStatus();
+        Assert.assertEquals(GazeManager.TrackerState.TRACKER_UNDEFINED, deactivated.getTrackerState());
+        Assert.assertEquals(GazeManager.FrameRate.FPS_UNDEFINED, deactivated.getFrameRate());
+        Assert.assertTrue(deactivated.getRevision() >= status.getRevision());
+
+        gm.deactivate();
+        Assert.assertSame(deactivated, gm.getTrackerStatus());
+    }
+
+    @Test
+    public void testBufferedPublisher() throws Exception
+    {
+        final List<Integer> received = new ArrayList<>();
+        final Subscription[] subscription = new Subscription[1];
+        final Throwable[] error = new Throwable[1];
+        final int[] active = new int[1];
+
+        BufferedPublisher<Integer> publisher = new BufferedPublisher<Integer>(4, OverflowStrategy.DROP_OLDEST)
+        {
+            @Override
+            protected void onActive()
+            {
+                ++active[0];
+            }
+
+            @Override
+            protected void onInactive()
+            {
+                --active[0];
+            }
+        };
+
+        Subscriber<Integer> subscriber = new Subscriber<Integer>()
+        {
+            @Override
+            public void onSubscribe(Subscription s)
+            {
+                subscription[0] = s;
+            }
+
+            @Override
+            public void onNext(Integer item)
+            {
+                received.add(item);
+
+                // requests from within onNext must not recurse
+                if (item == 100)
+                    subscription[0].request(1);
+            }
+
+            @Override
+            public void onError(Throwable t)
+            {
+                error[0] = t;
+            }
+
+            @Override
+            public void onComplete()
+            {
+            }
+        };
+
+        publisher.subscribe(subscriber);
+        Assert.assertEquals(1, active[0]);
+
+        // nothing delivered without demand, oldest items dropped once buffer is full
+        for (int i = 0; i < 10; ++i)
+            publisher.publish(i);
+        Assert.assertTrue(received.isEmpty());
+        Assert.assertEquals(6, publisher.getDroppedCount());
+
+        subscription[0].request(2);
+        Assert.assertEquals(2, received.size());
+        Assert.assertEquals(6, (int) received.get(0));
+        Assert.assertEquals(7, (int) received.get(1));
+
+        subscription[0].request(3);
+        Assert.assertEquals(4, received.size());
+        publisher.publish(100);
+        publisher.publish(101);
+        Assert.assertEquals(6, received.size());
+        Assert.assertEquals(101, (int) received.get(5));
+
+        subscription[0].cancel();
+        Assert.assertEquals(0, active[0]);
+        publisher.publish(102);
+        Assert.assertEquals(6, received.size());
+
+        // newest items dropped
+        received.clear();
+        BufferedPublisher<Integer> dropNewest = new BufferedPublisher<>(2, OverflowStrategy.DROP_NEWEST);
+        dropNewest.subscribe(subscriber);
+        for (int i = 0; i < 5; ++i)
+            dropNewest.publish(i);
+        subscription[0].request(Long.MAX_VALUE);
+        Assert.assertEquals(2, received.size());
+        Assert.assertEquals(1, (int) received.get(1));
+        subscription[0].cancel();
+
+        // overflow terminates subscription with error
+        BufferedPublisher<Integer> failing = new BufferedPublisher<>(1, OverflowStrategy.ERROR);
+        failing.subscribe(subscriber);
+        failing.publish(1);
+        failing.publish(2);
+        Assert.assertTrue(error[0] instanceof IllegalStateException);
+        Assert.assertEquals(0, failing.getNumSubscribers());
+
+        // non-positive request signals error
+        error[0] = null;
+        BufferedPublisher<Integer> invalid = new BufferedPublisher<>(1, OverflowStrategy.ERROR);
+        invalid.subscribe(subscriber);
+        subscription[0].request(0);
+        Assert.assertTrue(error[0] instanceof IllegalArgumentException);
+
+        // terminal signals throwing do not escape to the publishing thread
+        BufferedPublisher<Integer> throwing = new BufferedPublisher<>(1, OverflowStrategy.ERROR);
+        throwing.subscribe(new Subscriber<Integer>()
+        {
+            @Override
+            public void onSubscribe(Subscription s)
+            {
+            }
+
+            @Override
+            public void onNext(Integer item)
+            {
+            }
+
+            @Override
+            public void onError(Throwable t)
+            {
+                throw new RuntimeException("test");
+            }
+
+            @Override
+            public void onComplete()
+            {
+            }
+        });
+        throwing.publish(1);
+        throwing.publish(2);
+        Assert.assertEquals(0, throwing.getNumSubscribers());
+    }
+
+    @Test
+    public void testGazeSampleQueue()
+    {
+        String frame = "{\"state\":7,\"time\":123456,\"timestamp\":\"2016-01-01 10:00:00.000\","
+                + "\"raw\":{\"x\":10.5,\"y\":20.5},\"avg\":{\"x\":11.5,\"y\":21.5,\"z\":1},"
+                + "\"lefteye\":{\"raw\":{\"x\":1,\"y\":2},\"psize\":17.5,\"pcenter\":{\"x\":.4,\"y\":.5}},"
+                + "\"righteye\":null,\"fix\":true,\"unknown\":[1,{\"a\":2}]}";
+
+        // pushed frames are read straight into sample values, in any member order
+        GazeSampleQueue.Sample sample = new GazeSampleQueue.Sample();
+        Assert.assertTrue(ProtocolTypeAdapters.readPushedFrame("{\"values\":{\"frame\":" + frame
+                + "},\"category\":\"tracker\",\"request\":\"get\",\"statuscode\":200}", sample));
+        Assert.assertEquals(123456, sample.timeStamp);
+        Assert.assertEquals(11.5f, sample.x, 0f);
+        Assert.assertEquals(21.5f, sample.y, 0f);
+        Assert.assertEquals(7, sample.state);
+        Assert.assertTrue(sample.isFixated);
+        Assert.assertEquals(17.5f, sample.leftPupilSize, 0f);
+        Assert.assertEquals(0f, sample.rightPupilSize, 0f);
+
+        // replies to requests, failures and state values are left to the parser
+        String envelope = "{\"category\":\"tracker\",\"request\":\"get\",\"statuscode\":200,";
+        Assert.assertFalse(ProtocolTypeAdapters.readPushedFrame(envelope + "\"id\":3,\"values\":{\"frame\":"
+                + frame + "}}", sample));
+        Assert.assertFalse(ProtocolTypeAdapters.readPushedFrame(envelope + "\"values\":{\"frame\":" + frame
+                + ",\"trackerstate\":0}}", sample));
+        Assert.assertFalse(ProtocolTypeAdapters.readPushedFrame(envelope + "\"values\":{\"trackerstate\":0}}",
+                sample));
+        Assert.assertFalse(ProtocolTypeAdapters.readPushedFrame("{\"category\":\"tracker\",\"statuscode\":800,"
+                + "\"values\":{\"frame\":" + frame + "}}", sample));
+        Assert.assertFalse(ProtocolTypeAdapters.readPushedFrame("{\"category\":\"calibration\"}", sample));
+        Assert.assertFalse(ProtocolTypeAdapters.readPushedFrame("{\"category\":", sample));
+        Assert.assertFalse(ProtocolTypeAdapters.readPushedFrame("{\"id\":1.5,\"values\":{\"frame\":" + frame + "}}",
+                sample));
+        Assert.assertEquals(ProtocolTypeAdapters.NOT_PUSHED_FRAME,
+                ProtocolTypeAdapters.readPushedFrame("{\"statuscode\":\"ok\"}", new GazeData(), GazeData.FIELDS_ALL));
+
+        // drain is scheduled once per burst, oldest samples dropped when full
+        GazeSampleQueue queue = new GazeSampleQueue(4);
+        GazeSampleQueue.Sample in = new GazeSampleQueue.Sample();
+        for (int i = 1; i <= 6; ++i)
+        {
+            in.timeStamp = i;
+            Assert.assertEquals(i == 1, queue.offer(in));
+        }
+        Assert.assertEquals(4, queue.size());
+        Assert.assertEquals(2, queue.getDroppedCount());
+
+        GazeSampleQueue.Sample out = new GazeSampleQueue.Sample();
+        for (int i = 3; i <= 6; ++i)
+        {
+            Assert.assertTrue(queue.poll(out));
+            Assert.assertEquals(i, out.timeStamp);
+        }
+        Assert.assertFalse(queue.poll(out));
+        Assert.assertTrue(queue.offer(in));
+    }
+
+    @Test
+    public void testClockSync()
+    {
+        ClockSync clockSync = new ClockSync();
+        Random r = new Random(7);
+
+        // tracker clock runs 100 ppm fast, frames are delayed 2 to 12 ms
+        long hostStart = 5000000000L;
+        long trackerStart = 1450000000000L;
+        long lastHostTime = 0;
+
+        for (int i = 0; i < 30 * 60; ++i)
+        {
+            long hostNanos = hostStart + i * 33333333L;
+            long trackerMillis = trackerStart + Math.round((hostNanos - hostStart) * 1.0001d / 1000000d);
+            long delay = 2000000L + (long) (r.nextFloat() * 10000000L);
+
+            if (i % 30 == 0)
+                clockSync.onRoundTrip(hostNanos, hostNanos + 4000000L + (long) (r.nextFloat() * 10000000L));
+
+            long hostTime = clockSync.onFrame(trackerMillis, hostNanos + delay);
+            Assert.assertTrue(hostTime >= lastHostTime);
+            lastHostTime = hostTime;
+        }
+
+        Assert.assertTrue(clockSync.isSynchronized());
+        Assert.assertEquals(-1e-4d, clockSync.getDrift(), 2e-5d);
+
+        long hostNanos = hostStart + 60L * 1000000000L;
+        long trackerMillis = trackerStart + Math.round(60000 * 1.0001d);
+        Assert.assertEquals(hostNanos, clockSync.toHostNanos(trackerMillis), 3000000L);
+        Assert.assertEquals(trackerMillis, clockSync.toTrackerMillis(hostNanos), 3L);
+    }
+
     @Test
     public void testActivate() throws Exception
     {
@@ -232,6 +1368,33 @@ public class TestApiClient {
         deactivateServer();
     }
 
+    @Test
+    public void testGazeSampleStream() throws Exception
+    {
+        activateServer();
+
+        final CountDownLatch received = new CountDownLatch(10);
+        IGazeSampleListener listener = (timeStamp, x, y, state, isFixated, leftPupilSize, rightPupilSize) -> {
+            if (timeStamp > 0)
+                received.countDown();
+        };
+
+        Assert.assertFalse(GazeManager.getInstance().hasGazeSampleListener(listener));
+        GazeManager.getInstance().addGazeSampleListener(listener);
+
+        Assert.assertTrue(GazeManager.getInstance().hasGazeSampleListener(listener));
+        Assert.assertTrue(GazeManager.getInstance().getNumGazeSampleListeners() == 1);
+
+        // no GazeData needed while only sample listeners are attached
+        Assert.assertFalse(GazeManager.getInstance().isGazeDataNeeded());
+
+        Assert.assertTrue(received.await(2, TimeUnit.SECONDS));
+
+        Assert.assertTrue(GazeManager.getInstance().removeGazeSampleListener(listener));
+
+        deactivateServer();
+    }
+
     @Test
     public void testRapidActivation() throws Exception
     {